@@ -26,13 +26,16 @@ import android.content.pm.ResolveInfo;
 import android.net.NetworkTemplate;
 import android.net.Uri;
 import android.os.IBinder;
+import android.os.SystemClock;
 import android.os.storage.StorageManager;
 import android.os.storage.VolumeInfo;
 import android.telephony.SubscriptionInfo;
 import android.telephony.SubscriptionManager;
 import android.telephony.TelephonyManager;
+import android.util.ArrayMap;
 import android.util.IndentingPrintWriter;
 import android.util.Log;
+import android.util.Pair;
 
 import androidx.annotation.VisibleForTesting;
 
@@ -48,6 +51,16 @@ import org.json.JSONObject;
 import java.io.File;
 import java.io.FileDescriptor;
 import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 public class SettingsDumpService extends Service {
 
@@ -67,11 +80,33 @@ public class SettingsDumpService extends Service {
     @VisibleForTesting
     static final String KEY_ANOMALY_DETECTION = "anomaly_detection";
     @VisibleForTesting
+    static final String KEY_PARTIAL = "partial";
+    @VisibleForTesting
     static final Intent BROWSER_INTENT =
             new Intent("android.intent.action.VIEW", Uri.parse("http://"));
 
+    // Timeouts of the sections, counted from the start of the dump since they run concurrently.
+    private static final long STORAGE_TIMEOUT_MS = 2000;
+    private static final long DATAUSAGE_TIMEOUT_MS = 5000;
+    private static final long MEMORY_TIMEOUT_MS = 5000;
+    private static final long DEFAULT_BROWSER_TIMEOUT_MS = 2000;
+
     private boolean mShouldShowNetworkDump = false;
 
+    /** A top level entry of the dump, computed on a background thread. */
+    @VisibleForTesting
+    static final class Section {
+        final String mKey;
+        final long mTimeoutMs;
+        final Callable<Object> mDumper;
+
+        Section(String key, long timeoutMs, Callable<Object> dumper) {
+            mKey = key;
+            mTimeoutMs = timeoutMs;
+            mDumper = dumper;
+        }
+    }
+
     @Override
     public int onStartCommand(Intent intent, int flags, int startId) {
         if (intent != null) {
@@ -89,26 +124,129 @@ public class SettingsDumpService extends Service {
     protected void dump(FileDescriptor fd, PrintWriter writer, String[] args) {
         IndentingPrintWriter pw = new IndentingPrintWriter(writer, "  ");
         if (!mShouldShowNetworkDump) {
-            JSONObject dump = new JSONObject();
             pw.println(TAG + ": ");
             pw.increaseIndent();
-            try {
-                dump.put(KEY_SERVICE, "Settings State");
-                dump.put(KEY_STORAGE, dumpStorage());
-                dump.put(KEY_DATAUSAGE, dumpDataUsage());
-                dump.put(KEY_MEMORY, dumpMemory());
-                dump.put(KEY_DEFAULT_BROWSER_APP, dumpDefaultBrowser());
-            } catch (Exception e) {
-                Log.w(TAG, "exception in dump: ", e);
-            }
-            pw.println(dump);
-            pw.flush();
+            dumpSections(pw, getSections());
             pw.decreaseIndent();
         } else {
             dumpMobileNetworkSettings(pw);
         }
     }
 
+    @VisibleForTesting
+    List<Section> getSections() {
+        return List.of(
+                new Section(KEY_STORAGE, STORAGE_TIMEOUT_MS, this::dumpStorage),
+                new Section(KEY_DATAUSAGE, DATAUSAGE_TIMEOUT_MS, this::dumpDataUsage),
+                new Section(KEY_MEMORY, MEMORY_TIMEOUT_MS, this::dumpMemory),
+                new Section(KEY_DEFAULT_BROWSER_APP, DEFAULT_BROWSER_TIMEOUT_MS,
+                        this::dumpDefaultBrowser));
+    }
+
+    /**
+     * Runs {@code sections} concurrently and prints them as one JSON object, each section being
+     * printed as soon as it is done. Sections that fail or don't finish within their timeout are
+     * printed as {@code {"partial":true,...}} instead of holding up the others.
+     *
+     * <p>Each section gets its own thread, so that its timeout doesn't run while it waits behind
+     * other work.
+     */
+    @VisibleForTesting
+    static void dumpSections(PrintWriter pw, List<Section> sections) {
+        final ExecutorService executor =
+                Executors.newFixedThreadPool(Math.max(1, sections.size()));
+        try {
+            dumpSections(pw, sections, executor);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void dumpSections(PrintWriter pw, List<Section> sections,
+            ExecutorService executor) {
+        final long startTime = SystemClock.elapsedRealtime();
+        final BlockingQueue<Pair<Section, Object>> results = new LinkedBlockingQueue<>();
+        final Map<Section, Future<?>> pending = new ArrayMap<>();
+        for (Section section : sections) {
+            pending.put(section, executor.submit(() -> {
+                Object result;
+                try {
+                    result = section.mDumper.call();
+                } catch (Exception e) {
+                    Log.w(TAG, "exception in dump of " + section.mKey + ": ", e);
+                    result = createPartialResult("error: " + e);
+                }
+                results.offer(Pair.create(section, result));
+            }));
+        }
+
+        pw.print('{');
+        pw.print(JSONObject.quote(KEY_SERVICE));
+        pw.print(':');
+        pw.print(JSONObject.quote("Settings State"));
+        pw.flush();
+        try {
+            while (!pending.isEmpty()) {
+                long nextDeadline = Long.MAX_VALUE;
+                for (Section section : pending.keySet()) {
+                    nextDeadline = Math.min(nextDeadline, startTime + section.mTimeoutMs);
+                }
+                final Pair<Section, Object> result = results.poll(
+                        Math.max(0, nextDeadline - SystemClock.elapsedRealtime()),
+                        TimeUnit.MILLISECONDS);
+                if (result != null) {
+                    if (pending.remove(result.first) != null) {
+                        printSection(pw, result.first.mKey, result.second);
+                    }
+                    continue;
+                }
+                final long now = SystemClock.elapsedRealtime();
+                for (Section section : new ArrayList<>(pending.keySet())) {
+                    if (startTime + section.mTimeoutMs <= now) {
+                        timeOut(pw, section, pending.remove(section));
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            for (Section section : new ArrayList<>(pending.keySet())) {
+                timeOut(pw, section, pending.remove(section));
+            }
+        }
+        pw.println('}');
+        pw.flush();
+    }
+
+    private static void timeOut(PrintWriter pw, Section section, Future<?> future) {
+        future.cancel(true /* mayInterruptIfRunning */);
+        Log.w(TAG, "dump of " + section.mKey + " timed out");
+        printSection(pw, section.mKey,
+                createPartialResult("timeout after " + section.mTimeoutMs + " ms"));
+    }
+
+    private static void printSection(PrintWriter pw, String key, Object value) {
+        // Same as JSONObject.put(), which drops null values.
+        if (value == null) {
+            return;
+        }
+        pw.print(',');
+        pw.print(JSONObject.quote(key));
+        pw.print(':');
+        pw.print(value instanceof String ? JSONObject.quote((String) value) : value);
+        pw.flush();
+    }
+
+    private static JSONObject createPartialResult(String reason) {
+        final JSONObject obj = new JSONObject();
+        try {
+            obj.put(KEY_PARTIAL, true);
+            obj.put("reason", reason);
+        } catch (JSONException e) {
+            // Only thrown for non-finite numbers.
+        }
+        return obj;
+    }
+
     private JSONObject dumpMemory() throws JSONException {
         JSONObject obj = new JSONObject();
         ProcStatsData statsManager = new ProcStatsData(this, false);
@@ -402,6 +402,14 @@ public abstract class SettingsPreferenceFragment extends InstrumentedPreferenceF
 
     @Override
     protected RecyclerView.Adapter onCreateAdapter(PreferenceScreen preferenceScreen) {
+        mAdapter = new HighlightablePreferenceGroupAdapter(preferenceScreen,
+                getPreferenceKeyToHighlight(), mPreferenceHighlighted);
+        return mAdapter;
+    }
+
+    /** Returns the key of the preference to highlight, e.g. of a search result, if any. */
+    @Nullable
+    protected String getPreferenceKeyToHighlight() {
         final Bundle arguments = getArguments();
         String key = arguments == null ? null : arguments.getString(EXTRA_FRAGMENT_ARG_KEY);
         if (Flags.catalyst() && key == null) {
@@ -409,9 +417,7 @@ public abstract class SettingsPreferenceFragment extends InstrumentedPreferenceF
             Intent intent = activity != null ? activity.getIntent() : null;
             key = intent != null ? intent.getStringExtra(EXTRA_FRAGMENT_ARG_KEY) : null;
         }
-        mAdapter = new HighlightablePreferenceGroupAdapter(preferenceScreen, key,
-                mPreferenceHighlighted);
-        return mAdapter;
+        return key;
     }
 
     protected void setAnimationAllowed(boolean animationAllowed) {
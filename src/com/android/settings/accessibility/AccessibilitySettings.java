@@ -23,6 +23,8 @@ import android.accessibilityservice.AccessibilityShortcutInfo;
 import android.app.settings.SettingsEnums;
 import android.content.ComponentName;
 import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.drawable.Drawable;
 import android.hardware.input.InputManager;
 import android.os.Bundle;
 import android.os.Handler;
@@ -30,11 +32,12 @@ import android.os.UserHandle;
 import android.provider.Settings;
 import android.text.TextUtils;
 import android.util.ArrayMap;
+import android.util.ArraySet;
 import android.view.accessibility.AccessibilityManager;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.VisibleForTesting;
-import androidx.preference.Preference;
+import androidx.annotation.WorkerThread;
 import androidx.preference.PreferenceCategory;
 
 import com.android.internal.util.ArrayUtils;
@@ -51,11 +54,13 @@ import com.android.settingslib.RestrictedPreference;
 import com.android.settingslib.core.AbstractPreferenceController;
 import com.android.settingslib.search.SearchIndexable;
 import com.android.settingslib.search.SearchIndexableRaw;
+import com.android.settingslib.utils.ThreadUtils;
 
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /** Activity with the accessibility settings. */
 @SearchIndexable(forTarget = SearchIndexable.ALL & ~SearchIndexable.ARC)
@@ -118,30 +123,33 @@ public class AccessibilitySettings extends DashboardFragment implements
     private final PackageMonitor mSettingsPackageMonitor = new PackageMonitor() {
         @Override
         public void onPackageAdded(String packageName, int uid) {
-            sendUpdate();
+            sendUpdate(packageName);
         }
 
         @Override
         public void onPackageModified(@NonNull String packageName) {
-            sendUpdate();
+            sendUpdate(packageName);
         }
 
         @Override
         public void onPackageAppeared(String packageName, int reason) {
-            sendUpdate();
+            sendUpdate(packageName);
         }
 
         @Override
         public void onPackageDisappeared(String packageName, int reason) {
-            sendUpdate();
+            sendUpdate(packageName);
         }
 
         @Override
         public void onPackageRemoved(String packageName, int uid) {
-            sendUpdate();
+            sendUpdate(packageName);
         }
 
-        private void sendUpdate() {
+        private void sendUpdate(String packageName) {
+            // Entries of changed packages are always rebuilt, their labels, icons and extras may
+            // differ even if the rest of their state didn't change.
+            mChangedPackages.add(packageName);
             mHandler.postDelayed(mUpdateRunnable, DELAY_UPDATE_SERVICES_MILLIS);
         }
     };
@@ -150,9 +158,14 @@ public class AccessibilitySettings extends DashboardFragment implements
 
     private final Map<String, PreferenceCategory> mCategoryToPrefCategoryMap =
             new ArrayMap<>();
-    private final List<Preference> mServicePreferences = new ArrayList<>();
-    private final Map<ComponentName, PreferenceCategory> mPreBundledServiceComponentToCategoryMap =
-            new ArrayMap<>();
+    // Service and activity preferences currently shown, keyed by the component they represent.
+    private final Map<ComponentName, RestrictedPreference> mServicePreferences = new ArrayMap<>();
+    // State each entry of mServicePreferences was built from, see ServiceListModel.
+    private final Map<ComponentName, String> mServicePreferenceSignatures = new ArrayMap<>();
+    private final Set<String> mChangedPackages = new ArraySet<>();
+    // Incremented on every service list load, results of older loads are dropped.
+    private int mServiceListGeneration;
+    private boolean mRebuildAllServicePreferences = false;
 
     private boolean mNeedPreferencesUpdate = false;
     private boolean mIsForeground = true;
@@ -224,6 +237,8 @@ public class AccessibilitySettings extends DashboardFragment implements
     public void onResume() {
         super.onResume();
         if (mNeedPreferencesUpdate) {
+            // Restrictions (admin, app ops) of the services may have changed while paused.
+            mRebuildAllServicePreferences = true;
             updateAllPreferences();
             mNeedPreferencesUpdate = false;
         }
@@ -243,6 +258,7 @@ public class AccessibilitySettings extends DashboardFragment implements
 
     @Override
     public void onDestroy() {
+        mServiceListGeneration++;
         unregisterContentMonitors();
         unRegisterInputDeviceListener();
         super.onDestroy();
@@ -330,6 +346,11 @@ public class AccessibilitySettings extends DashboardFragment implements
             PreferenceCategory prefCategory = findPreference(CATEGORIES[i]);
             mCategoryToPrefCategoryMap.put(CATEGORIES[i], prefCategory);
         }
+        // Services are loaded in the background, hide their categories until they show up.
+        getPreferenceScreen().removePreference(
+                mCategoryToPrefCategoryMap.get(CATEGORY_DOWNLOADED_SERVICES));
+        updatePreferenceCategoryVisibility(CATEGORY_SCREEN_READER);
+        updatePreferenceCategoryVisibility(CATEGORY_SPEECH);
     }
 
     @VisibleForTesting
@@ -368,45 +389,67 @@ public class AccessibilitySettings extends DashboardFragment implements
         mSettingsContentObserver.unregister(getContentResolver());
     }
 
+    /**
+     * Loads the installed accessibility services and activities in the background, then applies
+     * the entries that changed since the last load to their categories.
+     */
     protected void updateServicePreferences() {
-        final AccessibilityManager a11yManager = AccessibilityManager.getInstance(getPrefContext());
-        // Since services category is auto generated we have to do a pass
-        // to generate it since services can come and go and then based on
-        // the global accessibility state to decided whether it is enabled.
-        for (Preference service : mServicePreferences) {
-            service.getParent().removePreference(service);
+        final Context context = getPrefContext();
+        final int generation = ++mServiceListGeneration;
+        final Set<String> changedPackages = new ArraySet<>(mChangedPackages);
+        final boolean rebuildAll = mRebuildAllServicePreferences;
+        mChangedPackages.clear();
+        mRebuildAllServicePreferences = false;
+
+        ThreadUtils.postOnBackgroundThread(() -> {
+            final ServiceListModel model = ServiceListModel.load(context);
+            ThreadUtils.postOnMainThread(() -> {
+                if (generation != mServiceListGeneration) {
+                    // Superseded by a newer load, which has to pick up these changes instead.
+                    mChangedPackages.addAll(changedPackages);
+                    mRebuildAllServicePreferences |= rebuildAll;
+                    return;
+                }
+                applyServiceListModel(model, changedPackages, rebuildAll);
+            });
+        });
+    }
+
+    private void applyServiceListModel(ServiceListModel model, Set<String> changedPackages,
+            boolean rebuildAll) {
+        // Remove the entries that are gone or whose state changed, keep the others untouched.
+        final Map<ComponentName, Drawable> previousIcons = new ArrayMap<>();
+        for (ComponentName componentName : new ArrayList<>(mServicePreferences.keySet())) {
+            final String signature = model.mSignatures.get(componentName);
+            if (!rebuildAll && signature != null
+                    && signature.equals(mServicePreferenceSignatures.get(componentName))
+                    && !changedPackages.contains(componentName.getPackageName())) {
+                continue;
+            }
+            final RestrictedPreference preference = mServicePreferences.remove(componentName);
+            mServicePreferenceSignatures.remove(componentName);
+            if (preference.getParent() != null) {
+                preference.getParent().removePreference(preference);
+            }
+            if (preference.getIcon() != null) {
+                previousIcons.put(componentName, preference.getIcon());
+            }
         }
-        mServicePreferences.clear();
-
-        initializePreBundledServicesMapFromArray(CATEGORY_SCREEN_READER,
-                R.array.config_preinstalled_screen_reader_services);
-        initializePreBundledServicesMapFromArray(CATEGORY_CAPTIONS,
-                R.array.config_preinstalled_captions_services);
-        initializePreBundledServicesMapFromArray(CATEGORY_AUDIO,
-                R.array.config_preinstalled_audio_services);
-        initializePreBundledServicesMapFromArray(CATEGORY_DISPLAY,
-                R.array.config_preinstalled_display_services);
-        initializePreBundledServicesMapFromArray(CATEGORY_SPEECH,
-                R.array.config_preinstalled_speech_services);
-        initializePreBundledServicesMapFromArray(CATEGORY_INTERACTION_CONTROL,
-                R.array.config_preinstalled_interaction_control_services);
-
-        // ACCESSIBILITY_MENU_IN_SYSTEM is a default pre-bundled interaction control service.
-        // If the device opts out of including this service then this is a no-op.
-        mPreBundledServiceComponentToCategoryMap.put(
-                AccessibilityUtils.ACCESSIBILITY_MENU_IN_SYSTEM,
-                mCategoryToPrefCategoryMap.get(CATEGORY_INTERACTION_CONTROL));
-
-        final List<AccessibilityShortcutInfo> installedShortcutList =
-                a11yManager.getInstalledAccessibilityShortcutListAsUser(getPrefContext(),
-                        UserHandle.myUserId());
-        final List<AccessibilityServiceInfo> installedServiceList =
-                a11yManager.getInstalledAccessibilityServiceList();
-        final List<RestrictedPreference> preferenceList = getInstalledAccessibilityPreferences(
-                getPrefContext(), installedShortcutList, installedServiceList);
 
-        removeNonPreinstalledComponents(mPreBundledServiceComponentToCategoryMap,
-                installedShortcutList, installedServiceList);
+        final List<AccessibilityShortcutInfo> addedShortcutList = new ArrayList<>();
+        for (AccessibilityShortcutInfo info : model.mInstalledShortcutList) {
+            if (!mServicePreferences.containsKey(info.getComponentName())) {
+                addedShortcutList.add(info);
+            }
+        }
+        final List<AccessibilityServiceInfo> addedServiceList = new ArrayList<>();
+        for (AccessibilityServiceInfo info : model.mInstalledServiceList) {
+            if (!mServicePreferences.containsKey(info.getComponentName())) {
+                addedServiceList.add(info);
+            }
+        }
+        final List<RestrictedPreference> preferenceList = getInstalledAccessibilityPreferences(
+                getPrefContext(), addedShortcutList, addedServiceList);
 
         final PreferenceCategory downloadedServicesCategory =
                 mCategoryToPrefCategoryMap.get(CATEGORY_DOWNLOADED_SERVICES);
@@ -417,26 +460,25 @@ public class AccessibilitySettings extends DashboardFragment implements
                     EXTRA_COMPONENT_NAME);
             PreferenceCategory prefCategory = downloadedServicesCategory;
             // Set the appropriate category if the service comes pre-installed.
-            if (mPreBundledServiceComponentToCategoryMap.containsKey(componentName)) {
-                prefCategory = mPreBundledServiceComponentToCategoryMap.get(componentName);
+            final String categoryKey = model.mPreBundledCategories.get(componentName);
+            if (categoryKey != null) {
+                prefCategory = mCategoryToPrefCategoryMap.get(categoryKey);
+            }
+            // Show the previous icon until the new one is loaded to avoid flickering.
+            if (preference.getIcon() == null && previousIcons.containsKey(componentName)) {
+                preference.setIcon(previousIcons.get(componentName));
             }
             prefCategory.addPreference(preference);
-            mServicePreferences.add(preference);
+            mServicePreferences.put(componentName, preference);
+            mServicePreferenceSignatures.put(componentName,
+                    model.mSignatures.get(componentName));
         }
 
         // Update the order of all the category according to the order defined in xml file.
-        updateCategoryOrderFromArray(CATEGORY_SCREEN_READER,
-                R.array.config_order_screen_reader_services);
-        updateCategoryOrderFromArray(CATEGORY_CAPTIONS,
-                R.array.config_order_captions_services);
-        updateCategoryOrderFromArray(CATEGORY_AUDIO,
-                R.array.config_order_audio_services);
-        updateCategoryOrderFromArray(CATEGORY_INTERACTION_CONTROL,
-                R.array.config_order_interaction_control_services);
-        updateCategoryOrderFromArray(CATEGORY_DISPLAY,
-                R.array.config_order_display_services);
-        updateCategoryOrderFromArray(CATEGORY_SPEECH,
-                R.array.config_order_speech_services);
+        for (int i = 0, count = model.mCategoryOrders.size(); i < count; i++) {
+            updateCategoryOrder(model.mCategoryOrders.keyAt(i),
+                    model.mCategoryOrders.valueAt(i));
+        }
 
         // Need to check each time when updateServicePreferences() called.
         if (downloadedServicesCategory.getPreferenceCount() == 0) {
@@ -477,7 +519,7 @@ public class AccessibilitySettings extends DashboardFragment implements
     }
 
     private static void removeNonPreinstalledComponents(
-            Map<ComponentName, PreferenceCategory> componentToCategory,
+            Map<ComponentName, String> componentToCategory,
             List<AccessibilityShortcutInfo> shortcutInfos,
             List<AccessibilityServiceInfo> serviceInfos) {
         for (AccessibilityShortcutInfo info : shortcutInfos) {
@@ -492,12 +534,90 @@ public class AccessibilitySettings extends DashboardFragment implements
         }
     }
 
-    private void initializePreBundledServicesMapFromArray(String categoryKey, int key) {
-        String[] services = getResources().getStringArray(key);
-        PreferenceCategory category = mCategoryToPrefCategoryMap.get(categoryKey);
-        for (int i = 0; i < services.length; i++) {
-            ComponentName component = ComponentName.unflattenFromString(services[i]);
-            mPreBundledServiceComponentToCategoryMap.put(component, category);
+    /**
+     * Installed accessibility services and activities along with the configuration needed to
+     * place them, loaded off the main thread.
+     */
+    private static final class ServiceListModel {
+        final List<AccessibilityShortcutInfo> mInstalledShortcutList;
+        final List<AccessibilityServiceInfo> mInstalledServiceList;
+        // Category key of each pre-installed component, others go to the downloaded category.
+        final Map<ComponentName, String> mPreBundledCategories = new ArrayMap<>();
+        final ArrayMap<String, String[]> mCategoryOrders = new ArrayMap<>();
+        // The state shown by the preference of each component. A preference is only rebuilt
+        // when its signature changes.
+        final Map<ComponentName, String> mSignatures = new ArrayMap<>();
+
+        private ServiceListModel(List<AccessibilityShortcutInfo> installedShortcutList,
+                List<AccessibilityServiceInfo> installedServiceList) {
+            mInstalledShortcutList = installedShortcutList;
+            mInstalledServiceList = installedServiceList;
+        }
+
+        @WorkerThread
+        static ServiceListModel load(Context context) {
+            final AccessibilityManager a11yManager = AccessibilityManager.getInstance(context);
+            final ServiceListModel model = new ServiceListModel(
+                    a11yManager.getInstalledAccessibilityShortcutListAsUser(context,
+                            UserHandle.myUserId()),
+                    a11yManager.getInstalledAccessibilityServiceList());
+            final Resources res = context.getResources();
+
+            model.putPreBundledServices(res, CATEGORY_SCREEN_READER,
+                    R.array.config_preinstalled_screen_reader_services);
+            model.putPreBundledServices(res, CATEGORY_CAPTIONS,
+                    R.array.config_preinstalled_captions_services);
+            model.putPreBundledServices(res, CATEGORY_AUDIO,
+                    R.array.config_preinstalled_audio_services);
+            model.putPreBundledServices(res, CATEGORY_DISPLAY,
+                    R.array.config_preinstalled_display_services);
+            model.putPreBundledServices(res, CATEGORY_SPEECH,
+                    R.array.config_preinstalled_speech_services);
+            model.putPreBundledServices(res, CATEGORY_INTERACTION_CONTROL,
+                    R.array.config_preinstalled_interaction_control_services);
+            // ACCESSIBILITY_MENU_IN_SYSTEM is a default pre-bundled interaction control service.
+            // If the device opts out of including this service then this is a no-op.
+            model.mPreBundledCategories.put(AccessibilityUtils.ACCESSIBILITY_MENU_IN_SYSTEM,
+                    CATEGORY_INTERACTION_CONTROL);
+            removeNonPreinstalledComponents(model.mPreBundledCategories,
+                    model.mInstalledShortcutList, model.mInstalledServiceList);
+
+            model.mCategoryOrders.put(CATEGORY_SCREEN_READER,
+                    res.getStringArray(R.array.config_order_screen_reader_services));
+            model.mCategoryOrders.put(CATEGORY_CAPTIONS,
+                    res.getStringArray(R.array.config_order_captions_services));
+            model.mCategoryOrders.put(CATEGORY_AUDIO,
+                    res.getStringArray(R.array.config_order_audio_services));
+            model.mCategoryOrders.put(CATEGORY_INTERACTION_CONTROL,
+                    res.getStringArray(R.array.config_order_interaction_control_services));
+            model.mCategoryOrders.put(CATEGORY_DISPLAY,
+                    res.getStringArray(R.array.config_order_display_services));
+            model.mCategoryOrders.put(CATEGORY_SPEECH,
+                    res.getStringArray(R.array.config_order_speech_services));
+
+            for (AccessibilityShortcutInfo info : model.mInstalledShortcutList) {
+                final ComponentName componentName = info.getComponentName();
+                model.mSignatures.put(componentName,
+                        String.valueOf(model.mPreBundledCategories.get(componentName)));
+            }
+            final Set<ComponentName> enabledServices =
+                    com.android.settingslib.accessibility.AccessibilityUtils
+                            .getEnabledServicesFromSettings(context);
+            for (AccessibilityServiceInfo info : model.mInstalledServiceList) {
+                final ComponentName componentName = info.getComponentName();
+                final boolean serviceEnabled = enabledServices.contains(componentName);
+                model.mSignatures.put(componentName,
+                        model.mPreBundledCategories.get(componentName) + "/" + serviceEnabled
+                                + "/" + getServiceSummary(context, info, serviceEnabled));
+            }
+            return model;
+        }
+
+        private void putPreBundledServices(Resources res, String categoryKey, int key) {
+            for (String service : res.getStringArray(key)) {
+                mPreBundledCategories.put(ComponentName.unflattenFromString(service),
+                        categoryKey);
+            }
         }
     }
 
@@ -506,10 +626,9 @@ public class AccessibilitySettings extends DashboardFragment implements
      * key with the string array of preference order which is defined in the xml.
      *
      * @param categoryKey The key of the category need to update the order
-     * @param key         The key of the string array which defines the order of category
+     * @param services    The preference order of the category
      */
-    private void updateCategoryOrderFromArray(String categoryKey, int key) {
-        String[] services = getResources().getStringArray(key);
+    private void updateCategoryOrder(String categoryKey, String[] services) {
         if (ArrayUtils.isEmpty(services)) return;
         PreferenceCategory category = mCategoryToPrefCategoryMap.get(categoryKey);
         if (category == null) return;
@@ -37,6 +37,7 @@ import com.android.settings.R;
 import com.android.settings.Utils;
 import com.android.settings.core.BasePreferenceController;
 import com.android.settings.fuelgauge.AdvancedPowerUsageDetail;
+import com.android.settings.fuelgauge.BatteryUsageStatsBroker;
 import com.android.settings.fuelgauge.BatteryUtils;
 import com.android.settings.fuelgauge.batteryusage.BatteryChartPreferenceController;
 import com.android.settings.fuelgauge.batteryusage.BatteryDiffEntry;
@@ -63,6 +64,7 @@ public class AppBatteryPreferenceController extends BasePreferenceController
     BatteryUtils mBatteryUtils;
     @VisibleForTesting
     BatteryUsageStats mBatteryUsageStats;
+    private BatteryUsageStatsBroker.Ref mBatteryUsageStatsRef;
     @VisibleForTesting
     UidBatteryConsumer mUidBatteryConsumer;
     @VisibleForTesting
@@ -241,35 +243,32 @@ public class AppBatteryPreferenceController extends BasePreferenceController
     }
 
     private class BatteryUsageStatsLoaderCallbacks
-            implements LoaderManager.LoaderCallbacks<BatteryUsageStats> {
+            implements LoaderManager.LoaderCallbacks<BatteryUsageStatsBroker.Ref> {
         @Override
         @NonNull
-        public Loader<BatteryUsageStats> onCreateLoader(int id, Bundle args) {
+        public Loader<BatteryUsageStatsBroker.Ref> onCreateLoader(int id, Bundle args) {
             return new BatteryUsageStatsLoader(mContext, /* includeBatteryHistory */ false);
         }
 
         @Override
-        public void onLoadFinished(Loader<BatteryUsageStats> loader,
-                BatteryUsageStats batteryUsageStats) {
+        public void onLoadFinished(Loader<BatteryUsageStatsBroker.Ref> loader,
+                BatteryUsageStatsBroker.Ref batteryUsageStatsRef) {
             closeBatteryUsageStats();
-            mBatteryUsageStats = batteryUsageStats;
+            mBatteryUsageStatsRef = batteryUsageStatsRef;
+            mBatteryUsageStats = batteryUsageStatsRef.get();
             AppBatteryPreferenceController.this.onLoadFinished();
         }
 
         @Override
-        public void onLoaderReset(Loader<BatteryUsageStats> loader) {
+        public void onLoaderReset(Loader<BatteryUsageStatsBroker.Ref> loader) {
         }
     }
 
     private void closeBatteryUsageStats() {
-        if (mBatteryUsageStats != null) {
-            try {
-                mBatteryUsageStats.close();
-            } catch (Exception e) {
-                Log.e(TAG, "BatteryUsageStats.close() failed", e);
-            } finally {
-                mBatteryUsageStats = null;
-            }
+        if (mBatteryUsageStatsRef != null) {
+            mBatteryUsageStatsRef.close();
+            mBatteryUsageStatsRef = null;
         }
+        mBatteryUsageStats = null;
     }
 }
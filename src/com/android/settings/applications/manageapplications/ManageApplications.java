@@ -1464,20 +1464,31 @@ public class ManageApplications extends InstrumentedFragment
                 }
                 return;
             }
-            ApplicationsState.AppFilter filterObj;
-            Comparator<AppEntry> comparatorObj;
             boolean emulated = Environment.isExternalStorageEmulated();
             if (emulated) {
                 mWhichSize = SIZE_TOTAL;
             } else {
                 mWhichSize = SIZE_INTERNAL;
             }
-            filterObj = mAppFilter.getFilter();
-            if (mCompositeFilter != null) {
-                filterObj = new CompoundFilter(filterObj, mCompositeFilter);
+            final AppFilter finalFilterObj = getRebuildFilter(mAppFilter.getFilter(),
+                    mCompositeFilter, mManageApplications.mShowSystem,
+                    mManageApplications.mListType);
+            final Comparator<AppEntry> comparatorObj = getRebuildComparator(mLastSortMode,
+                    mWhichSize);
+            ThreadUtils.postOnBackgroundThread(() -> {
+                mSession.rebuild(finalFilterObj, comparatorObj, false);
+            });
+        }
+
+        /** Returns the filter the list is rebuilt with. */
+        @VisibleForTesting
+        static AppFilter getRebuildFilter(AppFilter filterObj, @Nullable AppFilter compositeFilter,
+                boolean showSystem, int listType) {
+            if (compositeFilter != null) {
+                filterObj = new CompoundFilter(filterObj, compositeFilter);
             }
-            if (!mManageApplications.mShowSystem) {
-                if (LIST_TYPES_WITH_INSTANT.contains(mManageApplications.mListType)) {
+            if (!showSystem) {
+                if (LIST_TYPES_WITH_INSTANT.contains(listType)) {
                     filterObj = new CompoundFilter(filterObj,
                             ApplicationsState.FILTER_DOWNLOADED_AND_LAUNCHER_AND_INSTANT);
                 } else {
@@ -1485,31 +1496,27 @@ public class ManageApplications extends InstrumentedFragment
                             ApplicationsState.FILTER_DOWNLOADED_AND_LAUNCHER);
                 }
             }
-            if (mLastSortMode == R.id.sort_order_size) {
-                switch (mWhichSize) {
+            return new CompoundFilter(filterObj, ApplicationsState.FILTER_NOT_HIDE);
+        }
+
+        /** Returns the comparator the list is sorted with for {@code sortMode}. */
+        @VisibleForTesting
+        static Comparator<AppEntry> getRebuildComparator(int sortMode, int whichSize) {
+            if (sortMode == R.id.sort_order_size) {
+                switch (whichSize) {
                     case SIZE_INTERNAL:
-                        comparatorObj = ApplicationsState.INTERNAL_SIZE_COMPARATOR;
-                        break;
+                        return ApplicationsState.INTERNAL_SIZE_COMPARATOR;
                     case SIZE_EXTERNAL:
-                        comparatorObj = ApplicationsState.EXTERNAL_SIZE_COMPARATOR;
-                        break;
+                        return ApplicationsState.EXTERNAL_SIZE_COMPARATOR;
                     default:
-                        comparatorObj = ApplicationsState.SIZE_COMPARATOR;
-                        break;
+                        return ApplicationsState.SIZE_COMPARATOR;
                 }
-            } else if (mLastSortMode == R.id.sort_order_recent_notification) {
-                comparatorObj = AppStateNotificationBridge.RECENT_NOTIFICATION_COMPARATOR;
-            } else if (mLastSortMode == R.id.sort_order_frequent_notification) {
-                comparatorObj = AppStateNotificationBridge.FREQUENCY_NOTIFICATION_COMPARATOR;
-            } else {
-                comparatorObj = ApplicationsState.ALPHA_COMPARATOR;
+            } else if (sortMode == R.id.sort_order_recent_notification) {
+                return AppStateNotificationBridge.RECENT_NOTIFICATION_COMPARATOR;
+            } else if (sortMode == R.id.sort_order_frequent_notification) {
+                return AppStateNotificationBridge.FREQUENCY_NOTIFICATION_COMPARATOR;
             }
-
-            final AppFilter finalFilterObj = new CompoundFilter(filterObj,
-                    ApplicationsState.FILTER_NOT_HIDE);
-            ThreadUtils.postOnBackgroundThread(() -> {
-                mSession.rebuild(finalFilterObj, comparatorObj, false);
-            });
+            return ApplicationsState.ALPHA_COMPARATOR;
         }
 
         private void logAppBatteryUsage(int filterType) {
@@ -22,7 +22,6 @@ import android.bluetooth.BluetoothAdapter;
 import android.bluetooth.BluetoothDevice;
 import android.content.ContentResolver;
 import android.content.Context;
-import android.content.Intent;
 import android.database.Cursor;
 import android.graphics.Bitmap;
 import android.graphics.PorterDuff;
@@ -31,7 +30,6 @@ import android.graphics.drawable.Drawable;
 import android.net.Uri;
 import android.os.Handler;
 import android.os.Looper;
-import android.provider.MediaStore;
 import android.text.TextUtils;
 import android.util.Log;
 import android.util.Pair;
@@ -64,11 +62,8 @@ import com.android.settingslib.widget.LayoutPreference;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
 
-import java.io.IOException;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
@@ -104,7 +99,8 @@ public class AdvancedBluetoothDetailsHeaderController extends BasePreferenceCont
     @VisibleForTesting
     LayoutPreference mLayoutPreference;
     @VisibleForTesting
-    final Map<String, Bitmap> mIconCache;
+    BluetoothDeviceIconCache mIconCache;
+    private final int mIconSize;
     private CachedBluetoothDevice mCachedDevice;
     private Set<BluetoothDevice> mBluetoothDevices;
     @VisibleForTesting
@@ -130,7 +126,9 @@ public class AdvancedBluetoothDetailsHeaderController extends BasePreferenceCont
     public AdvancedBluetoothDetailsHeaderController(Context context, String prefKey) {
         super(context, prefKey);
         mBluetoothAdapter = BluetoothAdapter.getDefaultAdapter();
-        mIconCache = new HashMap<>();
+        mIconCache = BluetoothDeviceIconCache.getInstance();
+        mIconSize = context.getResources().getDimensionPixelSize(
+                R.dimen.advanced_bluetooth_header_icon_size);
     }
 
     @Override
@@ -165,13 +163,7 @@ public class AdvancedBluetoothDetailsHeaderController extends BasePreferenceCont
 
     @Override
     public void onDestroy() {
-        // Destroy icon bitmap associated with this header
-        for (Bitmap bitmap : mIconCache.values()) {
-            if (bitmap != null) {
-                bitmap.recycle();
-            }
-        }
-        mIconCache.clear();
+        // Icons are kept in the shared cache so reopening the page can show them instantly.
     }
 
     /** Initializes the controller. */
@@ -714,37 +706,23 @@ public class AdvancedBluetoothDetailsHeaderController extends BasePreferenceCont
     }
 
     /**
-     * Update icon by {@code iconUri}. If icon exists in cache, use it; otherwise extract it
-     * from uri in background thread and update it in main thread.
+     * Update icon by {@code iconUri}. If icon exists in the shared cache, use it; otherwise decode
+     * it from uri in background thread and update it in main thread.
      */
     @VisibleForTesting
     void updateIcon(ImageView imageView, String iconUri) {
-        if (mIconCache.containsKey(iconUri)) {
+        final Bitmap cached = mIconCache.getCachedIcon(iconUri, mIconSize);
+        if (cached != null) {
             imageView.setAlpha(1f);
-            imageView.setImageBitmap(mIconCache.get(iconUri));
+            imageView.setImageBitmap(cached);
             return;
         }
 
         imageView.setAlpha(HALF_ALPHA);
-        ThreadUtils.postOnBackgroundThread(() -> {
-            final Uri uri = Uri.parse(iconUri);
-            try {
-                if (!uri.toString().startsWith("android.resource://com.android.bluetooth.bthelper/drawable")) {
-                    mContext.getContentResolver().takePersistableUriPermission(uri,
-                            Intent.FLAG_GRANT_READ_URI_PERMISSION);
-                }
-
-                final Bitmap bitmap = MediaStore.Images.Media.getBitmap(
-                        mContext.getContentResolver(), uri);
-                ThreadUtils.postOnMainThread(() -> {
-                    mIconCache.put(iconUri, bitmap);
-                    imageView.setAlpha(1f);
-                    imageView.setImageBitmap(bitmap);
-                });
-            } catch (IOException e) {
-                Log.e(TAG, "Failed to get bitmap for: " + iconUri, e);
-            } catch (SecurityException e) {
-                Log.e(TAG, "Failed to take persistable permission for: " + uri, e);
+        mIconCache.loadIcon(mContext, iconUri, mIconSize, bitmap -> {
+            if (bitmap != null) {
+                imageView.setAlpha(1f);
+                imageView.setImageBitmap(bitmap);
             }
         });
     }
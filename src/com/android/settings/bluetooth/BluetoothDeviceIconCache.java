@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2025 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.bluetooth;
+
+import android.content.Context;
+import android.content.Intent;
+import android.graphics.Bitmap;
+import android.graphics.ImageDecoder;
+import android.net.Uri;
+import android.util.Log;
+import android.util.LruCache;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+import com.android.settingslib.utils.ThreadUtils;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Process-wide cache for Bluetooth device icons referenced by metadata URIs.
+ *
+ * <p>Icons are decoded on a background thread, downsampled to the requested size and kept in an
+ * LRU cache bounded by bitmap byte size. Concurrent requests for the same icon share one decode.
+ */
+public class BluetoothDeviceIconCache {
+    private static final String TAG = "BtDeviceIconCache";
+    private static final String BT_HELPER_DRAWABLE_PREFIX =
+            "android.resource://com.android.bluetooth.bthelper/drawable";
+    @VisibleForTesting
+    static final int MAX_CACHE_SIZE_BYTES = 4 * 1024 * 1024;
+
+    private static BluetoothDeviceIconCache sInstance;
+
+    /** Callback invoked on the main thread when an icon request completes. */
+    public interface Callback {
+        /** Called with the decoded icon, or {@code null} if it could not be loaded. */
+        void onIconLoaded(@Nullable Bitmap bitmap);
+    }
+
+    private final LruCache<String, Bitmap> mCache;
+    // Only accessed on the main thread.
+    private final Map<String, List<Callback>> mPendingRequests = new HashMap<>();
+
+    /** Returns the process-wide instance. */
+    public static synchronized BluetoothDeviceIconCache getInstance() {
+        if (sInstance == null) {
+            sInstance = new BluetoothDeviceIconCache(MAX_CACHE_SIZE_BYTES);
+        }
+        return sInstance;
+    }
+
+    @VisibleForTesting
+    BluetoothDeviceIconCache(int maxSizeBytes) {
+        mCache = new LruCache<>(maxSizeBytes) {
+            @Override
+            protected int sizeOf(String key, Bitmap bitmap) {
+                return bitmap.getAllocationByteCount();
+            }
+        };
+    }
+
+    /** Returns the cached icon for {@code iconUri} at {@code size}, or {@code null} if absent. */
+    @Nullable
+    public Bitmap getCachedIcon(@NonNull String iconUri, int size) {
+        return mCache.get(getKey(iconUri, size));
+    }
+
+    /**
+     * Loads the icon for {@code iconUri} downsampled to at least {@code size} pixels. If the icon
+     * is already cached the callback is invoked synchronously, otherwise it is invoked on the main
+     * thread once the decode finishes. Requests for an icon already being decoded are coalesced.
+     */
+    @MainThread
+    public void loadIcon(@NonNull Context context, @NonNull String iconUri, int size,
+            @NonNull Callback callback) {
+        final String key = getKey(iconUri, size);
+        final Bitmap cached = mCache.get(key);
+        if (cached != null) {
+            callback.onIconLoaded(cached);
+            return;
+        }
+        List<Callback> callbacks = mPendingRequests.get(key);
+        if (callbacks != null) {
+            callbacks.add(callback);
+            return;
+        }
+        callbacks = new ArrayList<>();
+        callbacks.add(callback);
+        mPendingRequests.put(key, callbacks);
+
+        final Context appContext = context.getApplicationContext();
+        ThreadUtils.postOnBackgroundThread(() -> {
+            final Bitmap bitmap = decodeIcon(appContext, iconUri, size);
+            ThreadUtils.postOnMainThread(() -> {
+                if (bitmap != null) {
+                    mCache.put(key, bitmap);
+                }
+                final List<Callback> pending = mPendingRequests.remove(key);
+                if (pending != null) {
+                    for (Callback pendingCallback : pending) {
+                        pendingCallback.onIconLoaded(bitmap);
+                    }
+                }
+            });
+        });
+    }
+
+    /** Drops all cached icons. */
+    public void clear() {
+        mCache.evictAll();
+    }
+
+    @VisibleForTesting
+    void putIcon(@NonNull String iconUri, int size, @NonNull Bitmap bitmap) {
+        mCache.put(getKey(iconUri, size), bitmap);
+    }
+
+    @VisibleForTesting
+    int getCacheSizeBytes() {
+        return mCache.size();
+    }
+
+    @VisibleForTesting
+    static String getKey(String iconUri, int size) {
+        return iconUri + "@" + size;
+    }
+
+    /** Returns the largest power of two sample size that keeps both sides at least size. */
+    @VisibleForTesting
+    static int computeSampleSize(int width, int height, int size) {
+        int sampleSize = 1;
+        if (size <= 0) {
+            return sampleSize;
+        }
+        while (width / (sampleSize * 2) >= size && height / (sampleSize * 2) >= size) {
+            sampleSize *= 2;
+        }
+        return sampleSize;
+    }
+
+    @WorkerThread
+    @Nullable
+    private static Bitmap decodeIcon(Context context, String iconUri, int size) {
+        final Uri uri = Uri.parse(iconUri);
+        try {
+            if (!iconUri.startsWith(BT_HELPER_DRAWABLE_PREFIX)) {
+                context.getContentResolver().takePersistableUriPermission(uri,
+                        Intent.FLAG_GRANT_READ_URI_PERMISSION);
+            }
+            final ImageDecoder.Source source =
+                    ImageDecoder.createSource(context.getContentResolver(), uri);
+            return ImageDecoder.decodeBitmap(source, (decoder, info, src) -> {
+                decoder.setAllocator(ImageDecoder.ALLOCATOR_SOFTWARE);
+                decoder.setTargetSampleSize(computeSampleSize(
+                        info.getSize().getWidth(), info.getSize().getHeight(), size));
+            });
+        } catch (IOException e) {
+            Log.e(TAG, "Failed to get bitmap for: " + iconUri, e);
+        } catch (SecurityException e) {
+            Log.e(TAG, "Failed to take persistable permission for: " + uri, e);
+        }
+        return null;
+    }
+}
@@ -19,7 +19,9 @@ import android.bluetooth.BluetoothAdapter;
 import android.bluetooth.BluetoothDevice;
 import android.content.Context;
 import android.os.Bundle;
+import android.os.Looper;
 import android.util.Log;
+import android.view.Choreographer;
 
 import androidx.annotation.VisibleForTesting;
 import androidx.preference.Preference;
@@ -37,7 +39,10 @@ import com.android.settingslib.core.instrumentation.MetricsFeatureProvider;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -67,6 +72,14 @@ public abstract class BluetoothDeviceUpdater implements BluetoothCallback,
         launchDeviceDetails(pref);
     };
 
+    // Devices with pending updates, only accessed on the main thread.
+    @VisibleForTesting
+    final Set<CachedBluetoothDevice> mPendingUpdateDevices = new LinkedHashSet<>();
+    private final Choreographer.FrameCallback mApplyPendingUpdates =
+            frameTimeNanos -> applyPendingUpdates();
+    private boolean mCoalesceUpdates;
+    private boolean mFrameCallbackPosted;
+
     public BluetoothDeviceUpdater(Context context,
             DevicePreferenceCallback devicePreferenceCallback, int metricsCategory) {
         this(context, devicePreferenceCallback, Utils.getLocalBtManager(context), metricsCategory);
@@ -109,6 +122,19 @@ public abstract class BluetoothDeviceUpdater implements BluetoothCallback,
         mLocalManager.setForegroundActivity(null);
         mLocalManager.getEventManager().unregisterCallback(this);
         mLocalManager.getProfileManager().removeServiceListener(this);
+        cancelPendingUpdates();
+    }
+
+    /**
+     * Set whether device callbacks are coalesced. When enabled, a burst of callbacks for the same
+     * devices results in a single {@link #update(CachedBluetoothDevice)} per device on the next
+     * frame instead of one per callback.
+     */
+    public void setUpdateCoalescingEnabled(boolean enabled) {
+        mCoalesceUpdates = enabled;
+        if (!enabled) {
+            applyPendingUpdates();
+        }
     }
 
     /**
@@ -119,6 +145,8 @@ public abstract class BluetoothDeviceUpdater implements BluetoothCallback,
             Log.e(getLogTag(), "forceUpdate() Bluetooth is not supported on this device");
             return;
         }
+        // All devices are updated below, so any pending update is obsolete.
+        cancelPendingUpdates();
         if (BluetoothAdapter.getDefaultAdapter().isEnabled()) {
             final Collection<CachedBluetoothDevice> cachedDevices =
                     mLocalManager.getCachedDeviceManager().getCachedDevicesCopy();
@@ -136,6 +164,7 @@ public abstract class BluetoothDeviceUpdater implements BluetoothCallback,
                     "removeAllDevicesFromPreference() BT is not supported on this device");
             return;
         }
+        cancelPendingUpdates();
         final Collection<CachedBluetoothDevice> cachedDevices =
                 mLocalManager.getCachedDeviceManager().getCachedDevicesCopy();
         for (CachedBluetoothDevice cachedBluetoothDevice : cachedDevices) {
@@ -155,7 +184,7 @@ public abstract class BluetoothDeviceUpdater implements BluetoothCallback,
     @Override
     public void onDeviceAdded(CachedBluetoothDevice cachedDevice) {
         Log.d(getLogTag(), "onDeviceAdded() device: " + cachedDevice.getName());
-        update(cachedDevice);
+        scheduleUpdate(cachedDevice);
     }
 
     @Override
@@ -164,12 +193,13 @@ public abstract class BluetoothDeviceUpdater implements BluetoothCallback,
         // Used to combine the hearing aid entries just after pairing. Once both the hearing aids
         // get connected and their hiSyncId gets populated, this gets called for one of the
         // 2 hearing aids so that only one entry in the connected devices list will be seen.
+        mPendingUpdateDevices.remove(cachedDevice);
         removePreference(cachedDevice);
     }
 
     @Override
     public void onDeviceBondStateChanged(CachedBluetoothDevice cachedDevice, int bondState) {
-        update(cachedDevice);
+        scheduleUpdate(cachedDevice);
     }
 
     @Override
@@ -179,14 +209,14 @@ public abstract class BluetoothDeviceUpdater implements BluetoothCallback,
             Log.d(getLogTag(), "onProfileConnectionStateChanged() device: " + cachedDevice.getName()
                     + ", state: " + state + ", bluetoothProfile: " + bluetoothProfile);
         }
-        update(cachedDevice);
+        scheduleUpdate(cachedDevice);
     }
 
     @Override
     public void onAclConnectionStateChanged(CachedBluetoothDevice cachedDevice, int state) {
         Log.d(getLogTag(), "onAclConnectionStateChanged() device: " + cachedDevice.getName()
                 + ", state: " + state);
-        update(cachedDevice);
+        scheduleUpdate(cachedDevice);
     }
 
     @Override
@@ -218,6 +248,51 @@ public abstract class BluetoothDeviceUpdater implements BluetoothCallback,
      */
     protected abstract String getPreferenceKeyPrefix();
 
+    /**
+     * Update {@code cachedBluetoothDevice} now, or on the next frame if update coalescing is
+     * enabled. Repeated requests for the same device before the frame are merged.
+     */
+    protected void scheduleUpdate(CachedBluetoothDevice cachedBluetoothDevice) {
+        if (!mCoalesceUpdates || Looper.myLooper() != Looper.getMainLooper()) {
+            update(cachedBluetoothDevice);
+            return;
+        }
+        mPendingUpdateDevices.add(cachedBluetoothDevice);
+        if (!mFrameCallbackPosted) {
+            mFrameCallbackPosted = true;
+            Choreographer.getInstance().postFrameCallback(mApplyPendingUpdates);
+        }
+    }
+
+    /**
+     * Apply all pending device updates in a single pass, ordered the same way the devices are
+     * sorted in the list so preferences are inserted in a stable order.
+     */
+    @VisibleForTesting
+    void applyPendingUpdates() {
+        mFrameCallbackPosted = false;
+        if (mPendingUpdateDevices.isEmpty()) {
+            return;
+        }
+        final List<CachedBluetoothDevice> devices = new ArrayList<>(mPendingUpdateDevices);
+        mPendingUpdateDevices.clear();
+        Collections.sort(devices);
+        if (DBG) {
+            Log.d(getLogTag(), "applyPendingUpdates() count: " + devices.size());
+        }
+        for (CachedBluetoothDevice cachedDevice : devices) {
+            update(cachedDevice);
+        }
+    }
+
+    private void cancelPendingUpdates() {
+        mPendingUpdateDevices.clear();
+        if (mFrameCallbackPosted) {
+            mFrameCallbackPosted = false;
+            Choreographer.getInstance().removeFrameCallback(mApplyPendingUpdates);
+        }
+    }
+
     /**
      * Update whether to show {@link CachedBluetoothDevice} in the list.
      */
@@ -44,6 +44,7 @@ import androidx.annotation.StringRes;
 
 import com.android.settings.R;
 import com.android.settings.core.InstrumentedFragment;
+import com.android.settings.utils.QrCodeScanSession;
 import com.android.settingslib.bluetooth.BluetoothBroadcastUtils;
 import com.android.settingslib.bluetooth.BluetoothUtils;
 import com.android.settingslib.qrcode.QrCamera;
@@ -74,6 +75,7 @@ public class QrCodeScanModeFragment extends InstrumentedFragment implements
     private String mBroadcastMetadata;
     private Context mContext;
     private QrCamera mCamera;
+    private final QrCodeScanSession mScanSession = new QrCodeScanSession(TAG);
     private TextureView mTextureView;
     private TextView mSummary;
     private TextView mErrorMessage;
@@ -111,6 +113,7 @@ public class QrCodeScanModeFragment extends InstrumentedFragment implements
         // Check if the camera has already created.
         if (mCamera == null) {
             mCamera = new QrCamera(mContext, this);
+            mScanSession.onScanStarted();
             mCamera.start(surface);
         }
     }
@@ -147,6 +150,7 @@ public class QrCodeScanModeFragment extends InstrumentedFragment implements
         if (DEBUG) {
             Log.d(TAG, "handleSuccessfulResult(), get the qr code string.");
         }
+        mScanSession.onScanSucceeded();
         mBroadcastMetadata = qrCode;
         handleBtLeAudioScanner();
     }
@@ -163,7 +167,7 @@ public class QrCodeScanModeFragment extends InstrumentedFragment implements
 
     @Override
     public Rect getFramePosition(Size previewSize, int cameraOrientation) {
-        return new Rect(0, 0, previewSize.getHeight(), previewSize.getHeight());
+        return QrCodeScanSession.getFramePosition(previewSize);
     }
 
     @Override
@@ -173,9 +177,13 @@ public class QrCodeScanModeFragment extends InstrumentedFragment implements
 
     @Override
     public boolean isValid(String qrCode) {
+        if (mScanSession.isRecentlyRejected(qrCode)) {
+            return false;
+        }
         if (qrCode.startsWith(BluetoothBroadcastUtils.SCHEME_BT_BROADCAST_METADATA)) {
             return true;
         } else {
+            mScanSession.onRejected(qrCode);
             showErrorMessage(R.string.bt_le_audio_qr_code_is_not_valid_format);
             return false;
         }
@@ -22,15 +22,18 @@ import android.content.Intent;
 import android.provider.Settings;
 
 import androidx.annotation.VisibleForTesting;
+import androidx.preference.Preference;
 
 import com.android.settings.R;
 import com.android.settings.core.BasePreferenceController;
+import com.android.settings.core.PreferenceStateSnapshot;
 import com.android.settings.nfc.NfcPreferenceController;
 
 /**
  * Controller that used to show which component is available
  */
-public class AdvancedConnectedDeviceController extends BasePreferenceController {
+public class AdvancedConnectedDeviceController extends BasePreferenceController
+        implements BasePreferenceController.StatePrefetcher {
 
     private static final String DRIVING_MODE_SETTINGS_ENABLED =
             "gearhead:driving_mode_settings_enabled";
@@ -50,6 +53,17 @@ public class AdvancedConnectedDeviceController extends BasePreferenceController
         return mContext.getText(getConnectedDevicesSummaryResourceId(mContext));
     }
 
+    @Override
+    public void updateState(Preference preference) {
+        applyState(preference, prefetchState());
+    }
+
+    /** The summary queries the NFC service and resolves the Android Auto settings activity. */
+    @Override
+    public PreferenceStateSnapshot prefetchState() {
+        return new PreferenceStateSnapshot.Builder().setSummary(getSummary()).build();
+    }
+
     /**
      * Get Connected Devices summary that depend on {@link NfcPreferenceController} or
      * diving mode are available
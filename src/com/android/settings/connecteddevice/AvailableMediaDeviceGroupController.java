@@ -292,6 +292,7 @@ public class AvailableMediaDeviceGroupController extends BasePreferenceControlle
                         fragment.getContext(),
                         AvailableMediaDeviceGroupController.this,
                         fragment.getMetricsCategory());
+        mBluetoothDeviceUpdater.setUpdateCoalescingEnabled(true);
         if (BluetoothUtils.isAudioSharingUIAvailable(mContext)) {
             mDialogHandler = new AudioSharingDialogHandler(mContext, fragment);
         }
@@ -223,13 +223,16 @@ public class ConnectedDeviceGroupController extends BasePreferenceController
                 FeatureFactory.getFeatureFactory().getDockUpdaterFeatureProvider();
         final DockUpdater connectedDockUpdater =
                 dockUpdaterFeatureProvider.getConnectedDockUpdater(context, this);
+        BluetoothDeviceUpdater bluetoothDeviceUpdater = null;
+        if (hasBluetoothFeature()) {
+            bluetoothDeviceUpdater = new ConnectedBluetoothDeviceUpdater(context, this,
+                    fragment.getMetricsCategory());
+            bluetoothDeviceUpdater.setUpdateCoalescingEnabled(true);
+        }
         init(hasExternalDisplayFeature()
                         ? new ExternalDisplayUpdater(this, fragment.getMetricsCategory())
                         : null,
-                hasBluetoothFeature()
-                        ? new ConnectedBluetoothDeviceUpdater(context, this,
-                        fragment.getMetricsCategory())
-                        : null,
+                bluetoothDeviceUpdater,
                 hasUsbFeature()
                         ? new ConnectedUsbDeviceUpdater(context, fragment, this)
                         : null,
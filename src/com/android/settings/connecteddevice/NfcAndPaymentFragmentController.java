@@ -29,6 +29,7 @@ import androidx.preference.PreferenceScreen;
 
 import com.android.settings.R;
 import com.android.settings.core.BasePreferenceController;
+import com.android.settings.core.PreferenceStateSnapshot;
 import com.android.settingslib.core.lifecycle.LifecycleObserver;
 import com.android.settingslib.core.lifecycle.events.OnResume;
 import com.android.settingslib.core.lifecycle.events.OnStop;
@@ -37,7 +38,7 @@ import com.android.settingslib.core.lifecycle.events.OnStop;
  * Controller that used to show NFC and payment features
  */
 public class NfcAndPaymentFragmentController extends BasePreferenceController
-        implements LifecycleObserver, OnResume, OnStop {
+        implements BasePreferenceController.StatePrefetcher, LifecycleObserver, OnResume, OnStop {
     private final NfcAdapter mNfcAdapter;
     private final PackageManager mPackageManager;
     private final UserManager mUserManager;
@@ -99,6 +100,17 @@ public class NfcAndPaymentFragmentController extends BasePreferenceController
         return null;
     }
 
+    @Override
+    public void updateState(Preference preference) {
+        applyState(preference, prefetchState());
+    }
+
+    /** The summary asks the NFC service whether NFC is enabled. */
+    @Override
+    public PreferenceStateSnapshot prefetchState() {
+        return new PreferenceStateSnapshot.Builder().setSummary(getSummary()).build();
+    }
+
     @Override
     public void onStop() {
         if (mIsReceiverRegistered) {
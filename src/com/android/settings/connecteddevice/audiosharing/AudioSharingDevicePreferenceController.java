@@ -440,6 +440,7 @@ public class AudioSharingDevicePreferenceController extends BasePreferenceContro
                         fragment.getContext(),
                         AudioSharingDevicePreferenceController.this,
                         fragment.getMetricsCategory());
+        mBluetoothDeviceUpdater.setUpdateCoalescingEnabled(true);
         mDialogHandler = new AudioSharingDialogHandler(mContext, fragment);
     }
 
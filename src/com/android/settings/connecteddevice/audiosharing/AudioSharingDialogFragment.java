@@ -17,13 +17,14 @@
 package com.android.settings.connecteddevice.audiosharing;
 
 import static com.android.settings.connecteddevice.audiosharing.AudioSharingDashboardFragment.SHARE_THEN_PAIR_REQUEST_CODE;
-import static com.android.settings.connecteddevice.audiosharing.audiostreams.AudioStreamsQrCodeFragment.getQrCodeDrawable;
+import static com.android.settings.connecteddevice.audiosharing.audiostreams.AudioStreamsQrCodeFragment.evictQrCode;
+import static com.android.settings.connecteddevice.audiosharing.audiostreams.AudioStreamsQrCodeFragment.getQrCodeString;
+import static com.android.settings.connecteddevice.audiosharing.audiostreams.AudioStreamsQrCodeFragment.loadQrCodeDrawable;
 import static com.android.settingslib.bluetooth.LocalBluetoothLeBroadcast.EXTRA_PAIR_AND_JOIN_SHARING;
 
 import android.app.Dialog;
 import android.app.settings.SettingsEnums;
 import android.bluetooth.BluetoothLeBroadcastMetadata;
-import android.graphics.drawable.Drawable;
 import android.os.Bundle;
 import android.util.Log;
 import android.util.Pair;
@@ -42,7 +43,6 @@ import com.android.settings.connecteddevice.audiosharing.audiostreams.AudioStrea
 import com.android.settings.core.SubSettingLauncher;
 import com.android.settings.overlay.FeatureFactory;
 import com.android.settings.core.instrumentation.InstrumentedDialogFragment;
-import com.android.settingslib.bluetooth.BluetoothLeBroadcastMetadataExt;
 import com.android.settingslib.bluetooth.BluetoothUtils;
 
 import com.google.common.collect.Iterables;
@@ -165,7 +165,7 @@ public class AudioSharingDialogFragment extends InstrumentedDialogFragment {
         }
         BluetoothLeBroadcastMetadata metadata = arguments.getParcelable(
                 BUNDLE_KEY_BROADCAST_METADATA, BluetoothLeBroadcastMetadata.class);
-        Drawable qrCodeDrawable = null;
+        String qrCodeString = "";
         if (deviceItems.isEmpty()) {
             builder.setTitle(R.string.audio_sharing_share_dialog_title)
                     .setCustomPositiveButton(
@@ -189,9 +189,8 @@ public class AudioSharingDialogFragment extends InstrumentedDialogFragment {
                                 }
                                 launcher.launch();
                             });
-            qrCodeDrawable = metadata == null ? null : getQrCodeDrawable(metadata,
-                    getContext()).orElse(null);
-            if (qrCodeDrawable != null) {
+            qrCodeString = getQrCodeString(metadata);
+            if (!qrCodeString.isEmpty()) {
                 String broadcastName =
                         metadata.getBroadcastName() == null ? "" : metadata.getBroadcastName();
                 boolean hasPassword = metadata.getBroadcastCode() != null
@@ -258,17 +257,43 @@ public class AudioSharingDialogFragment extends InstrumentedDialogFragment {
         }
         Dialog dialog = builder.build();
         dialog.show();
-        if (deviceItems.isEmpty() && qrCodeDrawable != null) {
-            audioSharingFeatureProvider.setQrCode(
-                    this,
-                    dialog.getWindow().getDecorView(),
-                    R.id.description_image,
-                    qrCodeDrawable,
-                    BluetoothLeBroadcastMetadataExt.INSTANCE.toQrCodeString(metadata));
+        if (!qrCodeString.isEmpty()) {
+            String qrCodeContents = qrCodeString;
+            // Encoding is too slow for the main thread, show the QR code once it's ready.
+            loadQrCodeDrawable(
+                    metadata,
+                    requireContext(),
+                    drawable -> {
+                        if (drawable == null || !dialog.isShowing()) {
+                            return;
+                        }
+                        audioSharingFeatureProvider.setQrCode(
+                                this,
+                                dialog.getWindow().getDecorView(),
+                                R.id.description_image,
+                                drawable,
+                                qrCodeContents);
+                    });
         }
         return dialog;
     }
 
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+        if (getActivity() != null && getActivity().isChangingConfigurations()) {
+            // Recreated right away, keep the QR code for the new dialog.
+            return;
+        }
+        Bundle arguments = getArguments();
+        if (arguments != null && getContext() != null) {
+            evictQrCode(
+                    arguments.getParcelable(
+                            BUNDLE_KEY_BROADCAST_METADATA, BluetoothLeBroadcastMetadata.class),
+                    getContext());
+        }
+    }
+
     private void onCancelClick() {
         if (sListener != null) {
             sListener.onCancelClick();
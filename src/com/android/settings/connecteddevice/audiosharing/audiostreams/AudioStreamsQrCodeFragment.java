@@ -20,7 +20,6 @@ import android.app.settings.SettingsEnums;
 import android.bluetooth.BluetoothLeBroadcastMetadata;
 import android.content.Context;
 import android.content.res.Resources;
-import android.graphics.Bitmap;
 import android.graphics.drawable.Drawable;
 import android.os.Bundle;
 import android.util.Log;
@@ -30,6 +29,7 @@ import android.view.ViewGroup;
 import android.widget.ImageView;
 import android.widget.TextView;
 
+import androidx.annotation.MainThread;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.core.graphics.drawable.RoundedBitmapDrawable;
@@ -39,23 +39,22 @@ import com.android.settings.R;
 import com.android.settings.bluetooth.Utils;
 import com.android.settings.connecteddevice.audiosharing.AudioSharingFeatureProvider;
 import com.android.settings.core.InstrumentedFragment;
+import com.android.settings.utils.QrCodeBitmapCache;
 import com.android.settingslib.bluetooth.BluetoothLeBroadcastMetadataExt;
 import com.android.settingslib.bluetooth.LocalBluetoothLeBroadcast;
-import com.android.settingslib.qrcode.QrCodeGenerator;
 import com.android.settingslib.utils.ThreadUtils;
 import com.android.settings.overlay.FeatureFactory;
 
-import com.google.zxing.WriterException;
-
 import java.nio.charset.StandardCharsets;
 import java.util.List;
-import java.util.Optional;
+import java.util.function.Consumer;
 
 public class AudioStreamsQrCodeFragment extends InstrumentedFragment {
     private static final String TAG = "AudioStreamsQrCodeFragment";
 
     AudioSharingFeatureProvider audioSharingFeatureProvider =
             FeatureFactory.getFeatureFactory().getAudioSharingFeatureProvider();
+    @Nullable private BluetoothLeBroadcastMetadata mBroadcastMetadata;
 
     @Override
     public int getMetricsCategory() {
@@ -80,80 +79,125 @@ public class AudioStreamsQrCodeFragment extends InstrumentedFragment {
                             if (broadcastMetadata == null) {
                                 return;
                             }
-                            Drawable drawable =
-                                    getQrCodeDrawable(broadcastMetadata, getActivity())
-                                            .orElse(null);
-                            if (drawable == null) {
-                                return;
-                            }
-
                             ThreadUtils.postOnMainThread(
                                     () -> {
-                                        audioSharingFeatureProvider.setQrCode(
-                                                this,
-                                                view,
-                                                R.id.qrcode_view,
-                                                drawable,
-                                                BluetoothLeBroadcastMetadataExt.INSTANCE
-                                                        .toQrCodeString(broadcastMetadata));
-                                        if (broadcastMetadata.getBroadcastCode() != null) {
-                                            String password =
-                                                    new String(
-                                                            broadcastMetadata.getBroadcastCode(),
-                                                            StandardCharsets.UTF_8);
-                                            String passwordText =
-                                                    getString(
-                                                            R.string
-                                                                    .audio_streams_qr_code_page_password,
-                                                            password);
-                                            ((TextView) view.requireViewById(R.id.password))
-                                                    .setText(passwordText);
+                                        if (!isAdded()) {
+                                            return;
                                         }
-                                        TextView summaryView =
-                                                view.requireViewById(android.R.id.summary);
-                                        String summary =
-                                                getString(
-                                                        R.string
-                                                                .audio_streams_qr_code_page_description,
-                                                        broadcastMetadata.getBroadcastName());
-                                        summaryView.setText(summary);
+                                        mBroadcastMetadata = broadcastMetadata;
+                                        loadQrCodeDrawable(
+                                                broadcastMetadata,
+                                                requireContext(),
+                                                drawable ->
+                                                        showQrCode(
+                                                                view,
+                                                                broadcastMetadata,
+                                                                drawable));
                                     });
                         });
     }
 
-    /** Gets an optional drawable from metadata. */
-    public static Optional<Drawable> getQrCodeDrawable(
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+        if (mBroadcastMetadata != null
+                && (getActivity() == null || !getActivity().isChangingConfigurations())) {
+            evictQrCode(mBroadcastMetadata, requireContext());
+        }
+    }
+
+    private void showQrCode(
+            View view,
+            BluetoothLeBroadcastMetadata broadcastMetadata,
+            @Nullable Drawable drawable) {
+        if (drawable == null || !isAdded()) {
+            return;
+        }
+        audioSharingFeatureProvider.setQrCode(
+                this,
+                view,
+                R.id.qrcode_view,
+                drawable,
+                BluetoothLeBroadcastMetadataExt.INSTANCE.toQrCodeString(broadcastMetadata));
+        if (broadcastMetadata.getBroadcastCode() != null) {
+            String password =
+                    new String(broadcastMetadata.getBroadcastCode(), StandardCharsets.UTF_8);
+            String passwordText =
+                    getString(R.string.audio_streams_qr_code_page_password, password);
+            ((TextView) view.requireViewById(R.id.password)).setText(passwordText);
+        }
+        TextView summaryView = view.requireViewById(android.R.id.summary);
+        String summary =
+                getString(
+                        R.string.audio_streams_qr_code_page_description,
+                        broadcastMetadata.getBroadcastName());
+        summaryView.setText(summary);
+    }
+
+    /**
+     * Loads the QR code drawable of the metadata, encoding it on a background thread unless it is
+     * cached. The callback is invoked on the main thread, with {@code null} if there is none.
+     */
+    @MainThread
+    public static void loadQrCodeDrawable(
             @Nullable BluetoothLeBroadcastMetadata metadata,
-            Context context) {
+            @NonNull Context context,
+            @NonNull Consumer<Drawable> callback) {
+        String metadataStr = getQrCodeString(metadata);
+        if (metadataStr.isEmpty()) {
+            callback.accept(null);
+            return;
+        }
+        Resources resources = context.getResources();
+        // Cached, so that the share dialog and the QR code page don't encode it again.
+        QrCodeBitmapCache.getInstance()
+                .loadQrCode(
+                        metadataStr,
+                        resources.getDimensionPixelSize(R.dimen.audio_streams_qrcode_size),
+                        resources.getDimensionPixelSize(R.dimen.audio_streams_qrcode_margin),
+                        bitmap -> {
+                            if (bitmap == null) {
+                                Log.d(TAG, "loadQrCodeDrawable: qrCode generation failed");
+                                callback.accept(null);
+                                return;
+                            }
+                            RoundedBitmapDrawable drawable =
+                                    RoundedBitmapDrawableFactory.create(resources, bitmap);
+                            drawable.setCornerRadius(
+                                    resources.getDimensionPixelSize(
+                                            R.dimen.audio_streams_qrcode_preview_radius));
+                            callback.accept(drawable);
+                        });
+    }
+
+    /** Drops the cached QR code of the metadata, once the page showing it is destroyed. */
+    @MainThread
+    public static void evictQrCode(
+            @Nullable BluetoothLeBroadcastMetadata metadata, @NonNull Context context) {
+        String metadataStr = getQrCodeString(metadata);
+        if (metadataStr.isEmpty()) {
+            return;
+        }
+        Resources resources = context.getResources();
+        QrCodeBitmapCache.getInstance()
+                .evict(
+                        metadataStr,
+                        resources.getDimensionPixelSize(R.dimen.audio_streams_qrcode_size),
+                        resources.getDimensionPixelSize(R.dimen.audio_streams_qrcode_margin));
+    }
+
+    /** Gets the QR code string of the metadata, empty if there is none. */
+    @NonNull
+    public static String getQrCodeString(@Nullable BluetoothLeBroadcastMetadata metadata) {
         if (metadata == null) {
-            Log.d(TAG, "getQrCodeDrawable: broadcastMetadata is empty!");
-            return Optional.empty();
+            Log.d(TAG, "getQrCodeString: broadcastMetadata is empty!");
+            return "";
         }
         String metadataStr = BluetoothLeBroadcastMetadataExt.INSTANCE.toQrCodeString(metadata);
         if (metadataStr.isEmpty()) {
-            Log.d(TAG, "getQrCodeDrawable: metadataStr is empty!");
-            return Optional.empty();
-        }
-        Log.d(TAG, "getQrCodeDrawable: metadata : " + metadata);
-        try {
-            Resources resources = context.getResources();
-            int qrcodeSize = resources.getDimensionPixelSize(R.dimen.audio_streams_qrcode_size);
-            int margin = resources.getDimensionPixelSize(R.dimen.audio_streams_qrcode_margin);
-            Bitmap bitmap = QrCodeGenerator.encodeQrCode(metadataStr, qrcodeSize, margin);
-            RoundedBitmapDrawable drawable = RoundedBitmapDrawableFactory.create(resources, bitmap);
-            drawable.setCornerRadius(resources.getDimensionPixelSize(
-                    R.dimen.audio_streams_qrcode_preview_radius));
-            return Optional.of(drawable);
-        } catch (WriterException e) {
-            Log.d(
-                    TAG,
-                    "getQrCodeDrawable: broadcastMetadata "
-                            + metadata
-                            + " qrCode generation exception "
-                            + e);
+            Log.d(TAG, "getQrCodeString: metadataStr is empty!");
         }
-
-        return Optional.empty();
+        return metadataStr;
     }
 
     @Nullable
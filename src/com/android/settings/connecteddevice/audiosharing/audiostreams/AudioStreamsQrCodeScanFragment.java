@@ -49,6 +49,7 @@ import androidx.annotation.VisibleForTesting;
 import com.android.settings.R;
 import com.android.settings.bluetooth.Utils;
 import com.android.settings.core.InstrumentedFragment;
+import com.android.settings.utils.QrCodeScanSession;
 import com.android.settingslib.bluetooth.BluetoothBroadcastUtils;
 import com.android.settingslib.bluetooth.BluetoothUtils;
 import com.android.settingslib.bluetooth.LocalBluetoothManager;
@@ -103,6 +104,7 @@ public class AudioStreamsQrCodeScanFragment extends InstrumentedFragment
     @Nullable private String mBroadcastMetadata;
     private Context mContext;
     @Nullable private QrCamera mCamera;
+    private final QrCodeScanSession mScanSession = new QrCodeScanSession(TAG);
     private TextureView mTextureView;
     private TextView mErrorMessage;
 
@@ -156,6 +158,7 @@ public class AudioStreamsQrCodeScanFragment extends InstrumentedFragment
     public void onSurfaceTextureAvailable(@NonNull SurfaceTexture surface, int width, int height) {
         if (mCamera == null) {
             mCamera = new QrCamera(mContext, this);
+            mScanSession.onScanStarted();
             mCamera.start(surface);
         }
     }
@@ -178,6 +181,7 @@ public class AudioStreamsQrCodeScanFragment extends InstrumentedFragment
         if (DEBUG) {
             Log.d(TAG, "handleSuccessfulResult(), get the qr code string.");
         }
+        mScanSession.onScanSucceeded();
         mBroadcastMetadata = qrCode;
         Message message = mHandler.obtainMessage(MESSAGE_SCAN_BROADCAST_SUCCESS);
         mHandler.sendMessageDelayed(message, SHOW_SUCCESS_SQUARE_INTERVAL);
@@ -195,7 +199,7 @@ public class AudioStreamsQrCodeScanFragment extends InstrumentedFragment
 
     @Override
     public Rect getFramePosition(Size previewSize, int cameraOrientation) {
-        return new Rect(0, 0, previewSize.getHeight(), previewSize.getHeight());
+        return QrCodeScanSession.getFramePosition(previewSize);
     }
 
     @Override
@@ -205,9 +209,13 @@ public class AudioStreamsQrCodeScanFragment extends InstrumentedFragment
 
     @Override
     public boolean isValid(String qrCode) {
+        if (mScanSession.isRecentlyRejected(qrCode)) {
+            return false;
+        }
         if (qrCode.startsWith(BluetoothBroadcastUtils.SCHEME_BT_BROADCAST_METADATA)) {
             return true;
         }
+        mScanSession.onRejected(qrCode);
         Message message =
                 mHandler.obtainMessage(
                         MESSAGE_SHOW_ERROR_MESSAGE,
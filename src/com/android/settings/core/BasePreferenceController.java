@@ -29,8 +29,11 @@ import android.provider.SettingsSlicesContract;
 import android.text.TextUtils;
 import android.util.Log;
 
+import androidx.annotation.MainThread;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
 import androidx.preference.Preference;
 import androidx.preference.PreferenceScreen;
 
@@ -56,6 +59,7 @@ public abstract class BasePreferenceController extends AbstractPreferenceControl
         Sliceable {
 
     private static final String TAG = "SettingsPrefController";
+    private static final boolean DEBUG = Log.isLoggable(TAG, Log.DEBUG);
 
     /**
      * Denotes the availability of the Setting.
@@ -130,14 +134,36 @@ public abstract class BasePreferenceController extends AbstractPreferenceControl
     private UserHandle mWorkProfileUser;
     private int mMetricsCategory;
     private boolean mPrefVisibility;
+    private boolean mAvailabilityCacheEnabled;
+    private int mAvailabilityPassDepth;
+    private boolean mHasCachedAvailabilityStatus;
+    private int mCachedAvailabilityStatus;
+    private int mAvailabilityEvaluationCount;
+    private int mRedundantAvailabilityEvaluationCount;
 
     /**
      * Instantiate a controller as specified controller type and user-defined key.
      * <p/>
-     * This is done through reflection. Do not use this method unless you know what you are doing.
+     * Controllers declared in xml are created through generated constructor calls, others through
+     * reflection. Do not use this method unless you know what you are doing.
      */
     public static BasePreferenceController createInstance(Context context,
             String controllerName, String key) {
+        if (GeneratedPreferenceControllerFactory.isRegistered(controllerName)) {
+            final BasePreferenceController controller;
+            try {
+                controller = GeneratedPreferenceControllerFactory.newInstance(
+                        context, controllerName, key);
+            } catch (RuntimeException e) {
+                throw new IllegalStateException(
+                        "Invalid preference controller: " + controllerName, e);
+            }
+            if (controller == null) {
+                throw new IllegalStateException(
+                        "Invalid preference controller: " + controllerName);
+            }
+            return controller;
+        }
         try {
             final Class<?> clazz = Class.forName(controllerName);
             final Constructor<?> preferenceConstructor =
@@ -154,9 +180,26 @@ public abstract class BasePreferenceController extends AbstractPreferenceControl
     /**
      * Instantiate a controller as specified controller type.
      * <p/>
-     * This is done through reflection. Do not use this method unless you know what you are doing.
+     * Controllers declared in xml are created through generated constructor calls, others through
+     * reflection. Do not use this method unless you know what you are doing.
      */
     public static BasePreferenceController createInstance(Context context, String controllerName) {
+        if (GeneratedPreferenceControllerFactory.isRegistered(controllerName)) {
+            final BasePreferenceController controller;
+            try {
+                controller = GeneratedPreferenceControllerFactory.newInstance(
+                        context, controllerName);
+            } catch (RuntimeException e) {
+                throw new IllegalStateException(
+                        "Invalid preference controller: " + controllerName, e);
+            }
+            if (controller == null) {
+                // No Context-only constructor, let callers fall back to the keyed one.
+                throw new IllegalStateException(
+                        "Invalid preference controller: " + controllerName);
+            }
+            return controller;
+        }
         try {
             final Class<?> clazz = Class.forName(controllerName);
             final Constructor<?> preferenceConstructor = clazz.getConstructor(Context.class);
@@ -172,7 +215,8 @@ public abstract class BasePreferenceController extends AbstractPreferenceControl
     /**
      * Instantiate a controller as specified controller type and work profile
      * <p/>
-     * This is done through reflection. Do not use this method unless you know what you are doing.
+     * Controllers declared in xml are created through generated constructor calls, others through
+     * reflection. Do not use this method unless you know what you are doing.
      *
      * @param context        application context
      * @param controllerName class name of the {@link BasePreferenceController}
@@ -181,20 +225,10 @@ public abstract class BasePreferenceController extends AbstractPreferenceControl
      */
     public static BasePreferenceController createInstance(Context context, String controllerName,
             String key, boolean isWorkProfile) {
-        try {
-            final Class<?> clazz = Class.forName(controllerName);
-            final Constructor<?> preferenceConstructor =
-                    clazz.getConstructor(Context.class, String.class);
-            final Object[] params = new Object[]{context, key};
-            final BasePreferenceController controller =
-                    (BasePreferenceController) preferenceConstructor.newInstance(params);
-            controller.setForWork(isWorkProfile);
-            return controller;
-        } catch (ClassNotFoundException | NoSuchMethodException | InstantiationException
-                | IllegalArgumentException | InvocationTargetException | IllegalAccessException e) {
-            throw new IllegalStateException(
-                    "Invalid preference controller: " + controllerName, e);
-        }
+        final BasePreferenceController controller =
+                createInstance(context, controllerName, key);
+        controller.setForWork(isWorkProfile);
+        return controller;
     }
 
     public BasePreferenceController(@NonNull Context context, @NonNull String preferenceKey) {
@@ -260,7 +294,7 @@ public abstract class BasePreferenceController extends AbstractPreferenceControl
             return false;
         }
 
-        final int availabilityStatus = getAvailabilityStatus();
+        final int availabilityStatus = getAvailabilityStatusForPass();
         return (availabilityStatus == AVAILABLE
                 || availabilityStatus == AVAILABLE_UNSEARCHABLE
                 || availabilityStatus == DISABLED_DEPENDENT_SETTING);
@@ -271,7 +305,7 @@ public abstract class BasePreferenceController extends AbstractPreferenceControl
             return false;
         }
 
-        final int availabilityStatus = getAvailabilityStatus();
+        final int availabilityStatus = getAvailabilityStatusForPass();
         return (availabilityStatus == AVAILABLE
                 || availabilityStatus == DISABLED_DEPENDENT_SETTING);
     }
@@ -284,7 +318,7 @@ public abstract class BasePreferenceController extends AbstractPreferenceControl
      * Note that a return value of {@code true} does not mean that the setting is available.
      */
     public final boolean isSupported() {
-        return getAvailabilityStatus() != UNSUPPORTED_ON_DEVICE;
+        return getAvailabilityStatusForPass() != UNSUPPORTED_ON_DEVICE;
     }
 
     /**
@@ -293,7 +327,7 @@ public abstract class BasePreferenceController extends AbstractPreferenceControl
     @Override
     public void displayPreference(PreferenceScreen screen) {
         super.displayPreference(screen);
-        if (getAvailabilityStatus() == DISABLED_DEPENDENT_SETTING) {
+        if (getAvailabilityStatusForPass() == DISABLED_DEPENDENT_SETTING) {
             // Disable preference if it depends on another setting.
             final Preference preference = screen.findPreference(getPreferenceKey());
             if (preference != null) {
@@ -302,6 +336,84 @@ public abstract class BasePreferenceController extends AbstractPreferenceControl
         }
     }
 
+    /**
+     * Starts an availability pass, such as one lifecycle callback of the hosting fragment or one
+     * search index query. Passes may be nested; the pass ends with the outermost
+     * {@link #finishAvailabilityPass()}.
+     * <p>
+     * While a pass is active, controllers that opted in with
+     * {@link #setAvailabilityCacheEnabled(boolean)} evaluate {@link #getAvailabilityStatus()} at
+     * most once until {@link #invalidateAvailabilityStatus()} is called.
+     */
+    public void startAvailabilityPass() {
+        if (mAvailabilityPassDepth++ == 0) {
+            mHasCachedAvailabilityStatus = false;
+            mAvailabilityEvaluationCount = 0;
+            mRedundantAvailabilityEvaluationCount = 0;
+        }
+    }
+
+    /**
+     * Finishes the pass started by {@link #startAvailabilityPass()} and drops the cached status.
+     */
+    public void finishAvailabilityPass() {
+        if (mAvailabilityPassDepth == 0 || --mAvailabilityPassDepth > 0) {
+            return;
+        }
+        mHasCachedAvailabilityStatus = false;
+        if (DEBUG && mRedundantAvailabilityEvaluationCount > 0) {
+            Log.d(TAG, getClass().getSimpleName() + " evaluated availability "
+                    + mAvailabilityEvaluationCount + " times in one pass, "
+                    + mRedundantAvailabilityEvaluationCount + " redundant");
+        }
+    }
+
+    /**
+     * Drops the availability status cached in the current pass. Controllers that enable the cache
+     * must call this from the observers of any state their {@link #getAvailabilityStatus()}
+     * depends on.
+     */
+    protected final void invalidateAvailabilityStatus() {
+        mHasCachedAvailabilityStatus = false;
+    }
+
+    /**
+     * Opts this controller into caching its {@link AvailabilityStatus} for the duration of an
+     * availability pass. Only enable it when {@link #getAvailabilityStatus()} is expensive and
+     * every change to its inputs is followed by {@link #invalidateAvailabilityStatus()}.
+     */
+    protected void setAvailabilityCacheEnabled(boolean enabled) {
+        mAvailabilityCacheEnabled = enabled;
+        mHasCachedAvailabilityStatus = false;
+    }
+
+    /**
+     * @return the number of {@link #getAvailabilityStatus()} evaluations in the current or last
+     * availability pass beyond the first one, whether or not they were served from the cache.
+     */
+    @VisibleForTesting
+    int getRedundantAvailabilityEvaluationCount() {
+        return mRedundantAvailabilityEvaluationCount;
+    }
+
+    @AvailabilityStatus
+    private int getAvailabilityStatusForPass() {
+        if (mAvailabilityPassDepth == 0) {
+            return getAvailabilityStatus();
+        }
+        if (mAvailabilityEvaluationCount++ > 0) {
+            mRedundantAvailabilityEvaluationCount++;
+        }
+        if (!mAvailabilityCacheEnabled) {
+            return getAvailabilityStatus();
+        }
+        if (!mHasCachedAvailabilityStatus) {
+            mCachedAvailabilityStatus = getAvailabilityStatus();
+            mHasCachedAvailabilityStatus = true;
+        }
+        return mCachedAvailabilityStatus;
+    }
+
     /**
      * @return the UI type supported by the controller.
      */
@@ -422,6 +534,33 @@ public abstract class BasePreferenceController extends AbstractPreferenceControl
     public interface UiBlocker {
     }
 
+    /**
+     * Used for {@link BasePreferenceController} whose {@link #updateState(Preference)} is too
+     * expensive for the main thread, i.e. it makes binder calls to compute the summary.
+     *
+     * DashboardFragment calls {@link #prefetchState()} for all such controllers in parallel on
+     * background threads, then applies all results in a single pass on the main thread.
+     *
+     * This must be used in {@link BasePreferenceController}
+     */
+    public interface StatePrefetcher {
+        /**
+         * Computes the state of the preference. Must not touch any view or preference.
+         */
+        @WorkerThread
+        @NonNull
+        PreferenceStateSnapshot prefetchState();
+
+        /**
+         * Applies the state returned by {@link #prefetchState()} to {@code preference}.
+         */
+        @MainThread
+        default void applyState(@NonNull Preference preference,
+                @NonNull PreferenceStateSnapshot snapshot) {
+            snapshot.applyTo(preference);
+        }
+    }
+
     /**
      * Set the metrics category of the parent fragment.
      *
@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2025 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.core;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.preference.Preference;
+import androidx.preference.TwoStatePreference;
+
+/**
+ * Immutable UI state of a {@link Preference}, computed off the main thread by a
+ * {@link BasePreferenceController.StatePrefetcher} and applied on the main thread.
+ *
+ * <p>Only the fields that were set on the {@link Builder} are applied; the others keep the value
+ * already shown by the preference.
+ */
+public final class PreferenceStateSnapshot {
+
+    @Nullable
+    private final CharSequence mSummary;
+    private final boolean mHasSummary;
+    @Nullable
+    private final Boolean mEnabled;
+    @Nullable
+    private final Boolean mChecked;
+
+    private PreferenceStateSnapshot(Builder builder) {
+        mSummary = builder.mSummary;
+        mHasSummary = builder.mHasSummary;
+        mEnabled = builder.mEnabled;
+        mChecked = builder.mChecked;
+    }
+
+    @Nullable
+    public CharSequence getSummary() {
+        return mSummary;
+    }
+
+    public boolean hasSummary() {
+        return mHasSummary;
+    }
+
+    @Nullable
+    public Boolean isEnabled() {
+        return mEnabled;
+    }
+
+    @Nullable
+    public Boolean isChecked() {
+        return mChecked;
+    }
+
+    /**
+     * Applies this snapshot to {@code preference}. The checked state is only applied to
+     * {@link TwoStatePreference}s.
+     */
+    @MainThread
+    public void applyTo(@NonNull Preference preference) {
+        if (mHasSummary) {
+            preference.setSummary(mSummary);
+        }
+        if (mEnabled != null) {
+            preference.setEnabled(mEnabled);
+        }
+        if (mChecked != null && preference instanceof TwoStatePreference) {
+            ((TwoStatePreference) preference).setChecked(mChecked);
+        }
+    }
+
+    /** Builder for {@link PreferenceStateSnapshot}. */
+    public static final class Builder {
+        @Nullable
+        private CharSequence mSummary;
+        private boolean mHasSummary;
+        @Nullable
+        private Boolean mEnabled;
+        @Nullable
+        private Boolean mChecked;
+
+        /** Sets the summary. A {@code null} summary clears the one shown by the preference. */
+        @NonNull
+        public Builder setSummary(@Nullable CharSequence summary) {
+            mSummary = summary;
+            mHasSummary = true;
+            return this;
+        }
+
+        @NonNull
+        public Builder setEnabled(boolean enabled) {
+            mEnabled = enabled;
+            return this;
+        }
+
+        @NonNull
+        public Builder setChecked(boolean checked) {
+            mChecked = checked;
+            return this;
+        }
+
+        @NonNull
+        public PreferenceStateSnapshot build() {
+            return new PreferenceStateSnapshot(this);
+        }
+    }
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright (C) 2025 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.core.instrumentation;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Message;
+import android.os.Process;
+import android.util.Log;
+import android.util.Pair;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+
+import com.android.settingslib.core.instrumentation.LogWriter;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link LogWriter} that queues events and writes them to its delegates in batches on a
+ * background thread, so that logging never blocks the caller.
+ *
+ * <p>Events are queued in a bounded lock-free ring buffer and written in the order they were
+ * logged. A batch is flushed once {@link #BATCH_SIZE} events are queued or {@link #FLUSH_DELAY_MS}
+ * after the first queued event, whichever comes first. Events logged while the buffer is full
+ * are dropped and counted.
+ */
+public class AsyncLogWriter implements LogWriter {
+    private static final String TAG = "AsyncLogWriter";
+    private static final int MSG_FLUSH = 1;
+
+    @VisibleForTesting
+    static final int CAPACITY = 1024;
+    @VisibleForTesting
+    static final int BATCH_SIZE = 32;
+    @VisibleForTesting
+    static final long FLUSH_DELAY_MS = 500;
+
+    private static final ThreadLocal<Long> sEventTimeMillis = new ThreadLocal<>();
+
+    private final LogWriter[] mDelegates;
+    @VisibleForTesting
+    final EventRingBuffer<Event> mQueue;
+    private final Handler mHandler;
+    private final AtomicBoolean mFlushScheduled = new AtomicBoolean();
+    private final AtomicLong mDroppedEventCount = new AtomicLong();
+
+    public AsyncLogWriter(@NonNull LogWriter... delegates) {
+        this(createLooper(), CAPACITY, delegates);
+    }
+
+    @VisibleForTesting
+    AsyncLogWriter(@NonNull Looper looper, int capacity, @NonNull LogWriter... delegates) {
+        mDelegates = delegates;
+        mQueue = new EventRingBuffer<>(capacity);
+        mHandler = new Handler(looper) {
+            @Override
+            public void handleMessage(Message msg) {
+                if (msg.what == MSG_FLUSH) {
+                    flush();
+                }
+            }
+        };
+    }
+
+    /**
+     * Returns the time the event being written was logged at. Delegates must use it instead of
+     * {@link System#currentTimeMillis()} since events are written after a delay.
+     */
+    public static long getEventTimeMillis() {
+        final Long eventTimeMillis = sEventTimeMillis.get();
+        return eventTimeMillis != null ? eventTimeMillis : System.currentTimeMillis();
+    }
+
+    /** Returns the number of events waiting to be written. */
+    public int getQueueDepth() {
+        return mQueue.size();
+    }
+
+    /** Returns the number of events dropped because the queue was full. */
+    public long getDroppedEventCount() {
+        return mDroppedEventCount.get();
+    }
+
+    @Override
+    public void visible(Context context, int attribution, int pageId, int latency) {
+        enqueue(new Event(Event.VISIBLE, context, attribution, 0 /* action */, pageId,
+                null /* key */, latency, null /* taggedData */));
+    }
+
+    @Override
+    public void hidden(Context context, int pageId, int visibleTime) {
+        enqueue(new Event(Event.HIDDEN, context, 0 /* attribution */, 0 /* action */, pageId,
+                null /* key */, visibleTime, null /* taggedData */));
+    }
+
+    @Override
+    public void clicked(int sourceCategory, String key) {
+        enqueue(new Event(Event.CLICKED, null /* context */, sourceCategory, 0 /* action */,
+                0 /* pageId */, key, 0 /* value */, null /* taggedData */));
+    }
+
+    @Override
+    public void changed(int category, String key, int value) {
+        enqueue(new Event(Event.CHANGED, null /* context */, category, 0 /* action */,
+                0 /* pageId */, key, value, null /* taggedData */));
+    }
+
+    @Override
+    public void action(Context context, int action, Pair<Integer, Object>... taggedData) {
+        enqueue(new Event(Event.ACTION_TAGGED, context, 0 /* attribution */, action,
+                0 /* pageId */, null /* key */, 0 /* value */, taggedData));
+    }
+
+    @Override
+    public void action(Context context, int action, int value) {
+        enqueue(new Event(Event.ACTION_INT, context, 0 /* attribution */, action,
+                0 /* pageId */, null /* key */, value, null /* taggedData */));
+    }
+
+    @Override
+    public void action(Context context, int action, boolean value) {
+        enqueue(new Event(Event.ACTION_BOOLEAN, context, 0 /* attribution */, action,
+                0 /* pageId */, null /* key */, value ? 1 : 0, null /* taggedData */));
+    }
+
+    @Override
+    public void action(Context context, int action, String pkg) {
+        enqueue(new Event(Event.ACTION_STRING, context, 0 /* attribution */, action,
+                0 /* pageId */, pkg, 0 /* value */, null /* taggedData */));
+    }
+
+    @Override
+    public void action(int attribution, int action, int pageId, String key, int value) {
+        enqueue(new Event(Event.ACTION, null /* context */, attribution, action, pageId, key,
+                value, null /* taggedData */));
+    }
+
+    private void enqueue(Event event) {
+        if (!mQueue.offer(event)) {
+            mDroppedEventCount.incrementAndGet();
+            return;
+        }
+        if (mQueue.size() == BATCH_SIZE) {
+            // The delayed flush scheduled by the first event of the batch is still pending and
+            // will find an empty queue.
+            mHandler.sendEmptyMessage(MSG_FLUSH);
+        } else if (mFlushScheduled.compareAndSet(false, true)) {
+            mHandler.sendEmptyMessageDelayed(MSG_FLUSH, FLUSH_DELAY_MS);
+        }
+    }
+
+    @VisibleForTesting
+    void flush() {
+        // Cleared before draining so that events queued meanwhile schedule another flush.
+        mFlushScheduled.set(false);
+        int count = 0;
+        Event event;
+        while ((event = mQueue.poll()) != null) {
+            write(event);
+            count++;
+        }
+        if (mQueue.size() > 0 && mFlushScheduled.compareAndSet(false, true)) {
+            // A producer has claimed a slot but not published its event yet, and may have
+            // checked mFlushScheduled before it was cleared.
+            mHandler.sendEmptyMessageDelayed(MSG_FLUSH, FLUSH_DELAY_MS);
+        }
+        final long dropped = mDroppedEventCount.get();
+        if (dropped > 0 && Log.isLoggable(TAG, Log.DEBUG)) {
+            Log.d(TAG, "Wrote " + count + " events, " + dropped + " dropped so far");
+        }
+    }
+
+    private void write(Event event) {
+        sEventTimeMillis.set(event.mTimeMillis);
+        try {
+            for (LogWriter delegate : mDelegates) {
+                try {
+                    event.writeTo(delegate);
+                } catch (RuntimeException e) {
+                    Log.w(TAG, "Failed to write event to " + delegate, e);
+                }
+            }
+        } finally {
+            sEventTimeMillis.remove();
+        }
+    }
+
+    private static Looper createLooper() {
+        final HandlerThread thread =
+                new HandlerThread(TAG, Process.THREAD_PRIORITY_BACKGROUND);
+        thread.start();
+        return thread.getLooper();
+    }
+
+    @VisibleForTesting
+    static final class Event {
+        static final int VISIBLE = 0;
+        static final int HIDDEN = 1;
+        static final int CLICKED = 2;
+        static final int CHANGED = 3;
+        static final int ACTION_TAGGED = 4;
+        static final int ACTION_INT = 5;
+        static final int ACTION_BOOLEAN = 6;
+        static final int ACTION_STRING = 7;
+        static final int ACTION = 8;
+
+        final int mType;
+        final Context mContext;
+        final int mAttribution;
+        final int mAction;
+        final int mPageId;
+        final String mKey;
+        final int mValue;
+        final Pair<Integer, Object>[] mTaggedData;
+        final long mTimeMillis;
+
+        Event(int type, Context context, int attribution, int action, int pageId, String key,
+                int value, Pair<Integer, Object>[] taggedData) {
+            mType = type;
+            mContext = context;
+            mAttribution = attribution;
+            mAction = action;
+            mPageId = pageId;
+            mKey = key;
+            mValue = value;
+            mTaggedData = taggedData;
+            mTimeMillis = System.currentTimeMillis();
+        }
+
+        void writeTo(LogWriter writer) {
+            switch (mType) {
+                case VISIBLE:
+                    writer.visible(mContext, mAttribution, mPageId, mValue);
+                    break;
+                case HIDDEN:
+                    writer.hidden(mContext, mPageId, mValue);
+                    break;
+                case CLICKED:
+                    writer.clicked(mAttribution, mKey);
+                    break;
+                case CHANGED:
+                    writer.changed(mAttribution, mKey, mValue);
+                    break;
+                case ACTION_TAGGED:
+                    writer.action(mContext, mAction, mTaggedData);
+                    break;
+                case ACTION_INT:
+                    writer.action(mContext, mAction, mValue);
+                    break;
+                case ACTION_BOOLEAN:
+                    writer.action(mContext, mAction, mValue != 0);
+                    break;
+                case ACTION_STRING:
+                    writer.action(mContext, mAction, mKey);
+                    break;
+                case ACTION:
+                    writer.action(mAttribution, mAction, mPageId, mKey, mValue);
+                    break;
+                default:
+                    throw new IllegalStateException("Unknown event type " + mType);
+            }
+        }
+    }
+}
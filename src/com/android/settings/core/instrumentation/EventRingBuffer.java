@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2025 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.core.instrumentation;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free queue for many producers and a single consumer.
+ *
+ * <p>Each slot carries a sequence number telling whether it is free for the producer claiming
+ * position {@code n} ({@code sequence == n}) or holds the item of position {@code n}
+ * ({@code sequence == n + 1}). Producers claim positions with a CAS, so {@link #offer} never
+ * blocks and fails instead when the buffer is full. Items are polled in the order their
+ * positions were claimed.
+ */
+final class EventRingBuffer<E> {
+
+    private final AtomicReferenceArray<E> mItems;
+    private final AtomicLongArray mSequences;
+    private final int mMask;
+    private final AtomicLong mEnqueuePosition = new AtomicLong();
+    // Only written by the consumer, volatile so that size() can be read from any thread.
+    private volatile long mDequeuePosition;
+
+    /** @param capacity must be a power of two */
+    EventRingBuffer(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Capacity must be a power of two: " + capacity);
+        }
+        mItems = new AtomicReferenceArray<>(capacity);
+        mSequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            mSequences.set(i, i);
+        }
+        mMask = capacity - 1;
+    }
+
+    /** Adds {@code item}, returns {@code false} if the buffer is full. Safe from any thread. */
+    boolean offer(@NonNull E item) {
+        final long position = claim();
+        if (position < 0) {
+            return false;
+        }
+        publish(position, item);
+        return true;
+    }
+
+    /**
+     * Claims the next position, returns {@code -1} if the buffer is full. The item of the
+     * position must then be {@link #publish published}, until then it blocks {@link #poll}.
+     */
+    long claim() {
+        long position = mEnqueuePosition.get();
+        while (true) {
+            final int index = (int) (position & mMask);
+            final long difference = mSequences.get(index) - position;
+            if (difference == 0) {
+                if (mEnqueuePosition.compareAndSet(position, position + 1)) {
+                    return position;
+                }
+                position = mEnqueuePosition.get();
+            } else if (difference < 0) {
+                // The slot still holds the item of the previous lap.
+                return -1;
+            } else {
+                // Another producer claimed this position.
+                position = mEnqueuePosition.get();
+            }
+        }
+    }
+
+    /** Stores the item of a position returned by {@link #claim}. */
+    void publish(long position, @NonNull E item) {
+        final int index = (int) (position & mMask);
+        mItems.set(index, item);
+        mSequences.set(index, position + 1);
+    }
+
+    /**
+     * Removes the oldest item, or returns {@code null} if there is none or its producer hasn't
+     * finished publishing it yet. Must only be called from the consumer thread.
+     */
+    @Nullable
+    E poll() {
+        final long position = mDequeuePosition;
+        final int index = (int) (position & mMask);
+        if (mSequences.get(index) != position + 1) {
+            return null;
+        }
+        final E item = mItems.get(index);
+        mItems.set(index, null);
+        mSequences.set(index, position + mMask + 1);
+        mDequeuePosition = position + 1;
+        return item;
+    }
+
+    /** Returns the approximate number of queued items. */
+    int size() {
+        final long size = mEnqueuePosition.get() - mDequeuePosition;
+        return (int) Math.max(0, Math.min(size, mMask + 1));
+    }
+
+    int capacity() {
+        return mMask + 1;
+    }
+}
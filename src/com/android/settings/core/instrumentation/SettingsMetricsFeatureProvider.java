@@ -27,8 +27,8 @@ public class SettingsMetricsFeatureProvider extends MetricsFeatureProvider {
 
     @Override
     protected void installLogWriters() {
-        mLoggerWriters.add(new StatsLogWriter());
-        mLoggerWriters.add(new SettingsEventLogWriter());
+        // Writing events can take a while and most of them are logged from the main thread.
+        mLoggerWriters.add(new AsyncLogWriter(new StatsLogWriter(), new SettingsEventLogWriter()));
     }
 
     /**
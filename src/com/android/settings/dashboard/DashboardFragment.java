@@ -24,6 +24,7 @@ import android.os.Bundle;
 import android.preference.PreferenceManager.OnActivityResultListener;
 import android.text.TextUtils;
 import android.util.ArrayMap;
+import android.util.ArraySet;
 import android.util.Log;
 import android.view.View;
 
@@ -36,9 +37,11 @@ import androidx.lifecycle.LifecycleOwner;
 import androidx.preference.Preference;
 import androidx.preference.PreferenceCategory;
 import androidx.preference.PreferenceGroup;
+import androidx.preference.PreferenceGroupAdapter;
 import androidx.preference.PreferenceManager;
 import androidx.preference.PreferenceScreen;
 import androidx.preference.SwitchPreferenceCompat;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.android.settings.R;
 import com.android.settings.SettingsPreferenceFragment;
@@ -55,6 +58,7 @@ import com.android.settingslib.drawer.DashboardCategory;
 import com.android.settingslib.drawer.Tile;
 import com.android.settingslib.preference.PreferenceScreenCreator;
 import com.android.settingslib.search.Indexable;
+import com.android.settingslib.utils.ThreadUtils;
 
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -68,6 +72,7 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 /**
  * Base fragment for dashboard style UI containing a list of static and dynamic setting items.
@@ -104,11 +109,41 @@ public abstract class DashboardFragment extends SettingsPreferenceFragment
             new ArrayMap<>();
     private final List<DynamicDataObserver> mRegisteredObservers = new ArrayList<>();
     private final List<AbstractPreferenceController> mControllers = new ArrayList<>();
+    // Factories of the controllers which are not created yet, keyed by preference key.
+    private final ArrayMap<String, Supplier<List<AbstractPreferenceController>>>
+            mLazyControllerFactories = new ArrayMap<>();
+    // Keys of the preferences hidden until the controllers of their factory are created.
+    private final ArraySet<String> mHiddenLazyPreferenceKeys = new ArraySet<>();
+    private final RecyclerView.OnChildAttachStateChangeListener mLazyControllerAttachListener =
+            new RecyclerView.OnChildAttachStateChangeListener() {
+                @Override
+                public void onChildViewAttachedToWindow(@NonNull View view) {
+                    final RecyclerView.ViewHolder holder = getListView().getChildViewHolder(view);
+                    if (!(holder.getBindingAdapter() instanceof PreferenceGroupAdapter)) {
+                        return;
+                    }
+                    final int position = holder.getBindingAdapterPosition();
+                    if (position == RecyclerView.NO_POSITION) {
+                        return;
+                    }
+                    final Preference preference =
+                            ((PreferenceGroupAdapter) holder.getBindingAdapter()).getItem(position);
+                    // The list can't be changed while it is laid out.
+                    getListView().post(() -> onPreferenceShown(preference));
+                }
+
+                @Override
+                public void onChildViewDetachedFromWindow(@NonNull View view) {
+                }
+            };
     @VisibleForTesting
     UiBlockerController mBlockerController;
+    private final StatePrefetchController mStatePrefetchController = new StatePrefetchController();
+    private boolean mRestoringPreferenceStates;
     private DashboardFeatureProvider mDashboardFeatureProvider;
     private DashboardTilePlaceholderPreferenceController mPlaceholderPreferenceController;
     private boolean mListeningToCategoryChange;
+    private boolean mLoadingDashboardTiles;
     private List<String> mSuppressInjectedTileKeys;
 
     @Override
@@ -146,6 +181,17 @@ public abstract class DashboardFragment extends SettingsPreferenceFragment
                     lifecycle.addObserver((LifecycleObserver) controller);
                 }
             });
+
+            final Map<String, Supplier<List<AbstractPreferenceController>>> lazyFactories =
+                    createLazyPreferenceControllers(context);
+            if (lazyFactories != null) {
+                if (preferenceScreenCreator == null) {
+                    mLazyControllerFactories.putAll(lazyFactories);
+                } else {
+                    // Hybrid mode removes controllers by key, create all of them up front.
+                    lazyFactories.values().forEach(factory -> mControllers.addAll(factory.get()));
+                }
+            }
         }
 
         // Set metrics category for BasePreferenceController.
@@ -195,7 +241,12 @@ public abstract class DashboardFragment extends SettingsPreferenceFragment
         if (icicle != null) {
             // Upon rotation configuration change we need to update preference states before any
             // editing dialog is recreated (that would happen before onResume is called).
-            updatePreferenceStates();
+            mRestoringPreferenceStates = true;
+            try {
+                updatePreferenceStates();
+            } finally {
+                mRestoringPreferenceStates = false;
+            }
         }
     }
 
@@ -206,6 +257,9 @@ public abstract class DashboardFragment extends SettingsPreferenceFragment
         for (AbstractPreferenceController controller : mControllers) {
             controller.onViewCreated(viewLifecycleOwner);
         }
+        if (!mLazyControllerFactories.isEmpty()) {
+            getListView().addOnChildAttachStateChangeListener(mLazyControllerAttachListener);
+        }
     }
 
     @Override
@@ -228,8 +282,18 @@ public abstract class DashboardFragment extends SettingsPreferenceFragment
 
     @Override
     public void onCreatePreferences(Bundle savedInstanceState, String rootKey) {
-        checkUiBlocker(mControllers);
-        refreshAllPreferences(getLogTag());
+        startAvailabilityPass();
+        try {
+            checkUiBlocker(mControllers);
+            refreshAllPreferences(getLogTag());
+        } finally {
+            finishAvailabilityPass();
+        }
+        final PreferenceScreen screen = getPreferenceScreen();
+        if (screen != null) {
+            createLazyPreferenceControllersToHighlight(screen);
+            hideLazyPreferences(screen);
+        }
         mControllers.stream()
                 .map(controller -> (Preference) findPreference(controller.getPreferenceKey()))
                 .filter(Objects::nonNull)
@@ -242,10 +306,13 @@ public abstract class DashboardFragment extends SettingsPreferenceFragment
     @Override
     public void onStart() {
         super.onStart();
-        final DashboardCategory category =
-                mDashboardFeatureProvider.getTilesForCategory(getCategoryKey());
-        if (category == null) {
-            return;
+        // Don't wait for the tiles being loaded in the background, listen to them regardless.
+        if (!mLoadingDashboardTiles) {
+            final DashboardCategory category =
+                    mDashboardFeatureProvider.getTilesForCategory(getCategoryKey());
+            if (category == null) {
+                return;
+            }
         }
         final Activity activity = getActivity();
         if (activity instanceof CategoryHandler) {
@@ -297,6 +364,7 @@ public abstract class DashboardFragment extends SettingsPreferenceFragment
     @Override
     public void onStop() {
         super.onStop();
+        mStatePrefetchController.cancel();
         unregisterDynamicDataObservers(new ArrayList<>(mRegisteredObservers));
         if (mListeningToCategoryChange) {
             final Activity activity = getActivity();
@@ -336,6 +404,10 @@ public abstract class DashboardFragment extends SettingsPreferenceFragment
 
     protected <T extends AbstractPreferenceController> T use(Class<T> clazz) {
         List<AbstractPreferenceController> controllerList = mPreferenceControllers.get(clazz);
+        if (controllerList == null && !mLazyControllerFactories.isEmpty()) {
+            createAllLazyPreferenceControllers();
+            controllerList = mPreferenceControllers.get(clazz);
+        }
         if (controllerList != null) {
             if (controllerList.size() > 1) {
                 Log.w(TAG, "Multiple controllers of Class " + clazz.getSimpleName()
@@ -350,12 +422,14 @@ public abstract class DashboardFragment extends SettingsPreferenceFragment
     /** Returns grouped controllers of input type T. */
     protected <T extends AbstractPreferenceController> List<AbstractPreferenceController> useGroup(
             Class<T> clazz) {
+        createAllLazyPreferenceControllers();
         return mPreferenceControllers.values().stream().flatMap(Collection::stream).filter(
                 controller -> clazz.isInstance(controller)).toList();
     }
 
     /** Returns all controllers of type T. */
     protected <T extends AbstractPreferenceController> List<T> useAll(Class<T> clazz) {
+        createAllLazyPreferenceControllers();
         return (List<T>) mPreferenceControllers.getOrDefault(clazz, Collections.emptyList());
     }
 
@@ -386,6 +460,201 @@ public abstract class DashboardFragment extends SettingsPreferenceFragment
         return null;
     }
 
+    /**
+     * Get the factories of the {@link AbstractPreferenceController}s which are only created once
+     * needed, keyed by the key of the preference they belong to, usually a category.
+     *
+     * <p>The preference of a factory's key is hidden until its controllers are created, so that
+     * its rows never show the defaults from XML. The controllers are created once a preference
+     * above it on the screen is shown, i.e. one preference of the screen ahead of the list, or
+     * when {@link #use(Class)} and the like need them. They are meant for large pages, most of
+     * which is off screen when the page opens. They must not observe the lifecycle, since they
+     * may be created after it started.
+     */
+    protected Map<String, Supplier<List<AbstractPreferenceController>>>
+            createLazyPreferenceControllers(Context context) {
+        return null;
+    }
+
+    /**
+     * Called once lazily created controllers are added to the fragment. If the preference screen
+     * is created, they have already displayed their preferences.
+     */
+    protected void onLazyPreferenceControllersCreated(
+            List<AbstractPreferenceController> controllers) {
+    }
+
+    /** Creates the lazily created controllers which haven't been created yet. */
+    protected void createAllLazyPreferenceControllers() {
+        if (mLazyControllerFactories.isEmpty()) {
+            return;
+        }
+        final List<String> keys = new ArrayList<>(mLazyControllerFactories.keySet());
+        final List<AbstractPreferenceController> controllers = new ArrayList<>();
+        for (Supplier<List<AbstractPreferenceController>> factory :
+                mLazyControllerFactories.values()) {
+            controllers.addAll(factory.get());
+        }
+        mLazyControllerFactories.clear();
+        addLazyPreferenceControllers(controllers, keys);
+    }
+
+    /**
+     * Creates the lazily created controllers of the preference and of its parents, then those of
+     * the next hidden preference of the screen, so that they are ready before it is shown.
+     */
+    @VisibleForTesting
+    void onPreferenceShown(Preference preference) {
+        createLazyPreferenceControllersForPreference(preference);
+        final PreferenceScreen screen = getPreferenceScreen();
+        if (screen == null || mLazyControllerFactories.isEmpty()) {
+            return;
+        }
+        final int shownIndex = indexOfTopLevelPreference(screen, preference);
+        if (shownIndex < 0) {
+            return;
+        }
+        String nextKey = null;
+        int nextIndex = Integer.MAX_VALUE;
+        for (String key : mLazyControllerFactories.keySet()) {
+            final int index = indexOfTopLevelPreference(screen, screen.findPreference(key));
+            if (index > shownIndex && index < nextIndex) {
+                nextKey = key;
+                nextIndex = index;
+            }
+        }
+        createLazyPreferenceControllersForKey(nextKey);
+    }
+
+    /**
+     * Creates the lazily created controllers of the preference to highlight, e.g. of a search
+     * result, so that it is in the list when the list scrolls to it.
+     */
+    private void createLazyPreferenceControllersToHighlight(PreferenceScreen screen) {
+        if (mLazyControllerFactories.isEmpty()) {
+            return;
+        }
+        final String key = getPreferenceKeyToHighlight();
+        if (TextUtils.isEmpty(key)) {
+            return;
+        }
+        final Preference preference = screen.findPreference(key);
+        if (preference == null) {
+            // It may be added by one of the lazily created controllers.
+            createAllLazyPreferenceControllers();
+            return;
+        }
+        createLazyPreferenceControllersForPreference(preference);
+    }
+
+    /** Creates the lazily created controllers of the preference and of its parents. */
+    private void createLazyPreferenceControllersForPreference(Preference preference) {
+        for (Preference pref = preference; pref != null && !mLazyControllerFactories.isEmpty();
+                pref = pref.getParent()) {
+            createLazyPreferenceControllersForKey(pref.getKey());
+        }
+    }
+
+    private void createLazyPreferenceControllersForKey(@Nullable String key) {
+        if (key == null) {
+            return;
+        }
+        final Supplier<List<AbstractPreferenceController>> factory =
+                mLazyControllerFactories.remove(key);
+        if (factory != null) {
+            addLazyPreferenceControllers(factory.get(), List.of(key));
+        }
+    }
+
+    /** Returns the index in the screen of the preference, or of its parent in the screen. */
+    private static int indexOfTopLevelPreference(PreferenceScreen screen,
+            @Nullable Preference preference) {
+        Preference topLevelPreference = preference;
+        while (topLevelPreference != null && topLevelPreference.getParent() != screen) {
+            topLevelPreference = topLevelPreference.getParent();
+        }
+        if (topLevelPreference == null) {
+            return -1;
+        }
+        for (int i = 0; i < screen.getPreferenceCount(); i++) {
+            if (screen.getPreference(i) == topLevelPreference) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private void hideLazyPreferences(PreferenceScreen screen) {
+        for (String key : mLazyControllerFactories.keySet()) {
+            final Preference preference = screen.findPreference(key);
+            if (preference != null && preference.isVisible()) {
+                preference.setVisible(false);
+                mHiddenLazyPreferenceKeys.add(key);
+            }
+        }
+    }
+
+    private void addLazyPreferenceControllers(List<AbstractPreferenceController> controllers,
+            List<String> keys) {
+        final int metricCategory = getMetricsCategory();
+        for (AbstractPreferenceController controller : controllers) {
+            if (controller instanceof BasePreferenceController) {
+                ((BasePreferenceController) controller).setMetricsCategory(metricCategory);
+            }
+            mControllers.add(controller);
+            addPreferenceController(controller);
+        }
+        if (getView() != null) {
+            final LifecycleOwner viewLifecycleOwner = getViewLifecycleOwner();
+            controllers.forEach(controller -> controller.onViewCreated(viewLifecycleOwner));
+        }
+
+        final PreferenceScreen screen = getPreferenceScreen();
+        if (screen == null) {
+            // The controllers display their preferences along with the others.
+            onLazyPreferenceControllersCreated(controllers);
+            return;
+        }
+        // Shown again along with the states set by the controllers below, in the same frame.
+        for (String key : keys) {
+            final Preference preference =
+                    mHiddenLazyPreferenceKeys.remove(key) ? screen.findPreference(key) : null;
+            if (preference != null) {
+                preference.setVisible(true);
+            }
+        }
+        controllers.forEach(controller -> {
+            if (controller instanceof BasePreferenceController) {
+                ((BasePreferenceController) controller).startAvailabilityPass();
+            }
+        });
+        try {
+            for (AbstractPreferenceController controller : controllers) {
+                controller.displayPreference(screen);
+            }
+            onLazyPreferenceControllersCreated(controllers);
+            for (AbstractPreferenceController controller : controllers) {
+                final String key = controller.getPreferenceKey();
+                final Preference preference =
+                        TextUtils.isEmpty(key) ? null : screen.findPreference(key);
+                if (preference == null) {
+                    continue;
+                }
+                preference.getExtras().putInt(CATEGORY, metricCategory);
+                // Otherwise the state is updated along with the others on resume.
+                if (isResumed() && controller.isAvailable()) {
+                    controller.updateState(preference);
+                }
+            }
+        } finally {
+            controllers.forEach(controller -> {
+                if (controller instanceof BasePreferenceController) {
+                    ((BasePreferenceController) controller).finishAvailabilityPass();
+                }
+            });
+        }
+    }
+
     /**
      * Returns true if this tile should be displayed
      */
@@ -464,6 +733,7 @@ public abstract class DashboardFragment extends SettingsPreferenceFragment
      * Get current PreferenceController(s)
      */
     protected Collection<List<AbstractPreferenceController>> getPreferenceControllers() {
+        createAllLazyPreferenceControllers();
         return mPreferenceControllers.values();
     }
 
@@ -471,6 +741,15 @@ public abstract class DashboardFragment extends SettingsPreferenceFragment
      * Update state of each preference managed by PreferenceController.
      */
     protected void updatePreferenceStates() {
+        startAvailabilityPass();
+        try {
+            updatePreferenceStatesInPass();
+        } finally {
+            finishAvailabilityPass();
+        }
+    }
+
+    private void updatePreferenceStatesInPass() {
         final PreferenceScreen screen = getPreferenceScreen();
         Collection<List<AbstractPreferenceController>> controllerLists =
                 mPreferenceControllers.values();
@@ -493,9 +772,18 @@ public abstract class DashboardFragment extends SettingsPreferenceFragment
                             key, controller.getClass().getSimpleName()));
                     continue;
                 }
+                if (controller instanceof BasePreferenceController.StatePrefetcher
+                        && !mRestoringPreferenceStates) {
+                    mStatePrefetchController.add((BasePreferenceController) controller,
+                            preference);
+                    continue;
+                }
                 controller.updateState(preference);
             }
         }
+        // Compute the states of expensive controllers in parallel, they are applied together
+        // once all of them are ready.
+        mStatePrefetchController.start();
     }
 
     /**
@@ -513,7 +801,11 @@ public abstract class DashboardFragment extends SettingsPreferenceFragment
         // Add resource based tiles.
         displayResourceTiles();
 
-        refreshDashboardTiles(tag);
+        if (shouldLoadDashboardTilesAsync()) {
+            loadDashboardTilesAsync();
+        } else {
+            refreshDashboardTiles(tag);
+        }
 
         final Activity activity = getActivity();
         if (activity != null) {
@@ -524,6 +816,30 @@ public abstract class DashboardFragment extends SettingsPreferenceFragment
         updatePreferenceVisibility(mPreferenceControllers);
     }
 
+    /**
+     * Returns whether the dashboard tiles should be loaded off the main thread when the
+     * preferences are created. If so, the tiles are added through
+     * {@link #onCategoriesChanged(Set)} once loaded.
+     */
+    protected boolean shouldLoadDashboardTilesAsync() {
+        return false;
+    }
+
+    private void loadDashboardTilesAsync() {
+        mLoadingDashboardTiles = true;
+        final String categoryKey = getCategoryKey();
+        ThreadUtils.postOnBackgroundThread(() -> {
+            // Loads and caches the tiles, so that refreshing them on the main thread is cheap.
+            mDashboardFeatureProvider.getTilesForCategory(categoryKey);
+            ThreadUtils.postOnMainThread(() -> {
+                mLoadingDashboardTiles = false;
+                if (getContext() != null && getPreferenceScreen() != null) {
+                    onCategoriesChanged(null /* categories */);
+                }
+            });
+        });
+    }
+
     /**
      * Force update all the preferences in this fragment.
      */
@@ -532,18 +848,48 @@ public abstract class DashboardFragment extends SettingsPreferenceFragment
         if (screen == null || mPreferenceControllers == null) {
             return;
         }
+        startAvailabilityPass();
+        try {
+            for (List<AbstractPreferenceController> controllerList :
+                    mPreferenceControllers.values()) {
+                for (AbstractPreferenceController controller : controllerList) {
+                    final String key = controller.getPreferenceKey();
+                    final Preference preference = findPreference(key);
+                    if (preference == null) {
+                        continue;
+                    }
+                    final boolean available = controller.isAvailable();
+                    if (available) {
+                        controller.updateState(preference);
+                    }
+                    preference.setVisible(available);
+                }
+            }
+        } finally {
+            finishAvailabilityPass();
+        }
+    }
+
+    /**
+     * Starts an availability pass on every {@link BasePreferenceController} so controllers that
+     * cache their availability evaluate it at most once per lifecycle callback.
+     */
+    private void startAvailabilityPass() {
         for (List<AbstractPreferenceController> controllerList : mPreferenceControllers.values()) {
             for (AbstractPreferenceController controller : controllerList) {
-                final String key = controller.getPreferenceKey();
-                final Preference preference = findPreference(key);
-                if (preference == null) {
-                    continue;
+                if (controller instanceof BasePreferenceController) {
+                    ((BasePreferenceController) controller).startAvailabilityPass();
                 }
-                final boolean available = controller.isAvailable();
-                if (available) {
-                    controller.updateState(preference);
+            }
+        }
+    }
+
+    private void finishAvailabilityPass() {
+        for (List<AbstractPreferenceController> controllerList : mPreferenceControllers.values()) {
+            for (AbstractPreferenceController controller : controllerList) {
+                if (controller instanceof BasePreferenceController) {
+                    ((BasePreferenceController) controller).finishAvailabilityPass();
                 }
-                preference.setVisible(available);
             }
         }
     }
@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2025 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.dashboard;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.preference.Preference;
+
+import com.android.settings.core.BasePreferenceController;
+import com.android.settings.core.PreferenceStateSnapshot;
+import com.android.settingslib.utils.ThreadUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Prefetch preference states in parallel on background threads and apply them on the main thread
+ * in a single pass.
+ *
+ * @see BasePreferenceController.StatePrefetcher
+ */
+public class StatePrefetchController {
+    private static final String TAG = "StatePrefetchController";
+    private static final boolean DEBUG = Log.isLoggable(TAG, Log.DEBUG);
+
+    private final List<BasePreferenceController> mControllers = new ArrayList<>();
+    private final List<Preference> mPreferences = new ArrayList<>();
+    // Incremented on every start and cancel, results from older generations are dropped.
+    private int mGeneration;
+
+    /**
+     * Queue {@code controller} to prefetch the state of {@code preference} on the next
+     * {@link #start()}.
+     */
+    @MainThread
+    public void add(@NonNull BasePreferenceController controller,
+            @NonNull Preference preference) {
+        if (!(controller instanceof BasePreferenceController.StatePrefetcher)) {
+            throw new IllegalArgumentException(controller + " is not a StatePrefetcher");
+        }
+        mControllers.add(controller);
+        mPreferences.add(preference);
+    }
+
+    /**
+     * Prefetch the states of all queued controllers, and apply them once all of them are done.
+     * Results of a previous {@link #start()} that haven't been applied yet are dropped.
+     */
+    @MainThread
+    public void start() {
+        final int generation = ++mGeneration;
+        final List<BasePreferenceController> controllers = new ArrayList<>(mControllers);
+        final List<Preference> preferences = new ArrayList<>(mPreferences);
+        mControllers.clear();
+        mPreferences.clear();
+        final int size = controllers.size();
+        if (size == 0) {
+            return;
+        }
+
+        final long startTime = SystemClock.elapsedRealtime();
+        final PreferenceStateSnapshot[] snapshots = new PreferenceStateSnapshot[size];
+        final AtomicInteger remaining = new AtomicInteger(size);
+        for (int i = 0; i < size; i++) {
+            final int index = i;
+            final BasePreferenceController.StatePrefetcher prefetcher =
+                    (BasePreferenceController.StatePrefetcher) controllers.get(i);
+            ThreadUtils.postOnBackgroundThread(() -> {
+                try {
+                    snapshots[index] = prefetcher.prefetchState();
+                } catch (RuntimeException e) {
+                    Log.w(TAG, "Failed to prefetch state of " + prefetcher, e);
+                }
+                // The atomic decrement publishes the snapshot written above to the thread that
+                // observes zero.
+                if (remaining.decrementAndGet() == 0) {
+                    ThreadUtils.postOnMainThread(() ->
+                            apply(generation, controllers, preferences, snapshots, startTime));
+                }
+            });
+        }
+    }
+
+    /**
+     * Drop all queued controllers and any result that hasn't been applied yet.
+     */
+    @MainThread
+    public void cancel() {
+        mGeneration++;
+        mControllers.clear();
+        mPreferences.clear();
+    }
+
+    private void apply(int generation, List<BasePreferenceController> controllers,
+            List<Preference> preferences, PreferenceStateSnapshot[] snapshots, long startTime) {
+        if (generation != mGeneration) {
+            return;
+        }
+        for (int i = 0; i < snapshots.length; i++) {
+            final BasePreferenceController controller = controllers.get(i);
+            final Preference preference = preferences.get(i);
+            if (snapshots[i] == null) {
+                // Fall back to the synchronous path so the preference still shows a valid state.
+                controller.updateState(preference);
+                continue;
+            }
+            ((BasePreferenceController.StatePrefetcher) controller)
+                    .applyState(preference, snapshots[i]);
+        }
+        if (DEBUG) {
+            Log.d(TAG, "Applied " + snapshots.length + " prefetched states in "
+                    + (SystemClock.elapsedRealtime() - startTime) + " ms");
+        }
+    }
+}
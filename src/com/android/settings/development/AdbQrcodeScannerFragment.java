@@ -45,6 +45,7 @@ import androidx.annotation.StringRes;
 
 import com.android.settings.R;
 import com.android.settings.SetupWizardUtils;
+import com.android.settings.utils.QrCodeScanSession;
 import com.android.settings.wifi.dpp.AdbQrCode;
 import com.android.settings.wifi.dpp.WifiDppQrCodeBaseFragment;
 import com.android.settings.wifi.dpp.WifiNetworkConfig;
@@ -72,6 +73,7 @@ public class AdbQrcodeScannerFragment extends WifiDppQrCodeBaseFragment implemen
     private static final long SHOW_SUCCESS_SQUARE_INTERVAL = 1000;
 
     private QrCamera mCamera;
+    private final QrCodeScanSession mScanSession = new QrCodeScanSession(TAG);
     private TextureView mTextureView;
     private QrDecorateView mDecorateView;
     private View mQrCameraView;
@@ -260,15 +262,19 @@ public class AdbQrcodeScannerFragment extends WifiDppQrCodeBaseFragment implemen
 
     @Override
     public Rect getFramePosition(Size previewSize, int cameraOrientation) {
-        return new Rect(0, 0, previewSize.getHeight(), previewSize.getHeight());
+        return QrCodeScanSession.getFramePosition(previewSize);
     }
 
     @Override
     public boolean isValid(String qrCode) {
+        if (mScanSession.isRecentlyRejected(qrCode)) {
+            return false;
+        }
         try {
             // WIFI:T:ADB;S:myname;P:mypass;;
             mAdbQrCode = new AdbQrCode(qrCode);
         } catch (IllegalArgumentException e) {
+            mScanSession.onRejected(qrCode);
             showErrorMessage(R.string.wifi_dpp_qr_code_is_not_valid_format);
             return false;
         }
@@ -280,6 +286,7 @@ public class AdbQrcodeScannerFragment extends WifiDppQrCodeBaseFragment implemen
 
     @Override
     public void handleSuccessfulResult(String qrCode) {
+        mScanSession.onScanSucceeded();
         destroyCamera();
         mDecorateView.setFocused(true);
         mQrCameraView.setVisibility(View.GONE);
@@ -305,6 +312,7 @@ public class AdbQrcodeScannerFragment extends WifiDppQrCodeBaseFragment implemen
         // Check if the camera has alread been created.
         if (mCamera == null) {
             mCamera = new QrCamera(getContext(), this);
+            mScanSession.onScanStarted();
             mCamera.start(surface);
         }
     }
@@ -327,6 +335,7 @@ public class AdbQrcodeScannerFragment extends WifiDppQrCodeBaseFragment implemen
             throw new IllegalStateException("SurfaceTexture is not ready for restarting camera");
         }
 
+        mScanSession.onScanStarted();
         mCamera.start(surfaceTexture);
     }
 
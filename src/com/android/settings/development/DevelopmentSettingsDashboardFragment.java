@@ -43,6 +43,7 @@ import android.os.SystemProperties;
 import android.os.UserManager;
 import android.provider.Settings;
 import android.text.TextUtils;
+import android.util.ArrayMap;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -99,6 +100,8 @@ import com.google.android.setupcompat.util.WizardManagerHelper;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 @SearchIndexable(forTarget = SearchIndexable.ALL & ~SearchIndexable.ARC)
 public class DevelopmentSettingsDashboardFragment extends RestrictedDashboardFragment
@@ -625,12 +628,42 @@ public class DevelopmentSettingsDashboardFragment extends RestrictedDashboardFra
             mPreferenceControllers = new ArrayList<>();
             return null;
         }
-        mPreferenceControllers = buildPreferenceControllers(context, getActivity(),
+        mPreferenceControllers = buildEagerPreferenceControllers(context, getActivity(),
                 getSettingsLifecycle(), this /* devOptionsDashboardFragment */,
                 new BluetoothA2dpConfigStore());
         return mPreferenceControllers;
     }
 
+    @Override
+    protected Map<String, Supplier<List<AbstractPreferenceController>>>
+            createLazyPreferenceControllers(Context context) {
+        if (Utils.isMonkeyRunning()) {
+            return null;
+        }
+        return buildLazyPreferenceControllers(context, this /* devOptionsDashboardFragment */);
+    }
+
+    @Override
+    protected void onLazyPreferenceControllersCreated(
+            List<AbstractPreferenceController> controllers) {
+        mPreferenceControllers.addAll(controllers);
+        // Otherwise the controllers are told when the fragment starts.
+        if (getPreferenceScreen() == null
+                || !DevelopmentSettingsEnabler.isDevelopmentSettingsEnabled(getContext())) {
+            return;
+        }
+        for (AbstractPreferenceController controller : controllers) {
+            if (controller instanceof DeveloperOptionsPreferenceController) {
+                ((DeveloperOptionsPreferenceController) controller).onDeveloperOptionsEnabled();
+            }
+            if (mBluetoothA2dp != null
+                    && controller instanceof BluetoothServiceConnectionListener) {
+                ((BluetoothServiceConnectionListener) controller)
+                        .onBluetoothServiceConnected(mBluetoothA2dp);
+            }
+        }
+    }
+
     private void registerReceivers() {
         LocalBroadcastManager.getInstance(getContext())
                 .registerReceiver(mEnableAdbReceiver, new IntentFilter(
@@ -671,6 +704,8 @@ public class DevelopmentSettingsDashboardFragment extends RestrictedDashboardFra
             return;
         }
 
+        // Every controller resets its setting, including those not shown yet.
+        createAllLazyPreferenceControllers();
         DevelopmentSettingsEnabler.setDevelopmentSettingsEnabled(getContext(), false);
         final SystemPropPoker poker = SystemPropPoker.getInstance();
         poker.blockPokes();
@@ -706,6 +741,23 @@ public class DevelopmentSettingsDashboardFragment extends RestrictedDashboardFra
             @Nullable Activity activity, @Nullable Lifecycle lifecycle,
             @Nullable DevelopmentSettingsDashboardFragment fragment,
             @Nullable BluetoothA2dpConfigStore bluetoothA2dpConfigStore) {
+        final List<AbstractPreferenceController> controllers = buildEagerPreferenceControllers(
+                context, activity, lifecycle, fragment, bluetoothA2dpConfigStore);
+        for (Supplier<List<AbstractPreferenceController>> factory :
+                buildLazyPreferenceControllers(context, fragment).values()) {
+            controllers.addAll(factory.get());
+        }
+        return controllers;
+    }
+
+    /**
+     * Builds the controllers of the first category, which is on screen when the page opens, and
+     * the controllers observing the lifecycle.
+     */
+    private static List<AbstractPreferenceController> buildEagerPreferenceControllers(
+            Context context, @Nullable Activity activity, @Nullable Lifecycle lifecycle,
+            @Nullable DevelopmentSettingsDashboardFragment fragment,
+            @Nullable BluetoothA2dpConfigStore bluetoothA2dpConfigStore) {
         final List<AbstractPreferenceController> controllers = new ArrayList<>();
         controllers.add(new MemoryUsagePreferenceController(context));
         //controllers.add(new BugReportPreferenceController(context));
@@ -729,104 +781,14 @@ public class DevelopmentSettingsDashboardFragment extends RestrictedDashboardFra
         controllers.add(new CoolColorTemperaturePreferenceController(context));
         controllers.add(new DisableAutomaticUpdatesPreferenceController(context));
         controllers.add(new SelectDSUPreferenceController(context));
-        controllers.add(new AdbPreferenceController(context, fragment));
-        controllers.add(new ClearAdbKeysPreferenceController(context, fragment));
-        controllers.add(new WirelessDebuggingPreferenceController(context, lifecycle));
-        controllers.add(new AdbRootPreferenceController(context, fragment));
-        controllers.add(new AdbAuthorizationTimeoutPreferenceController(context));
-        controllers.add(new LocalTerminalPreferenceController(context));
-        controllers.add(new LinuxTerminalPreferenceController(context));
-        //controllers.add(new BugReportInPowerPreferenceController(context));
-        controllers.add(new AutomaticSystemServerHeapDumpPreferenceController(context));
-        controllers.add(new MockLocationAppPreferenceController(context, fragment));
-        controllers.add(new MockModemPreferenceController(context));
-        controllers.add(new DebugViewAttributesPreferenceController(context));
-        controllers.add(new SelectDebugAppPreferenceController(context, fragment));
-        controllers.add(new WaitForDebuggerPreferenceController(context));
-        controllers.add(new EnableGpuDebugLayersPreferenceController(context));
-        controllers.add(new GraphicsDriverEnableAngleAsSystemDriverController(context, fragment));
-        controllers.add(new ForcePeakRefreshRatePreferenceController(context));
-        controllers.add(new EnableVerboseVendorLoggingPreferenceController(context));
-        controllers.add(new VerifyAppsOverUsbPreferenceController(context));
-        controllers.add(new ArtVerifierPreferenceController(context));
-        controllers.add(new LogdSizePreferenceController(context));
-        controllers.add(new LogPersistPreferenceController(context, fragment, lifecycle));
-        controllers.add(new CameraLaserSensorPreferenceController(context));
-        if (context.getPackageManager().hasSystemFeature(PackageManager.FEATURE_WIFI)) {
-            controllers.add(new WifiDisplayCertificationPreferenceController(context));
-            controllers.add(new WifiVerboseLoggingPreferenceController(context));
-            controllers.add(new WifiScanThrottlingPreferenceController(context));
-            controllers.add(new WifiNonPersistentMacRandomizationPreferenceController(context));
-        }
-        controllers.add(new MobileDataAlwaysOnPreferenceController(context));
-        controllers.add(new TetheringHardwareAccelPreferenceController(context));
-        controllers.add(new BluetoothDeviceNoNamePreferenceController(context));
-        controllers.add(new BluetoothAbsoluteVolumePreferenceController(context));
-        controllers.add(new BluetoothAvrcpVersionPreferenceController(context));
-        controllers.add(new BluetoothMapVersionPreferenceController(context));
-        controllers.add(new BluetoothLeAudioPreferenceController(context, fragment));
-        controllers.add(new BluetoothLeAudioModePreferenceController(context, fragment));
-        controllers.add(new BluetoothLeAudioUiPreferenceController(context, fragment));
-        controllers.add(new BluetoothLeAudioDeviceDetailsPreferenceController(context));
-        controllers.add(new BluetoothLeAudioAllowListPreferenceController(context));
-        controllers.add(new BluetoothA2dpHwOffloadPreferenceController(context, fragment));
-        controllers.add(new BluetoothLeAudioHwOffloadPreferenceController(context, fragment));
-        controllers.add(new BluetoothMaxConnectedAudioDevicesPreferenceController(context));
-        controllers.add(new NfcSnoopLogPreferenceController(context, fragment));
-        controllers.add(new NfcVerboseVendorLogPreferenceController(context, fragment));
-        controllers.add(new ShowTapsPreferenceController(context));
-        controllers.add(new PointerLocationPreferenceController(context));
-        controllers.add(new ShowKeyPressesPreferenceController(context));
-        controllers.add(new TouchpadVisualizerPreferenceController(context));
-        controllers.add(new ShowSurfaceUpdatesPreferenceController(context));
-        controllers.add(new ShowLayoutBoundsPreferenceController(context));
-        controllers.add(new ShowHdrSdrRatioPreferenceController(context));
-        controllers.add(new ShowRefreshRatePreferenceController(context));
-        controllers.add(new RtlLayoutPreferenceController(context));
-        controllers.add(new WindowAnimationScalePreferenceController(context));
-        controllers.add(new TransparentNavigationBarPreferenceController(context));
-        controllers.add(new TransitionAnimationScalePreferenceController(context));
-        controllers.add(new AnimatorDurationScalePreferenceController(context));
-        controllers.add(new SecondaryDisplayPreferenceController(context));
-        controllers.add(new GpuViewUpdatesPreferenceController(context));
-        controllers.add(new HardwareLayersUpdatesPreferenceController(context));
-        controllers.add(new DebugGpuOverdrawPreferenceController(context));
-        controllers.add(new DebugNonRectClipOperationsPreferenceController(context));
-        controllers.add(new GameDefaultFrameRatePreferenceController(context));
-        controllers.add(new ForceDarkPreferenceController(context));
-        controllers.add(new ForceMSAAPreferenceController(context));
-        controllers.add(new HardwareOverlaysPreferenceController(context));
-        controllers.add(new SimulateColorSpacePreferenceController(context));
-        controllers.add(new SetGpuRendererPreferenceController(context));
-        controllers.add(new UsbAudioRoutingPreferenceController(context));
-        controllers.add(new StrictModePreferenceController(context));
-        controllers.add(new ProfileGpuRenderingPreferenceController(context));
-        controllers.add(new KeepActivitiesPreferenceController(context));
-        controllers.add(new BackgroundProcessLimitPreferenceController(context));
-        controllers.add(new CachedAppsFreezerPreferenceController(context));
-        controllers.add(new ShowFirstCrashDialogPreferenceController(context));
-        controllers.add(new AppsNotRespondingPreferenceController(context));
-        controllers.add(new NotificationChannelWarningsPreferenceController(context));
-        controllers.add(new AllowAppsOnExternalPreferenceController(context));
-        controllers.add(new ResizableActivityPreferenceController(context));
-        controllers.add(new FreeformWindowsPreferenceController(context, fragment));
-        controllers.add(new DesktopModePreferenceController(context, fragment));
-        controllers.add(new DesktopModeSecondaryDisplayPreferenceController(context, fragment));
-        controllers.add(new DesktopExperiencePreferenceController(context, fragment));
-        controllers.add(new NonResizableMultiWindowPreferenceController(context));
-        controllers.add(new ShortcutManagerThrottlingPreferenceController(context));
-        controllers.add(new EnableGnssRawMeasFullTrackingPreferenceController(context));
         controllers.add(new DefaultLaunchPreferenceController(context, "running_apps"));
         controllers.add(new DefaultLaunchPreferenceController(context, "demo_mode"));
         controllers.add(new DefaultLaunchPreferenceController(context, "quick_settings_tiles"));
-        controllers.add(new DefaultLaunchPreferenceController(context, "feature_flags_dashboard"));
-        controllers.add(new DefaultUsbConfigurationPreferenceController(context));
-        controllers.add(new DefaultLaunchPreferenceController(context, "density"));
-        controllers.add(new DefaultLaunchPreferenceController(context, "background_check"));
-        controllers.add(new DefaultLaunchPreferenceController(context, "inactive_apps"));
+        controllers.add(new GrammaticalGenderPreferenceController(context));
+        controllers.add(new WirelessDebuggingPreferenceController(context, lifecycle));
+        controllers.add(new LogPersistPreferenceController(context, fragment, lifecycle));
         controllers.add(new AutofillCategoryController(context, lifecycle));
         controllers.add(new AutofillLoggingLevelPreferenceController(context, lifecycle));
-        controllers.add(new AutofillResetOptionsPreferenceController(context));
         controllers.add(
                 new BluetoothCodecListPreferenceController(
                         context, lifecycle, bluetoothA2dpConfigStore, fragment));
@@ -840,19 +802,142 @@ public class DevelopmentSettingsDashboardFragment extends RestrictedDashboardFra
                 bluetoothA2dpConfigStore));
         controllers.add(new BluetoothHDAudioPreferenceController(context, lifecycle,
                 bluetoothA2dpConfigStore, fragment));
-        controllers.add(new SharedDataPreferenceController(context));
-        controllers.add(new OverlaySettingsPreferenceController(context));
-        controllers.add(new StylusHandwritingPreferenceController(context));
-        controllers.add(new IngressRateLimitPreferenceController((context)));
-        controllers.add(new PhantomProcessPreferenceController(context));
-        controllers.add(new ForceEnableNotesRolePreferenceController(context));
-        controllers.add(new GrammaticalGenderPreferenceController(context));
-        controllers.add(new SensitiveContentProtectionPreferenceController(context));
-        controllers.add(new ShadeDisplayAwarenessPreferenceController(context));
-
         return controllers;
     }
 
+    /**
+     * Builds the factories of the controllers of the other categories, keyed by category.
+     */
+    private static ArrayMap<String, Supplier<List<AbstractPreferenceController>>>
+            buildLazyPreferenceControllers(Context context,
+                    @Nullable DevelopmentSettingsDashboardFragment fragment) {
+        final ArrayMap<String, Supplier<List<AbstractPreferenceController>>> factories =
+                new ArrayMap<>();
+        factories.put("debug_debugging_category", () -> {
+            final List<AbstractPreferenceController> controllers = new ArrayList<>();
+            controllers.add(new AdbPreferenceController(context, fragment));
+            controllers.add(new ClearAdbKeysPreferenceController(context, fragment));
+            controllers.add(new AdbRootPreferenceController(context, fragment));
+            controllers.add(new AdbAuthorizationTimeoutPreferenceController(context));
+            controllers.add(new LocalTerminalPreferenceController(context));
+            controllers.add(new LinuxTerminalPreferenceController(context));
+            //controllers.add(new BugReportInPowerPreferenceController(context));
+            controllers.add(new AutomaticSystemServerHeapDumpPreferenceController(context));
+            controllers.add(new MockModemPreferenceController(context));
+            controllers.add(new DebugViewAttributesPreferenceController(context));
+            controllers.add(new SelectDebugAppPreferenceController(context, fragment));
+            controllers.add(new WaitForDebuggerPreferenceController(context));
+            controllers.add(new EnableGpuDebugLayersPreferenceController(context));
+            controllers.add(
+                    new GraphicsDriverEnableAngleAsSystemDriverController(context, fragment));
+            controllers.add(new ForcePeakRefreshRatePreferenceController(context));
+            controllers.add(new EnableVerboseVendorLoggingPreferenceController(context));
+            controllers.add(new VerifyAppsOverUsbPreferenceController(context));
+            controllers.add(new ArtVerifierPreferenceController(context));
+            controllers.add(new LogdSizePreferenceController(context));
+            controllers.add(new CameraLaserSensorPreferenceController(context));
+            controllers.add(new ShowHdrSdrRatioPreferenceController(context));
+            controllers.add(new ShowRefreshRatePreferenceController(context));
+            controllers.add(new GameDefaultFrameRatePreferenceController(context));
+            controllers.add(
+                    new DefaultLaunchPreferenceController(context, "feature_flags_dashboard"));
+            controllers.add(new OverlaySettingsPreferenceController(context));
+            return controllers;
+        });
+        factories.put("debug_networking_category", () -> {
+            final List<AbstractPreferenceController> controllers = new ArrayList<>();
+            if (context.getPackageManager().hasSystemFeature(PackageManager.FEATURE_WIFI)) {
+                controllers.add(new WifiDisplayCertificationPreferenceController(context));
+                controllers.add(new WifiVerboseLoggingPreferenceController(context));
+                controllers.add(new WifiScanThrottlingPreferenceController(context));
+                controllers.add(
+                        new WifiNonPersistentMacRandomizationPreferenceController(context));
+            }
+            controllers.add(new MobileDataAlwaysOnPreferenceController(context));
+            controllers.add(new TetheringHardwareAccelPreferenceController(context));
+            controllers.add(new BluetoothDeviceNoNamePreferenceController(context));
+            controllers.add(new BluetoothAbsoluteVolumePreferenceController(context));
+            controllers.add(new BluetoothAvrcpVersionPreferenceController(context));
+            controllers.add(new BluetoothMapVersionPreferenceController(context));
+            controllers.add(new BluetoothLeAudioPreferenceController(context, fragment));
+            controllers.add(new BluetoothLeAudioModePreferenceController(context, fragment));
+            controllers.add(new BluetoothLeAudioUiPreferenceController(context, fragment));
+            controllers.add(new BluetoothLeAudioDeviceDetailsPreferenceController(context));
+            controllers.add(new BluetoothLeAudioAllowListPreferenceController(context));
+            controllers.add(new BluetoothA2dpHwOffloadPreferenceController(context, fragment));
+            controllers.add(
+                    new BluetoothLeAudioHwOffloadPreferenceController(context, fragment));
+            controllers.add(new BluetoothMaxConnectedAudioDevicesPreferenceController(context));
+            controllers.add(new NfcSnoopLogPreferenceController(context, fragment));
+            controllers.add(new NfcVerboseVendorLogPreferenceController(context, fragment));
+            controllers.add(new DefaultUsbConfigurationPreferenceController(context));
+            controllers.add(new IngressRateLimitPreferenceController((context)));
+            return controllers;
+        });
+        factories.put("debug_input_category", () -> List.of(
+                new ShowTapsPreferenceController(context),
+                new PointerLocationPreferenceController(context),
+                new ShowKeyPressesPreferenceController(context),
+                new TouchpadVisualizerPreferenceController(context)));
+        factories.put("debug_drawing_category", () -> List.of(
+                new ShowSurfaceUpdatesPreferenceController(context),
+                new ShowLayoutBoundsPreferenceController(context),
+                new RtlLayoutPreferenceController(context),
+                new WindowAnimationScalePreferenceController(context),
+                new TransparentNavigationBarPreferenceController(context),
+                new TransitionAnimationScalePreferenceController(context),
+                new AnimatorDurationScalePreferenceController(context),
+                new SecondaryDisplayPreferenceController(context),
+                new DefaultLaunchPreferenceController(context, "density"),
+                new ShadeDisplayAwarenessPreferenceController(context)));
+        factories.put("debug_hw_drawing_category", () -> List.of(
+                new GpuViewUpdatesPreferenceController(context),
+                new HardwareLayersUpdatesPreferenceController(context),
+                new DebugGpuOverdrawPreferenceController(context),
+                new DebugNonRectClipOperationsPreferenceController(context),
+                new ForceDarkPreferenceController(context),
+                new ForceMSAAPreferenceController(context),
+                new HardwareOverlaysPreferenceController(context),
+                new SimulateColorSpacePreferenceController(context),
+                new SetGpuRendererPreferenceController(context)));
+        factories.put("media_category", () -> List.of(
+                new UsbAudioRoutingPreferenceController(context)));
+        factories.put("debug_monitoring_category", () -> List.of(
+                new StrictModePreferenceController(context),
+                new ProfileGpuRenderingPreferenceController(context)));
+        factories.put("debug_applications_category", () -> List.of(
+                new KeepActivitiesPreferenceController(context),
+                new BackgroundProcessLimitPreferenceController(context),
+                new CachedAppsFreezerPreferenceController(context),
+                new ShowFirstCrashDialogPreferenceController(context),
+                new AppsNotRespondingPreferenceController(context),
+                new NotificationChannelWarningsPreferenceController(context),
+                new AllowAppsOnExternalPreferenceController(context),
+                new ShortcutManagerThrottlingPreferenceController(context),
+                new DefaultLaunchPreferenceController(context, "background_check"),
+                new DefaultLaunchPreferenceController(context, "inactive_apps"),
+                new PhantomProcessPreferenceController(context),
+                new ForceEnableNotesRolePreferenceController(context),
+                new SensitiveContentProtectionPreferenceController(context)));
+        factories.put("window_management_category", () -> List.of(
+                new ResizableActivityPreferenceController(context),
+                new FreeformWindowsPreferenceController(context, fragment),
+                new DesktopModePreferenceController(context, fragment),
+                new DesktopModeSecondaryDisplayPreferenceController(context, fragment),
+                new DesktopExperiencePreferenceController(context, fragment),
+                new NonResizableMultiWindowPreferenceController(context)));
+        factories.put("debug_autofill_category", () -> List.of(
+                new AutofillResetOptionsPreferenceController(context)));
+        factories.put("storage_category", () -> List.of(
+                new SharedDataPreferenceController(context)));
+        factories.put("location_category", () -> List.of(
+                new MockLocationAppPreferenceController(context, fragment),
+                new EnableGnssRawMeasFullTrackingPreferenceController(context)));
+        factories.put("input_method_category", () -> List.of(
+                new StylusHandwritingPreferenceController(context)));
+        return factories;
+    }
+
     @VisibleForTesting
     <T extends AbstractPreferenceController> T getDevelopmentOptionsController(Class<T> clazz) {
         return use(clazz);
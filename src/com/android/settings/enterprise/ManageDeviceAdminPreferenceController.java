@@ -18,13 +18,17 @@ import static android.app.admin.DevicePolicyResources.Strings.Settings.NUMBER_OF
 import android.app.admin.DevicePolicyManager;
 import android.content.Context;
 
+import androidx.preference.Preference;
+
 import com.android.settings.R;
 import com.android.settings.core.BasePreferenceController;
+import com.android.settings.core.PreferenceStateSnapshot;
 import com.android.settings.overlay.FeatureFactory;
 import com.android.settingslib.utils.StringUtil;
 
 
-public class ManageDeviceAdminPreferenceController extends BasePreferenceController {
+public class ManageDeviceAdminPreferenceController extends BasePreferenceController
+        implements BasePreferenceController.StatePrefetcher {
 
     private final EnterprisePrivacyFeatureProvider mFeatureProvider;
     private final DevicePolicyManager mDevicePolicyManager;
@@ -52,6 +56,17 @@ public class ManageDeviceAdminPreferenceController extends BasePreferenceControl
                 R.string.number_of_device_admins);
     }
 
+    @Override
+    public void updateState(Preference preference) {
+        applyState(preference, prefetchState());
+    }
+
+    /** Counting the admins queries the device policy service for every profile. */
+    @Override
+    public PreferenceStateSnapshot prefetchState() {
+        return new PreferenceStateSnapshot.Builder().setSummary(getSummary()).build();
+    }
+
     @Override
     public int getAvailabilityStatus() {
         return mContext.getResources().getBoolean(R.bool.config_show_manage_device_admin)
@@ -0,0 +1,194 @@
+/*
+ * Copyright (C) 2025 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the
+ * License is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+
+package com.android.settings.fuelgauge;
+
+import android.os.BatteryStats.HistoryItem;
+
+import com.android.internal.os.BatteryStatsHistoryIterator;
+
+import java.util.Arrays;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Battery history records kept in primitive arrays, together with the wall clock bounds of the
+ * history. The history is iterated once to build it, after which it can be replayed to any number
+ * of {@link BatteryInfo.BatteryDataParser}s.
+ *
+ * <p>Only the fields of {@link HistoryItem} used by the parsers are kept: the command, the
+ * elapsed and wall clock times, the battery level, status and plug type and the states.
+ *
+ * <p>Reading and replaying the history stop with a {@link CancellationException} once the calling
+ * thread is interrupted, so that a caller giving up on a long history doesn't wait for all of it.
+ */
+final class BatteryHistorySeries {
+    private static final int INITIAL_CAPACITY = 256;
+    private static final long MAX_WALL_TIME_JUMP_MS = 180 * 24 * 60 * 60 * 1000L;
+    private static final long HISTORY_START_NOISE_MS = 5 * 60 * 1000L;
+    private static final long MAX_TIME_CHANGE_WITHOUT_GAP_MS = 60 * 60 * 1000L;
+    // Number of records between two checks for an interrupt.
+    private static final int INTERRUPT_CHECK_INTERVAL = 256;
+
+    private int mSize;
+    private byte[] mCmds = new byte[INITIAL_CAPACITY];
+    private long[] mTimes = new long[INITIAL_CAPACITY];
+    private long[] mCurrentTimes = new long[INITIAL_CAPACITY];
+    private byte[] mBatteryLevels = new byte[INITIAL_CAPACITY];
+    private byte[] mBatteryStatuses = new byte[INITIAL_CAPACITY];
+    private byte[] mBatteryPlugTypes = new byte[INITIAL_CAPACITY];
+    private int[] mStates = new int[INITIAL_CAPACITY];
+    private int[] mStates2 = new int[INITIAL_CAPACITY];
+
+    private long mStartWalltime;
+    private long mEndWalltime;
+    private long mHistoryStart;
+    private long mLastRealtime;
+
+    private BatteryHistorySeries() {}
+
+    /** Reads the history of the iterator in a single pass. */
+    static BatteryHistorySeries parse(BatteryStatsHistoryIterator iterator) {
+        final BatteryHistorySeries series = new BatteryHistorySeries();
+        long startWalltime = 0;
+        long historyEnd = 0;
+        long lastWallTime = 0;
+        long lastRealtime = 0;
+        int lastInteresting = 0;
+        boolean first = true;
+        HistoryItem rec;
+        while ((rec = iterator.next()) != null) {
+            throwIfInterrupted(series.mSize);
+            series.add(rec);
+            if (first) {
+                first = false;
+                series.mHistoryStart = rec.time;
+            }
+            if (rec.cmd == HistoryItem.CMD_CURRENT_TIME || rec.cmd == HistoryItem.CMD_RESET) {
+                // If there is a ridiculously large jump in time, then we won't be
+                // able to create a good chart with that data, so just ignore the
+                // times we got before and pretend like our data extends back from
+                // the time we have now.
+                // Also, if we are getting a time change and we are less than 5 minutes
+                // since the start of the history real time, then also use this new
+                // time to compute the base time, since whatever time we had before is
+                // pretty much just noise.
+                if (rec.currentTime > (lastWallTime + MAX_WALL_TIME_JUMP_MS)
+                        || rec.time < (series.mHistoryStart + HISTORY_START_NOISE_MS)) {
+                    startWalltime = 0;
+                }
+                lastWallTime = rec.currentTime;
+                lastRealtime = rec.time;
+                if (startWalltime == 0) {
+                    startWalltime = lastWallTime - (lastRealtime - series.mHistoryStart);
+                }
+            }
+            if (rec.isDeltaData()) {
+                lastInteresting = series.mSize;
+                historyEnd = rec.time;
+            }
+        }
+        // Records after the last data point are never replayed.
+        series.mSize = lastInteresting;
+        series.mStartWalltime = startWalltime;
+        series.mEndWalltime = lastWallTime + historyEnd - lastRealtime;
+        series.mLastRealtime = lastRealtime;
+        return series;
+    }
+
+    /** Replays the history to the parsers. */
+    void replay(BatteryInfo.BatteryDataParser... parsers) {
+        for (BatteryInfo.BatteryDataParser parser : parsers) {
+            parser.onParsingStarted(mStartWalltime, mEndWalltime);
+        }
+
+        if (mEndWalltime > mStartWalltime) {
+            // A single record is handed to the parsers, like the history iterator does.
+            final HistoryItem rec = new HistoryItem();
+            long curWalltime = 0;
+            long lastRealtime = mLastRealtime;
+            for (int i = 0; i < mSize; i++) {
+                throwIfInterrupted(i);
+                rec.cmd = mCmds[i];
+                rec.time = mTimes[i];
+                rec.currentTime = mCurrentTimes[i];
+                rec.batteryLevel = mBatteryLevels[i];
+                rec.batteryStatus = mBatteryStatuses[i];
+                rec.batteryPlugType = mBatteryPlugTypes[i];
+                rec.states = mStates[i];
+                rec.states2 = mStates2[i];
+                if (rec.isDeltaData()) {
+                    curWalltime += rec.time - lastRealtime;
+                    lastRealtime = rec.time;
+                    final long x = Math.max(curWalltime - mStartWalltime, 0);
+                    for (BatteryInfo.BatteryDataParser parser : parsers) {
+                        parser.onDataPoint(x, rec);
+                    }
+                } else {
+                    final long lastWalltime = curWalltime;
+                    if (rec.cmd == HistoryItem.CMD_CURRENT_TIME
+                            || rec.cmd == HistoryItem.CMD_RESET) {
+                        if (rec.currentTime >= mStartWalltime) {
+                            curWalltime = rec.currentTime;
+                        } else {
+                            curWalltime = mStartWalltime + (rec.time - mHistoryStart);
+                        }
+                        lastRealtime = rec.time;
+                    }
+
+                    if (rec.cmd != HistoryItem.CMD_OVERFLOW
+                            && (rec.cmd != HistoryItem.CMD_CURRENT_TIME
+                                    || Math.abs(lastWalltime - curWalltime)
+                                            > MAX_TIME_CHANGE_WITHOUT_GAP_MS)) {
+                        for (BatteryInfo.BatteryDataParser parser : parsers) {
+                            parser.onDataGap();
+                        }
+                    }
+                }
+            }
+        }
+
+        for (BatteryInfo.BatteryDataParser parser : parsers) {
+            parser.onParsingDone();
+        }
+    }
+
+    private static void throwIfInterrupted(int index) {
+        if (index % INTERRUPT_CHECK_INTERVAL == 0 && Thread.currentThread().isInterrupted()) {
+            throw new CancellationException("Interrupted at battery history record " + index);
+        }
+    }
+
+    private void add(HistoryItem rec) {
+        if (mSize == mTimes.length) {
+            final int capacity = mSize * 2;
+            mCmds = Arrays.copyOf(mCmds, capacity);
+            mTimes = Arrays.copyOf(mTimes, capacity);
+            mCurrentTimes = Arrays.copyOf(mCurrentTimes, capacity);
+            mBatteryLevels = Arrays.copyOf(mBatteryLevels, capacity);
+            mBatteryStatuses = Arrays.copyOf(mBatteryStatuses, capacity);
+            mBatteryPlugTypes = Arrays.copyOf(mBatteryPlugTypes, capacity);
+            mStates = Arrays.copyOf(mStates, capacity);
+            mStates2 = Arrays.copyOf(mStates2, capacity);
+        }
+        mCmds[mSize] = rec.cmd;
+        mTimes[mSize] = rec.time;
+        mCurrentTimes[mSize] = rec.currentTime;
+        mBatteryLevels[mSize] = rec.batteryLevel;
+        mBatteryStatuses[mSize] = rec.batteryStatus;
+        mBatteryPlugTypes[mSize] = rec.batteryPlugType;
+        mStates[mSize] = rec.states;
+        mStates2[mSize] = rec.states2;
+        mSize++;
+    }
+}
@@ -21,7 +21,6 @@ import android.content.res.Resources;
 import android.os.AsyncTask;
 import android.os.BatteryManager;
 import android.os.BatteryStats.HistoryItem;
-import android.os.BatteryStatsManager;
 import android.os.BatteryUsageStats;
 import android.os.SystemClock;
 import android.provider.Settings;
@@ -33,7 +32,6 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.WorkerThread;
 
-import com.android.internal.os.BatteryStatsHistoryIterator;
 import com.android.settings.Utils;
 import com.android.settings.overlay.FeatureFactory;
 import com.android.settings.widget.UsageView;
@@ -63,6 +61,7 @@ public class BatteryInfo {
     public String suggestionLabel;
     private boolean mCharging;
     private BatteryUsageStats mBatteryUsageStats;
+    private BatteryHistorySeries mBatteryHistorySeries;
     private static final String LOG_TAG = "BatteryInfo";
     private long timePeriod;
 
@@ -181,31 +180,14 @@ public class BatteryInfo {
         new AsyncTask<Void, Void, BatteryInfo>() {
             @Override
             protected BatteryInfo doInBackground(Void... params) {
-                boolean shouldCloseBatteryUsageStats = false;
-                BatteryUsageStats stats;
                 if (batteryUsageStats != null) {
-                    stats = batteryUsageStats;
-                } else {
-                    try {
-                        stats =
-                                context.getSystemService(BatteryStatsManager.class)
-                                        .getBatteryUsageStats();
-                        shouldCloseBatteryUsageStats = true;
-                    } catch (RuntimeException e) {
-                        Log.e(TAG, "getBatteryInfo() from getBatteryUsageStats()", e);
-                        // Use default BatteryUsageStats.
-                        stats = new BatteryUsageStats.Builder(new String[0]).build();
-                    }
+                    return getBatteryInfo(context, batteryUsageStats, shortString);
                 }
-                final BatteryInfo batteryInfo = getBatteryInfo(context, stats, shortString);
-                if (shouldCloseBatteryUsageStats) {
-                    try {
-                        stats.close();
-                    } catch (Exception e) {
-                        Log.e(TAG, "BatteryUsageStats.close() failed", e);
-                    }
+                try (BatteryUsageStatsBroker.Ref batteryUsageStatsRef =
+                        BatteryUsageStatsBroker.acquire(
+                                context, /* includeBatteryHistory= */ false)) {
+                    return getBatteryInfo(context, batteryUsageStatsRef.get(), shortString);
                 }
-                return batteryInfo;
             }
 
             @Override
@@ -586,102 +568,19 @@ public class BatteryInfo {
 
     /**
      * Iterates over battery history included in the BatteryUsageStats that this object was
-     * initialized with.
+     * initialized with. The history is only read once, later calls replay the parsed records.
+     * Throws a {@link java.util.concurrent.CancellationException} if the calling thread is
+     * interrupted before it is done, in which case the next call reads the history again.
      */
     public void parseBatteryHistory(BatteryDataParser... parsers) {
-        long startWalltime = 0;
-        long endWalltime = 0;
-        long historyStart = 0;
-        long historyEnd = 0;
-        long curWalltime = startWalltime;
-        long lastWallTime = 0;
-        long lastRealtime = 0;
-        int lastInteresting = 0;
-        int pos = 0;
-        boolean first = true;
-        final BatteryStatsHistoryIterator iterator1 =
-                mBatteryUsageStats.iterateBatteryStatsHistory();
-        HistoryItem rec;
-        while ((rec = iterator1.next()) != null) {
-            pos++;
-            if (first) {
-                first = false;
-                historyStart = rec.time;
-            }
-            if (rec.cmd == HistoryItem.CMD_CURRENT_TIME || rec.cmd == HistoryItem.CMD_RESET) {
-                // If there is a ridiculously large jump in time, then we won't be
-                // able to create a good chart with that data, so just ignore the
-                // times we got before and pretend like our data extends back from
-                // the time we have now.
-                // Also, if we are getting a time change and we are less than 5 minutes
-                // since the start of the history real time, then also use this new
-                // time to compute the base time, since whatever time we had before is
-                // pretty much just noise.
-                if (rec.currentTime > (lastWallTime + (180 * 24 * 60 * 60 * 1000L))
-                        || rec.time < (historyStart + (5 * 60 * 1000L))) {
-                    startWalltime = 0;
-                }
-                lastWallTime = rec.currentTime;
-                lastRealtime = rec.time;
-                if (startWalltime == 0) {
-                    startWalltime = lastWallTime - (lastRealtime - historyStart);
-                }
-            }
-            if (rec.isDeltaData()) {
-                lastInteresting = pos;
-                historyEnd = rec.time;
-            }
-        }
-
-        endWalltime = lastWallTime + historyEnd - lastRealtime;
-
-        int i = 0;
-        final int N = lastInteresting;
-
-        for (int j = 0; j < parsers.length; j++) {
-            parsers[j].onParsingStarted(startWalltime, endWalltime);
-        }
-
-        if (endWalltime > startWalltime) {
-            final BatteryStatsHistoryIterator iterator2 =
-                    mBatteryUsageStats.iterateBatteryStatsHistory();
-            while ((rec = iterator2.next()) != null && i < N) {
-                if (rec.isDeltaData()) {
-                    curWalltime += rec.time - lastRealtime;
-                    lastRealtime = rec.time;
-                    long x = (curWalltime - startWalltime);
-                    if (x < 0) {
-                        x = 0;
-                    }
-                    for (int j = 0; j < parsers.length; j++) {
-                        parsers[j].onDataPoint(x, rec);
-                    }
-                } else {
-                    long lastWalltime = curWalltime;
-                    if (rec.cmd == HistoryItem.CMD_CURRENT_TIME
-                            || rec.cmd == HistoryItem.CMD_RESET) {
-                        if (rec.currentTime >= startWalltime) {
-                            curWalltime = rec.currentTime;
-                        } else {
-                            curWalltime = startWalltime + (rec.time - historyStart);
-                        }
-                        lastRealtime = rec.time;
-                    }
-
-                    if (rec.cmd != HistoryItem.CMD_OVERFLOW
-                            && (rec.cmd != HistoryItem.CMD_CURRENT_TIME
-                                    || Math.abs(lastWalltime - curWalltime) > (60 * 60 * 1000))) {
-                        for (int j = 0; j < parsers.length; j++) {
-                            parsers[j].onDataGap();
-                        }
-                    }
-                }
-                i++;
-            }
-        }
+        getBatteryHistorySeries().replay(parsers);
+    }
 
-        for (int j = 0; j < parsers.length; j++) {
-            parsers[j].onParsingDone();
+    private synchronized BatteryHistorySeries getBatteryHistorySeries() {
+        if (mBatteryHistorySeries == null) {
+            mBatteryHistorySeries =
+                    BatteryHistorySeries.parse(mBatteryUsageStats.iterateBatteryStatsHistory());
         }
+        return mBatteryHistorySeries;
     }
 }
@@ -0,0 +1,250 @@
+/*
+ * Copyright (C) 2025 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.fuelgauge;
+
+import android.content.Context;
+import android.os.BatteryStatsManager;
+import android.os.BatteryUsageStats;
+import android.os.BatteryUsageStatsQuery;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.annotation.GuardedBy;
+import androidx.annotation.NonNull;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+import com.android.settingslib.utils.ThreadUtils;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Shares one {@link BatteryUsageStats} snapshot between the battery pages and loaders of the
+ * process.
+ *
+ * <p>A snapshot is reused for {@link #FRESHNESS_WINDOW_MS} after it was fetched, and concurrent
+ * requests wait for the fetch in flight instead of starting their own. A snapshot with battery
+ * history also serves requests which don't need it. The snapshot is closed once every
+ * {@link Ref} handed out for it is closed and it is no longer fresh.
+ */
+public final class BatteryUsageStatsBroker {
+    private static final String TAG = "BatteryUsageStatsBroker";
+
+    @VisibleForTesting
+    static final long FRESHNESS_WINDOW_MS = 3000;
+
+    private static final Object sLock = new Object();
+
+    @GuardedBy("sLock")
+    private static Snapshot sSnapshot;
+    @GuardedBy("sLock")
+    private static PendingFetch sPendingFetch;
+
+    private static final Runnable sTrimRunnable = BatteryUsageStatsBroker::trimIfStale;
+
+    private BatteryUsageStatsBroker() {}
+
+    /**
+     * Returns a reference to a fresh {@link BatteryUsageStats} snapshot, fetching it if needed.
+     * The caller must close the reference once it no longer uses the stats.
+     */
+    @WorkerThread
+    @NonNull
+    public static Ref acquire(@NonNull Context context, boolean includeBatteryHistory) {
+        final BatteryStatsManager batteryStatsManager =
+                context.getApplicationContext().getSystemService(BatteryStatsManager.class);
+        final PendingFetch fetch;
+        final boolean isOwner;
+        synchronized (sLock) {
+            if (sSnapshot != null
+                    && sSnapshot.canServe(batteryStatsManager, includeBatteryHistory)) {
+                sSnapshot.mRefCount++;
+                return new Ref(sSnapshot);
+            }
+            if (sPendingFetch != null
+                    && sPendingFetch.canServe(batteryStatsManager, includeBatteryHistory)) {
+                fetch = sPendingFetch;
+                fetch.mWaiterCount++;
+                isOwner = false;
+            } else {
+                fetch = new PendingFetch(batteryStatsManager, includeBatteryHistory);
+                sPendingFetch = fetch;
+                isOwner = true;
+            }
+        }
+        if (isOwner) {
+            fetch(fetch);
+        }
+        // The fetch has already counted a reference for every waiter.
+        return new Ref(fetch.mFuture.join());
+    }
+
+    /** Drops the cached snapshot, so that the next request fetches a new one. */
+    public static void invalidate() {
+        synchronized (sLock) {
+            if (sSnapshot != null) {
+                release(sSnapshot);
+                sSnapshot = null;
+            }
+        }
+    }
+
+    private static void fetch(PendingFetch fetch) {
+        Snapshot snapshot = null;
+        try {
+            snapshot = new Snapshot(fetch.mBatteryStatsManager,
+                    query(fetch.mBatteryStatsManager, fetch.mIncludeBatteryHistory),
+                    fetch.mIncludeBatteryHistory, SystemClock.elapsedRealtime());
+        } finally {
+            synchronized (sLock) {
+                if (sPendingFetch == fetch) {
+                    sPendingFetch = null;
+                }
+                if (snapshot != null) {
+                    // One reference for the cache, one for the owner and one for each waiter.
+                    snapshot.mRefCount = 2 + fetch.mWaiterCount;
+                    if (sSnapshot != null) {
+                        release(sSnapshot);
+                    }
+                    sSnapshot = snapshot;
+                }
+            }
+            if (snapshot != null) {
+                fetch.mFuture.complete(snapshot);
+                ThreadUtils.getUiThreadHandler().removeCallbacks(sTrimRunnable);
+                ThreadUtils.getUiThreadHandler().postDelayed(sTrimRunnable, FRESHNESS_WINDOW_MS);
+            } else {
+                fetch.mFuture.completeExceptionally(
+                        new IllegalStateException("Failed to fetch BatteryUsageStats"));
+            }
+        }
+    }
+
+    private static BatteryUsageStats query(BatteryStatsManager batteryStatsManager,
+            boolean includeBatteryHistory) {
+        final long startTime = System.currentTimeMillis();
+        final BatteryUsageStatsQuery.Builder builder =
+                new BatteryUsageStatsQuery.Builder().includeProcessStateData();
+        if (includeBatteryHistory) {
+            builder.includeBatteryHistory();
+        }
+        try {
+            return batteryStatsManager.getBatteryUsageStats(builder.build());
+        } catch (RuntimeException e) {
+            Log.e(TAG, "query() from getBatteryUsageStats()", e);
+            // Use default BatteryUsageStats.
+            return new BatteryUsageStats.Builder(new String[0]).build();
+        } finally {
+            Log.d(TAG, String.format("getBatteryUsageStats() in %d/ms",
+                    System.currentTimeMillis() - startTime));
+        }
+    }
+
+    private static void trimIfStale() {
+        synchronized (sLock) {
+            if (sSnapshot != null && !sSnapshot.isFresh()) {
+                release(sSnapshot);
+                sSnapshot = null;
+            }
+        }
+    }
+
+    @GuardedBy("sLock")
+    private static void release(Snapshot snapshot) {
+        if (--snapshot.mRefCount > 0) {
+            return;
+        }
+        try {
+            snapshot.mBatteryUsageStats.close();
+        } catch (Exception e) {
+            Log.e(TAG, "BatteryUsageStats.close() failed", e);
+        }
+    }
+
+    /** A reference to a shared {@link BatteryUsageStats} snapshot. */
+    public static final class Ref implements AutoCloseable {
+        private final Snapshot mSnapshot;
+        @GuardedBy("sLock")
+        private boolean mClosed;
+
+        private Ref(Snapshot snapshot) {
+            mSnapshot = snapshot;
+        }
+
+        /** Returns the stats. They must not be closed by the caller. */
+        @NonNull
+        public BatteryUsageStats get() {
+            return mSnapshot.mBatteryUsageStats;
+        }
+
+        /** Releases the reference. Closing a reference more than once has no effect. */
+        @Override
+        public void close() {
+            synchronized (sLock) {
+                if (!mClosed) {
+                    mClosed = true;
+                    release(mSnapshot);
+                }
+            }
+        }
+    }
+
+    private static final class Snapshot {
+        final BatteryStatsManager mBatteryStatsManager;
+        final BatteryUsageStats mBatteryUsageStats;
+        final boolean mIncludeBatteryHistory;
+        final long mFetchedTimeMs;
+        @GuardedBy("sLock")
+        int mRefCount;
+
+        Snapshot(BatteryStatsManager batteryStatsManager, BatteryUsageStats batteryUsageStats,
+                boolean includeBatteryHistory, long fetchedTimeMs) {
+            mBatteryStatsManager = batteryStatsManager;
+            mBatteryUsageStats = batteryUsageStats;
+            mIncludeBatteryHistory = includeBatteryHistory;
+            mFetchedTimeMs = fetchedTimeMs;
+        }
+
+        boolean isFresh() {
+            return SystemClock.elapsedRealtime() - mFetchedTimeMs < FRESHNESS_WINDOW_MS;
+        }
+
+        boolean canServe(BatteryStatsManager batteryStatsManager, boolean includeBatteryHistory) {
+            return mBatteryStatsManager == batteryStatsManager
+                    && (mIncludeBatteryHistory || !includeBatteryHistory)
+                    && isFresh();
+        }
+    }
+
+    private static final class PendingFetch {
+        final BatteryStatsManager mBatteryStatsManager;
+        final boolean mIncludeBatteryHistory;
+        final CompletableFuture<Snapshot> mFuture = new CompletableFuture<>();
+        @GuardedBy("sLock")
+        int mWaiterCount;
+
+        PendingFetch(BatteryStatsManager batteryStatsManager, boolean includeBatteryHistory) {
+            mBatteryStatsManager = batteryStatsManager;
+            mIncludeBatteryHistory = includeBatteryHistory;
+        }
+
+        boolean canServe(BatteryStatsManager batteryStatsManager, boolean includeBatteryHistory) {
+            return mBatteryStatsManager == batteryStatsManager
+                    && (mIncludeBatteryHistory || !includeBatteryHistory);
+        }
+    }
+}
@@ -25,9 +25,7 @@ import android.content.pm.PackageInfo;
 import android.content.pm.PackageManager;
 import android.os.BatteryManager;
 import android.os.BatteryStats;
-import android.os.BatteryStatsManager;
 import android.os.BatteryUsageStats;
-import android.os.BatteryUsageStatsQuery;
 import android.os.Build;
 import android.os.SystemClock;
 import android.os.UidBatteryConsumer;
@@ -439,55 +437,41 @@ public class BatteryUtils {
 
     @WorkerThread
     public BatteryInfo getBatteryInfo(final String tag) {
-        final BatteryStatsManager systemService =
-                mContext.getSystemService(BatteryStatsManager.class);
-        BatteryUsageStats batteryUsageStats;
-        try {
-            batteryUsageStats =
-                    systemService.getBatteryUsageStats(
-                            new BatteryUsageStatsQuery.Builder().includeBatteryHistory().build());
-        } catch (RuntimeException e) {
-            Log.e(TAG, "getBatteryInfo() error from getBatteryUsageStats()", e);
-            // Use default BatteryUsageStats.
-            batteryUsageStats = new BatteryUsageStats.Builder(new String[0]).build();
-        }
-
-        final long startTime = System.currentTimeMillis();
-
-        // Stuff we always need to get BatteryInfo
-        final Intent batteryBroadcast = getBatteryIntent(mContext);
-
-        final long elapsedRealtimeUs = PowerUtil.convertMsToUs(SystemClock.elapsedRealtime());
-
-        BatteryInfo batteryInfo;
-        Estimate estimate = getEnhancedEstimate();
-
-        // couldn't get estimate from cache or provider, use fallback
-        if (estimate == null) {
-            estimate =
-                    new Estimate(
-                            batteryUsageStats.getBatteryTimeRemainingMs(),
-                            false /* isBasedOnUsage */,
-                            EstimateKt.AVERAGE_TIME_TO_DISCHARGE_UNKNOWN);
-        }
-
-        BatteryUtils.logRuntime(tag, "BatteryInfoLoader post query", startTime);
-        batteryInfo =
-                BatteryInfo.getBatteryInfo(
-                        mContext,
-                        batteryBroadcast,
-                        batteryUsageStats,
-                        estimate,
-                        elapsedRealtimeUs,
-                        false /* shortString */);
-        BatteryUtils.logRuntime(tag, "BatteryInfoLoader.loadInBackground", startTime);
+        try (BatteryUsageStatsBroker.Ref batteryUsageStatsRef =
+                BatteryUsageStatsBroker.acquire(mContext, /* includeBatteryHistory= */ true)) {
+            final BatteryUsageStats batteryUsageStats = batteryUsageStatsRef.get();
+            final long startTime = System.currentTimeMillis();
+
+            // Stuff we always need to get BatteryInfo
+            final Intent batteryBroadcast = getBatteryIntent(mContext);
+
+            final long elapsedRealtimeUs =
+                    PowerUtil.convertMsToUs(SystemClock.elapsedRealtime());
+
+            BatteryInfo batteryInfo;
+            Estimate estimate = getEnhancedEstimate();
+
+            // couldn't get estimate from cache or provider, use fallback
+            if (estimate == null) {
+                estimate =
+                        new Estimate(
+                                batteryUsageStats.getBatteryTimeRemainingMs(),
+                                false /* isBasedOnUsage */,
+                                EstimateKt.AVERAGE_TIME_TO_DISCHARGE_UNKNOWN);
+            }
 
-        try {
-            batteryUsageStats.close();
-        } catch (Exception e) {
-            Log.e(TAG, "BatteryUsageStats.close() failed", e);
+            BatteryUtils.logRuntime(tag, "BatteryInfoLoader post query", startTime);
+            batteryInfo =
+                    BatteryInfo.getBatteryInfo(
+                            mContext,
+                            batteryBroadcast,
+                            batteryUsageStats,
+                            estimate,
+                            elapsedRealtimeUs,
+                            false /* shortString */);
+            BatteryUtils.logRuntime(tag, "BatteryInfoLoader.loadInBackground", startTime);
+            return batteryInfo;
         }
-        return batteryInfo;
     }
 
     @VisibleForTesting
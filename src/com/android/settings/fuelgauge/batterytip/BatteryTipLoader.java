@@ -18,28 +18,56 @@ package com.android.settings.fuelgauge.batterytip;
 
 import android.content.Context;
 import android.os.BatteryUsageStats;
+import android.os.SystemClock;
+import android.util.Log;
 
+import androidx.annotation.GuardedBy;
+import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 
 import com.android.settings.fuelgauge.BatteryInfo;
 import com.android.settings.fuelgauge.BatteryUtils;
 import com.android.settings.fuelgauge.batterytip.detectors.BatteryDefenderDetector;
+import com.android.settings.fuelgauge.batterytip.detectors.BatteryTipDetector;
 import com.android.settings.fuelgauge.batterytip.detectors.HighUsageDetector;
 import com.android.settings.fuelgauge.batterytip.detectors.IncompatibleChargerDetector;
 import com.android.settings.fuelgauge.batterytip.tips.BatteryTip;
+import com.android.settings.fuelgauge.batterytip.tips.HighUsageTip;
 import com.android.settings.overlay.FeatureFactory;
 import com.android.settingslib.utils.AsyncLoaderCompat;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Loader to compute and return a battery tip list. It will always return a full length list even
  * though some tips may have state {@code BaseBatteryTip.StateType.INVISIBLE}.
+ *
+ * <p>{@link HighUsageDetector} parses the battery history, so it runs on its own thread within a
+ * time budget while the other detectors run on the loader thread. If it misses its budget it is
+ * interrupted, which stops the parse, and awaited before the load returns, since it reads the
+ * {@link BatteryUsageStats} owned by the page. It then contributes an invisible tip. Its result
+ * is cached for the next load of the same user and {@link BatteryUsageStats} snapshot, e.g. once
+ * a tip dialog has been handled.
  */
 public class BatteryTipLoader extends AsyncLoaderCompat<List<BatteryTip>> {
     private static final String TAG = "BatteryTipLoader";
+    private static final boolean DEBUG = Log.isLoggable(TAG, Log.DEBUG);
+
+    @VisibleForTesting static final long HIGH_USAGE_DETECTOR_BUDGET_MS = 500;
+
+    private static final Object sCacheLock = new Object();
+
+    @GuardedBy("sCacheLock")
+    private static String sCachedHighUsageKey;
+
+    @GuardedBy("sCacheLock")
+    private static BatteryTip sCachedHighUsageTip;
 
     private BatteryUsageStats mBatteryUsageStats;
 
@@ -58,18 +86,157 @@ public class BatteryTipLoader extends AsyncLoaderCompat<List<BatteryTip>> {
         final BatteryInfo batteryInfo = mBatteryUtils.getBatteryInfo(TAG);
         final Context context = getContext().getApplicationContext();
 
-        tips.add(
-                new HighUsageDetector(context, batteryTipPolicy, mBatteryUsageStats, batteryInfo)
-                        .detect());
-        tips.add(new BatteryDefenderDetector(batteryInfo, context).detect());
-        tips.add(new IncompatibleChargerDetector(context).detect());
-        FeatureFactory.getFeatureFactory()
-                .getBatterySettingsFeatureProvider()
-                .addBatteryTipDetector(context, tips, batteryInfo, batteryTipPolicy);
+        final String highUsageKey = getHighUsageKey(context, batteryInfo);
+        final BatteryTip cachedHighUsageTip = getCachedHighUsageTip(highUsageKey);
+        DetectorTask highUsageTask = null;
+        if (cachedHighUsageTip == null) {
+            highUsageTask = new DetectorTask("HighUsageDetector",
+                    HIGH_USAGE_DETECTOR_BUDGET_MS,
+                    new HighUsageTip(0 /* lastFullChargeTimeMs */, new ArrayList<>()),
+                    new HighUsageDetector(context, batteryTipPolicy, mBatteryUsageStats,
+                            batteryInfo));
+            highUsageTask.start();
+        }
+        try {
+            tips.add(new BatteryDefenderDetector(batteryInfo, context).detect());
+            tips.add(new IncompatibleChargerDetector(context).detect());
+            FeatureFactory.getFeatureFactory()
+                    .getBatterySettingsFeatureProvider()
+                    .addBatteryTipDetector(context, tips, batteryInfo, batteryTipPolicy);
+        } finally {
+            if (highUsageTask == null) {
+                tips.add(cachedHighUsageTip);
+            } else {
+                final BatteryTip highUsageTip = highUsageTask.await();
+                if (highUsageTask.isDetected()) {
+                    cacheHighUsageTip(highUsageKey, highUsageTip);
+                }
+                tips.add(highUsageTip);
+            }
+        }
         Collections.sort(tips);
         return tips;
     }
 
     @Override
     protected void onDiscardResult(List<BatteryTip> result) {}
+
+    /** Drops the cached detector results. */
+    @VisibleForTesting
+    static void clearCache() {
+        synchronized (sCacheLock) {
+            sCachedHighUsageKey = null;
+            sCachedHighUsageTip = null;
+        }
+    }
+
+    /** Returns the key of the high usage tip of this load, or {@code null} if it can't be cached. */
+    @Nullable
+    private String getHighUsageKey(Context context, BatteryInfo batteryInfo) {
+        if (mBatteryUsageStats == null) {
+            return null;
+        }
+        return context.getUserId() + "|" + mBatteryUsageStats.getStatsStartTimestamp() + "|"
+                + mBatteryUsageStats.getStatsEndTimestamp() + "|" + batteryInfo.discharging;
+    }
+
+    @Nullable
+    private static BatteryTip getCachedHighUsageTip(@Nullable String key) {
+        if (key == null) {
+            return null;
+        }
+        synchronized (sCacheLock) {
+            return key.equals(sCachedHighUsageKey) ? sCachedHighUsageTip : null;
+        }
+    }
+
+    private static void cacheHighUsageTip(@Nullable String key, BatteryTip tip) {
+        if (key == null) {
+            return;
+        }
+        synchronized (sCacheLock) {
+            sCachedHighUsageKey = key;
+            sCachedHighUsageTip = tip;
+        }
+    }
+
+    /**
+     * A detector running on its own thread within a time budget. It never outlives {@link
+     * #await()}, so it may use objects owned by the caller.
+     */
+    @VisibleForTesting
+    static final class DetectorTask {
+        private final String mName;
+        private final long mBudgetMs;
+        private final BatteryTip mFallbackTip;
+        private final FutureTask<BatteryTip> mFutureTask;
+        private final Thread mThread;
+        private long mStartTimeMs;
+        private boolean mDetected;
+
+        DetectorTask(String name, long budgetMs, BatteryTip fallbackTip,
+                BatteryTipDetector detector) {
+            mName = name;
+            mBudgetMs = budgetMs;
+            mFallbackTip = fallbackTip;
+            mFutureTask = new FutureTask<>(() -> {
+                final BatteryTip tip = detector.detect();
+                if (DEBUG) {
+                    Log.d(TAG, mName + " took "
+                            + (SystemClock.elapsedRealtime() - mStartTimeMs) + " ms");
+                }
+                return tip;
+            });
+            mThread = new Thread(mFutureTask, TAG + "-" + name);
+        }
+
+        void start() {
+            mStartTimeMs = SystemClock.elapsedRealtime();
+            mThread.start();
+        }
+
+        /**
+         * Returns the detected tip, or an invisible one if the detector failed or missed its
+         * budget. In both cases the detector has stopped when this returns.
+         */
+        BatteryTip await() {
+            final long remainingMs =
+                    mBudgetMs - (SystemClock.elapsedRealtime() - mStartTimeMs);
+            try {
+                final BatteryTip tip =
+                        mFutureTask.get(Math.max(0, remainingMs), TimeUnit.MILLISECONDS);
+                mDetected = true;
+                return tip;
+            } catch (TimeoutException e) {
+                Log.w(TAG, mName + " exceeded its budget of " + mBudgetMs + " ms");
+            } catch (ExecutionException e) {
+                Log.e(TAG, mName + " failed", e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            mFutureTask.cancel(true /* mayInterruptIfRunning */);
+            joinUninterruptibly();
+            return mFallbackTip;
+        }
+
+        /** Returns whether {@link #await()} returned the detected tip rather than the fallback. */
+        boolean isDetected() {
+            return mDetected;
+        }
+
+        private void joinUninterruptibly() {
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    mThread.join();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
 }
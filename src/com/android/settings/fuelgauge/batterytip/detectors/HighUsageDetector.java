@@ -35,6 +35,7 @@ import com.android.settings.fuelgauge.batterytip.tips.HighUsageTip;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -75,6 +76,10 @@ public class HighUsageDetector implements BatteryTipDetector {
                         mBatteryUsageStats, System.currentTimeMillis());
         if (mPolicy.highUsageEnabled && mDischarging) {
             parseBatteryData();
+            if (Thread.currentThread().isInterrupted()) {
+                // The loader stopped waiting for this detector.
+                return new HighUsageTip(lastFullChargeTimeMs, mHighUsageAppList);
+            }
             if (mDataParser.isDeviceHeavilyUsed() || mPolicy.testHighUsageTip) {
                 final double totalPower = mBatteryUsageStats.getConsumedPower();
                 final int dischargeAmount = mBatteryUsageStats.getDischargePercentage();
@@ -124,6 +129,9 @@ public class HighUsageDetector implements BatteryTipDetector {
     void parseBatteryData() {
         try {
             mBatteryInfo.parseBatteryHistory(mDataParser);
+        } catch (CancellationException e) {
+            // Interrupted part way through the history, detect() gives up.
+            Log.w(TAG, "parseBatteryData() interrupted");
         } catch (IllegalStateException e) {
             Log.e(TAG, "parseBatteryData() failed", e);
         }
@@ -79,6 +79,21 @@ public class BatteryChartView extends AppCompatImageView implements View.OnClick
     private final Rect[] mPercentageBounds = new Rect[] {new Rect(), new Rect(), new Rect()};
     private final List<Rect> mAxisLabelsBounds = new ArrayList<>();
     private final Set<Integer> mLabelDrawnIndexes = new ArraySet<>();
+    // Geometry cache: rebuilt only when the layout or the view model changes, so that draw() and
+    // hover/selection updates reuse it.
+    @VisibleForTesting
+    final List<Path> mTrapezoidPaths = new ArrayList<>();
+    private final List<Rect> mAxisLabelDisplayAreas = new ArrayList<>();
+    private final float[] mHorizontalDividerYs = new float[HORIZONTAL_DIVIDER_COUNT];
+    private float[] mVerticalDividerXs = new float[0];
+    private int[] mDrawnAxisLabelIndexes = new int[0];
+    private int mDrawnAxisLabelCount;
+    private int mAxisLabelDisplayAreaCount;
+    private float mAxisLabelBaselineY;
+    private float mVerticalDividerTopY;
+    private float mVerticalDividerBottomY;
+    private float mTrapezoidBottom;
+    private boolean mGeometryDirty = true;
     private final int mLayoutDirection =
             getContext().getResources().getConfiguration().getLayoutDirection();
 
@@ -144,6 +159,7 @@ public class BatteryChartView extends AppCompatImageView implements View.OnClick
         initializeAxisLabelsBounds();
         initializeTrapezoidSlots(viewModel.size() - 1);
         setClickable(hasAnyValidTrapezoid(viewModel));
+        mGeometryDirty = true;
         requestLayout();
     }
 
@@ -162,6 +178,7 @@ public class BatteryChartView extends AppCompatImageView implements View.OnClick
         } else {
             mTextPaint = null;
         }
+        mGeometryDirty = true;
         requestLayout();
     }
 
@@ -200,20 +217,29 @@ public class BatteryChartView extends AppCompatImageView implements View.OnClick
         } else {
             mIndent.set(0, 0, 0, 0);
         }
+        mGeometryDirty = true;
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        mGeometryDirty = true;
     }
 
     @Override
     public void draw(Canvas canvas) {
         super.draw(canvas);
+        if (mGeometryDirty) {
+            updateGeometry();
+        }
         // Before mLevels initialized, the count of trapezoids is unknown. Only draws the
         // horizontal percentages and dividers.
         drawHorizontalDividers(canvas);
-        if (mViewModel == null) {
-            return;
+        if (mViewModel != null) {
+            drawVerticalDividers(canvas);
+            drawTrapezoids(canvas);
+            drawTransomLine(canvas);
         }
-        drawVerticalDividers(canvas);
-        drawTrapezoids(canvas);
-        drawTransomLine(canvas);
     }
 
     @Override
@@ -396,19 +422,133 @@ public class BatteryChartView extends AppCompatImageView implements View.OnClick
         mTransomIcon = getResources().getDrawable(R.drawable.ic_battery_tips_warning_icon);
     }
 
-    private void drawHorizontalDividers(Canvas canvas) {
+    /**
+     * Precomputes divider coordinates, axis label areas and trapezoid paths for the current size
+     * and view model. Objects are reused across updates and only allocated when the number of
+     * slots grows.
+     */
+    private void updateGeometry() {
+        mGeometryDirty = false;
         final int width = getWidth() - abs(mIndent.width());
         final int height = getHeight() - mIndent.top - mIndent.bottom;
+        // Horizontal dividers.
         final float topOffsetY = mIndent.top + mDividerWidth * .5f;
         final float bottomOffsetY = mIndent.top + (height - mDividerHeight - mDividerWidth * .5f);
-        final float availableSpace = bottomOffsetY - topOffsetY;
+        final float dividerOffsetUnit =
+                (bottomOffsetY - topOffsetY) / (float) (HORIZONTAL_DIVIDER_COUNT - 1);
+        for (int index = 0; index < HORIZONTAL_DIVIDER_COUNT; index++) {
+            mHorizontalDividerYs[index] = topOffsetY + dividerOffsetUnit * index;
+        }
+        if (mViewModel == null || mTrapezoidSlots == null) {
+            return;
+        }
 
-        mDividerPaint.setColor(DIVIDER_COLOR);
-        final float dividerOffsetUnit = availableSpace / (float) (HORIZONTAL_DIVIDER_COUNT - 1);
+        // Vertical dividers and trapezoid slots.
+        final int dividerCount = mTrapezoidSlots.length + 1;
+        final float dividerSpace = dividerCount * mDividerWidth;
+        final float unitWidth = (width - dividerSpace) / (float) mTrapezoidSlots.length;
+        mVerticalDividerBottomY = getHeight() - mIndent.bottom;
+        mVerticalDividerTopY = mVerticalDividerBottomY - mDividerHeight;
+        final float trapezoidSlotOffset = mTrapezoidHOffset + mDividerWidth * .5f;
+        if (mVerticalDividerXs.length != dividerCount) {
+            mVerticalDividerXs = new float[dividerCount];
+        }
+        float startX = mDividerWidth * .5f + mIndent.left;
+        for (int index = 0; index < dividerCount; index++) {
+            mVerticalDividerXs[index] = startX;
+            final float nextX = startX + mDividerWidth + unitWidth;
+            if (index < mTrapezoidSlots.length) {
+                final int trapezoidIndex = isRTL() ? mTrapezoidSlots.length - index - 1 : index;
+                mTrapezoidSlots[trapezoidIndex].mLeft = round(startX + trapezoidSlotOffset);
+                mTrapezoidSlots[trapezoidIndex].mRight = round(nextX - trapezoidSlotOffset);
+            }
+            startX = nextX;
+        }
+
+        // Axis labels.
+        mAxisLabelBaselineY = getHeight() - mTextPadding;
+        mDrawnAxisLabelCount = 0;
+        mLabelDrawnIndexes.clear();
+        if (mTextPaint != null) {
+            switch (mViewModel.axisLabelPosition()) {
+                case CENTER_OF_TRAPEZOIDS:
+                    updateAxisLabelDisplayAreas(
+                            /* size= */ mViewModel.size() - 1,
+                            /* baselineX= */ mIndent.left + mDividerWidth + unitWidth * .5f,
+                            /* offsetX= */ mDividerWidth + unitWidth,
+                            mAxisLabelBaselineY,
+                            /* shiftFirstAndLast= */ false);
+                    break;
+                case BETWEEN_TRAPEZOIDS:
+                default:
+                    updateAxisLabelDisplayAreas(
+                            /* size= */ mViewModel.size(),
+                            /* baselineX= */ mIndent.left + mDividerWidth * .5f,
+                            /* offsetX= */ mDividerWidth + unitWidth,
+                            mAxisLabelBaselineY,
+                            /* shiftFirstAndLast= */ true);
+                    break;
+            }
+            updateDrawnAxisLabels();
+        }
+
+        // Trapezoid paths.
+        mTrapezoidBottom =
+                getHeight() - mIndent.bottom - mDividerHeight - mDividerWidth - mTrapezoidVOffset;
+        final float availableSpace =
+                mTrapezoidBottom - mDividerWidth * .5f - mIndent.top - mTrapezoidVOffset;
+        final float unitHeight = availableSpace / 100f;
+        for (int index = 0; index < mTrapezoidSlots.length; index++) {
+            final Path trapezoidPath = obtainTrapezoidPath(index);
+            trapezoidPath.reset();
+            // Not draws the trapezoid for corner or not initialization cases.
+            if (!isValidToDraw(mViewModel, index)) {
+                continue;
+            }
+            float leftTop =
+                    round(
+                            mTrapezoidBottom
+                                    - requireNonNull(mViewModel.getLevel(index)) * unitHeight);
+            float rightTop =
+                    round(
+                            mTrapezoidBottom
+                                    - requireNonNull(mViewModel.getLevel(index + 1)) * unitHeight);
+            // Mirror the shape of the trapezoid for RTL
+            if (isRTL()) {
+                float temp = leftTop;
+                leftTop = rightTop;
+                rightTop = temp;
+            }
+            trapezoidPath.moveTo(mTrapezoidSlots[index].mLeft, mTrapezoidBottom);
+            trapezoidPath.lineTo(mTrapezoidSlots[index].mLeft, leftTop);
+            trapezoidPath.lineTo(mTrapezoidSlots[index].mRight, rightTop);
+            trapezoidPath.lineTo(mTrapezoidSlots[index].mRight, mTrapezoidBottom);
+            // A tricky way to make the trapezoid shape drawing the rounded corner.
+            trapezoidPath.lineTo(mTrapezoidSlots[index].mLeft, mTrapezoidBottom);
+            trapezoidPath.lineTo(mTrapezoidSlots[index].mLeft, leftTop);
+        }
+    }
 
+    private Path obtainTrapezoidPath(int index) {
+        while (mTrapezoidPaths.size() <= index) {
+            mTrapezoidPaths.add(new Path());
+        }
+        return mTrapezoidPaths.get(index);
+    }
+
+    private Rect obtainAxisLabelDisplayArea(int index) {
+        while (mAxisLabelDisplayAreas.size() <= index) {
+            mAxisLabelDisplayAreas.add(new Rect());
+        }
+        return mAxisLabelDisplayAreas.get(index);
+    }
+
+    private void drawHorizontalDividers(Canvas canvas) {
+        final int width = getWidth() - abs(mIndent.width());
+        mDividerPaint.setColor(DIVIDER_COLOR);
         // Draws 5 divider lines.
         for (int index = 0; index < HORIZONTAL_DIVIDER_COUNT; index++) {
-            float offsetY = topOffsetY + dividerOffsetUnit * index;
+            final float offsetY = mHorizontalDividerYs[index];
             canvas.drawLine(mIndent.left, offsetY, mIndent.left + width, offsetY, mDividerPaint);
 
             //  Draws percentage text only for 100% / 50% / 0%
@@ -433,44 +573,12 @@ public class BatteryChartView extends AppCompatImageView implements View.OnClick
     }
 
     private void drawVerticalDividers(Canvas canvas) {
-        final int width = getWidth() - abs(mIndent.width());
-        final int dividerCount = mTrapezoidSlots.length + 1;
-        final float dividerSpace = dividerCount * mDividerWidth;
-        final float unitWidth = (width - dividerSpace) / (float) mTrapezoidSlots.length;
-        final float bottomY = getHeight() - mIndent.bottom;
-        final float startY = bottomY - mDividerHeight;
-        final float trapezoidSlotOffset = mTrapezoidHOffset + mDividerWidth * .5f;
         // Draws the axis label slot information.
-        if (mViewModel != null) {
-            final float baselineY = getHeight() - mTextPadding;
-            Rect[] axisLabelDisplayAreas;
-            switch (mViewModel.axisLabelPosition()) {
-                case CENTER_OF_TRAPEZOIDS:
-                    axisLabelDisplayAreas =
-                            getAxisLabelDisplayAreas(
-                                    /* size= */ mViewModel.size() - 1,
-                                    /* baselineX= */ mIndent.left + mDividerWidth + unitWidth * .5f,
-                                    /* offsetX= */ mDividerWidth + unitWidth,
-                                    baselineY,
-                                    /* shiftFirstAndLast= */ false);
-                    break;
-                case BETWEEN_TRAPEZOIDS:
-                default:
-                    axisLabelDisplayAreas =
-                            getAxisLabelDisplayAreas(
-                                    /* size= */ mViewModel.size(),
-                                    /* baselineX= */ mIndent.left + mDividerWidth * .5f,
-                                    /* offsetX= */ mDividerWidth + unitWidth,
-                                    baselineY,
-                                    /* shiftFirstAndLast= */ true);
-                    break;
-            }
-            drawAxisLabels(canvas, axisLabelDisplayAreas, baselineY);
-        }
+        drawAxisLabels(canvas);
         // Draws each vertical dividers.
-        float startX = mDividerWidth * .5f + mIndent.left;
-        for (int index = 0; index < dividerCount; index++) {
-            float dividerY = bottomY;
+        for (int index = 0; index < mVerticalDividerXs.length; index++) {
+            final float startX = mVerticalDividerXs[index];
+            float dividerY = mVerticalDividerBottomY;
             if (mViewModel.axisLabelPosition() == BETWEEN_TRAPEZOIDS
                     && mLabelDrawnIndexes.contains(index)) {
                 mDividerPaint.setColor(mTrapezoidSolidColor);
@@ -478,27 +586,19 @@ public class BatteryChartView extends AppCompatImageView implements View.OnClick
             } else {
                 mDividerPaint.setColor(DIVIDER_COLOR);
             }
-            canvas.drawLine(startX, startY, startX, dividerY, mDividerPaint);
-            final float nextX = startX + mDividerWidth + unitWidth;
-            // Updates the trapezoid slots for drawing.
-            if (index < mTrapezoidSlots.length) {
-                final int trapezoidIndex = isRTL() ? mTrapezoidSlots.length - index - 1 : index;
-                mTrapezoidSlots[trapezoidIndex].mLeft = round(startX + trapezoidSlotOffset);
-                mTrapezoidSlots[trapezoidIndex].mRight = round(nextX - trapezoidSlotOffset);
-            }
-            startX = nextX;
+            canvas.drawLine(startX, mVerticalDividerTopY, startX, dividerY, mDividerPaint);
         }
     }
 
-    /** Gets all the axis label texts displaying area positions if they are shown. */
-    private Rect[] getAxisLabelDisplayAreas(
+    /** Updates all the axis label texts displaying area positions if they are shown. */
+    private void updateAxisLabelDisplayAreas(
             final int size,
             final float baselineX,
             final float offsetX,
             final float baselineY,
             final boolean shiftFirstAndLast) {
-        final Rect[] result = new Rect[size];
-        for (int index = 0; index < result.length; index++) {
+        mAxisLabelDisplayAreaCount = size;
+        for (int index = 0; index < size; index++) {
             final float width = mAxisLabelsBounds.get(index).width();
             float middle = baselineX + index * offsetX;
             if (shiftFirstAndLast) {
@@ -513,93 +613,103 @@ public class BatteryChartView extends AppCompatImageView implements View.OnClick
             final float right = left + width;
             final float top = baselineY + mAxisLabelsBounds.get(index).top;
             final float bottom = top + mAxisLabelsBounds.get(index).height();
-            result[index] = new Rect(round(left), round(top), round(right), round(bottom));
+            obtainAxisLabelDisplayArea(index)
+                    .set(round(left), round(top), round(right), round(bottom));
         }
-        return result;
     }
 
-    private void drawAxisLabels(Canvas canvas, final Rect[] displayAreas, final float baselineY) {
-        final int lastIndex = displayAreas.length - 1;
-        mLabelDrawnIndexes.clear();
+    /** Resolves which axis labels fit without overlapping, based on the display areas. */
+    private void updateDrawnAxisLabels() {
+        if (mDrawnAxisLabelIndexes.length < mAxisLabelDisplayAreaCount) {
+            mDrawnAxisLabelIndexes = new int[mAxisLabelDisplayAreaCount];
+        }
+        final int lastIndex = mAxisLabelDisplayAreaCount - 1;
+        if (lastIndex < 0) {
+            return;
+        }
         // Suppose first and last labels are always able to draw.
-        drawAxisLabelText(canvas, 0, displayAreas[0], baselineY);
-        mLabelDrawnIndexes.add(0);
-        drawAxisLabelText(canvas, lastIndex, displayAreas[lastIndex], baselineY);
-        mLabelDrawnIndexes.add(lastIndex);
-        drawAxisLabelsBetweenStartIndexAndEndIndex(canvas, displayAreas, 0, lastIndex, baselineY);
+        addDrawnAxisLabel(0);
+        if (lastIndex > 0) {
+            addDrawnAxisLabel(lastIndex);
+        }
+        addDrawnAxisLabelsBetweenStartIndexAndEndIndex(0, lastIndex);
     }
 
     /**
-     * Recursively draws axis labels between the start index and the end index. If the inner number
-     * can be exactly divided into 2 parts, check and draw the middle index label and then
-     * recursively draw the 2 parts. Otherwise, divide into 3 parts. Check and draw the middle two
-     * labels and then recursively draw the 3 parts. If there are any overlaps, skip drawing and go
-     * back to the uplevel of the recursion.
+     * Recursively resolves axis labels between the start index and the end index. If the inner
+     * number can be exactly divided into 2 parts, check and add the middle index label and then
+     * recursively resolve the 2 parts. Otherwise, divide into 3 parts. Check and add the middle two
+     * labels and then recursively resolve the 3 parts. If there are any overlaps, skip adding and
+     * go back to the uplevel of the recursion.
      */
-    private void drawAxisLabelsBetweenStartIndexAndEndIndex(
-            Canvas canvas,
-            final Rect[] displayAreas,
-            final int startIndex,
-            final int endIndex,
-            final float baselineY) {
+    private void addDrawnAxisLabelsBetweenStartIndexAndEndIndex(
+            final int startIndex, final int endIndex) {
         if (endIndex - startIndex <= 1) {
             return;
         }
         if ((endIndex - startIndex) % 2 == 0) {
             int middleIndex = (startIndex + endIndex) / 2;
-            if (hasOverlap(displayAreas, startIndex, middleIndex)
-                    || hasOverlap(displayAreas, middleIndex, endIndex)) {
+            if (hasOverlap(startIndex, middleIndex) || hasOverlap(middleIndex, endIndex)) {
                 return;
             }
-            drawAxisLabelText(canvas, middleIndex, displayAreas[middleIndex], baselineY);
-            mLabelDrawnIndexes.add(middleIndex);
-            drawAxisLabelsBetweenStartIndexAndEndIndex(
-                    canvas, displayAreas, startIndex, middleIndex, baselineY);
-            drawAxisLabelsBetweenStartIndexAndEndIndex(
-                    canvas, displayAreas, middleIndex, endIndex, baselineY);
+            addDrawnAxisLabel(middleIndex);
+            addDrawnAxisLabelsBetweenStartIndexAndEndIndex(startIndex, middleIndex);
+            addDrawnAxisLabelsBetweenStartIndexAndEndIndex(middleIndex, endIndex);
         } else {
             int middleIndex1 = startIndex + round((endIndex - startIndex) / 3f);
             int middleIndex2 = startIndex + round((endIndex - startIndex) * 2 / 3f);
-            if (hasOverlap(displayAreas, startIndex, middleIndex1)
-                    || hasOverlap(displayAreas, middleIndex1, middleIndex2)
-                    || hasOverlap(displayAreas, middleIndex2, endIndex)) {
+            if (hasOverlap(startIndex, middleIndex1)
+                    || hasOverlap(middleIndex1, middleIndex2)
+                    || hasOverlap(middleIndex2, endIndex)) {
                 return;
             }
-            drawAxisLabelText(canvas, middleIndex1, displayAreas[middleIndex1], baselineY);
-            mLabelDrawnIndexes.add(middleIndex1);
-            drawAxisLabelText(canvas, middleIndex2, displayAreas[middleIndex2], baselineY);
-            mLabelDrawnIndexes.add(middleIndex2);
-            drawAxisLabelsBetweenStartIndexAndEndIndex(
-                    canvas, displayAreas, startIndex, middleIndex1, baselineY);
-            drawAxisLabelsBetweenStartIndexAndEndIndex(
-                    canvas, displayAreas, middleIndex1, middleIndex2, baselineY);
-            drawAxisLabelsBetweenStartIndexAndEndIndex(
-                    canvas, displayAreas, middleIndex2, endIndex, baselineY);
+            addDrawnAxisLabel(middleIndex1);
+            addDrawnAxisLabel(middleIndex2);
+            addDrawnAxisLabelsBetweenStartIndexAndEndIndex(startIndex, middleIndex1);
+            addDrawnAxisLabelsBetweenStartIndexAndEndIndex(middleIndex1, middleIndex2);
+            addDrawnAxisLabelsBetweenStartIndexAndEndIndex(middleIndex2, endIndex);
         }
     }
 
-    private boolean hasOverlap(
-            final Rect[] displayAreas, final int leftIndex, final int rightIndex) {
-        return displayAreas[leftIndex].right + mTextPadding * 2.3f > displayAreas[rightIndex].left;
+    private void addDrawnAxisLabel(int displayIndex) {
+        mDrawnAxisLabelIndexes[mDrawnAxisLabelCount++] = displayIndex;
+        mLabelDrawnIndexes.add(displayIndex);
+        mLabelDrawnIndexes.add(getAxisLabelTextIndex(displayIndex));
+    }
+
+    private boolean hasOverlap(final int leftIndex, final int rightIndex) {
+        return mAxisLabelDisplayAreas.get(leftIndex).right + mTextPadding * 2.3f
+                > mAxisLabelDisplayAreas.get(rightIndex).left;
     }
 
     private boolean isRTL() {
         return mLayoutDirection == View.LAYOUT_DIRECTION_RTL;
     }
 
-    private void drawAxisLabelText(
-            Canvas canvas, int index, final Rect displayArea, final float baselineY) {
+    private int getAxisLabelTextIndex(int displayIndex) {
+        // Reverse the sort of axis labels for RTL
+        if (!isRTL()) {
+            return displayIndex;
+        }
+        return mViewModel.axisLabelPosition() == BETWEEN_TRAPEZOIDS
+                ? mViewModel.size() - displayIndex - 1 // for hourly
+                : mViewModel.size() - displayIndex - 2; // for daily
+    }
+
+    private void drawAxisLabels(Canvas canvas) {
+        if (mTextPaint == null) {
+            return;
+        }
         mTextPaint.setColor(mTrapezoidSolidColor);
         mTextPaint.setTextAlign(Paint.Align.CENTER);
-        // Reverse the sort of axis labels for RTL
-        if (isRTL()) {
-            index =
-                    mViewModel.axisLabelPosition() == BETWEEN_TRAPEZOIDS
-                            ? mViewModel.size() - index - 1 // for hourly
-                            : mViewModel.size() - index - 2; // for daily
+        for (int i = 0; i < mDrawnAxisLabelCount; i++) {
+            final int displayIndex = mDrawnAxisLabelIndexes[i];
+            canvas.drawText(
+                    mViewModel.getText(getAxisLabelTextIndex(displayIndex)),
+                    mAxisLabelDisplayAreas.get(displayIndex).centerX(),
+                    mAxisLabelBaselineY,
+                    mTextPaint);
         }
-        canvas.drawText(mViewModel.getText(index), displayArea.centerX(), baselineY, mTextPaint);
-        mLabelDrawnIndexes.add(index);
     }
 
     private void drawTrapezoids(Canvas canvas) {
@@ -607,14 +717,8 @@ public class BatteryChartView extends AppCompatImageView implements View.OnClick
         if (mViewModel == null) {
             return;
         }
-        final float trapezoidBottom =
-                getHeight() - mIndent.bottom - mDividerHeight - mDividerWidth - mTrapezoidVOffset;
-        final float availableSpace =
-                trapezoidBottom - mDividerWidth * .5f - mIndent.top - mTrapezoidVOffset;
-        final float unitHeight = availableSpace / 100f;
-        // Draws all trapezoid shapes into the canvas.
-        final Path trapezoidPath = new Path();
-        Path trapezoidCurvePath = null;
+        // Draws all precomputed trapezoid shapes into the canvas, only the paint state depends
+        // on the selected and hovered index.
         for (int index = 0; index < mTrapezoidSlots.length; index++) {
             // Not draws the trapezoid for corner or not initialization cases.
             if (!isValidToDraw(mViewModel, index)) {
@@ -629,31 +733,7 @@ public class BatteryChartView extends AppCompatImageView implements View.OnClick
             final boolean isHoverState =
                     mHoveredIndex == index && isValidToDraw(mViewModel, mHoveredIndex);
             mTrapezoidPaint.setColor(isHoverState ? mTrapezoidHoverColor : trapezoidColor);
-
-            float leftTop =
-                    round(
-                            trapezoidBottom
-                                    - requireNonNull(mViewModel.getLevel(index)) * unitHeight);
-            float rightTop =
-                    round(
-                            trapezoidBottom
-                                    - requireNonNull(mViewModel.getLevel(index + 1)) * unitHeight);
-            // Mirror the shape of the trapezoid for RTL
-            if (isRTL()) {
-                float temp = leftTop;
-                leftTop = rightTop;
-                rightTop = temp;
-            }
-            trapezoidPath.reset();
-            trapezoidPath.moveTo(mTrapezoidSlots[index].mLeft, trapezoidBottom);
-            trapezoidPath.lineTo(mTrapezoidSlots[index].mLeft, leftTop);
-            trapezoidPath.lineTo(mTrapezoidSlots[index].mRight, rightTop);
-            trapezoidPath.lineTo(mTrapezoidSlots[index].mRight, trapezoidBottom);
-            // A tricky way to make the trapezoid shape drawing the rounded corner.
-            trapezoidPath.lineTo(mTrapezoidSlots[index].mLeft, trapezoidBottom);
-            trapezoidPath.lineTo(mTrapezoidSlots[index].mLeft, leftTop);
-            // Draws the trapezoid shape into canvas.
-            canvas.drawPath(trapezoidPath, mTrapezoidPaint);
+            canvas.drawPath(mTrapezoidPaths.get(index), mTrapezoidPaint);
         }
     }
 
@@ -670,8 +750,6 @@ public class BatteryChartView extends AppCompatImageView implements View.OnClick
         mTransomLinePaint.setColor(mTransomLineDefaultColor);
         final int width = getWidth() - abs(mIndent.width());
         final float transomOffset = mTrapezoidHOffset + mDividerWidth * .5f + mTransomPadding;
-        final float trapezoidBottom =
-                getHeight() - mIndent.bottom - mDividerHeight - mDividerWidth - mTrapezoidVOffset;
         canvas.drawLine(
                 mIndent.left + transomOffset,
                 mTransomTop,
@@ -690,7 +768,7 @@ public class BatteryChartView extends AppCompatImageView implements View.OnClick
                 endX - mTransomPadding,
                 mTransomTop,
                 mTransomLinePaint);
-        canvas.drawRect(startX, mTransomTop, endX, trapezoidBottom, mTransomSelectedSlotPaint);
+        canvas.drawRect(startX, mTransomTop, endX, mTrapezoidBottom, mTransomSelectedSlotPaint);
     }
 
     private void drawTransomIcon(Canvas canvas) {
@@ -17,41 +17,33 @@
 package com.android.settings.fuelgauge.batteryusage;
 
 import android.content.Context;
-import android.os.BatteryStatsManager;
 import android.os.BatteryUsageStats;
-import android.os.BatteryUsageStatsQuery;
-import android.util.Log;
 
+import com.android.settings.fuelgauge.BatteryUsageStatsBroker;
 import com.android.settingslib.utils.AsyncLoaderCompat;
 
-/** Loader to get new {@link BatteryUsageStats} in the background */
-public class BatteryUsageStatsLoader extends AsyncLoaderCompat<BatteryUsageStats> {
-    private static final String TAG = "BatteryUsageStatsLoader";
-    private final BatteryStatsManager mBatteryStatsManager;
+/**
+ * Loader to get a {@link BatteryUsageStats} snapshot in the background. The snapshot is shared
+ * with the other loaders through {@link BatteryUsageStatsBroker}, the receiver of the result must
+ * close the returned reference. Results which are discarded are closed by the loader.
+ */
+public class BatteryUsageStatsLoader extends AsyncLoaderCompat<BatteryUsageStatsBroker.Ref> {
     private final boolean mIncludeBatteryHistory;
 
     public BatteryUsageStatsLoader(Context context, boolean includeBatteryHistory) {
         super(context);
-        mBatteryStatsManager = context.getSystemService(BatteryStatsManager.class);
         mIncludeBatteryHistory = includeBatteryHistory;
     }
 
     @Override
-    public BatteryUsageStats loadInBackground() {
-        final BatteryUsageStatsQuery.Builder builder = new BatteryUsageStatsQuery.Builder();
-        if (mIncludeBatteryHistory) {
-            builder.includeBatteryHistory();
-        }
-        try {
-            return mBatteryStatsManager.getBatteryUsageStats(
-                    builder.includeProcessStateData().build());
-        } catch (RuntimeException e) {
-            Log.e(TAG, "loadInBackground() for getBatteryUsageStats()", e);
-            // Use default BatteryUsageStats.
-            return new BatteryUsageStats.Builder(new String[0]).build();
-        }
+    public BatteryUsageStatsBroker.Ref loadInBackground() {
+        return BatteryUsageStatsBroker.acquire(getContext(), mIncludeBatteryHistory);
     }
 
     @Override
-    protected void onDiscardResult(BatteryUsageStats result) {}
+    protected void onDiscardResult(BatteryUsageStatsBroker.Ref result) {
+        if (result != null) {
+            result.close();
+        }
+    }
 }
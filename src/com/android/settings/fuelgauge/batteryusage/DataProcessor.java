@@ -29,9 +29,7 @@ import android.content.Context;
 import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.os.BatteryConsumer;
-import android.os.BatteryStatsManager;
 import android.os.BatteryUsageStats;
-import android.os.BatteryUsageStatsQuery;
 import android.os.Process;
 import android.os.RemoteException;
 import android.os.ServiceManager;
@@ -51,6 +49,7 @@ import androidx.annotation.Nullable;
 
 import com.android.internal.annotations.VisibleForTesting;
 import com.android.internal.os.PowerProfile;
+import com.android.settings.fuelgauge.BatteryUsageStatsBroker;
 import com.android.settings.fuelgauge.BatteryUtils;
 import com.android.settings.overlay.FeatureFactory;
 import com.android.settingslib.fuelgauge.BatteryStatus;
@@ -169,24 +168,13 @@ public final class DataProcessor {
                         batteryLevelData);
     }
 
-    /** Gets the {@link BatteryUsageStats} from system service. */
+    /**
+     * Gets a shared {@link BatteryUsageStats} snapshot with battery history from system service.
+     * The caller must close the returned reference.
+     */
     @NonNull
-    public static BatteryUsageStats getBatteryUsageStats(final Context context) {
-        final long startTime = System.currentTimeMillis();
-        final BatteryUsageStatsQuery batteryUsageStatsQuery =
-                new BatteryUsageStatsQuery.Builder()
-                        .includeBatteryHistory()
-                        .includeProcessStateData()
-                        .build();
-        final BatteryUsageStats batteryUsageStats =
-                context.getSystemService(BatteryStatsManager.class)
-                        .getBatteryUsageStats(batteryUsageStatsQuery);
-        Log.d(
-                TAG,
-                String.format(
-                        "getBatteryUsageStats() from BatteryStatsManager in %d/ms",
-                        System.currentTimeMillis() - startTime));
-        return batteryUsageStats;
+    public static BatteryUsageStatsBroker.Ref getBatteryUsageStats(final Context context) {
+        return BatteryUsageStatsBroker.acquire(context, /* includeBatteryHistory= */ true);
     }
 
     /** Gets the {@link UsageEvents} from system service for all unlocked users. */
@@ -1063,7 +1051,8 @@ public final class DataProcessor {
 
     @Nullable
     private static List<BatteryHistEntry> getBatteryHistListFromFromStatsService(Context context) {
-        try (BatteryUsageStats batteryUsageStats = getBatteryUsageStats(context)) {
+        try (BatteryUsageStatsBroker.Ref batteryUsageStatsRef = getBatteryUsageStats(context)) {
+            final BatteryUsageStats batteryUsageStats = batteryUsageStatsRef.get();
             final List<BatteryEntry> batteryEntryList =
                     generateBatteryEntryListFromBatteryUsageStats(context, batteryUsageStats);
             return convertToBatteryHistEntry(batteryEntryList, batteryUsageStats);
@@ -22,7 +22,6 @@ import android.content.Context;
 import android.os.BatteryUsageStats;
 import android.os.Bundle;
 import android.os.UserManager;
-import android.util.Log;
 
 import androidx.annotation.IntDef;
 import androidx.annotation.NonNull;
@@ -32,6 +31,7 @@ import androidx.loader.content.Loader;
 
 import com.android.settings.dashboard.DashboardFragment;
 import com.android.settings.fuelgauge.BatteryBroadcastReceiver;
+import com.android.settings.fuelgauge.BatteryUsageStatsBroker;
 
 import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
@@ -43,6 +43,7 @@ public abstract class PowerUsageBase extends DashboardFragment {
     @VisibleForTesting static final String KEY_REFRESH_TYPE = "refresh_type";
     @VisibleForTesting static final String KEY_INCLUDE_HISTORY = "include_history";
     @VisibleForTesting BatteryUsageStats mBatteryUsageStats;
+    private BatteryUsageStatsBroker.Ref mBatteryUsageStatsRef;
 
     protected UserManager mUm;
     protected boolean mIsBatteryPresent = true;
@@ -129,38 +130,36 @@ public abstract class PowerUsageBase extends DashboardFragment {
     protected abstract void refreshUi(@BatteryUpdateType int refreshType);
 
     private class BatteryUsageStatsLoaderCallbacks
-            implements LoaderManager.LoaderCallbacks<BatteryUsageStats> {
+            implements LoaderManager.LoaderCallbacks<BatteryUsageStatsBroker.Ref> {
         private int mRefreshType;
 
         @Override
         @NonNull
-        public Loader<BatteryUsageStats> onCreateLoader(int id, Bundle args) {
+        public Loader<BatteryUsageStatsBroker.Ref> onCreateLoader(int id, Bundle args) {
             mRefreshType = args.getInt(KEY_REFRESH_TYPE);
             return new BatteryUsageStatsLoader(getContext(), args.getBoolean(KEY_INCLUDE_HISTORY));
         }
 
         @Override
         public void onLoadFinished(
-                Loader<BatteryUsageStats> loader, BatteryUsageStats batteryUsageStats) {
+                Loader<BatteryUsageStatsBroker.Ref> loader,
+                BatteryUsageStatsBroker.Ref batteryUsageStatsRef) {
             closeBatteryUsageStatsIfNeeded();
-            mBatteryUsageStats = batteryUsageStats;
+            mBatteryUsageStatsRef = batteryUsageStatsRef;
+            mBatteryUsageStats = batteryUsageStatsRef.get();
             PowerUsageBase.this.onLoadFinished(mRefreshType);
         }
 
         @Override
-        public void onLoaderReset(Loader<BatteryUsageStats> loader) {}
+        public void onLoaderReset(Loader<BatteryUsageStatsBroker.Ref> loader) {}
     }
 
     private void closeBatteryUsageStatsIfNeeded() {
-        if (mBatteryUsageStats == null) {
-            return;
-        }
-        try {
-            mBatteryUsageStats.close();
-        } catch (Exception e) {
-            Log.e(TAG, "BatteryUsageStats.close() failed", e);
-        } finally {
-            mBatteryUsageStats = null;
+        // The stats are shared with the other battery loaders, only the reference is closed.
+        if (mBatteryUsageStatsRef != null) {
+            mBatteryUsageStatsRef.close();
+            mBatteryUsageStatsRef = null;
         }
+        mBatteryUsageStats = null;
     }
 }
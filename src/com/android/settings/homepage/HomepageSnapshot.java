@@ -0,0 +1,206 @@
+/*
+ * Copyright (C) 2025 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.homepage;
+
+import android.content.Context;
+import android.graphics.drawable.Icon;
+import android.os.Build;
+import android.text.TextUtils;
+import android.util.AtomicFile;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Injected entries last shown on the homepage. It is saved when the homepage stops and used on
+ * the next cold start to show the entries right away, while the real tiles are being loaded.
+ *
+ * <p>A snapshot is only valid for the locales and build it was saved with.
+ */
+public class HomepageSnapshot {
+    private static final String TAG = "HomepageSnapshot";
+    @VisibleForTesting
+    static final String FILE_NAME = "homepage_snapshot.json";
+    private static final int VERSION = 1;
+
+    private static final String KEY_VERSION = "version";
+    private static final String KEY_LOCALES = "locales";
+    private static final String KEY_FINGERPRINT = "fingerprint";
+    private static final String KEY_ENTRIES = "entries";
+    private static final String KEY_KEY = "key";
+    private static final String KEY_PARENT_KEY = "parent";
+    private static final String KEY_TITLE = "title";
+    private static final String KEY_SUMMARY = "summary";
+    private static final String KEY_ORDER = "order";
+    private static final String KEY_ICON_PACKAGE = "icon_package";
+    private static final String KEY_ICON_RES_ID = "icon_res_id";
+
+    private final String mLocales;
+    private final List<Entry> mEntries;
+
+    /** An entry of the homepage. */
+    public static final class Entry {
+        final String mKey;
+        @Nullable
+        final String mParentKey;
+        @Nullable
+        final String mTitle;
+        @Nullable
+        final String mSummary;
+        final int mOrder;
+        @Nullable
+        final String mIconPackage;
+        final int mIconResId;
+
+        public Entry(@NonNull String key, @Nullable String parentKey,
+                @Nullable CharSequence title, @Nullable CharSequence summary, int order,
+                @Nullable String iconPackage, int iconResId) {
+            mKey = key;
+            mParentKey = parentKey;
+            mTitle = title != null ? title.toString() : null;
+            mSummary = summary != null ? summary.toString() : null;
+            mOrder = order;
+            mIconPackage = iconPackage;
+            mIconResId = iconResId;
+        }
+
+        /** Returns the icon of the entry, or {@code null} if it doesn't have a resource icon. */
+        @Nullable
+        Icon getIcon() {
+            if (TextUtils.isEmpty(mIconPackage) || mIconResId == 0) {
+                return null;
+            }
+            return Icon.createWithResource(mIconPackage, mIconResId);
+        }
+    }
+
+    public HomepageSnapshot(@NonNull Context context, @NonNull List<Entry> entries) {
+        this(getLocales(context), entries);
+    }
+
+    private HomepageSnapshot(String locales, List<Entry> entries) {
+        mLocales = locales;
+        mEntries = Collections.unmodifiableList(new ArrayList<>(entries));
+    }
+
+    @NonNull
+    public List<Entry> getEntries() {
+        return mEntries;
+    }
+
+    /**
+     * Loads the saved snapshot. Returns {@code null} if there is none, or if it was saved with
+     * other locales or another build.
+     */
+    @Nullable
+    public static HomepageSnapshot load(@NonNull Context context) {
+        final AtomicFile file = getFile(context);
+        if (!file.exists()) {
+            return null;
+        }
+        try {
+            final JSONObject json = new JSONObject(
+                    new String(file.readFully(), StandardCharsets.UTF_8));
+            if (json.getInt(KEY_VERSION) != VERSION
+                    || !TextUtils.equals(json.getString(KEY_FINGERPRINT), Build.FINGERPRINT)
+                    || !TextUtils.equals(json.getString(KEY_LOCALES), getLocales(context))) {
+                return null;
+            }
+            final JSONArray array = json.getJSONArray(KEY_ENTRIES);
+            final List<Entry> entries = new ArrayList<>(array.length());
+            for (int i = 0; i < array.length(); i++) {
+                final JSONObject entry = array.getJSONObject(i);
+                entries.add(new Entry(entry.getString(KEY_KEY),
+                        entry.optString(KEY_PARENT_KEY, null),
+                        entry.optString(KEY_TITLE, null),
+                        entry.optString(KEY_SUMMARY, null),
+                        entry.getInt(KEY_ORDER),
+                        entry.optString(KEY_ICON_PACKAGE, null),
+                        entry.optInt(KEY_ICON_RES_ID)));
+            }
+            return new HomepageSnapshot(json.getString(KEY_LOCALES), entries);
+        } catch (IOException | JSONException e) {
+            Log.w(TAG, "Failed to load snapshot", e);
+            return null;
+        }
+    }
+
+    /** Saves this snapshot, replacing the previous one. */
+    @WorkerThread
+    public void save(@NonNull Context context) {
+        final AtomicFile file = getFile(context);
+        FileOutputStream out = null;
+        try {
+            final byte[] data = toJson().toString().getBytes(StandardCharsets.UTF_8);
+            out = file.startWrite();
+            out.write(data);
+            file.finishWrite(out);
+        } catch (IOException | JSONException e) {
+            Log.w(TAG, "Failed to save snapshot", e);
+            if (out != null) {
+                file.failWrite(out);
+            }
+        }
+    }
+
+    /** Deletes the saved snapshot. */
+    public static void delete(@NonNull Context context) {
+        getFile(context).delete();
+    }
+
+    private JSONObject toJson() throws JSONException {
+        final JSONArray array = new JSONArray();
+        for (Entry entry : mEntries) {
+            array.put(new JSONObject()
+                    .put(KEY_KEY, entry.mKey)
+                    .put(KEY_PARENT_KEY, entry.mParentKey)
+                    .put(KEY_TITLE, entry.mTitle)
+                    .put(KEY_SUMMARY, entry.mSummary)
+                    .put(KEY_ORDER, entry.mOrder)
+                    .put(KEY_ICON_PACKAGE, entry.mIconPackage)
+                    .put(KEY_ICON_RES_ID, entry.mIconResId));
+        }
+        return new JSONObject()
+                .put(KEY_VERSION, VERSION)
+                .put(KEY_LOCALES, mLocales)
+                .put(KEY_FINGERPRINT, Build.FINGERPRINT)
+                .put(KEY_ENTRIES, array);
+    }
+
+    private static String getLocales(Context context) {
+        return context.getResources().getConfiguration().getLocales().toLanguageTags();
+    }
+
+    private static AtomicFile getFile(Context context) {
+        return new AtomicFile(new File(context.getNoBackupFilesDir(), FILE_NAME));
+    }
+}
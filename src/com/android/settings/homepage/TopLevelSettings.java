@@ -24,14 +24,17 @@ import android.app.settings.SettingsEnums;
 import android.content.Context;
 import android.content.res.Configuration;
 import android.graphics.drawable.Drawable;
+import android.graphics.drawable.Icon;
 import android.os.Bundle;
 import android.provider.SearchIndexableResource;
 import android.text.TextUtils;
+import android.util.ArrayMap;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
 import androidx.fragment.app.Fragment;
 import androidx.preference.Preference;
@@ -48,6 +51,7 @@ import com.android.settings.activityembedding.ActivityEmbeddingRulesController;
 import com.android.settings.activityembedding.ActivityEmbeddingUtils;
 import com.android.settings.core.RoundCornerPreferenceAdapter;
 import com.android.settings.core.SubSettingLauncher;
+import com.android.settings.dashboard.DashboardFeatureProvider;
 import com.android.settings.dashboard.DashboardFragment;
 import com.android.settings.flags.Flags;
 import com.android.settings.overlay.FeatureFactory;
@@ -57,11 +61,16 @@ import com.android.settings.widget.HomepagePreference;
 import com.android.settings.widget.HomepagePreferenceLayoutHelper;
 import com.android.settings.widget.HomepagePreferenceLayoutHelper.HomepagePreferenceLayout;
 import com.android.settingslib.core.instrumentation.Instrumentable;
+import com.android.settingslib.drawer.DashboardCategory;
 import com.android.settingslib.drawer.Tile;
 import com.android.settingslib.search.SearchIndexable;
+import com.android.settingslib.utils.ThreadUtils;
 import com.android.settingslib.widget.SettingsThemeHelper;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @SearchIndexable(forTarget = MOBILE)
 public class TopLevelSettings extends DashboardFragment implements SplitLayoutListener,
@@ -77,6 +86,15 @@ public class TopLevelSettings extends DashboardFragment implements SplitLayoutLi
     private boolean mScrollNeeded = true;
     private boolean mFirstStarted = true;
     private ActivityEmbeddingController mActivityEmbeddingController;
+    // Whether the injected tiles have been loaded once in this process.
+    private static boolean sDashboardTilesLoaded;
+    // Whether this page was created before the injected tiles were loaded in this process.
+    private boolean mColdStart;
+    // Snapshot loaded before the preferences were created.
+    @Nullable
+    private HomepageSnapshot mSnapshot;
+    // Entries of the snapshot shown until the injected tiles are loaded, keyed by tile key.
+    private final Map<String, Preference> mSnapshotPreferences = new ArrayMap<>();
 
     public TopLevelSettings() {
         final Bundle args = new Bundle();
@@ -112,6 +130,43 @@ public class TopLevelSettings extends DashboardFragment implements SplitLayoutLi
         super.onAttach(context);
         HighlightableMenu.fromXml(context, getPreferenceScreenResId());
         use(SupportPreferenceController.class).setActivity(getActivity());
+        mColdStart = !sDashboardTilesLoaded;
+        if (mColdStart) {
+            // On cold start, show the last injected entries instead of waiting for the tiles.
+            final Context appContext = context.getApplicationContext();
+            ThreadUtils.postOnBackgroundThread(() -> {
+                final HomepageSnapshot snapshot = HomepageSnapshot.load(appContext);
+                if (snapshot != null) {
+                    ThreadUtils.postOnMainThread(() -> onSnapshotLoaded(snapshot));
+                }
+            });
+        }
+    }
+
+    @Override
+    protected boolean shouldLoadDashboardTilesAsync() {
+        return mColdStart;
+    }
+
+    @VisibleForTesting
+    void onSnapshotLoaded(@NonNull HomepageSnapshot snapshot) {
+        if (sDashboardTilesLoaded || getContext() == null) {
+            return;
+        }
+        if (getPreferenceScreen() == null) {
+            mSnapshot = snapshot;
+            return;
+        }
+        showSnapshot(snapshot);
+    }
+
+    @Override
+    public void onCategoriesChanged(Set<String> categories) {
+        // Replace the snapshot with the real tiles.
+        sDashboardTilesLoaded = true;
+        mColdStart = false;
+        removeSnapshotPreferences();
+        super.onCategoriesChanged(categories);
     }
 
     @Override
@@ -207,6 +262,14 @@ public class TopLevelSettings extends DashboardFragment implements SplitLayoutLi
         return taskInfo.numActivities == 1;
     }
 
+    @Override
+    public void onStop() {
+        super.onStop();
+        if (sDashboardTilesLoaded && mSnapshotPreferences.isEmpty()) {
+            saveSnapshot();
+        }
+    }
+
     @Override
     public void onSaveInstanceState(Bundle outState) {
         super.onSaveInstanceState(outState);
@@ -218,6 +281,13 @@ public class TopLevelSettings extends DashboardFragment implements SplitLayoutLi
     @Override
     public void onCreatePreferences(Bundle savedInstanceState, String rootKey) {
         super.onCreatePreferences(savedInstanceState, rootKey);
+        if (mSnapshot != null && !sDashboardTilesLoaded) {
+            showSnapshot(mSnapshot);
+            mSnapshot = null;
+        } else if (!mColdStart) {
+            // The tiles have been loaded synchronously.
+            sDashboardTilesLoaded = true;
+        }
         if (Flags.homepageRevamp()) {
             return;
         }
@@ -368,6 +438,89 @@ public class TopLevelSettings extends DashboardFragment implements SplitLayoutLi
         }
     }
 
+    private void showSnapshot(HomepageSnapshot snapshot) {
+        final PreferenceScreen screen = getPreferenceScreen();
+        if (screen == null) {
+            return;
+        }
+        final Context appContext = getContext().getApplicationContext();
+        for (HomepageSnapshot.Entry entry : snapshot.getEntries()) {
+            if (screen.findPreference(entry.mKey) != null) {
+                continue;
+            }
+            final Preference preference = new HomepagePreference(getPrefContext());
+            preference.setKey(entry.mKey);
+            preference.setTitle(entry.mTitle);
+            preference.setSummary(entry.mSummary);
+            preference.setOrder(entry.mOrder);
+            // Not clickable until bound to its tile.
+            preference.setSelectable(false);
+            final Preference parent = entry.mParentKey != null
+                    ? screen.findPreference(entry.mParentKey) : null;
+            if (parent instanceof PreferenceGroup) {
+                ((PreferenceGroup) parent).addPreference(preference);
+            } else {
+                screen.addPreference(preference);
+            }
+            mSnapshotPreferences.put(entry.mKey, preference);
+
+            final Icon icon = entry.getIcon();
+            if (icon != null) {
+                ThreadUtils.postOnBackgroundThread(() -> {
+                    final Drawable drawable = icon.loadDrawable(appContext);
+                    ThreadUtils.postOnMainThread(() -> {
+                        if (mSnapshotPreferences.get(entry.mKey) == preference) {
+                            preference.setIcon(drawable);
+                        }
+                    });
+                });
+            }
+        }
+    }
+
+    private void removeSnapshotPreferences() {
+        for (Preference preference : mSnapshotPreferences.values()) {
+            final PreferenceGroup parent = preference.getParent();
+            if (parent != null) {
+                parent.removePreference(preference);
+            }
+        }
+        mSnapshotPreferences.clear();
+    }
+
+    private void saveSnapshot() {
+        final PreferenceScreen screen = getPreferenceScreen();
+        final DashboardFeatureProvider dashboardFeatureProvider =
+                FeatureFactory.getFeatureFactory().getDashboardFeatureProvider();
+        final DashboardCategory category =
+                dashboardFeatureProvider.getTilesForCategory(getCategoryKey());
+        if (screen == null || category == null) {
+            HomepageSnapshot.delete(getContext());
+            return;
+        }
+        final Context context = getContext();
+        final List<HomepageSnapshot.Entry> entries = new ArrayList<>();
+        for (Tile tile : category.getTiles()) {
+            final String key = dashboardFeatureProvider.getDashboardKeyForTile(tile);
+            final Preference preference = TextUtils.isEmpty(key) ? null : findPreference(key);
+            if (preference == null || preference instanceof PreferenceGroup
+                    || !preference.isVisible()) {
+                continue;
+            }
+            final PreferenceGroup parent = preference.getParent();
+            final Icon icon = tile.getIcon(context);
+            final boolean resourceIcon = icon != null && icon.getType() == Icon.TYPE_RESOURCE;
+            entries.add(new HomepageSnapshot.Entry(key,
+                    parent != null && parent != screen ? parent.getKey() : null,
+                    preference.getTitle(), preference.getSummary(), preference.getOrder(),
+                    resourceIcon ? icon.getResPackage() : null,
+                    resourceIcon ? icon.getResId() : 0));
+        }
+        final HomepageSnapshot snapshot = new HomepageSnapshot(context, entries);
+        final Context appContext = context.getApplicationContext();
+        ThreadUtils.postOnBackgroundThread(() -> snapshot.save(appContext));
+    }
+
     private void iteratePreferences(PreferenceJob job) {
         if (job == null || getPreferenceManager() == null) {
             return;
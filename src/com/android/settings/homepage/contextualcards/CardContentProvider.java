@@ -21,12 +21,16 @@ import android.content.ContentResolver;
 import android.content.ContentValues;
 import android.content.UriMatcher;
 import android.database.Cursor;
+import android.database.SQLException;
 import android.database.sqlite.SQLiteDatabase;
 import android.database.sqlite.SQLiteQueryBuilder;
+import android.database.sqlite.SQLiteStatement;
 import android.net.Uri;
 import android.os.Build;
 import android.os.StrictMode;
+import android.text.TextUtils;
 import android.util.ArrayMap;
+import android.util.ArraySet;
 import android.util.Log;
 
 import androidx.annotation.VisibleForTesting;
@@ -34,7 +38,11 @@ import androidx.annotation.VisibleForTesting;
 import com.android.settings.R;
 import com.android.settingslib.utils.ThreadUtils;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 /**
  * Provider stores and manages user interaction feedback for homepage contextual cards.
@@ -60,6 +68,16 @@ public class CardContentProvider extends ContentProvider {
     private static final UriMatcher URI_MATCHER = new UriMatcher(UriMatcher.NO_MATCH);
     /** URI matcher type for cards table */
     private static final int MATCH_CARDS = 100;
+    /** All columns of the cards table, in the order they are bound when writing a card. */
+    private static final String[] CARD_COLUMNS = {
+            CardDatabaseHelper.CardColumns.NAME,
+            CardDatabaseHelper.CardColumns.TYPE,
+            CardDatabaseHelper.CardColumns.SCORE,
+            CardDatabaseHelper.CardColumns.SLICE_URI,
+            CardDatabaseHelper.CardColumns.CATEGORY,
+            CardDatabaseHelper.CardColumns.PACKAGE_NAME,
+            CardDatabaseHelper.CardColumns.APP_VERSION,
+            CardDatabaseHelper.CardColumns.DISMISSED_TIMESTAMP};
 
     static {
         URI_MATCHER.addURI(CARD_AUTHORITY, CardDatabaseHelper.CARD_TABLE, MATCH_CARDS);
@@ -80,70 +98,105 @@ public class CardContentProvider extends ContentProvider {
     @Override
     public int bulkInsert(Uri uri, ContentValues[] values) {
         final StrictMode.ThreadPolicy oldPolicy = StrictMode.getThreadPolicy();
-        int numInserted = 0;
+        final WriteResult result;
         final CardDatabaseHelper DBHelper = CardDatabaseHelper.getInstance(getContext());
         final SQLiteDatabase database = DBHelper.getWritableDatabase();
         final boolean keepDismissalTimestampBeforeDeletion = getContext().getResources()
                 .getBoolean(R.bool.config_keep_contextual_card_dismissal_timestamp);
-        final Map<String, Long> dismissedTimeMap = new ArrayMap<>();
 
         try {
             maybeEnableStrictMode();
 
             final String table = getTableFromMatch(uri);
             database.beginTransaction();
+            result = writeCards(database, table, values, keepDismissalTimestampBeforeDeletion);
+            database.setTransactionSuccessful();
+        } finally {
+            database.endTransaction();
+            StrictMode.setThreadPolicy(oldPolicy);
+        }
+        if (result.mChanged) {
+            getContext().getContentResolver().notifyChange(uri, null /* observer */);
+        }
+        return result.mNumInserted;
+    }
 
-            if (keepDismissalTimestampBeforeDeletion) {
-                // Query the existing db and get dismissal info.
-                final String[] columns = new String[]{CardDatabaseHelper.CardColumns.NAME,
-                        CardDatabaseHelper.CardColumns.DISMISSED_TIMESTAMP};
-                final String selection =
-                        CardDatabaseHelper.CardColumns.DISMISSED_TIMESTAMP + " IS NOT NULL";
-                try (Cursor cursor = database.query(table, columns, selection,
-                        null/* selectionArgs */, null /* groupBy */,
-                        null /* having */, null /* orderBy */)) {
-                    // Save them to a Map
-                    for (cursor.moveToFirst(); !cursor.isAfterLast(); cursor.moveToNext()) {
-                        final String cardName = cursor.getString(cursor.getColumnIndex(
-                                CardDatabaseHelper.CardColumns.NAME));
-                        final long timestamp = cursor.getLong(cursor.getColumnIndex(
-                                CardDatabaseHelper.CardColumns.DISMISSED_TIMESTAMP));
-                        dismissedTimeMap.put(cardName, timestamp);
-                    }
-                }
-            }
+    /** Result of {@link #writeCards}. */
+    @VisibleForTesting
+    static final class WriteResult {
+        /** Number of cards of the new set which are in the table. */
+        int mNumInserted;
+        /** Whether any row of the table was written or deleted. */
+        boolean mChanged;
+    }
 
-            // Here delete data first to avoid redundant insertion. According to cl/215350754
-            database.delete(table, null /* whereClause */, null /* whereArgs */);
+    /**
+     * Replaces the cards of {@code table} with {@code values}. Only the cards which changed are
+     * written, and the cards which are not in {@code values} anymore are deleted.
+     */
+    @VisibleForTesting
+    static WriteResult writeCards(SQLiteDatabase database, String table, ContentValues[] values,
+            boolean keepDismissalTimestampBeforeDeletion) {
+        final WriteResult result = new WriteResult();
+        // Query the existing db, so that only the cards which changed are written.
+        final Map<String, ContentValues> storedCards = queryCards(database, table);
+        final Set<String> cardNames = new ArraySet<>();
 
+        try (SQLiteStatement upsert = database.compileStatement(
+                "INSERT OR REPLACE INTO " + table + " (" + TextUtils.join(",", CARD_COLUMNS)
+                        + ") VALUES (?,?,?,?,?,?,?,?)")) {
             for (ContentValues value : values) {
-                if (keepDismissalTimestampBeforeDeletion) {
-                    // Replace dismissedTimestamp in each value if there is an old one.
-                    final String cardName =
-                            value.get(CardDatabaseHelper.CardColumns.NAME).toString();
-                    if (dismissedTimeMap.containsKey(cardName)) {
-                        // Replace the value of dismissedTimestamp
-                        value.put(CardDatabaseHelper.CardColumns.DISMISSED_TIMESTAMP,
-                                dismissedTimeMap.get(cardName));
-                        Log.d(TAG, "Replace dismissed time: " + cardName);
-                    }
+                final String cardName = value.getAsString(CardDatabaseHelper.CardColumns.NAME);
+                final ContentValues storedCard = storedCards.get(cardName);
+                if (keepDismissalTimestampBeforeDeletion && storedCard != null
+                        && storedCard.get(CardDatabaseHelper.CardColumns.DISMISSED_TIMESTAMP)
+                        != null) {
+                    // Replace the value of dismissedTimestamp
+                    value.put(CardDatabaseHelper.CardColumns.DISMISSED_TIMESTAMP,
+                            storedCard.getAsLong(
+                                    CardDatabaseHelper.CardColumns.DISMISSED_TIMESTAMP));
+                    Log.d(TAG, "Keep dismissed time: " + cardName);
                 }
 
-                long ret = database.insert(table, null /* nullColumnHack */, value);
-                if (ret != -1L) {
-                    numInserted++;
-                } else {
-                    Log.e(TAG, "The row " + value.getAsString(CardDatabaseHelper.CardColumns.NAME)
+                if (cardName == null || !cardNames.add(cardName)) {
+                    Log.e(TAG, "The row " + cardName
                             + " insertion failed! Please check your data.");
+                    continue;
+                }
+                if (storedCard != null && isSameCard(value, storedCard)) {
+                    result.mNumInserted++;
+                    continue;
+                }
+                try {
+                    bindCard(upsert, value);
+                    upsert.executeInsert();
+                    result.mNumInserted++;
+                    result.mChanged = true;
+                } catch (SQLException e) {
+                    Log.e(TAG, "The row " + cardName
+                            + " insertion failed! Please check your data.", e);
                 }
             }
-            database.setTransactionSuccessful();
-            getContext().getContentResolver().notifyChange(uri, null /* observer */);
-        } finally {
-            database.endTransaction();
-            StrictMode.setThreadPolicy(oldPolicy);
         }
-        return numInserted;
+
+        // Remove the cards which are not in the new set anymore.
+        final List<String> removedCards = new ArrayList<>();
+        for (String cardName : storedCards.keySet()) {
+            if (!cardNames.contains(cardName)) {
+                removedCards.add(cardName);
+            }
+        }
+        if (!removedCards.isEmpty()) {
+            try (SQLiteStatement delete = database.compileStatement("DELETE FROM " + table
+                    + " WHERE " + CardDatabaseHelper.CardColumns.NAME + "=?")) {
+                for (String cardName : removedCards) {
+                    delete.bindString(1, cardName);
+                    delete.executeUpdateDelete();
+                }
+            }
+            result.mChanged = true;
+        }
+        return result;
     }
 
     @Override
@@ -196,6 +249,73 @@ public class CardContentProvider extends ContentProvider {
         StrictMode.setThreadPolicy(new StrictMode.ThreadPolicy.Builder().detectAll().build());
     }
 
+    private static Map<String, ContentValues> queryCards(SQLiteDatabase database,
+            String table) {
+        final Map<String, ContentValues> cards = new ArrayMap<>();
+        try (Cursor cursor = database.query(table, CARD_COLUMNS, null /* selection */,
+                null /* selectionArgs */, null /* groupBy */, null /* having */,
+                null /* orderBy */)) {
+            for (cursor.moveToFirst(); !cursor.isAfterLast(); cursor.moveToNext()) {
+                final ContentValues card = new ContentValues();
+                card.put(CardDatabaseHelper.CardColumns.NAME, cursor.getString(0));
+                card.put(CardDatabaseHelper.CardColumns.TYPE, cursor.getInt(1));
+                card.put(CardDatabaseHelper.CardColumns.SCORE, cursor.getDouble(2));
+                card.put(CardDatabaseHelper.CardColumns.SLICE_URI, cursor.getString(3));
+                card.put(CardDatabaseHelper.CardColumns.CATEGORY, cursor.getInt(4));
+                card.put(CardDatabaseHelper.CardColumns.PACKAGE_NAME, cursor.getString(5));
+                card.put(CardDatabaseHelper.CardColumns.APP_VERSION, cursor.getLong(6));
+                card.put(CardDatabaseHelper.CardColumns.DISMISSED_TIMESTAMP,
+                        cursor.isNull(7) ? null : cursor.getLong(7));
+                cards.put(cursor.getString(0), card);
+            }
+        }
+        return cards;
+    }
+
+    private static boolean isSameCard(ContentValues card, ContentValues storedCard) {
+        for (String column : CARD_COLUMNS) {
+            if (!Objects.equals(getColumnValue(card, column),
+                    getColumnValue(storedCard, column))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void bindCard(SQLiteStatement statement, ContentValues card) {
+        statement.clearBindings();
+        for (int i = 0; i < CARD_COLUMNS.length; i++) {
+            final Object value = getColumnValue(card, CARD_COLUMNS[i]);
+            if (value == null) {
+                statement.bindNull(i + 1);
+            } else if (value instanceof Double) {
+                statement.bindDouble(i + 1, (Double) value);
+            } else if (value instanceof Long) {
+                statement.bindLong(i + 1, (Long) value);
+            } else {
+                statement.bindString(i + 1, (String) value);
+            }
+        }
+    }
+
+    /** Returns the value of the column as it is stored in the table. */
+    private static Object getColumnValue(ContentValues card, String column) {
+        switch (column) {
+            case CardDatabaseHelper.CardColumns.SCORE:
+                return card.getAsDouble(column);
+            case CardDatabaseHelper.CardColumns.CATEGORY:
+                // Same as the default value of the column.
+                final Long category = card.getAsLong(column);
+                return category != null ? category : 0L;
+            case CardDatabaseHelper.CardColumns.TYPE:
+            case CardDatabaseHelper.CardColumns.APP_VERSION:
+            case CardDatabaseHelper.CardColumns.DISMISSED_TIMESTAMP:
+                return card.getAsLong(column);
+            default:
+                return card.getAsString(column);
+        }
+    }
+
     @VisibleForTesting
     String getTableFromMatch(Uri uri) {
         final int match = URI_MATCHER.match(uri);
@@ -75,7 +75,8 @@ public class CardDatabaseHelper extends SQLiteOpenHelper {
         String DISMISSED_TIMESTAMP = "dismissed_timestamp";
     }
 
-    private static final String CREATE_CARD_TABLE =
+    @VisibleForTesting
+    static final String CREATE_CARD_TABLE =
             "CREATE TABLE "
                     + CARD_TABLE
                     + "("
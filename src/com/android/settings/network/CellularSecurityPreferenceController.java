@@ -32,6 +32,8 @@ import android.util.Log;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.annotation.VisibleForTesting;
+import androidx.lifecycle.DefaultLifecycleObserver;
+import androidx.lifecycle.LifecycleOwner;
 import androidx.preference.Preference;
 import androidx.preference.PreferenceScreen;
 
@@ -45,12 +47,15 @@ import java.util.List;
  * {@link BasePreferenceController} for accessing Cellular Security settings from Network &
  * Internet Settings menu.
  */
-public class CellularSecurityPreferenceController extends BasePreferenceController {
+public class CellularSecurityPreferenceController extends BasePreferenceController implements
+        SubscriptionsChangeListener.SubscriptionsChangeListenerClient, DefaultLifecycleObserver {
 
     private static final String LOG_TAG = "CellularSecurityPreferenceController";
     private static final String SAFETY_SOURCE_ID = "AndroidCellularNetworkSecurity";
 
     private @Nullable TelephonyManager mTelephonyManager;
+    private final SubscriptionsChangeListener mChangeListener;
+    private @Nullable Preference mPreference;
 
     /**
      * Class constructor of "Cellular Security" preference.
@@ -61,11 +66,43 @@ public class CellularSecurityPreferenceController extends BasePreferenceControll
     public CellularSecurityPreferenceController(@NonNull Context context, @NonNull String prefKey) {
         super(context, prefKey);
         mTelephonyManager = context.getSystemService(TelephonyManager.class);
+        mChangeListener = new SubscriptionsChangeListener(context, this);
+        // Availability makes several telephony binder calls. It only changes with the
+        // subscriptions, which drop the cached value in onSubscriptionsChanged().
+        setAvailabilityCacheEnabled(true);
     }
 
     @Override
     public void displayPreference(@NonNull PreferenceScreen screen) {
         super.displayPreference(screen);
+        mPreference = screen.findPreference(getPreferenceKey());
+    }
+
+    @Override
+    public void onStart(@NonNull LifecycleOwner owner) {
+        mChangeListener.start();
+    }
+
+    @Override
+    public void onStop(@NonNull LifecycleOwner owner) {
+        mChangeListener.stop();
+    }
+
+    @Override
+    public void onAirplaneModeChanged(boolean airplaneModeEnabled) {
+        onAvailabilityInputsChanged();
+    }
+
+    @Override
+    public void onSubscriptionsChanged() {
+        onAvailabilityInputsChanged();
+    }
+
+    private void onAvailabilityInputsChanged() {
+        invalidateAvailabilityStatus();
+        if (mPreference != null) {
+            mPreference.setVisible(isAvailable());
+        }
     }
 
     @Override
@@ -37,12 +37,14 @@ import android.net.wifi.WifiConfiguration;
 import android.net.wifi.WifiManager;
 import android.os.Bundle;
 import android.os.PowerManager;
+import android.os.SystemClock;
 import android.os.UserHandle;
 import android.os.UserManager;
 import android.provider.Settings;
 import android.telephony.SubscriptionManager;
 import android.telephony.TelephonyManager;
 import android.text.TextUtils;
+import android.util.ArrayMap;
 import android.util.EventLog;
 import android.util.Log;
 import android.view.ContextMenu;
@@ -63,6 +65,7 @@ import androidx.core.view.MenuProvider;
 import androidx.fragment.app.Fragment;
 import androidx.preference.Preference;
 import androidx.preference.PreferenceCategory;
+import androidx.preference.PreferenceGroup;
 import androidx.preference.PreferenceScreen;
 import androidx.recyclerview.widget.RecyclerView;
 
@@ -116,6 +119,7 @@ import com.google.android.setupdesign.GlifPreferenceLayout;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -206,6 +210,18 @@ public class NetworkProviderSettings extends RestrictedDashboardFragment
         }
     };
 
+    // Minimum interval between Wi-Fi list rebinds, bursts of callbacks in between are merged.
+    @VisibleForTesting
+    static final long WIFI_ENTRIES_UPDATE_THROTTLE_MS = 500;
+    private long mLastWifiEntriesUpdateMs = -WIFI_ENTRIES_UPDATE_THROTTLE_MS;
+    private boolean mWifiEntriesUpdatePending;
+    @VisibleForTesting
+    final Runnable mThrottledUpdateWifiEntryPreferencesRunnable = () -> {
+        mWifiEntriesUpdatePending = false;
+        mLastWifiEntriesUpdateMs = SystemClock.elapsedRealtime();
+        updateWifiEntryPreferences();
+    };
+
     @VisibleForTesting
     final Runnable mUpdateWifiEntryPreferencesRunnable = () -> {
         updateWifiEntryPreferences();
@@ -660,6 +676,8 @@ public class NetworkProviderSettings extends RestrictedDashboardFragment
     public void onStop() {
         getView().removeCallbacks(mRemoveLoadingRunnable);
         getView().removeCallbacks(mUpdateWifiEntryPreferencesRunnable);
+        getView().removeCallbacks(mThrottledUpdateWifiEntryPreferencesRunnable);
+        mWifiEntriesUpdatePending = false;
         getView().removeCallbacks(mHideProgressBarRunnable);
         mAirplaneModeEnabler.stop();
         mDataStateListener.stop();
@@ -1047,7 +1065,7 @@ public class NetworkProviderSettings extends RestrictedDashboardFragment
         if (isFinishingOrDestroyed()) {
             return;
         }
-        updateWifiEntryPreferences();
+        scheduleWifiEntryPreferencesUpdate();
         if (reason == WifiPickerTracker.WIFI_ENTRIES_CHANGED_REASON_SCAN_RESULTS) {
             setProgressBarVisible(false);
         }
@@ -1087,6 +1105,27 @@ public class NetworkProviderSettings extends RestrictedDashboardFragment
         setAdditionalSettingsSummaries();
     }
 
+    /**
+     * Updates the Wi-Fi list now if it hasn't been updated within
+     * {@link #WIFI_ENTRIES_UPDATE_THROTTLE_MS}, otherwise merges this request into a single
+     * deferred update.
+     */
+    @VisibleForTesting
+    void scheduleWifiEntryPreferencesUpdate() {
+        if (mWifiEntriesUpdatePending) {
+            return;
+        }
+        final View view = getView();
+        final long elapsed = SystemClock.elapsedRealtime() - mLastWifiEntriesUpdateMs;
+        if (view == null || elapsed >= WIFI_ENTRIES_UPDATE_THROTTLE_MS) {
+            mThrottledUpdateWifiEntryPreferencesRunnable.run();
+            return;
+        }
+        mWifiEntriesUpdatePending = true;
+        view.postDelayed(mThrottledUpdateWifiEntryPreferencesRunnable,
+                WIFI_ENTRIES_UPDATE_THROTTLE_MS - elapsed);
+    }
+
     protected void updateWifiEntryPreferences() {
         // bypass the update if the activity and the view are not ready, or it's restricted UI.
         if (getActivity() == null || getView() == null || mIsRestricted) {
@@ -1137,46 +1176,51 @@ public class NetworkProviderSettings extends RestrictedDashboardFragment
             connectedWifiPreferenceCategory.removeAll();
         }
 
+        // Diff the new list against the current preferences by key: existing preferences are
+        // rebound and reordered in place, only new keys are inflated and only stale keys removed.
         int index = 0;
-        cacheRemoveAllPrefs(mWifiEntryPreferenceCategory);
+        final Map<String, Preference> stalePrefs =
+                getKeyedPreferences(mWifiEntryPreferenceCategory);
+        stalePrefs.remove(PREF_KEY_ADD_WIFI_NETWORK);
         List<WifiEntry> wifiEntries = mWifiPickerTracker.getWifiEntries();
         for (WifiEntry wifiEntry : wifiEntries) {
             hasAvailableWifiEntries = true;
 
-            String key = wifiEntry.getKey();
-            LongPressWifiEntryPreference pref =
-                    (LongPressWifiEntryPreference) getCachedPreference(key);
-            if (pref != null) {
-                if (pref.getWifiEntry() == wifiEntry) {
-                    pref.setOrder(index++);
-                    continue;
-                } else {
-                    // Create a new preference if the underlying WifiEntry object has changed
-                    removePreference(key);
+            final Preference existingPref = stalePrefs.remove(wifiEntry.getKey());
+            if (existingPref instanceof LongPressWifiEntryPreference pref) {
+                if (pref.getWifiEntry() != wifiEntry) {
+                    // Rebind the preference if the underlying WifiEntry object has changed
+                    pref.setWifiEntry(wifiEntry);
+                    updateSubscriptionHelpListener(pref, wifiEntry);
                 }
+                pref.setOrder(index++);
+                continue;
+            } else if (existingPref != null) {
+                mWifiEntryPreferenceCategory.removePreference(existingPref);
             }
 
-            pref = createLongPressWifiEntryPreference(wifiEntry);
+            final LongPressWifiEntryPreference pref =
+                    createLongPressWifiEntryPreference(wifiEntry);
             pref.setKey(wifiEntry.getKey());
             pref.setOrder(index++);
             pref.refresh();
-
-            if (wifiEntry.getHelpUriString() != null) {
-                pref.setOnButtonClickListener(preference -> {
-                    openSubscriptionHelpPage(wifiEntry);
-                });
-            }
+            updateSubscriptionHelpListener(pref, wifiEntry);
             mWifiEntryPreferenceCategory.addPreference(pref);
         }
-        removeCachedPrefs(mWifiEntryPreferenceCategory);
 
         if (!hasAvailableWifiEntries) {
-            Preference pref = new Preference(getPrefContext());
-            pref.setSelectable(false);
-            pref.setSummary(R.string.wifi_empty_list_wifi_on);
+            Preference pref = stalePrefs.remove(PREF_KEY_EMPTY_WIFI_LIST);
+            if (pref == null) {
+                pref = new Preference(getPrefContext());
+                pref.setSelectable(false);
+                pref.setSummary(R.string.wifi_empty_list_wifi_on);
+                pref.setKey(PREF_KEY_EMPTY_WIFI_LIST);
+                mWifiEntryPreferenceCategory.addPreference(pref);
+            }
             pref.setOrder(index++);
-            pref.setKey(PREF_KEY_EMPTY_WIFI_LIST);
-            mWifiEntryPreferenceCategory.addPreference(pref);
+        }
+        for (Preference stalePref : stalePrefs.values()) {
+            mWifiEntryPreferenceCategory.removePreference(stalePref);
         }
 
         mAddWifiNetworkPreference.setOrder(index++);
@@ -1184,6 +1228,24 @@ public class NetworkProviderSettings extends RestrictedDashboardFragment
         setAdditionalSettingsSummaries();
     }
 
+    private static Map<String, Preference> getKeyedPreferences(PreferenceGroup group) {
+        final int count = group.getPreferenceCount();
+        final Map<String, Preference> prefs = new ArrayMap<>(count);
+        for (int i = 0; i < count; i++) {
+            final Preference pref = group.getPreference(i);
+            if (!TextUtils.isEmpty(pref.getKey())) {
+                prefs.put(pref.getKey(), pref);
+            }
+        }
+        return prefs;
+    }
+
+    private void updateSubscriptionHelpListener(LongPressWifiEntryPreference pref,
+            WifiEntry wifiEntry) {
+        pref.setOnButtonClickListener(wifiEntry.getHelpUriString() == null ? null
+                : preference -> openSubscriptionHelpPage(wifiEntry));
+    }
+
     void updateEthernetInterfaces(Collection<EthernetInterface> interfaces) {
         int index = 0;
         mEthernetPreferenceCategory.removeAll();
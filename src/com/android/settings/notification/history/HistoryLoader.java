@@ -21,23 +21,40 @@ import android.app.NotificationHistory.HistoricalNotification;
 import android.content.Context;
 import android.content.pm.ApplicationInfo;
 import android.content.pm.PackageManager;
+import android.graphics.drawable.Drawable;
 import android.os.UserHandle;
+import android.util.ArrayMap;
 import android.util.Slog;
+import android.util.SparseArray;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
 
 import com.android.settings.notification.NotificationBackend;
+import com.android.settingslib.applications.AppIconCacheManager;
 import com.android.settingslib.utils.ThreadUtils;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
+import java.util.function.Consumer;
 
 public class HistoryLoader {
     private static final String TAG = "HistoryLoader";
+    // Number of packages handed to the UI at a time, so the first rows show up before the
+    // whole history is bound.
+    @VisibleForTesting
+    static final int PAGE_SIZE = 8;
+    /** Total count of a first page delivered before the whole history was read. */
+    static final int UNKNOWN_COUNT = -1;
+
     private final Context mContext;
     private final NotificationBackend mBackend;
     private final PackageManager mPm;
+    private volatile boolean mCancelled;
 
     public HistoryLoader(Context context, NotificationBackend backend, PackageManager pm) {
         mContext = context;
@@ -45,55 +62,184 @@ public class HistoryLoader {
         mPm = pm;
     }
 
+    /**
+     * Loads the notification history grouped by package, most recent first, and delivers it to
+     * {@code listener} page by page. Labels and icons are not resolved here, see
+     * {@link #loadAppInfo(NotificationHistoryPackage, Runnable)}.
+     *
+     * <p>The packages of the first page are known before the whole history is read, since it is
+     * read most recent first. They are delivered right away with {@link #UNKNOWN_COUNT} as the
+     * total count and without their notifications, then delivered again once the history has
+     * been read.
+     */
     public void load(OnHistoryLoaderListener listener) {
         ThreadUtils.postOnBackgroundThread(() -> {
             try {
-                Map<String, NotificationHistoryPackage> historicalNotifications = new HashMap<>();
                 NotificationHistory history =
                         mBackend.getNotificationHistory(mContext.getPackageName(),
                                 mContext.getAttributionTag());
-                while (history.hasNextNotification()) {
-                    HistoricalNotification hn = history.getNextNotification();
-
-                    String key = hn.getPackage() + "|" + hn.getUid();
-                    NotificationHistoryPackage hnsForPackage = historicalNotifications.getOrDefault(
-                            key,
-                            new NotificationHistoryPackage(hn.getPackage(), hn.getUid()));
-                    hnsForPackage.notifications.add(hn);
-                    historicalNotifications.put(key, hnsForPackage);
-                }
-                List<NotificationHistoryPackage> packages =
-                        new ArrayList<>(historicalNotifications.values());
-                Collections.sort(packages,
-                        (o1, o2) -> -1 * Long.compare(o1.getMostRecent(), o2.getMostRecent()));
-                for (NotificationHistoryPackage nhp : packages) {
-                    ApplicationInfo info;
-                    try {
-                        info = mPm.getApplicationInfoAsUser(
-                                nhp.pkgName,
-                                PackageManager.MATCH_UNINSTALLED_PACKAGES
-                                        | PackageManager.MATCH_DISABLED_COMPONENTS
-                                        | PackageManager.MATCH_DIRECT_BOOT_UNAWARE
-                                        | PackageManager.MATCH_DIRECT_BOOT_AWARE,
-                                UserHandle.getUserId(nhp.uid));
-                        if (info != null) {
-                            nhp.label = String.valueOf(mPm.getApplicationLabel(info));
-                            nhp.icon = mPm.getUserBadgedIcon(mPm.getApplicationIcon(info),
-                                    UserHandle.of(UserHandle.getUserId(nhp.uid)));
-                        }
-                    } catch (PackageManager.NameNotFoundException e) {
-                        // app is gone, just show package name and generic icon
-                        nhp.icon = mPm.getDefaultActivityIcon();
-                    }
-                }
-                ThreadUtils.postOnMainThread(() -> listener.onHistoryLoaded(packages));
+                loadPages(new HistoryIterator(history), listener);
             } catch (Exception e) {
                 Slog.e(TAG, "Error loading history", e);
             }
         });
     }
 
+    @VisibleForTesting
+    @WorkerThread
+    void loadPages(Iterator<HistoricalNotification> notifications,
+            OnHistoryLoaderListener listener) {
+        final List<NotificationHistoryPackage> packages = groupByPackage(notifications,
+                firstPage -> postPage(listener, firstPage, 0, UNKNOWN_COUNT));
+        final int totalCount = packages.size();
+        if (totalCount == 0) {
+            postPage(listener, Collections.emptyList(), 0, 0);
+            return;
+        }
+        for (int start = 0; start < totalCount && !mCancelled; start += PAGE_SIZE) {
+            postPage(listener, packages.subList(start,
+                    Math.min(totalCount, start + PAGE_SIZE)), start, totalCount);
+        }
+    }
+
+    /**
+     * Stops delivering pages that haven't been delivered yet.
+     */
+    @MainThread
+    public void cancel() {
+        mCancelled = true;
+    }
+
+    private void postPage(OnHistoryLoaderListener listener,
+            List<NotificationHistoryPackage> page, int startIndex, int totalCount) {
+        // Each page is a separate message so the first rows can be drawn before the rest.
+        ThreadUtils.postOnMainThread(() -> {
+            if (!mCancelled) {
+                listener.onHistoryPageLoaded(page, startIndex, totalCount);
+            }
+        });
+    }
+
+    /**
+     * Resolves the label and icon of {@code nhp} in the background and runs {@code onLoaded} on
+     * the main thread once they are set. Icons are shared with other app lists through
+     * {@link AppIconCacheManager}. Does nothing if the app info was already requested.
+     */
+    @MainThread
+    public void loadAppInfo(NotificationHistoryPackage nhp, Runnable onLoaded) {
+        if (nhp.appInfoRequested) {
+            return;
+        }
+        nhp.appInfoRequested = true;
+        ThreadUtils.postOnBackgroundThread(() -> {
+            resolveAppInfo(nhp);
+            ThreadUtils.postOnMainThread(onLoaded);
+        });
+    }
+
+    /**
+     * Groups {@code notifications} by package, most recent first. {@code onFirstPage} gets copies
+     * of the first {@link #PAGE_SIZE} packages, without their notifications, as soon as they are
+     * known.
+     */
+    @VisibleForTesting
+    static List<NotificationHistoryPackage> groupByPackage(
+            Iterator<HistoricalNotification> notifications,
+            @Nullable Consumer<List<NotificationHistoryPackage>> onFirstPage) {
+        // Keyed by uid first so grouping doesn't build a string key for every notification.
+        final SparseArray<ArrayMap<String, NotificationHistoryPackage>> packagesByUid =
+                new SparseArray<>();
+        final List<NotificationHistoryPackage> packages = new ArrayList<>();
+        while (notifications.hasNext()) {
+            HistoricalNotification hn = notifications.next();
+            ArrayMap<String, NotificationHistoryPackage> packagesForUid =
+                    packagesByUid.get(hn.getUid());
+            if (packagesForUid == null) {
+                packagesForUid = new ArrayMap<>(1);
+                packagesByUid.put(hn.getUid(), packagesForUid);
+            }
+            NotificationHistoryPackage hnsForPackage = packagesForUid.get(hn.getPackage());
+            if (hnsForPackage == null) {
+                hnsForPackage = new NotificationHistoryPackage(hn.getPackage(), hn.getUid());
+                packagesForUid.put(hn.getPackage(), hnsForPackage);
+                packages.add(hnsForPackage);
+                if (onFirstPage != null && packages.size() == PAGE_SIZE) {
+                    onFirstPage.accept(copyPackages(packages));
+                }
+            }
+            hnsForPackage.notifications.add(hn);
+        }
+        // Keeps packages in the order they were first seen when the history is most recent first.
+        packages.sort((o1, o2) -> -1 * Long.compare(o1.getMostRecent(), o2.getMostRecent()));
+        return packages;
+    }
+
+    private static List<NotificationHistoryPackage> copyPackages(
+            List<NotificationHistoryPackage> packages) {
+        final List<NotificationHistoryPackage> copies = new ArrayList<>(packages.size());
+        for (NotificationHistoryPackage nhp : packages) {
+            copies.add(new NotificationHistoryPackage(nhp.pkgName, nhp.uid));
+        }
+        return copies;
+    }
+
+    @WorkerThread
+    private void resolveAppInfo(NotificationHistoryPackage nhp) {
+        final AppIconCacheManager iconCache = AppIconCacheManager.getInstance();
+        try {
+            ApplicationInfo info = mPm.getApplicationInfoAsUser(
+                    nhp.pkgName,
+                    PackageManager.MATCH_UNINSTALLED_PACKAGES
+                            | PackageManager.MATCH_DISABLED_COMPONENTS
+                            | PackageManager.MATCH_DIRECT_BOOT_UNAWARE
+                            | PackageManager.MATCH_DIRECT_BOOT_AWARE,
+                    UserHandle.getUserId(nhp.uid));
+            if (info != null) {
+                nhp.label = String.valueOf(mPm.getApplicationLabel(info));
+                Drawable icon = iconCache.get(nhp.pkgName, nhp.uid);
+                if (icon == null) {
+                    icon = mPm.getUserBadgedIcon(mPm.getApplicationIcon(info),
+                            UserHandle.of(UserHandle.getUserId(nhp.uid)));
+                    iconCache.put(nhp.pkgName, nhp.uid, icon);
+                }
+                nhp.icon = icon;
+            }
+        } catch (PackageManager.NameNotFoundException e) {
+            // app is gone, just show package name and generic icon
+            nhp.icon = mPm.getDefaultActivityIcon();
+        }
+    }
+
+    /** Reads the notifications of a {@link NotificationHistory} in order. */
+    private static class HistoryIterator implements Iterator<HistoricalNotification> {
+        private final NotificationHistory mHistory;
+
+        HistoryIterator(NotificationHistory history) {
+            mHistory = history;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return mHistory.hasNextNotification();
+        }
+
+        @Override
+        public HistoricalNotification next() {
+            return mHistory.getNextNotification();
+        }
+    }
+
     interface OnHistoryLoaderListener {
-        void onHistoryLoaded(List<NotificationHistoryPackage> notificationsByPackage);
+        /**
+         * Called on the main thread for each page of packages. The first page may be delivered
+         * twice, first with {@link #UNKNOWN_COUNT} as {@code totalCount} and packages without
+         * notifications, then complete.
+         *
+         * @param page       packages of this page, most recent first
+         * @param startIndex index of the first package of the page in the whole history
+         * @param totalCount number of packages in the whole history, or {@link #UNKNOWN_COUNT}
+         */
+        void onHistoryPageLoaded(List<NotificationHistoryPackage> page, int startIndex,
+                int totalCount);
     }
 }
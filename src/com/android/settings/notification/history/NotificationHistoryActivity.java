@@ -33,6 +33,7 @@ import android.content.Context;
 import android.content.pm.PackageManager;
 import android.content.res.Resources;
 import android.content.res.TypedArray;
+import android.graphics.Rect;
 import android.os.Bundle;
 import android.os.RemoteException;
 import android.os.ServiceManager;
@@ -41,12 +42,14 @@ import android.os.UserManager;
 import android.provider.Settings;
 import android.service.notification.NotificationListenerService;
 import android.service.notification.StatusBarNotification;
+import android.text.TextUtils;
 import android.util.Log;
 import android.util.Slog;
 import android.view.ContextThemeWrapper;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.view.ViewTreeObserver;
 import android.widget.CompoundButton.OnCheckedChangeListener;
 import android.widget.ImageView;
 import android.widget.TextView;
@@ -68,6 +71,7 @@ import com.android.settingslib.widget.MainSwitchBar;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
@@ -90,6 +94,9 @@ public class NotificationHistoryActivity extends CollapsingToolbarBaseActivity {
     private MainSwitchBar mSwitchBar;
 
     private HistoryLoader mHistoryLoader;
+    // Rows whose label and icon haven't been requested yet because they were never visible.
+    private final ArrayList<View> mRowsPendingAppInfo = new ArrayList<>();
+    private final Rect mVisibleRect = new Rect();
     private INotificationManager mNm;
     private UserManager mUm;
     private PackageManager mPm;
@@ -141,84 +148,156 @@ public class NotificationHistoryActivity extends CollapsingToolbarBaseActivity {
         }
     }
 
-    private HistoryLoader.OnHistoryLoaderListener mOnHistoryLoaderListener = notifications -> {
-        findViewById(R.id.today_list).setVisibility(
-                notifications.isEmpty() ? GONE : VISIBLE);
-        mCountdownLatch.countDown();
-        View recyclerView = mTodayView.findViewById(R.id.apps);
-        recyclerView.setClipToOutline(true);
+    private HistoryLoader.OnHistoryLoaderListener mOnHistoryLoaderListener =
+            (notifications, startIndex, notificationsSize) -> {
+        final boolean partial = notificationsSize == HistoryLoader.UNKNOWN_COUNT;
+        if (startIndex == 0) {
+            findViewById(R.id.today_list).setVisibility(
+                    notificationsSize == 0 ? GONE : VISIBLE);
+            View recyclerView = mTodayView.findViewById(R.id.apps);
+            recyclerView.setClipToOutline(true);
+            if (!partial) {
+                mCountdownLatch.countDown();
+                if (!matchesPartialRows(notifications)) {
+                    mTodayView.removeAllViews();
+                    mRowsPendingAppInfo.clear();
+                }
+            }
+        }
         // for each package, new header and recycler view
-        for (int i = 0, notificationsSize = notifications.size(); i < notificationsSize; i++) {
-            NotificationHistoryPackage nhp = notifications.get(i);
-            View viewForPackage = LayoutInflater.from(this)
-                    .inflate(R.layout.notification_history_app_layout, null);
-
-            int cornerType = ROUND_CORNER_CENTER;
-            if (i == (notificationsSize - 1)) {
-                cornerType |= ROUND_CORNER_BOTTOM;
+        for (int i = startIndex, end = startIndex + notifications.size(); i < end; i++) {
+            NotificationHistoryPackage nhp = notifications.get(i - startIndex);
+            // Rows of a partial first page are completed in place.
+            View viewForPackage = i < mTodayView.getChildCount() ? mTodayView.getChildAt(i)
+                    : createPackageRow(nhp, i);
+            if (!partial) {
+                bindPackageNotifications(viewForPackage, nhp, i, notificationsSize);
             }
-            if (i == 0) {
-                cornerType |= ROUND_CORNER_TOP;
+        }
+        // Wait for the new rows to be laid out before checking which ones are visible.
+        mTodayView.post(this::loadAppInfoForVisibleRows);
+    };
+
+    private boolean matchesPartialRows(List<NotificationHistoryPackage> firstPage) {
+        final int partialRowCount = mTodayView.getChildCount();
+        if (partialRowCount > firstPage.size()) {
+            return false;
+        }
+        for (int i = 0; i < partialRowCount; i++) {
+            final NotificationHistoryPackage row =
+                    (NotificationHistoryPackage) mTodayView.getChildAt(i).getTag();
+            final NotificationHistoryPackage nhp = firstPage.get(i);
+            if (row.uid != nhp.uid || !TextUtils.equals(row.pkgName, nhp.pkgName)) {
+                return false;
             }
-            int backgroundRes = NotificationHistoryActivity.getRoundCornerDrawableRes(cornerType);
-            viewForPackage.setBackgroundResource(backgroundRes);
-
-            final View container = viewForPackage.findViewById(R.id.notification_list_wrapper);
-            container.setVisibility(GONE);
-            View header = viewForPackage.findViewById(R.id.app_header);
-            NotificationExpandButton expand = viewForPackage.findViewById(
-                    com.android.internal.R.id.expand_button);
-            int textColor = obtainThemeColor(android.R.attr.textColorPrimary);
-            int backgroundColor = obtainThemeColor(android.R.attr.colorBackgroundFloating);
-            int pillColor = ColorUtils.blendARGB(textColor, backgroundColor, 0.9f);
-            expand.setDefaultPillColor(pillColor);
-            expand.setDefaultTextColor(textColor);
-            expand.setExpanded(false);
+        }
+        return true;
+    }
+
+    private View createPackageRow(NotificationHistoryPackage nhp, int index) {
+        View viewForPackage = LayoutInflater.from(this)
+                .inflate(R.layout.notification_history_app_layout, null);
+
+        int cornerType = ROUND_CORNER_CENTER;
+        if (index == 0) {
+            cornerType |= ROUND_CORNER_TOP;
+        }
+        viewForPackage.setBackgroundResource(
+                NotificationHistoryActivity.getRoundCornerDrawableRes(cornerType));
+
+        final View container = viewForPackage.findViewById(R.id.notification_list_wrapper);
+        container.setVisibility(GONE);
+        View header = viewForPackage.findViewById(R.id.app_header);
+        NotificationExpandButton expand = viewForPackage.findViewById(
+                com.android.internal.R.id.expand_button);
+        int textColor = obtainThemeColor(android.R.attr.textColorPrimary);
+        int backgroundColor = obtainThemeColor(android.R.attr.colorBackgroundFloating);
+        int pillColor = ColorUtils.blendARGB(textColor, backgroundColor, 0.9f);
+        expand.setDefaultPillColor(pillColor);
+        expand.setDefaultTextColor(textColor);
+        expand.setExpanded(false);
+        header.setStateDescription(container.getVisibility() == VISIBLE
+                ? getString(R.string.condition_expand_hide)
+                : getString(R.string.condition_expand_show));
+        header.setOnClickListener(v -> {
+            container.setVisibility(container.getVisibility() == VISIBLE
+                    ? GONE : VISIBLE);
+            expand.setExpanded(container.getVisibility() == VISIBLE);
             header.setStateDescription(container.getVisibility() == VISIBLE
                     ? getString(R.string.condition_expand_hide)
                     : getString(R.string.condition_expand_show));
-            int finalI = i;
-            header.setOnClickListener(v -> {
-                container.setVisibility(container.getVisibility() == VISIBLE
-                        ? GONE : VISIBLE);
-                expand.setExpanded(container.getVisibility() == VISIBLE);
-                header.setStateDescription(container.getVisibility() == VISIBLE
-                        ? getString(R.string.condition_expand_hide)
-                        : getString(R.string.condition_expand_show));
-                header.sendAccessibilityEvent(TYPE_VIEW_ACCESSIBILITY_FOCUSED);
-                mUiEventLogger.logWithPosition((container.getVisibility() == VISIBLE)
-                                ? NotificationHistoryEvent.NOTIFICATION_HISTORY_PACKAGE_HISTORY_OPEN
-                              : NotificationHistoryEvent.NOTIFICATION_HISTORY_PACKAGE_HISTORY_CLOSE,
-                        nhp.uid, nhp.pkgName, finalI);
-            });
+            header.sendAccessibilityEvent(TYPE_VIEW_ACCESSIBILITY_FOCUSED);
+            mUiEventLogger.logWithPosition((container.getVisibility() == VISIBLE)
+                            ? NotificationHistoryEvent.NOTIFICATION_HISTORY_PACKAGE_HISTORY_OPEN
+                          : NotificationHistoryEvent.NOTIFICATION_HISTORY_PACKAGE_HISTORY_CLOSE,
+                    nhp.uid, nhp.pkgName, index);
+        });
 
-            TextView label = viewForPackage.findViewById(R.id.label);
-            label.setText(nhp.label != null ? nhp.label : nhp.pkgName);
-            label.setContentDescription(mUm.getBadgedLabelForUser(label.getText(),
-                    UserHandle.getUserHandleForUid(nhp.uid)));
-            ImageView icon = viewForPackage.findViewById(R.id.icon);
-            icon.setImageDrawable(nhp.icon);
-
-            TextView count = viewForPackage.findViewById(R.id.count);
-            count.setText(StringUtil.getIcuPluralsString(this, nhp.notifications.size(),
-                    R.string.notification_history_count));
-
-            final NotificationHistoryRecyclerView rv =
-                    viewForPackage.findViewById(R.id.notification_list);
-            rv.setAdapter(new NotificationHistoryAdapter(mNm, rv,
-                    newCount -> {
-                        count.setText(StringUtil.getIcuPluralsString(this, newCount,
-                                R.string.notification_history_count));
-                        if (newCount == 0) {
-                            viewForPackage.setVisibility(GONE);
-                        }
-                    }, mUiEventLogger));
-            ((NotificationHistoryAdapter) rv.getAdapter()).onRebuildComplete(
-                    new ArrayList<>(nhp.notifications));
-
-            mTodayView.addView(viewForPackage);
+        // Label and icon are resolved once the row scrolls into view.
+        bindAppInfo(viewForPackage, nhp);
+        viewForPackage.setTag(nhp);
+        mRowsPendingAppInfo.add(viewForPackage);
+
+        TextView count = viewForPackage.findViewById(R.id.count);
+        final NotificationHistoryRecyclerView rv =
+                viewForPackage.findViewById(R.id.notification_list);
+        rv.setAdapter(new NotificationHistoryAdapter(mNm, rv,
+                newCount -> {
+                    count.setText(StringUtil.getIcuPluralsString(this, newCount,
+                            R.string.notification_history_count));
+                    if (newCount == 0) {
+                        viewForPackage.setVisibility(GONE);
+                    }
+                }, mUiEventLogger));
+
+        mTodayView.addView(viewForPackage);
+        return viewForPackage;
+    }
+
+    private void bindPackageNotifications(View viewForPackage, NotificationHistoryPackage nhp,
+            int index, int notificationsSize) {
+        if (index == (notificationsSize - 1)) {
+            int cornerType = ROUND_CORNER_CENTER | ROUND_CORNER_BOTTOM;
+            if (index == 0) {
+                cornerType |= ROUND_CORNER_TOP;
+            }
+            viewForPackage.setBackgroundResource(
+                    NotificationHistoryActivity.getRoundCornerDrawableRes(cornerType));
         }
-    };
+
+        TextView count = viewForPackage.findViewById(R.id.count);
+        count.setText(StringUtil.getIcuPluralsString(this, nhp.notifications.size(),
+                R.string.notification_history_count));
+
+        final NotificationHistoryRecyclerView rv =
+                viewForPackage.findViewById(R.id.notification_list);
+        ((NotificationHistoryAdapter) rv.getAdapter()).onRebuildComplete(
+                new ArrayList<>(nhp.notifications));
+    }
+
+    private final ViewTreeObserver.OnScrollChangedListener mOnScrollChangedListener =
+            this::loadAppInfoForVisibleRows;
+
+    private void loadAppInfoForVisibleRows() {
+        for (int i = mRowsPendingAppInfo.size() - 1; i >= 0; i--) {
+            final View row = mRowsPendingAppInfo.get(i);
+            if (!row.isShown() || !row.getLocalVisibleRect(mVisibleRect)) {
+                continue;
+            }
+            mRowsPendingAppInfo.remove(i);
+            final NotificationHistoryPackage nhp = (NotificationHistoryPackage) row.getTag();
+            mHistoryLoader.loadAppInfo(nhp, () -> bindAppInfo(row, nhp));
+        }
+    }
+
+    private void bindAppInfo(View viewForPackage, NotificationHistoryPackage nhp) {
+        TextView label = viewForPackage.findViewById(R.id.label);
+        label.setText(nhp.label != null ? nhp.label : nhp.pkgName);
+        label.setContentDescription(mUm.getBadgedLabelForUser(label.getText(),
+                UserHandle.getUserHandleForUid(nhp.uid)));
+        ImageView icon = viewForPackage.findViewById(R.id.icon);
+        icon.setImageDrawable(nhp.icon);
+    }
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -232,6 +311,8 @@ public class NotificationHistoryActivity extends CollapsingToolbarBaseActivity {
         mHistoryOn = findViewById(R.id.history_on);
         mHistoryEmpty = findViewById(R.id.history_on_empty);
         mSwitchBar = findViewById(R.id.main_switch_bar);
+        findViewById(R.id.scroll).getViewTreeObserver()
+                .addOnScrollChangedListener(mOnScrollChangedListener);
         ((TextView) findViewById(R.id.today_header)).setText(
                 getString(R.string.notification_history_today, HISTORY_HOURS));
 
@@ -253,6 +334,7 @@ public class NotificationHistoryActivity extends CollapsingToolbarBaseActivity {
         mCountdownLatch = new CountDownLatch(2);
 
         mTodayView.removeAllViews();
+        mRowsPendingAppInfo.clear();
         mHistoryLoader = new HistoryLoader(this, new NotificationBackend(), mPm);
         mHistoryLoader.load(mOnHistoryLoaderListener);
 
@@ -289,6 +371,7 @@ public class NotificationHistoryActivity extends CollapsingToolbarBaseActivity {
 
     @Override
     public void onPause() {
+        mHistoryLoader.cancel();
         try {
             mListener.unregisterAsSystemService();
         } catch (RemoteException e) {
@@ -303,6 +386,10 @@ public class NotificationHistoryActivity extends CollapsingToolbarBaseActivity {
         if (mCountdownFuture != null) {
             mCountdownFuture.cancel(true);
         }
+        final ViewTreeObserver observer = findViewById(R.id.scroll).getViewTreeObserver();
+        if (observer.isAlive()) {
+            observer.removeOnScrollChangedListener(mOnScrollChangedListener);
+        }
         super.onDestroy();
     }
 
@@ -32,6 +32,8 @@ public class NotificationHistoryPackage {
     TreeSet<NotificationHistory.HistoricalNotification> notifications;
     CharSequence label;
     Drawable icon;
+    // Only accessed on the main thread.
+    boolean appInfoRequested;
 
     public NotificationHistoryPackage(String pkgName, int uid) {
         this.pkgName = pkgName;
@@ -47,6 +47,8 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -55,7 +57,16 @@ import java.util.stream.Collectors;
 public class BaseSearchIndexProvider implements Indexable.SearchIndexProvider {
 
     private static final String TAG = "BaseSearchIndex";
+
+    // Whether the controller classes override updateDynamicRawDataToIndex().
+    private static final Map<Class<?>, Boolean> sIndexesDynamicRawData =
+            new ConcurrentHashMap<>();
+
     private int mXmlRes = 0;
+    // Whether any controller declared in the XML of the page indexes dynamic raw data, null until
+    // the first query. Unlike the controllers created in code, which may depend on runtime state,
+    // their classes are fixed by the XML.
+    private volatile Boolean mXmlHasDynamicRawDataControllers;
 
     public BaseSearchIndexProvider() {
     }
@@ -99,9 +110,26 @@ public class BaseSearchIndexProvider implements Indexable.SearchIndexProvider {
             // Entire page should be suppressed, do not add dynamic raw data.
             return dynamicRaws;
         }
-        final List<AbstractPreferenceController> controllers = getPreferenceControllers(context);
-        if (controllers == null || controllers.isEmpty()) {
-            return dynamicRaws;
+        final List<AbstractPreferenceController> controllersFromCode =
+                getPreferenceControllersFromCode(context);
+        final List<AbstractPreferenceController> controllers = new ArrayList<>();
+        if (controllersFromCode != null) {
+            controllers.addAll(controllersFromCode);
+        }
+        // Dynamic raw data is queried often, don't create the controllers declared in XML again
+        // when none of them adds any.
+        if (!Boolean.FALSE.equals(mXmlHasDynamicRawDataControllers)) {
+            final List<BasePreferenceController> controllersFromXml =
+                    getPreferenceControllersFromXml(context);
+            boolean xmlHasDynamicRawDataControllers = false;
+            if (controllersFromXml != null) {
+                for (BasePreferenceController controller : controllersFromXml) {
+                    xmlHasDynamicRawDataControllers |= indexesDynamicRawData(controller);
+                }
+                controllers.addAll(PreferenceControllerListHelper.filterControllers(
+                        controllersFromXml, controllersFromCode));
+            }
+            mXmlHasDynamicRawDataControllers = xmlHasDynamicRawDataControllers;
         }
         for (AbstractPreferenceController controller : controllers) {
             if (controller instanceof PreferenceControllerMixin) {
@@ -117,6 +145,20 @@ public class BaseSearchIndexProvider implements Indexable.SearchIndexProvider {
         return dynamicRaws;
     }
 
+    @VisibleForTesting
+    static boolean indexesDynamicRawData(AbstractPreferenceController controller) {
+        return sIndexesDynamicRawData.computeIfAbsent(controller.getClass(), clazz -> {
+            try {
+                final Class<?> declaringClass = clazz.getMethod(
+                        "updateDynamicRawDataToIndex", List.class).getDeclaringClass();
+                return declaringClass != BasePreferenceController.class
+                        && declaringClass != PreferenceControllerMixin.class;
+            } catch (NoSuchMethodException e) {
+                return false;
+            }
+        });
+    }
+
     @Override
     @CallSuper
     public List<String> getNonIndexableKeys(Context context) {
@@ -153,7 +195,12 @@ public class BaseSearchIndexProvider implements Indexable.SearchIndexProvider {
             if (controller instanceof PreferenceControllerMixin controllerMixin) {
                 controllerMixin.updateNonIndexableKeys(nonIndexableKeys);
             } else if (controller instanceof BasePreferenceController basePreferenceController) {
-                basePreferenceController.updateNonIndexableKeys(nonIndexableKeys);
+                basePreferenceController.startAvailabilityPass();
+                try {
+                    basePreferenceController.updateNonIndexableKeys(nonIndexableKeys);
+                } finally {
+                    basePreferenceController.finishAvailabilityPass();
+                }
             } else {
                 Log.e(TAG, controller.getClass().getName()
                         + " must implement " + PreferenceControllerMixin.class.getName()
@@ -178,30 +225,47 @@ public class BaseSearchIndexProvider implements Indexable.SearchIndexProvider {
     }
 
     public List<AbstractPreferenceController> getPreferenceControllers(Context context) {
-        List<AbstractPreferenceController> controllersFromCode = new ArrayList<>();
+        final List<AbstractPreferenceController> controllersFromCode =
+                getPreferenceControllersFromCode(context);
+        List<BasePreferenceController> controllersFromXml =
+                getPreferenceControllersFromXml(context);
+        if (controllersFromXml == null) {
+            return controllersFromCode;
+        }
+        controllersFromXml = PreferenceControllerListHelper.filterControllers(controllersFromXml,
+                controllersFromCode);
+        final List<AbstractPreferenceController> allControllers = new ArrayList<>();
+        if (controllersFromCode != null) {
+            allControllers.addAll(controllersFromCode);
+        }
+        allControllers.addAll(controllersFromXml);
+        return allControllers;
+    }
+
+    private List<AbstractPreferenceController> getPreferenceControllersFromCode(Context context) {
         try {
-            controllersFromCode = createPreferenceControllers(context);
+            return createPreferenceControllers(context);
         } catch (Exception e) {
             Log.w(TAG, "Error initializing controller in fragment: " + this + ", e: " + e);
+            return new ArrayList<>();
         }
+    }
 
+    /**
+     * Returns the controllers declared in the XML of the page, including those also created in
+     * code, or {@code null} if the page has no XML.
+     */
+    private List<BasePreferenceController> getPreferenceControllersFromXml(Context context) {
         final List<SearchIndexableResource> res = getXmlResourcesToIndex(context, true);
         if (res == null || res.isEmpty()) {
-            return controllersFromCode;
+            return null;
         }
-        List<BasePreferenceController> controllersFromXml = new ArrayList<>();
+        final List<BasePreferenceController> controllersFromXml = new ArrayList<>();
         for (SearchIndexableResource sir : res) {
             controllersFromXml.addAll(PreferenceControllerListHelper
                     .getPreferenceControllersFromXml(context, sir.xmlResId));
         }
-        controllersFromXml = PreferenceControllerListHelper.filterControllers(controllersFromXml,
-                controllersFromCode);
-        final List<AbstractPreferenceController> allControllers = new ArrayList<>();
-        if (controllersFromCode != null) {
-            allControllers.addAll(controllersFromCode);
-        }
-        allControllers.addAll(controllersFromXml);
-        return allControllers;
+        return controllersFromXml;
     }
 
     /**
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2025 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.search;
+
+import android.app.job.JobInfo;
+import android.app.job.JobParameters;
+import android.app.job.JobScheduler;
+import android.app.job.JobService;
+import android.content.ComponentName;
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.VisibleForTesting;
+
+import com.android.settings.R;
+import com.android.settingslib.utils.ThreadUtils;
+
+import java.util.List;
+
+/**
+ * A JobService which computes the XML resources and raw data of
+ * {@link SettingsSearchIndexablesProvider} ahead of the search queries, while the device is idle
+ * and charging, and stores them in the {@link SearchIndexableDataCache}.
+ */
+public class SearchIndexWarmUpJobService extends JobService {
+
+    private static final String TAG = "SearchIndexWarmUp";
+
+    /** Schedules the warm-up of the search index data. */
+    public static void schedule(Context context) {
+        final JobScheduler jobScheduler =
+                context.getApplicationContext().getSystemService(JobScheduler.class);
+        final ComponentName component = new ComponentName(context.getApplicationContext(),
+                SearchIndexWarmUpJobService.class);
+
+        jobScheduler.schedule(
+                new JobInfo.Builder(R.integer.search_index_warm_up, component)
+                        .setRequiresDeviceIdle(true)
+                        .setRequiresCharging(true)
+                        .build());
+    }
+
+    @Override
+    public boolean onStartJob(JobParameters params) {
+        ThreadUtils.postOnBackgroundThread(() -> {
+            warmUp(this);
+            jobFinished(params, false /* wantsReschedule */);
+        });
+        return true;
+    }
+
+    @Override
+    public boolean onStopJob(JobParameters params) {
+        // The warm-up didn't finish, try again later.
+        return true;
+    }
+
+    @VisibleForTesting
+    static void warmUp(Context context) {
+        final SearchIndexableDataCache cache = new SearchIndexableDataCache(context);
+        if (cache.isUpToDate()) {
+            return;
+        }
+        final long startTime = System.currentTimeMillis();
+        final List<Object[]> xmlResources =
+                SettingsSearchIndexablesProvider.getXmlResourceRows(context);
+        final List<Object[]> rawData = SettingsSearchIndexablesProvider.getRawDataRows(context);
+        cache.write(xmlResources, rawData);
+        Log.i(TAG, "Warmed up " + xmlResources.size() + " XML resources and " + rawData.size()
+                + " raw data in " + (System.currentTimeMillis() - startTime) + " ms");
+    }
+}
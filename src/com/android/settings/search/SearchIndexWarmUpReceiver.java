@@ -0,0 +1,49 @@
+/*
+ * Copyright (C) 2025 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.search;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.util.Log;
+
+/**
+ * A broadcast receiver which schedules the {@link SearchIndexWarmUpJobService} after a boot, a
+ * locale change or an update of Settings, which invalidate the {@link SearchIndexableDataCache}.
+ */
+public class SearchIndexWarmUpReceiver extends BroadcastReceiver {
+
+    private static final String TAG = "SearchIndexWarmUpRcvr";
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        if (intent == null) {
+            Log.w(TAG, "Null intent");
+            return;
+        }
+        final String action = intent.getAction();
+        if (!Intent.ACTION_BOOT_COMPLETED.equals(action)
+                && !Intent.ACTION_LOCALE_CHANGED.equals(action)
+                && !Intent.ACTION_MY_PACKAGE_REPLACED.equals(action)) {
+            return;
+        }
+        // Stop serving rows for the previous boot, locale or build of Settings right away. Flags
+        // deciding what is indexable may have changed with the boot.
+        new SearchIndexableDataCache(context).clear();
+        SearchIndexWarmUpJobService.schedule(context);
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright (C) 2025 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.search;
+
+import android.content.Context;
+import android.content.pm.PackageManager;
+import android.os.Build;
+import android.provider.Settings;
+import android.util.AtomicFile;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Persists the rows of the XML resources and raw data cursors of
+ * {@link SettingsSearchIndexablesProvider}, so that they can be served without asking every
+ * {@link com.android.settingslib.search.Indexable.SearchIndexProvider} again.
+ *
+ * <p>The rows are written by {@link SearchIndexWarmUpJobService} in a compact binary form, tagged
+ * with the build, the install time of Settings, the boot and the locales they were computed for.
+ * They are only served while all of them still match. The boot is part of it because aconfig and
+ * {@link android.provider.DeviceConfig} flags, which decide what is indexable, are applied at
+ * reboot.
+ */
+public class SearchIndexableDataCache {
+    private static final String TAG = "SearchIndexableCache";
+    private static final String FILE_NAME = "search_indexable_data";
+    private static final int VERSION = 1;
+
+    private static final byte TYPE_NULL = 0;
+    private static final byte TYPE_INT = 1;
+    private static final byte TYPE_STRING = 2;
+
+    private final Context mContext;
+    private final AtomicFile mFile;
+
+    public SearchIndexableDataCache(@NonNull Context context) {
+        mContext = context.getApplicationContext();
+        mFile = new AtomicFile(new File(mContext.getCacheDir(), FILE_NAME));
+    }
+
+    /** The cached cursor rows. */
+    static class Rows {
+        final List<Object[]> mXmlResources;
+        final List<Object[]> mRawData;
+
+        Rows(List<Object[]> xmlResources, List<Object[]> rawData) {
+            mXmlResources = xmlResources;
+            mRawData = rawData;
+        }
+    }
+
+    /** Returns the cached rows, or {@code null} if there are none for the current state. */
+    @WorkerThread
+    @Nullable
+    Rows read() {
+        if (!mFile.exists()) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(mFile.openRead()))) {
+            if (in.readInt() != VERSION || !getCacheKey().equals(in.readUTF())) {
+                return null;
+            }
+            final List<Object[]> xmlResources = readRows(in);
+            final List<Object[]> rawData = readRows(in);
+            return new Rows(xmlResources, rawData);
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to read search indexable data", e);
+            return null;
+        }
+    }
+
+    /** Returns whether rows are cached for the current state. */
+    @WorkerThread
+    boolean isUpToDate() {
+        if (!mFile.exists()) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(
+                new BufferedInputStream(mFile.openRead()))) {
+            return in.readInt() == VERSION && getCacheKey().equals(in.readUTF());
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /** Caches the rows for the current state. */
+    @WorkerThread
+    void write(@NonNull List<Object[]> xmlResources, @NonNull List<Object[]> rawData) {
+        FileOutputStream fos = null;
+        try {
+            fos = mFile.startWrite();
+            final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fos));
+            out.writeInt(VERSION);
+            out.writeUTF(getCacheKey());
+            writeRows(out, xmlResources);
+            writeRows(out, rawData);
+            out.flush();
+            mFile.finishWrite(fos);
+        } catch (IOException e) {
+            Log.w(TAG, "Failed to write search indexable data", e);
+            mFile.failWrite(fos);
+        }
+    }
+
+    /** Drops the cached rows. */
+    public void clear() {
+        mFile.delete();
+    }
+
+    @VisibleForTesting
+    String getCacheKey() {
+        long lastUpdateTime = 0;
+        try {
+            lastUpdateTime = mContext.getPackageManager()
+                    .getPackageInfo(mContext.getPackageName(), 0 /* flags */).lastUpdateTime;
+        } catch (PackageManager.NameNotFoundException e) {
+            Log.w(TAG, "Settings package not found", e);
+        }
+        final int bootCount = Settings.Global.getInt(mContext.getContentResolver(),
+                Settings.Global.BOOT_COUNT, 0 /* default */);
+        return Build.FINGERPRINT + "|" + lastUpdateTime + "|" + bootCount + "|"
+                + mContext.getResources().getConfiguration().getLocales().toLanguageTags();
+    }
+
+    private static void writeRows(DataOutputStream out, List<Object[]> rows) throws IOException {
+        out.writeInt(rows.size());
+        for (Object[] row : rows) {
+            out.writeInt(row.length);
+            for (Object value : row) {
+                if (value == null) {
+                    out.writeByte(TYPE_NULL);
+                } else if (value instanceof Integer) {
+                    out.writeByte(TYPE_INT);
+                    out.writeInt((Integer) value);
+                } else {
+                    out.writeByte(TYPE_STRING);
+                    out.writeUTF(value.toString());
+                }
+            }
+        }
+    }
+
+    private static List<Object[]> readRows(DataInputStream in) throws IOException {
+        final int size = in.readInt();
+        final List<Object[]> rows = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            final Object[] row = new Object[in.readInt()];
+            for (int j = 0; j < row.length; j++) {
+                final byte type = in.readByte();
+                switch (type) {
+                    case TYPE_NULL:
+                        break;
+                    case TYPE_INT:
+                        row[j] = in.readInt();
+                        break;
+                    case TYPE_STRING:
+                        row[j] = in.readUTF();
+                        break;
+                    default:
+                        throw new IOException("Unknown value type: " + type);
+                }
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+}
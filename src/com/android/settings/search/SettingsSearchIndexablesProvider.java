@@ -100,6 +100,7 @@ public class SettingsSearchIndexablesProvider extends SearchIndexablesProvider {
 
     // Search enabled states for injection (key: category key, value: search enabled)
     private Map<String, Boolean> mSearchEnabledByCategoryKeyMap;
+    private SearchIndexableDataCache mDataCache;
 
     static {
         INVALID_KEYS = new ArraySet<>();
@@ -110,14 +111,49 @@ public class SettingsSearchIndexablesProvider extends SearchIndexablesProvider {
     @Override
     public boolean onCreate() {
         mSearchEnabledByCategoryKeyMap = new ArrayMap<>();
+        mDataCache = new SearchIndexableDataCache(getContext());
         return true;
     }
 
+    /**
+     * Gets a Cursor of XML resources, served from the {@link SearchIndexableDataCache} when it
+     * has been warmed up for the current state.
+     */
     @Override
     public Cursor queryXmlResources(String[] projection) {
         final MatrixCursor cursor = new MatrixCursor(INDEXABLES_XML_RES_COLUMNS);
+        final SearchIndexableDataCache.Rows cachedRows = mDataCache.read();
+        final List<Object[]> rows = cachedRows != null
+                ? cachedRows.mXmlResources : getXmlResourceRows(getContext());
+        for (Object[] row : rows) {
+            cursor.addRow(row);
+        }
+
+        return cursor;
+    }
+
+    /**
+     * Gets a Cursor of RawData. We use those data in search indexing time. Served from the
+     * {@link SearchIndexableDataCache} when it has been warmed up for the current state.
+     */
+    @Override
+    public Cursor queryRawData(String[] projection) {
+        final MatrixCursor cursor = new MatrixCursor(INDEXABLES_RAW_COLUMNS);
+        final SearchIndexableDataCache.Rows cachedRows = mDataCache.read();
+        final List<Object[]> rows = cachedRows != null
+                ? cachedRows.mRawData : getRawDataRows(getContext());
+        for (Object[] row : rows) {
+            cursor.addRow(row);
+        }
+
+        return cursor;
+    }
+
+    /** Returns the rows of the XML resources cursor, computed from all the providers. */
+    static List<Object[]> getXmlResourceRows(Context context) {
         final List<SearchIndexableResource> resources =
-                getSearchIndexableResourcesFromProvider(getContext());
+                getSearchIndexableResourcesFromProvider(context);
+        final List<Object[]> rows = new ArrayList<>(resources.size());
         for (SearchIndexableResource val : resources) {
             final Object[] ref = new Object[INDEXABLES_XML_RES_COLUMNS.length];
             ref[COLUMN_INDEX_XML_RES_RANK] = val.rank;
@@ -127,24 +163,19 @@ public class SettingsSearchIndexablesProvider extends SearchIndexablesProvider {
             ref[COLUMN_INDEX_XML_RES_INTENT_ACTION] = val.intentAction;
             ref[COLUMN_INDEX_XML_RES_INTENT_TARGET_PACKAGE] = val.intentTargetPackage;
             ref[COLUMN_INDEX_XML_RES_INTENT_TARGET_CLASS] = null; // intent target class
-            cursor.addRow(ref);
+            rows.add(ref);
         }
-
-        return cursor;
+        return rows;
     }
 
-    /**
-     * Gets a Cursor of RawData. We use those data in search indexing time
-     */
-    @Override
-    public Cursor queryRawData(String[] projection) {
-        final MatrixCursor cursor = new MatrixCursor(INDEXABLES_RAW_COLUMNS);
-        final List<SearchIndexableRaw> raws = getSearchIndexableRawFromProvider(getContext());
+    /** Returns the rows of the raw data cursor, computed from all the providers. */
+    static List<Object[]> getRawDataRows(Context context) {
+        final List<SearchIndexableRaw> raws = getSearchIndexableRawFromProvider(context);
+        final List<Object[]> rows = new ArrayList<>(raws.size());
         for (SearchIndexableRaw val : raws) {
-            cursor.addRow(createIndexableRawColumnObjects(val));
+            rows.add(createIndexableRawColumnObjects(val));
         }
-
-        return cursor;
+        return rows;
     }
 
     /**
@@ -321,7 +352,8 @@ public class SettingsSearchIndexablesProvider extends SearchIndexablesProvider {
         return nonIndexableKeys;
     }
 
-    private List<SearchIndexableResource> getSearchIndexableResourcesFromProvider(Context context) {
+    private static List<SearchIndexableResource> getSearchIndexableResourcesFromProvider(
+            Context context) {
         final Collection<SearchIndexableData> bundles = FeatureFactory.getFeatureFactory()
                 .getSearchFeatureProvider().getSearchIndexableResources().getProviderValues();
         List<SearchIndexableResource> resourceList = new ArrayList<>();
@@ -347,7 +379,7 @@ public class SettingsSearchIndexablesProvider extends SearchIndexablesProvider {
         return resourceList;
     }
 
-    private List<SearchIndexableRaw> getSearchIndexableRawFromProvider(Context context) {
+    private static List<SearchIndexableRaw> getSearchIndexableRawFromProvider(Context context) {
         final Collection<SearchIndexableData> bundles = FeatureFactory.getFeatureFactory()
                 .getSearchFeatureProvider().getSearchIndexableResources().getProviderValues();
         final List<SearchIndexableRaw> rawList = new ArrayList<>();
@@ -48,7 +48,9 @@ import java.util.Map;
  * SettingsSliceProvider#shutdown()}.
  *
  * {@link SliceBackgroundWorker} caches the results, uses the cache to compare if there is any data
- * changed, and then notifies the Slice {@link Uri} to update.
+ * changed, and then notifies the Slice {@link Uri} to update. The cached results are an immutable
+ * snapshot, shared by every Slice bind until the next change. The notifications of a worker whose
+ * results keep changing are throttled further and further, up to four times the usual interval.
  *
  * It also stores all instances of all workers to ensure each worker is a Singleton.
  */
@@ -56,7 +58,11 @@ public abstract class SliceBackgroundWorker<E> implements Closeable {
 
     private static final String TAG = "SliceBackgroundWorker";
 
-    private static final long SLICE_UPDATE_THROTTLE_INTERVAL = 300L;
+    @VisibleForTesting
+    static final long SLICE_UPDATE_THROTTLE_INTERVAL = 300L;
+    @VisibleForTesting
+    static final long MAX_SLICE_UPDATE_THROTTLE_INTERVAL =
+            4 * SLICE_UPDATE_THROTTLE_INTERVAL;
 
     private static final Map<Uri, SliceBackgroundWorker> LIVE_WORKERS = new ArrayMap<>();
 
@@ -64,6 +70,7 @@ public abstract class SliceBackgroundWorker<E> implements Closeable {
     private final Uri mUri;
 
     private List<E> mCachedResults;
+    private int mCachedResultsHash;
 
     protected SliceBackgroundWorker(Context context, Uri uri) {
         mContext = context;
@@ -141,10 +148,10 @@ public abstract class SliceBackgroundWorker<E> implements Closeable {
     protected abstract void onSliceUnpinned();
 
     /**
-     * @return a {@link List} of cached results
+     * @return an unmodifiable {@link List} of cached results
      */
     public final List<E> getResults() {
-        return mCachedResults == null ? null : new ArrayList<>(mCachedResults);
+        return mCachedResults;
     }
 
     /**
@@ -152,21 +159,33 @@ public abstract class SliceBackgroundWorker<E> implements Closeable {
      */
     protected final void updateResults(List<E> results) {
         boolean needNotify = false;
+        int resultsHash = 0;
 
         if (results == null) {
             if (mCachedResults != null) {
                 needNotify = true;
             }
         } else {
-            needNotify = !areListsTheSame(results, mCachedResults);
+            // Lists of items with different hash codes can't be the same, so the lists are only
+            // compared item by item when the hash codes match.
+            resultsHash = results.hashCode();
+            needNotify = mCachedResults == null || resultsHash != mCachedResultsHash
+                    || !areListsTheSame(results, mCachedResults);
         }
 
         if (needNotify) {
-            mCachedResults = results;
+            mCachedResults = results == null
+                    ? null : Collections.unmodifiableList(new ArrayList<>(results));
+            mCachedResultsHash = resultsHash;
             notifySliceChange();
         }
     }
 
+    /**
+     * Returns whether the lists are the same. Only called when the hash codes of the lists are
+     * equal, so the items must implement {@link Object#hashCode()} consistently with
+     * {@link Object#equals(Object)}.
+     */
     protected boolean areListsTheSame(List<E> a, List<E> b) {
         return a.equals(b);
     }
@@ -188,6 +207,21 @@ public abstract class SliceBackgroundWorker<E> implements Closeable {
         NotifySliceChangeHandler.getInstance().cancelSliceUpdate(this);
     }
 
+    /**
+     * Doubles the throttle interval of the Slice while it keeps changing within the interval,
+     * and resets it once the Slice has been stable for twice the interval.
+     */
+    @VisibleForTesting
+    static long getNextThrottleInterval(long throttleInterval, long elapsedTime) {
+        if (elapsedTime < throttleInterval) {
+            return Math.min(throttleInterval * 2, MAX_SLICE_UPDATE_THROTTLE_INTERVAL);
+        }
+        if (elapsedTime > throttleInterval * 2) {
+            return SLICE_UPDATE_THROTTLE_INTERVAL;
+        }
+        return throttleInterval;
+    }
+
     private static class NotifySliceChangeHandler extends Handler {
 
         private static final int MSG_UPDATE_SLICE = 1000;
@@ -196,6 +230,8 @@ public abstract class SliceBackgroundWorker<E> implements Closeable {
 
         private final Map<Uri, Long> mLastUpdateTimeLookup = Collections.synchronizedMap(
                 new ArrayMap<>());
+        private final Map<Uri, Long> mThrottleIntervalLookup = Collections.synchronizedMap(
+                new ArrayMap<>());
 
         private static NotifySliceChangeHandler getInstance() {
             if (sHandler == null) {
@@ -230,22 +266,36 @@ public abstract class SliceBackgroundWorker<E> implements Closeable {
             }
 
             final Message message = obtainMessage(MSG_UPDATE_SLICE, worker);
-            final long lastUpdateTime = mLastUpdateTimeLookup.getOrDefault(worker.getUri(), 0L);
+            final Uri uri = worker.getUri();
+            final long lastUpdateTime = mLastUpdateTimeLookup.getOrDefault(uri, 0L);
             if (lastUpdateTime == 0L) {
                 // Postpone the first update triggering by onSlicePinned() to avoid being too close
                 // to the first Slice bind.
                 sendMessageDelayed(message, SLICE_UPDATE_THROTTLE_INTERVAL);
-            } else if (SystemClock.uptimeMillis() - lastUpdateTime
-                    > SLICE_UPDATE_THROTTLE_INTERVAL) {
+                return;
+            }
+
+            final long elapsedTime = SystemClock.uptimeMillis() - lastUpdateTime;
+            final long throttleInterval = updateThrottleInterval(uri, elapsedTime);
+            if (elapsedTime > throttleInterval) {
                 sendMessage(message);
             } else {
-                sendMessageAtTime(message, lastUpdateTime + SLICE_UPDATE_THROTTLE_INTERVAL);
+                sendMessageAtTime(message, lastUpdateTime + throttleInterval);
             }
         }
 
+        private long updateThrottleInterval(Uri uri, long elapsedTime) {
+            final long throttleInterval = getNextThrottleInterval(
+                    mThrottleIntervalLookup.getOrDefault(uri, SLICE_UPDATE_THROTTLE_INTERVAL),
+                    elapsedTime);
+            mThrottleIntervalLookup.put(uri, throttleInterval);
+            return throttleInterval;
+        }
+
         private void cancelSliceUpdate(SliceBackgroundWorker worker) {
             removeMessages(MSG_UPDATE_SLICE, worker);
             mLastUpdateTimeLookup.remove(worker.getUri());
+            mThrottleIntervalLookup.remove(worker.getUri());
         }
     };
 }
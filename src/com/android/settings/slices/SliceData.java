@@ -67,7 +67,10 @@ public class SliceData {
 
     private final String mFragmentClassName;
 
-    private final Uri mUri;
+    // The Uri is kept as a String while indexing, and only parsed when a Slice is built.
+    private final String mUriString;
+
+    private Uri mUri;
 
     private final String mPreferenceController;
 
@@ -111,9 +114,17 @@ public class SliceData {
     }
 
     public Uri getUri() {
+        if (mUri == null && mUriString != null) {
+            mUri = Uri.parse(mUriString);
+        }
         return mUri;
     }
 
+    /** Returns the {@link Uri} of the Slice as a String, without parsing it. */
+    public String getUriString() {
+        return mUriString;
+    }
+
     public String getPreferenceController() {
         return mPreferenceController;
     }
@@ -146,7 +157,7 @@ public class SliceData {
         mKeywords = builder.mKeywords;
         mIconResource = builder.mIconResource;
         mFragmentClassName = builder.mFragmentClassName;
-        mUri = builder.mUri;
+        mUriString = builder.mUri == null ? null : builder.mUri.toString();
         mPreferenceController = builder.mPrefControllerClassName;
         mSliceType = builder.mSliceType;
         mUnavailableSliceSubtitle = builder.mUnavailableSliceSubtitle;
@@ -65,8 +65,10 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -80,6 +82,9 @@ class SliceDataConverter {
     private static final String TAG = "SliceDataConverter";
 
     private final MetricsFeatureProvider mMetricsFeatureProvider;
+    // Pool of the strings repeated across many SliceData, e.g. controller class names, screen
+    // titles and user restrictions, which are parsed again from the XML of every page.
+    private final Map<String, String> mStringPool = new HashMap<>();
     private Context mContext;
 
     public SliceDataConverter(Context context) {
@@ -121,6 +126,7 @@ class SliceDataConverter {
 
         final List<SliceData> a11ySliceData = getAccessibilitySliceData();
         sliceData.addAll(a11ySliceData);
+        mStringPool.clear();
         return sliceData;
     }
 
@@ -176,13 +182,13 @@ class SliceDataConverter {
                 final String title = bundle.getString(METADATA_TITLE);
                 if (PREF_SCREEN_TAG.equals(bundle.getString(METADATA_PREF_TYPE))) {
                     if (title != null) {
-                        screenTitle = title;
+                        screenTitle = pool(title);
                     }
                     continue;
                 }
                 // TODO (b/67996923) Non-controller Slices should become intent-only slices.
                 // Note that without a controller, dynamic summaries are impossible.
-                controllerClassName = bundle.getString(METADATA_CONTROLLER);
+                controllerClassName = pool(bundle.getString(METADATA_CONTROLLER));
                 if (TextUtils.isEmpty(controllerClassName)) {
                     continue;
                 }
@@ -201,11 +207,11 @@ class SliceDataConverter {
                 final int iconResId = bundle.getInt(METADATA_ICON);
 
                 final int sliceType = controller.getSliceType();
-                final String unavailableSliceSubtitle = bundle.getString(
-                        METADATA_UNAVAILABLE_SLICE_SUBTITLE);
+                final String unavailableSliceSubtitle = pool(bundle.getString(
+                        METADATA_UNAVAILABLE_SLICE_SUBTITLE));
                 final boolean isPublicSlice = controller.isPublicSlice();
                 final int highlightMenuRes = controller.getSliceHighlightMenuRes();
-                final String userRestriction = bundle.getString(METADATA_USER_RESTRICTION);
+                final String userRestriction = pool(bundle.getString(METADATA_USER_RESTRICTION));
 
                 final SliceData xmlSlice = new SliceData.Builder()
                         .setKey(key)
@@ -313,6 +319,16 @@ class SliceDataConverter {
         return sliceData;
     }
 
+    /** Returns the pooled instance equal to {@code value}, so that it is kept once. */
+    @VisibleForTesting
+    String pool(String value) {
+        if (value == null) {
+            return null;
+        }
+        final String pooled = mStringPool.putIfAbsent(value, value);
+        return pooled != null ? pooled : value;
+    }
+
     @VisibleForTesting
     List<AccessibilityServiceInfo> getAccessibilityServiceInfoList() {
         final AccessibilityManager accessibilityManager = AccessibilityManager.getInstance(
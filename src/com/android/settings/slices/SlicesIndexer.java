@@ -96,12 +96,13 @@ class SlicesIndexer implements Runnable {
 
     @VisibleForTesting
     void insertSliceData(SQLiteDatabase database, List<SliceData> indexData) {
-        ContentValues values;
+        // The rows are copied by the database, so a single ContentValues is reused for all of them.
+        final ContentValues values = new ContentValues();
 
         for (SliceData dataRow : indexData) {
-            values = new ContentValues();
+            values.clear();
             values.put(IndexColumns.KEY, dataRow.getKey());
-            values.put(IndexColumns.SLICE_URI, dataRow.getUri().toString());
+            values.put(IndexColumns.SLICE_URI, dataRow.getUriString());
             values.put(IndexColumns.TITLE, dataRow.getTitle());
             values.put(IndexColumns.SUMMARY, dataRow.getSummary());
             final CharSequence screenTitle = dataRow.getScreenTitle();
@@ -24,6 +24,7 @@ import androidx.compose.runtime.State
 import androidx.compose.ui.res.stringResource
 import com.android.settings.R
 import com.android.settings.spa.app.appinfo.AppInfoSettingsProvider
+import com.android.settings.spa.app.storage.calculateStorageSize
 import com.android.settingslib.spa.framework.common.SettingsEntryBuilder
 import com.android.settingslib.spa.framework.common.SettingsPageProvider
 import com.android.settingslib.spa.framework.common.createSettingsPage
@@ -43,7 +44,6 @@ import com.android.settingslib.spaprivileged.template.app.AppListInput
 import com.android.settingslib.spaprivileged.template.app.AppListItem
 import com.android.settingslib.spaprivileged.template.app.AppListItemModel
 import com.android.settingslib.spaprivileged.template.app.AppListPage
-import com.android.settingslib.spaprivileged.template.app.getStorageSize
 import kotlinx.coroutines.flow.Flow
 
 object AllAppListPageProvider : SettingsPageProvider {
@@ -88,7 +88,7 @@ data class AppRecordWithSize(
 class AllAppListModel(
     private val context: Context,
     private val getStorageSummary: @Composable ApplicationInfo.() -> State<String> = {
-        getStorageSize()
+        calculateStorageSize()
     },
 ) : AppListModel<AppRecordWithSize> {
 
@@ -0,0 +1,221 @@
+/*
+ * Copyright (C) 2025 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.spa.app.storage
+
+import android.content.Context
+import android.content.SharedPreferences
+import android.content.pm.ApplicationInfo
+import android.text.format.Formatter
+import androidx.annotation.VisibleForTesting
+import androidx.compose.runtime.Composable
+import androidx.compose.runtime.LaunchedEffect
+import androidx.compose.runtime.State
+import androidx.compose.runtime.remember
+import androidx.compose.ui.platform.LocalContext
+import androidx.lifecycle.compose.collectAsStateWithLifecycle
+import com.android.settingslib.spaprivileged.framework.compose.getPlaceholder
+import com.android.settingslib.spaprivileged.model.app.AppStorageRepository
+import com.android.settingslib.spaprivileged.model.app.AppStorageRepositoryImpl
+import com.android.settingslib.spaprivileged.model.app.userId
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.Deferred
+import kotlinx.coroutines.Dispatchers
+import kotlinx.coroutines.SupervisorJob
+import kotlinx.coroutines.async
+import kotlinx.coroutines.awaitAll
+import kotlinx.coroutines.coroutineScope
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.MutableStateFlow
+import kotlinx.coroutines.flow.distinctUntilChanged
+import kotlinx.coroutines.flow.filterNotNull
+import kotlinx.coroutines.flow.map
+import kotlinx.coroutines.flow.update
+import kotlinx.coroutines.withContext
+
+/**
+ * Sizes of the apps, shared by the app lists.
+ *
+ * Sizes are calculated in parallel batches per user, and the last known sizes are persisted, so
+ * that the lists can show them right away the next time. A persisted size is dropped once the app
+ * is updated. The persisted sizes are loaded in the background when the repository is created,
+ * until then every size is unknown.
+ */
+class AppStorageSizeRepository @VisibleForTesting internal constructor(
+    private val appStorageRepository: AppStorageRepository,
+    private val sharedPreferences: SharedPreferences,
+    coroutineScope: CoroutineScope = CoroutineScope(SupervisorJob() + Dispatchers.IO),
+) {
+    private data class Entry(val versionCode: Long, val sizeBytes: Long)
+
+    /** The known sizes keyed by app, null until the persisted sizes are loaded. */
+    private val entries = MutableStateFlow<Map<String, Entry>?>(null)
+
+    private val entriesLoaded: Deferred<Unit> = coroutineScope.async {
+        entries.value = loadEntries()
+    }
+
+    /** Returns the last known size of the app, or null if it is unknown. */
+    fun getCachedSizeBytes(app: ApplicationInfo): Long? =
+        entries.value?.get(app.key)?.takeIf { it.versionCode == app.longVersionCode }?.sizeBytes
+
+    /** Emits the size of the app each time it is calculated. */
+    fun sizeBytesFlow(app: ApplicationInfo): Flow<Long> = entries
+        .filterNotNull()
+        .map { it[app.key]?.takeIf { entry -> entry.versionCode == app.longVersionCode } }
+        .filterNotNull()
+        .map { it.sizeBytes }
+        .distinctUntilChanged()
+
+    /**
+     * Calculates the sizes of the apps, and updates the cache with them.
+     *
+     * @return the sizes of the apps, keyed by the apps.
+     */
+    suspend fun calculateSizeBytes(apps: List<ApplicationInfo>): Map<ApplicationInfo, Long> =
+        withContext(Dispatchers.IO) {
+            val sizes = coroutineScope {
+                apps.groupBy { it.userId }.values
+                    .flatMap { userApps -> userApps.chunked(BATCH_SIZE) }
+                    .map { batch ->
+                        async {
+                            batch.mapNotNull { app ->
+                                appStorageRepository.calculateSizeBytes(app)?.let { app to it }
+                            }
+                        }
+                    }
+                    .awaitAll()
+                    .flatten()
+                    .toMap()
+            }
+            entriesLoaded.await()
+            saveEntries(apps, sizes, removeUnlisted = true)
+            sizes
+        }
+
+    /**
+     * Calculates the size of a single app, e.g. of a row shown on screen, and updates the cache
+     * with it. Other cached sizes are kept.
+     */
+    suspend fun calculateSizeBytes(app: ApplicationInfo): Long? = withContext(Dispatchers.IO) {
+        appStorageRepository.calculateSizeBytes(app)?.also { sizeBytes ->
+            entriesLoaded.await()
+            saveEntries(listOf(app), mapOf(app to sizeBytes), removeUnlisted = false)
+        }
+    }
+
+    private fun loadEntries(): Map<String, Entry> = buildMap {
+        for ((key, value) in sharedPreferences.all) {
+            val parts = (value as? String)?.split(SEPARATOR) ?: continue
+            val versionCode = parts.getOrNull(0)?.toLongOrNull() ?: continue
+            val sizeBytes = parts.getOrNull(1)?.toLongOrNull() ?: continue
+            put(key, Entry(versionCode, sizeBytes))
+        }
+    }
+
+    /** Saves the sizes. Must only be called once the persisted sizes are loaded. */
+    private fun saveEntries(
+        apps: List<ApplicationInfo>,
+        sizes: Map<ApplicationInfo, Long>,
+        removeUnlisted: Boolean,
+    ) {
+        val updated = sizes.entries.associate { (app, sizeBytes) ->
+            app.key to Entry(app.longVersionCode, sizeBytes)
+        }
+        // Apps of the listed users which are not listed anymore have been uninstalled.
+        val userPrefixes = apps.map { "${it.userId}$SEPARATOR" }.toSet()
+        val listedKeys = apps.map { it.key }.toSet()
+        var removed: List<String> = emptyList()
+        entries.update { loaded ->
+            val current = loaded.orEmpty()
+            removed = if (removeUnlisted) {
+                current.keys.filter { key ->
+                    key !in listedKeys && userPrefixes.any { key.startsWith(it) }
+                }
+            } else {
+                emptyList()
+            }
+            current - removed.toSet() + updated
+        }
+        val editor = sharedPreferences.edit()
+        for (key in removed) {
+            editor.remove(key)
+        }
+        for ((key, entry) in updated) {
+            editor.putString(key, "${entry.versionCode}$SEPARATOR${entry.sizeBytes}")
+        }
+        editor.apply()
+    }
+
+    private val ApplicationInfo.key: String
+        get() = "$userId$SEPARATOR$packageName"
+
+    companion object {
+        private const val PREFERENCES_NAME = "app_storage_sizes"
+        private const val SEPARATOR = ":"
+
+        @VisibleForTesting
+        internal const val BATCH_SIZE = 16
+
+        @Volatile
+        private var instance: AppStorageSizeRepository? = null
+
+        /** Gets the repository shared by the app lists. */
+        @JvmStatic
+        fun getInstance(context: Context): AppStorageSizeRepository =
+            instance ?: synchronized(this) {
+                instance ?: context.applicationContext.let { appContext ->
+                    AppStorageSizeRepository(
+                        appStorageRepository = AppStorageRepositoryImpl(appContext),
+                        sharedPreferences = appContext.getSharedPreferences(
+                            PREFERENCES_NAME, Context.MODE_PRIVATE
+                        ),
+                    )
+                }.also { instance = it }
+            }
+    }
+}
+
+/** Returns the storage size summary of the app, from the [AppStorageSizeRepository]. */
+@Composable
+fun ApplicationInfo.getCachedStorageSize(): State<String> {
+    val context = LocalContext.current
+    val flow = remember(this) {
+        AppStorageSizeRepository.getInstance(context).sizeBytesFlow(this)
+            .map { Formatter.formatFileSize(context, it) }
+    }
+    val initialValue = remember(this) {
+        AppStorageSizeRepository.getInstance(context).getCachedSizeBytes(this)
+            ?.let { Formatter.formatFileSize(context, it) }
+            ?: context.getPlaceholder()
+    }
+    return flow.collectAsStateWithLifecycle(initialValue = initialValue)
+}
+
+/**
+ * Returns the storage size summary of the app like [getCachedStorageSize], and calculates the size
+ * while composed. Lists which don't need every size up front use it so that only the rows on
+ * screen are calculated.
+ */
+@Composable
+fun ApplicationInfo.calculateStorageSize(): State<String> {
+    val context = LocalContext.current
+    LaunchedEffect(this) {
+        AppStorageSizeRepository.getInstance(context)
+            .calculateSizeBytes(this@calculateStorageSize)
+    }
+    return getCachedStorageSize()
+}
@@ -30,18 +30,16 @@ import com.android.settings.R
 import com.android.settings.spa.app.appinfo.AppInfoSettingsProvider
 import com.android.settingslib.spa.framework.common.SettingsPageProvider
 import com.android.settingslib.spa.framework.util.filterItem
-import com.android.settingslib.spa.framework.util.mapItem
 import com.android.settingslib.spaprivileged.model.app.AppEntry
 import com.android.settingslib.spaprivileged.model.app.AppListModel
 import com.android.settingslib.spaprivileged.model.app.AppRecord
-import com.android.settingslib.spaprivileged.model.app.AppStorageRepositoryImpl
 import com.android.settingslib.spaprivileged.template.app.AppList
 import com.android.settingslib.spaprivileged.template.app.AppListInput
 import com.android.settingslib.spaprivileged.template.app.AppListItem
 import com.android.settingslib.spaprivileged.template.app.AppListItemModel
 import com.android.settingslib.spaprivileged.template.app.AppListPage
-import com.android.settingslib.spaprivileged.template.app.getStorageSize
 import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.transformLatest
 
 sealed class StorageAppListPageProvider(private val type: StorageType) : SettingsPageProvider {
     @Composable
@@ -105,15 +103,25 @@ data class AppRecordWithSize(
 class StorageAppListModel(
     private val context: Context,
     private val type: StorageType,
+    private val appStorageSizeRepository: AppStorageSizeRepository =
+        AppStorageSizeRepository.getInstance(context),
     private val getStorageSummary: @Composable ApplicationInfo.() -> State<String> = {
-        getStorageSize()
-    }
+        getCachedStorageSize()
+    },
 ) : AppListModel<AppRecordWithSize> {
-    private val appStorageRepository = AppStorageRepositoryImpl(context)
 
+    /**
+     * Emits the records with the last known sizes first, so that the list can be sorted right
+     * away, and then with the calculated sizes. The calculation is dropped if the app list
+     * changes meanwhile.
+     */
     override fun transform(userIdFlow: Flow<Int>, appListFlow: Flow<List<ApplicationInfo>>) =
-        appListFlow.mapItem { app ->
-            AppRecordWithSize(app, appStorageRepository.calculateSizeBytes(app) ?: 0L)
+        appListFlow.transformLatest { appList ->
+            emit(appList.map { app ->
+                AppRecordWithSize(app, appStorageSizeRepository.getCachedSizeBytes(app) ?: 0L)
+            })
+            val sizes = appStorageSizeRepository.calculateSizeBytes(appList)
+            emit(appList.map { app -> AppRecordWithSize(app, sizes[app] ?: 0L) })
         }
 
     override fun filter(
@@ -0,0 +1,232 @@
+/*
+ * Copyright (C) 2025 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.utils;
+
+import android.graphics.Bitmap;
+import android.util.Log;
+import android.util.LruCache;
+
+import androidx.annotation.MainThread;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+import androidx.annotation.WorkerThread;
+
+import com.android.settingslib.qrcode.QrCodeGenerator;
+import com.android.settingslib.utils.ThreadUtils;
+
+import com.google.zxing.WriterException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * Process-wide cache for QR code bitmaps, keyed by a hash of their contents, their size and
+ * margin.
+ *
+ * <p>QR codes are encoded on a background thread and kept in an LRU cache bounded by bitmap byte
+ * size, so that a page showing one again, e.g. after a configuration change, gets it right away.
+ * The cached bitmaps are immutable hardware bitmaps when supported, which are uploaded once and
+ * shared by every view showing them. Concurrent requests for the same QR code share one encode.
+ * Pages showing QR codes of credentials should {@link #evict} them once destroyed.
+ */
+public class QrCodeBitmapCache {
+    private static final String TAG = "QrCodeBitmapCache";
+    @VisibleForTesting
+    static final int MAX_CACHE_SIZE_BYTES = 4 * 1024 * 1024;
+    // Lets the generator pick its default margin.
+    private static final int DEFAULT_MARGIN = -1;
+
+    private static QrCodeBitmapCache sInstance;
+
+    /** Callback invoked on the main thread when a QR code request completes. */
+    public interface Callback {
+        /** Called with the QR code, or {@code null} if it could not be encoded. */
+        void onQrCodeLoaded(@Nullable Bitmap bitmap);
+    }
+
+    /** A QR code being encoded. */
+    private static final class PendingRequest {
+        final List<Callback> mCallbacks = new ArrayList<>();
+        // Whether the QR code was evicted while being encoded, so it shouldn't be cached.
+        boolean mEvicted;
+    }
+
+    private final LruCache<String, Bitmap> mCache;
+    private final Executor mBackgroundExecutor;
+    private final Executor mMainExecutor;
+    // Only accessed on the main thread.
+    private final Map<String, PendingRequest> mPendingRequests = new HashMap<>();
+
+    /** Returns the process-wide instance. */
+    public static synchronized QrCodeBitmapCache getInstance() {
+        if (sInstance == null) {
+            sInstance = new QrCodeBitmapCache(MAX_CACHE_SIZE_BYTES);
+        }
+        return sInstance;
+    }
+
+    @VisibleForTesting
+    QrCodeBitmapCache(int maxSizeBytes) {
+        this(maxSizeBytes, ThreadUtils::postOnBackgroundThread, ThreadUtils::postOnMainThread);
+    }
+
+    @VisibleForTesting
+    QrCodeBitmapCache(int maxSizeBytes, Executor backgroundExecutor, Executor mainExecutor) {
+        mBackgroundExecutor = backgroundExecutor;
+        mMainExecutor = mainExecutor;
+        mCache = new LruCache<>(maxSizeBytes) {
+            @Override
+            protected int sizeOf(String key, Bitmap bitmap) {
+                return bitmap.getAllocationByteCount();
+            }
+        };
+    }
+
+    /**
+     * Loads the QR code of {@code contents} with the default margin of the generator.
+     *
+     * @see #loadQrCode(String, int, int, Callback)
+     */
+    @MainThread
+    public void loadQrCode(@NonNull String contents, int size, @NonNull Callback callback) {
+        loadQrCode(contents, size, DEFAULT_MARGIN, callback);
+    }
+
+    /**
+     * Loads the QR code of {@code contents}, {@code size} pixels wide. If the QR code is already
+     * cached the callback is invoked synchronously, otherwise it is invoked on the main thread
+     * once the encode finishes. Requests for a QR code already being encoded are coalesced.
+     */
+    @MainThread
+    public void loadQrCode(@NonNull String contents, int size, int margin,
+            @NonNull Callback callback) {
+        final String key = getKey(contents, size, margin);
+        final Bitmap cached = mCache.get(key);
+        if (cached != null) {
+            callback.onQrCodeLoaded(cached);
+            return;
+        }
+        PendingRequest request = mPendingRequests.get(key);
+        if (request != null) {
+            request.mCallbacks.add(callback);
+            request.mEvicted = false;
+            return;
+        }
+        request = new PendingRequest();
+        request.mCallbacks.add(callback);
+        mPendingRequests.put(key, request);
+
+        mBackgroundExecutor.execute(() -> {
+            final Bitmap bitmap = encodeQrCode(contents, size, margin);
+            mMainExecutor.execute(() -> {
+                final PendingRequest pending = mPendingRequests.remove(key);
+                if (bitmap != null && (pending == null || !pending.mEvicted)) {
+                    mCache.put(key, bitmap);
+                }
+                if (pending != null) {
+                    for (Callback pendingCallback : pending.mCallbacks) {
+                        pendingCallback.onQrCodeLoaded(bitmap);
+                    }
+                }
+            });
+        });
+    }
+
+    /**
+     * Returns the QR code of {@code contents}, encoding it on the calling thread if it is not
+     * cached, or {@code null} if it could not be encoded.
+     */
+    @VisibleForTesting
+    @Nullable
+    Bitmap getQrCode(@NonNull String contents, int size, int margin) {
+        final String key = getKey(contents, size, margin);
+        Bitmap bitmap = mCache.get(key);
+        if (bitmap == null) {
+            bitmap = encodeQrCode(contents, size, margin);
+            if (bitmap != null) {
+                mCache.put(key, bitmap);
+            }
+        }
+        return bitmap;
+    }
+
+    /**
+     * Drops the cached QR code of {@code contents} with the default margin of the generator.
+     *
+     * @see #evict(String, int, int)
+     */
+    @MainThread
+    public void evict(@NonNull String contents, int size) {
+        evict(contents, size, DEFAULT_MARGIN);
+    }
+
+    /**
+     * Drops the cached QR code of {@code contents}, e.g. once the page showing it is gone. If it
+     * is being encoded, it is still delivered to the callbacks but not cached.
+     */
+    @MainThread
+    public void evict(@NonNull String contents, int size, int margin) {
+        final String key = getKey(contents, size, margin);
+        mCache.remove(key);
+        final PendingRequest request = mPendingRequests.get(key);
+        if (request != null) {
+            request.mEvicted = true;
+        }
+    }
+
+    /** Drops all cached QR codes. */
+    public void clear() {
+        mCache.evictAll();
+    }
+
+    // Hashed, so that the contents, often credentials, aren't kept in memory with the bitmaps.
+    @VisibleForTesting
+    static String getKey(String contents, int size, int margin) {
+        final byte[] digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256")
+                    .digest(contents.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        return size + "+" + margin + "@" + HexFormat.of().formatHex(digest);
+    }
+
+    @WorkerThread
+    @Nullable
+    private static Bitmap encodeQrCode(String contents, int size, int margin) {
+        final Bitmap bitmap;
+        try {
+            bitmap = margin == DEFAULT_MARGIN
+                    ? QrCodeGenerator.encodeQrCode(contents, size)
+                    : QrCodeGenerator.encodeQrCode(contents, size, margin);
+        } catch (WriterException e) {
+            Log.e(TAG, "Error generating QR code bitmap", e);
+            return null;
+        }
+        final Bitmap hardwareBitmap = bitmap.copy(Bitmap.Config.HARDWARE, false /* isMutable */);
+        return hardwareBitmap != null ? hardwareBitmap : bitmap;
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2025 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.utils;
+
+import android.graphics.Rect;
+import android.os.SystemClock;
+import android.text.TextUtils;
+import android.util.Log;
+import android.util.Size;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.annotation.VisibleForTesting;
+
+/**
+ * Scanning state shared by the pages decoding QR codes with
+ * {@link com.android.settingslib.qrcode.QrCamera}.
+ *
+ * <p>The camera keeps decoding the same QR code for as long as it is in the frame, and asks the
+ * page to validate each one. A QR code rejected by the page is remembered for a short while, so
+ * that the page skips parsing it again and doesn't post its error again. The camera still decodes
+ * every frame. The time taken to scan a valid QR code is logged, with the number of QR codes the
+ * page was asked to validate and how many of those validations were skipped.
+ *
+ * <p>The methods may be called from the decoding thread of the camera.
+ */
+public class QrCodeScanSession {
+    private static final String TAG = "QrCodeScanSession";
+    // Short enough to show the error again before the pages hide it.
+    @VisibleForTesting
+    static final long REJECTED_QR_CODE_TIMEOUT_MS = 1000;
+
+    private final String mTag;
+    private long mStartTimeMs;
+    private int mValidationCount;
+    private int mSkippedValidationCount;
+    @Nullable
+    private String mRejectedQrCode;
+    private long mRejectedTimeMs;
+
+    public QrCodeScanSession(@NonNull String tag) {
+        mTag = tag;
+    }
+
+    /**
+     * Returns the part of the camera preview decoded for QR codes, the square of the preview
+     * shown in the frame of the scanner pages.
+     */
+    @NonNull
+    public static Rect getFramePosition(@NonNull Size previewSize) {
+        return new Rect(0, 0, previewSize.getHeight(), previewSize.getHeight());
+    }
+
+    /** Called when the camera starts decoding. */
+    public synchronized void onScanStarted() {
+        mStartTimeMs = SystemClock.elapsedRealtime();
+        mValidationCount = 0;
+        mSkippedValidationCount = 0;
+        mRejectedQrCode = null;
+    }
+
+    /**
+     * Called when the page is asked to validate {@code qrCode}. Returns whether it was rejected
+     * recently, in which case the page should reject it again without parsing it.
+     */
+    public synchronized boolean isRecentlyRejected(@NonNull String qrCode) {
+        mValidationCount++;
+        if (mRejectedQrCode != null && TextUtils.equals(mRejectedQrCode, qrCode)
+                && SystemClock.elapsedRealtime() - mRejectedTimeMs
+                        < REJECTED_QR_CODE_TIMEOUT_MS) {
+            mSkippedValidationCount++;
+            return true;
+        }
+        return false;
+    }
+
+    /** Called when the page rejects {@code qrCode}. */
+    public synchronized void onRejected(@NonNull String qrCode) {
+        mRejectedQrCode = qrCode;
+        mRejectedTimeMs = SystemClock.elapsedRealtime();
+    }
+
+    /** Called when the page accepts a QR code. */
+    public synchronized void onScanSucceeded() {
+        Log.i(TAG, mTag + ": QR code scanned in "
+                + (SystemClock.elapsedRealtime() - mStartTimeMs) + " ms, validated "
+                + mValidationCount + " QR codes, skipped " + mSkippedValidationCount
+                + " re-validations");
+    }
+
+    @VisibleForTesting
+    synchronized int getValidationCount() {
+        return mValidationCount;
+    }
+
+    @VisibleForTesting
+    synchronized int getSkippedValidationCount() {
+        return mSkippedValidationCount;
+    }
+}
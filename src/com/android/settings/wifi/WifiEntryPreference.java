@@ -97,6 +97,10 @@ public class WifiEntryPreference extends RestrictedPreference implements
      * @param wifiEntry An instance of {@link WifiEntry}
      */
     public void setWifiEntry(@NonNull WifiEntry wifiEntry) {
+        if (mWifiEntry != null && mWifiEntry != wifiEntry) {
+            // Stop the previous WifiEntry from calling back into the rebound preference.
+            mWifiEntry.setListener(null);
+        }
         mWifiEntry = wifiEntry;
         mWifiEntry.setListener(this);
         refresh();
@@ -24,7 +24,6 @@ import android.content.Intent;
 import android.content.pm.PackageManager;
 import android.content.pm.ResolveInfo;
 import android.content.res.Resources;
-import android.graphics.Bitmap;
 import android.graphics.drawable.Drawable;
 import android.os.Bundle;
 import android.provider.Settings;
@@ -48,9 +47,7 @@ import com.android.internal.app.chooser.DisplayResolveInfo;
 import com.android.internal.app.chooser.TargetInfo;
 import com.android.settings.R;
 import com.android.settings.flags.Flags;
-import com.android.settingslib.qrcode.QrCodeGenerator;
-
-import com.google.zxing.WriterException;
+import com.android.settings.utils.QrCodeBitmapCache;
 
 /**
  * After sharing a saved Wi-Fi network, {@code WifiDppConfiguratorActivity} start with this fragment
@@ -280,13 +277,26 @@ public class WifiDppQrCodeGeneratorFragment extends WifiDppQrCodeBaseFragment {
     }
 
     protected void setQrCode() {
-        try {
-            final int qrcodeSize = getContext().getResources().getDimensionPixelSize(
-                    R.dimen.qrcode_size);
-            final Bitmap bmp = QrCodeGenerator.encodeQrCode(mQrCode, qrcodeSize);
-            mQrCodeView.setImageBitmap(bmp);
-        } catch (WriterException e) {
-            Log.e(TAG, "Error generating QR code bitmap " + e);
+        final int qrcodeSize = getContext().getResources().getDimensionPixelSize(
+                R.dimen.qrcode_size);
+        // Encoded off the main thread, and cached across configuration changes.
+        final ImageView qrCodeView = mQrCodeView;
+        QrCodeBitmapCache.getInstance().loadQrCode(mQrCode, qrcodeSize, bitmap -> {
+            if (bitmap != null) {
+                qrCodeView.setImageBitmap(bitmap);
+            }
+        });
+    }
+
+    @Override
+    public void onDestroy() {
+        super.onDestroy();
+        // The QR code contains the password, so only keep it cached across configuration changes.
+        final Context context = getContext();
+        if (mQrCode != null && context != null
+                && (getActivity() == null || !getActivity().isChangingConfigurations())) {
+            QrCodeBitmapCache.getInstance().evict(mQrCode,
+                    context.getResources().getDimensionPixelSize(R.dimen.qrcode_size));
         }
     }
 
@@ -59,6 +59,7 @@ import androidx.lifecycle.ViewModelProvider;
 
 import com.android.settings.R;
 import com.android.settings.overlay.FeatureFactory;
+import com.android.settings.utils.QrCodeScanSession;
 import com.android.settingslib.qrcode.QrCamera;
 import com.android.settingslib.qrcode.QrDecorateView;
 import com.android.settingslib.wifi.WifiPermissionChecker;
@@ -105,6 +106,7 @@ public class WifiDppQrCodeScannerFragment extends WifiDppQrCodeBaseFragment impl
     private static final @StringRes int REACHABLE_WIFI_NETWORK = ID_NULL;
 
     private QrCamera mCamera;
+    private final QrCodeScanSession mScanSession = new QrCodeScanSession(TAG);
     private TextureView mTextureView;
     private QrDecorateView mDecorateView;
     private TextView mErrorMessage;
@@ -534,7 +536,7 @@ public class WifiDppQrCodeScannerFragment extends WifiDppQrCodeBaseFragment impl
 
     @Override
     public Rect getFramePosition(Size previewSize, int cameraOrientation) {
-        return new Rect(0, 0, previewSize.getHeight(), previewSize.getHeight());
+        return QrCodeScanSession.getFramePosition(previewSize);
     }
 
     @Override
@@ -544,9 +546,13 @@ public class WifiDppQrCodeScannerFragment extends WifiDppQrCodeBaseFragment impl
 
     @Override
     public boolean isValid(String qrCode) {
+        if (mScanSession.isRecentlyRejected(qrCode)) {
+            return false;
+        }
         try {
             mWifiQrCode = new WifiQrCode(qrCode);
         } catch (IllegalArgumentException e) {
+            mScanSession.onRejected(qrCode);
             showErrorMessage(R.string.wifi_dpp_qr_code_is_not_valid_format);
             return false;
         }
@@ -555,6 +561,7 @@ public class WifiDppQrCodeScannerFragment extends WifiDppQrCodeBaseFragment impl
         if (mIsConfiguratorMode
                 && mWifiQrCode.getScheme()
                         == UriParserResults.URI_SCHEME_ZXING_WIFI_NETWORK_CONFIG) {
+            mScanSession.onRejected(qrCode);
             showErrorMessage(R.string.wifi_dpp_qr_code_is_not_valid_format);
             return false;
         }
@@ -567,6 +574,7 @@ public class WifiDppQrCodeScannerFragment extends WifiDppQrCodeBaseFragment impl
      */
     @Override
     public void handleSuccessfulResult(String qrCode) {
+        mScanSession.onScanSucceeded();
         switch (mWifiQrCode.getScheme()) {
             case UriParserResults.URI_SCHEME_DPP:
                 handleWifiDpp();
@@ -610,6 +618,7 @@ public class WifiDppQrCodeScannerFragment extends WifiDppQrCodeBaseFragment impl
                     mDecorateView.setFocused(true);
                 }
             } else {
+                mScanSession.onScanStarted();
                 mCamera.start(surface);
             }
         }
@@ -811,6 +820,7 @@ public class WifiDppQrCodeScannerFragment extends WifiDppQrCodeBaseFragment impl
             throw new IllegalStateException("SurfaceTexture is not ready for restarting camera");
         }
 
+        mScanSession.onScanStarted();
         mCamera.start(surfaceTexture);
     }
 
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2025 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.settings.applications.manageapplications;
+
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
+
+import com.android.settings.R;
+import com.android.settings.testutils.FakeFeatureFactory;
+import com.android.settings.tests.perf.robo.Microbenchmark;
+import com.android.settingslib.applications.ApplicationsState;
+import com.android.settingslib.applications.ApplicationsState.AppEntry;
+import com.android.settingslib.applications.ApplicationsState.AppFilter;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Benchmarks the filter and sort pass {@link ManageApplications} runs on every list rebuild,
+ * over a large synthetic app list.
+ *
+ * <p>The filter and the comparator are built by
+ * {@link ManageApplications.ApplicationsAdapter#getRebuildFilter} and
+ * {@link ManageApplications.ApplicationsAdapter#getRebuildComparator}, the code the adapter uses
+ * for {@link ApplicationsState.Session#rebuild}, and applied the way the session applies them.
+ */
+@RunWith(RobolectricTestRunner.class)
+public final class AppFilterBenchmark {
+    private static final int APP_COUNT = 1000;
+
+    private Context mContext;
+    private List<AppEntry> mEntries;
+
+    @Before
+    public void setUp() {
+        FakeFeatureFactory.setupForTest();
+        mContext = RuntimeEnvironment.getApplication();
+        mEntries = new ArrayList<>(APP_COUNT);
+        for (int i = 0; i < APP_COUNT; i++) {
+            final ApplicationInfo info = new ApplicationInfo();
+            info.packageName = "com.example.app" + i;
+            info.uid = 10000 + i;
+            info.enabled = i % 10 != 0;
+            info.flags = (i % 3 == 0 ? ApplicationInfo.FLAG_SYSTEM : 0)
+                    | ApplicationInfo.FLAG_INSTALLED;
+            final AppEntry entry = new AppEntry(mContext, info, i);
+            entry.hasLauncherEntry = i % 3 == 0;
+            entry.label = "App " + (APP_COUNT - i);
+            entry.size = i * 1024L;
+            mEntries.add(entry);
+        }
+    }
+
+    @Test
+    public void filterAllApps() throws Exception {
+        runRebuild("ManageApplications.rebuild.all", AppFilterRegistry.FILTER_APPS_ALL,
+                R.id.sort_order_alpha);
+    }
+
+    @Test
+    public void filterEnabledApps() throws Exception {
+        runRebuild("ManageApplications.rebuild.enabled", AppFilterRegistry.FILTER_APPS_ENABLED,
+                R.id.sort_order_alpha);
+    }
+
+    @Test
+    public void sortAllAppsBySize() throws Exception {
+        runRebuild("ManageApplications.rebuild.size", AppFilterRegistry.FILTER_APPS_ALL,
+                R.id.sort_order_size);
+    }
+
+    private void runRebuild(String name, int filterType, int sortMode) throws Exception {
+        final AppFilter filter = ManageApplications.ApplicationsAdapter.getRebuildFilter(
+                AppFilterRegistry.getInstance().get(filterType).getFilter(),
+                /* compositeFilter= */ null, /* showSystem= */ false,
+                ManageApplications.LIST_TYPE_MAIN);
+        final Comparator<AppEntry> comparator =
+                ManageApplications.ApplicationsAdapter.getRebuildComparator(sortMode,
+                        ManageApplications.SIZE_TOTAL);
+        Microbenchmark.run(name, () -> {
+            filter.init(mContext);
+            final List<AppEntry> result = new ArrayList<>();
+            for (AppEntry entry : mEntries) {
+                if (filter.filterApp(entry)) {
+                    result.add(entry);
+                }
+            }
+            result.sort(comparator);
+            return result;
+        });
+    }
+}
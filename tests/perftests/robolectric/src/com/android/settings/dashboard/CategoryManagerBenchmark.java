@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2025 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.settings.dashboard;
+
+import static com.android.settingslib.drawer.TileUtils.EXTRA_CATEGORY_KEY;
+import static com.android.settingslib.drawer.TileUtils.EXTRA_SETTINGS_ACTION;
+
+import static org.robolectric.Shadows.shadowOf;
+
+import android.content.Context;
+import android.content.Intent;
+import android.content.pm.ActivityInfo;
+import android.content.pm.ApplicationInfo;
+import android.content.pm.ResolveInfo;
+import android.os.Bundle;
+import android.provider.Settings;
+
+import com.android.settings.testutils.FakeFeatureFactory;
+import com.android.settings.tests.perf.robo.Microbenchmark;
+import com.android.settingslib.drawer.CategoryKey;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+/**
+ * Benchmarks {@link CategoryManager} category loading, which runs {@code tryInitCategories}, with
+ * a large number of injected tiles.
+ */
+@RunWith(RobolectricTestRunner.class)
+public final class CategoryManagerBenchmark {
+    private static final int TILE_COUNT = 300;
+    private static final String[] CATEGORIES = {
+            CategoryKey.CATEGORY_HOMEPAGE,
+            CategoryKey.CATEGORY_NETWORK,
+            CategoryKey.CATEGORY_CONNECT,
+            CategoryKey.CATEGORY_APPS,
+            CategoryKey.CATEGORY_SYSTEM,
+    };
+
+    private Context mContext;
+    private CategoryManager mCategoryManager;
+
+    @Before
+    public void setUp() {
+        FakeFeatureFactory.setupForTest();
+        mContext = RuntimeEnvironment.getApplication();
+        Settings.Secure.putInt(mContext.getContentResolver(),
+                Settings.Secure.USER_SETUP_COMPLETE, 1);
+        final Intent intent = new Intent(EXTRA_SETTINGS_ACTION);
+        for (int i = 0; i < TILE_COUNT; i++) {
+            shadowOf(mContext.getPackageManager())
+                    .addResolveInfoForIntent(intent, createTileResolveInfo(i));
+        }
+        mCategoryManager = new CategoryManager(mContext);
+    }
+
+    @Test
+    public void reloadAllCategories() throws Exception {
+        Microbenchmark.run("CategoryManager.tryInitCategories", () -> {
+            mCategoryManager.reloadAllCategories(mContext);
+            return mCategoryManager.getCategories(mContext);
+        });
+    }
+
+    private static ResolveInfo createTileResolveInfo(int index) {
+        final ResolveInfo info = new ResolveInfo();
+        info.activityInfo = new ActivityInfo();
+        info.activityInfo.packageName = "com.example.tiles" + (index % 20);
+        info.activityInfo.name = info.activityInfo.packageName + ".TileActivity" + index;
+        info.activityInfo.applicationInfo = new ApplicationInfo();
+        info.activityInfo.applicationInfo.packageName = info.activityInfo.packageName;
+        info.activityInfo.applicationInfo.flags = ApplicationInfo.FLAG_SYSTEM;
+        info.activityInfo.metaData = new Bundle();
+        info.activityInfo.metaData.putString(EXTRA_CATEGORY_KEY,
+                CATEGORIES[index % CATEGORIES.length]);
+        info.activityInfo.metaData.putString("com.android.settings.title", "Tile " + index);
+        info.priority = index;
+        return info;
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2025 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.settings.fuelgauge.batteryusage;
+
+import android.content.Context;
+import android.util.ArrayMap;
+
+import com.android.settings.testutils.FakeFeatureFactory;
+import com.android.settings.tests.perf.robo.Microbenchmark;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/** Benchmarks {@link DataProcessor#generateBatteryUsageMap} with a week of hourly data. */
+@RunWith(RobolectricTestRunner.class)
+public final class DataProcessorBenchmark {
+    private static final int DAYS = 7;
+    private static final int APPS_PER_SLOT = 200;
+    private static final long HOUR_MS = TimeUnit.HOURS.toMillis(1);
+
+    private Context mContext;
+    private BatteryLevelData mBatteryLevelData;
+    private Map<Long, BatteryDiffData> mBatteryDiffDataMap;
+
+    @Before
+    public void setUp() {
+        FakeFeatureFactory.setupForTest();
+        mContext = RuntimeEnvironment.getApplication();
+
+        final long endTimestamp = System.currentTimeMillis() / HOUR_MS * HOUR_MS;
+        final long startTimestamp = endTimestamp - TimeUnit.DAYS.toMillis(DAYS - 1);
+        final Map<Long, Integer> batteryLevelMap = new ArrayMap<>();
+        int level = 100;
+        for (long timestamp = startTimestamp; timestamp <= endTimestamp; timestamp += HOUR_MS) {
+            batteryLevelMap.put(timestamp, level);
+            level = level > 5 ? level - 1 : 100;
+        }
+        mBatteryLevelData = new BatteryLevelData(batteryLevelMap);
+
+        mBatteryDiffDataMap = new ArrayMap<>();
+        for (BatteryLevelData.PeriodBatteryLevelData hourlyData :
+                mBatteryLevelData.getHourlyBatteryLevelsPerDay()) {
+            final List<Long> timestamps = hourlyData.getTimestamps();
+            for (int i = 0; i < timestamps.size() - 1; i++) {
+                mBatteryDiffDataMap.put(timestamps.get(i),
+                        createBatteryDiffData(timestamps.get(i), timestamps.get(i + 1)));
+            }
+        }
+    }
+
+    @Test
+    public void generateBatteryUsageMap() throws Exception {
+        Microbenchmark.run("DataProcessor.generateBatteryUsageMap",
+                () -> DataProcessor.generateBatteryUsageMap(
+                        mContext, mBatteryDiffDataMap, mBatteryLevelData));
+    }
+
+    private BatteryDiffData createBatteryDiffData(long startTimestamp, long endTimestamp) {
+        final List<BatteryDiffEntry> appEntries = new ArrayList<>(APPS_PER_SLOT);
+        for (int i = 0; i < APPS_PER_SLOT; i++) {
+            appEntries.add(new BatteryDiffEntry(
+                    mContext,
+                    /* uid= */ 10000 + i,
+                    /* userId= */ 0,
+                    /* key= */ String.valueOf(10000 + i),
+                    /* isHidden= */ false,
+                    /* componentId= */ -1,
+                    /* legacyPackageName= */ "com.example.app" + i,
+                    /* legacyLabel= */ "App " + i,
+                    ConvertUtils.CONSUMER_TYPE_UID_BATTERY,
+                    /* foregroundUsageTimeInMs= */ i * 10L,
+                    /* foregroundServiceUsageTimeInMs= */ i * 5L,
+                    /* backgroundUsageTimeInMs= */ i * 20L,
+                    /* screenOnTimeInMs= */ i * 10L,
+                    /* consumePower= */ i * 1.5,
+                    /* foregroundUsageConsumePower= */ i * 0.5,
+                    /* foregroundServiceUsageConsumePower= */ i * 0.25,
+                    /* backgroundUsageConsumePower= */ i * 0.5,
+                    /* cachedUsageConsumePower= */ i * 0.25));
+        }
+        return new BatteryDiffData(
+                mContext,
+                startTimestamp,
+                endTimestamp,
+                /* startBatteryLevel= */ 100,
+                /* endBatteryLevel= */ 99,
+                /* screenOnTime= */ HOUR_MS / 2,
+                appEntries,
+                /* systemDiffEntries= */ new ArrayList<>(),
+                /* systemAppsPackageNames= */ Set.of(),
+                /* systemAppsUids= */ Set.of(),
+                /* isAccumulated= */ false);
+    }
+}
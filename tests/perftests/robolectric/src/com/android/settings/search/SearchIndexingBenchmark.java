@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2025 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.settings.search;
+
+import android.Manifest;
+import android.content.Context;
+import android.content.pm.ProviderInfo;
+import android.database.Cursor;
+
+import com.android.settings.R;
+import com.android.settings.core.PreferenceXmlParserUtils;
+import com.android.settings.core.PreferenceXmlParserUtils.MetadataFlag;
+import com.android.settings.slices.SliceDataConverter;
+import com.android.settings.testutils.FakeFeatureFactory;
+import com.android.settings.tests.perf.robo.Microbenchmark;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+/**
+ * Benchmarks the search and slice indexing paths over every indexable screen registered in
+ * {@link SearchIndexableResources}.
+ */
+@RunWith(RobolectricTestRunner.class)
+public final class SearchIndexingBenchmark {
+    private static final int ALL_METADATA_FLAGS = MetadataFlag.FLAG_INCLUDE_PREF_SCREEN
+            | MetadataFlag.FLAG_NEED_KEY
+            | MetadataFlag.FLAG_NEED_PREF_TYPE
+            | MetadataFlag.FLAG_NEED_PREF_CONTROLLER
+            | MetadataFlag.FLAG_NEED_PREF_TITLE
+            | MetadataFlag.FLAG_NEED_PREF_SUMMARY
+            | MetadataFlag.FLAG_NEED_PREF_ICON
+            | MetadataFlag.FLAG_NEED_KEYWORDS
+            | MetadataFlag.FLAG_NEED_SEARCHABLE
+            | MetadataFlag.FLAG_UNAVAILABLE_SLICE_SUBTITLE
+            | MetadataFlag.FLAG_NEED_USER_RESTRICTION;
+
+    private Context mContext;
+    private SettingsSearchIndexablesProvider mProvider;
+
+    @Before
+    public void setUp() {
+        mContext = RuntimeEnvironment.getApplication();
+        final FakeFeatureFactory featureFactory = FakeFeatureFactory.setupForTest();
+        featureFactory.searchFeatureProvider = new SearchFeatureProviderImpl();
+
+        mProvider = new SettingsSearchIndexablesProvider();
+        final ProviderInfo info = new ProviderInfo();
+        info.exported = true;
+        info.grantUriPermissions = true;
+        info.authority = mContext.getPackageName();
+        info.readPermission = Manifest.permission.READ_SEARCH_INDEXABLES;
+        mProvider.attachInfo(mContext, info);
+    }
+
+    @Test
+    public void extractMetadata_developmentSettings() throws Exception {
+        Microbenchmark.run("PreferenceXmlParserUtils.extractMetadata",
+                () -> PreferenceXmlParserUtils.extractMetadata(
+                        mContext, R.xml.development_settings, ALL_METADATA_FLAGS));
+    }
+
+    @Test
+    public void queryXmlResources() throws Exception {
+        Microbenchmark.run("SettingsSearchIndexablesProvider.queryXmlResources",
+                () -> drain(mProvider.queryXmlResources(null)));
+    }
+
+    @Test
+    public void queryRawData() throws Exception {
+        Microbenchmark.run("SettingsSearchIndexablesProvider.queryRawData",
+                () -> drain(mProvider.queryRawData(null)));
+    }
+
+    @Test
+    public void queryNonIndexableKeys() throws Exception {
+        Microbenchmark.run("SettingsSearchIndexablesProvider.queryNonIndexableKeys",
+                () -> drain(mProvider.queryNonIndexableKeys(null)));
+    }
+
+    @Test
+    public void querySiteMapPairs() throws Exception {
+        Microbenchmark.run("SettingsSearchIndexablesProvider.querySiteMapPairs",
+                () -> drain(mProvider.querySiteMapPairs()));
+    }
+
+    @Test
+    public void getSliceData() throws Exception {
+        Microbenchmark.run("SliceDataConverter.getSliceData",
+                () -> new SliceDataConverter(mContext).getSliceData());
+    }
+
+    private static Integer drain(Cursor cursor) {
+        try (cursor) {
+            int count = 0;
+            while (cursor.moveToNext()) {
+                count++;
+            }
+            return count;
+        }
+    }
+}
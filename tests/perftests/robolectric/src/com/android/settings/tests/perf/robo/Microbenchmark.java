@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2025 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.android.settings.tests.perf.robo;
+
+import static junit.framework.TestCase.fail;
+
+import static org.junit.Assume.assumeTrue;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A minimal JMH-style harness for benchmarks running on the host JVM under Robolectric.
+ *
+ * <p>Each benchmark runs a number of warmup iterations followed by measured iterations and
+ * reports throughput (ops/s) and allocation rate (bytes/op). Results are compared against
+ * {@code benchmark_baseline.properties}: the benchmark fails if throughput drops or allocations
+ * grow by more than the allowed tolerance, and is skipped if it has no baseline yet. Runs with
+ * {@code -Dsettings.benchmark.output=<file>} write their results there, so that the baseline can
+ * be generated.
+ */
+public final class Microbenchmark {
+    private static final String BASELINE_RESOURCE = "/benchmark_baseline.properties";
+    private static final String PROPERTY_OUTPUT = "settings.benchmark.output";
+    private static final String PROPERTY_TOLERANCE = "settings.benchmark.tolerance";
+    private static final String SUFFIX_OPS_PER_SEC = ".opsPerSec";
+    private static final String SUFFIX_BYTES_PER_OP = ".bytesPerOp";
+    // Host JVMs are noisy, so only large regressions fail by default.
+    private static final double DEFAULT_TOLERANCE = 0.5;
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASURED_ITERATIONS = 10;
+    private static final long MIN_ITERATION_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+
+    private static Properties sBaseline;
+    private static final Properties sResults = new Properties();
+
+    /** Benchmark body, invoked once per operation. */
+    public interface Operation {
+        /** Runs one operation. The return value is kept alive to prevent dead-code removal. */
+        Object run() throws Exception;
+    }
+
+    /** Result of a benchmark run. */
+    public static final class Result {
+        public final String name;
+        public final double opsPerSec;
+        public final double bytesPerOp;
+
+        Result(String name, double opsPerSec, double bytesPerOp) {
+            this.name = name;
+            this.opsPerSec = opsPerSec;
+            this.bytesPerOp = bytesPerOp;
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.US, "%s: %.2f ops/s, %.0f bytes/op",
+                    name, opsPerSec, bytesPerOp);
+        }
+    }
+
+    private Microbenchmark() {}
+
+    /** Measures {@code operation}, reports the result and fails on regression. */
+    public static Result run(String name, Operation operation) throws Exception {
+        final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        final long threadId = Thread.currentThread().getId();
+        Object sink = null;
+
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            final long start = System.nanoTime();
+            do {
+                sink = operation.run();
+            } while (System.nanoTime() - start < MIN_ITERATION_NANOS);
+        }
+
+        long totalOps = 0;
+        long totalNanos = 0;
+        long totalBytes = 0;
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            final long startBytes = getAllocatedBytes(threadBean, threadId);
+            final long start = System.nanoTime();
+            long elapsed;
+            do {
+                sink = operation.run();
+                totalOps++;
+                elapsed = System.nanoTime() - start;
+            } while (elapsed < MIN_ITERATION_NANOS);
+            totalNanos += elapsed;
+            totalBytes += getAllocatedBytes(threadBean, threadId) - startBytes;
+        }
+        if (sink == null) {
+            System.out.println(name + ": operation returned null");
+        }
+
+        final Result result = new Result(name,
+                totalOps * (double) TimeUnit.SECONDS.toNanos(1) / totalNanos,
+                totalBytes / (double) totalOps);
+        record(result);
+        checkAgainstBaseline(result);
+        return result;
+    }
+
+    private static long getAllocatedBytes(ThreadMXBean threadBean, long threadId) {
+        if (threadBean instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threadBean)
+                    .getThreadAllocatedBytes(threadId);
+        }
+        return 0;
+    }
+
+    private static synchronized void record(Result result) throws IOException {
+        sResults.setProperty(result.name + SUFFIX_OPS_PER_SEC,
+                String.format(Locale.US, "%.2f", result.opsPerSec));
+        sResults.setProperty(result.name + SUFFIX_BYTES_PER_OP,
+                String.format(Locale.US, "%.0f", result.bytesPerOp));
+        final String output = System.getProperty(PROPERTY_OUTPUT);
+        if (output != null) {
+            try (OutputStream out = new FileOutputStream(output)) {
+                sResults.store(out, "Settings Robolectric benchmark results");
+            }
+        }
+    }
+
+    private static void checkAgainstBaseline(Result result) throws IOException {
+        final Properties baseline = getBaseline();
+        final double tolerance = Double.parseDouble(
+                System.getProperty(PROPERTY_TOLERANCE, String.valueOf(DEFAULT_TOLERANCE)));
+        final String opsPerSec = baseline.getProperty(result.name + SUFFIX_OPS_PER_SEC);
+        final String bytesPerOp = baseline.getProperty(result.name + SUFFIX_BYTES_PER_OP);
+        assumeTrue(result + ", no baseline in " + BASELINE_RESOURCE,
+                opsPerSec != null && bytesPerOp != null);
+        final double minOpsPerSec = Double.parseDouble(opsPerSec) * (1 - tolerance);
+        if (result.opsPerSec < minOpsPerSec) {
+            fail(String.format(Locale.US, "%s throughput regressed: %.2f ops/s < %.2f ops/s",
+                    result.name, result.opsPerSec, minOpsPerSec));
+        }
+        final double maxBytesPerOp = Double.parseDouble(bytesPerOp) * (1 + tolerance);
+        if (result.bytesPerOp > maxBytesPerOp) {
+            fail(String.format(Locale.US, "%s allocations regressed: %.0f B/op > %.0f B/op",
+                    result.name, result.bytesPerOp, maxBytesPerOp));
+        }
+    }
+
+    private static synchronized Properties getBaseline() throws IOException {
+        if (sBaseline == null) {
+            sBaseline = new Properties();
+            try (InputStream in = Microbenchmark.class.getResourceAsStream(BASELINE_RESOURCE)) {
+                if (in != null) {
+                    sBaseline.load(in);
+                }
+            }
+        }
+        return sBaseline;
+    }
+}
@@ -29,6 +29,7 @@ import android.content.pm.ActivityInfo;
 import android.content.pm.PackageManager;
 import android.content.pm.ResolveInfo;
 
+import org.json.JSONObject;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -39,6 +40,9 @@ import org.robolectric.RuntimeEnvironment;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 @RunWith(RobolectricTestRunner.class)
 public class SettingsDumpServiceTest {
@@ -92,6 +96,61 @@ public class SettingsDumpServiceTest {
                 .contains("{\"" + SettingsDumpService.KEY_SERVICE + "\":");
     }
 
+    @Test
+    public void testDumpSections_slowSection_printsPartialAndOtherSections() throws Exception {
+        StringWriter stringWriter = new StringWriter();
+        PrintWriter printWriter = new PrintWriter(stringWriter);
+
+        SettingsDumpService.dumpSections(printWriter, List.of(
+                new SettingsDumpService.Section("slow", 100 /* timeoutMs */, () -> {
+                    Thread.sleep(10_000);
+                    return "done";
+                }),
+                new SettingsDumpService.Section("fast", 10_000 /* timeoutMs */, () -> "done")));
+
+        JSONObject dump = new JSONObject(stringWriter.toString());
+        assertThat(dump.getString("fast")).isEqualTo("done");
+        assertThat(dump.getJSONObject("slow").getBoolean(SettingsDumpService.KEY_PARTIAL))
+                .isTrue();
+    }
+
+    @Test
+    public void testDumpSections_sectionsWaitingForEachOther_allFinish() throws Exception {
+        StringWriter stringWriter = new StringWriter();
+        PrintWriter printWriter = new PrintWriter(stringWriter);
+        CountDownLatch started = new CountDownLatch(2);
+
+        SettingsDumpService.dumpSections(printWriter, List.of(
+                new SettingsDumpService.Section("first", 10_000 /* timeoutMs */, () -> {
+                    started.countDown();
+                    return started.await(5, TimeUnit.SECONDS) ? "done" : "starved";
+                }),
+                new SettingsDumpService.Section("second", 10_000 /* timeoutMs */, () -> {
+                    started.countDown();
+                    return started.await(5, TimeUnit.SECONDS) ? "done" : "starved";
+                })));
+
+        JSONObject dump = new JSONObject(stringWriter.toString());
+        assertThat(dump.getString("first")).isEqualTo("done");
+        assertThat(dump.getString("second")).isEqualTo("done");
+    }
+
+    @Test
+    public void testDumpSections_failedSection_printsPartial() throws Exception {
+        StringWriter stringWriter = new StringWriter();
+        PrintWriter printWriter = new PrintWriter(stringWriter);
+
+        SettingsDumpService.dumpSections(printWriter, List.of(
+                new SettingsDumpService.Section("failed", 10_000 /* timeoutMs */, () -> {
+                    throw new IllegalStateException();
+                })));
+
+        JSONObject dump = new JSONObject(stringWriter.toString());
+        assertThat(dump.getString(SettingsDumpService.KEY_SERVICE)).isEqualTo("Settings State");
+        assertThat(dump.getJSONObject("failed").getBoolean(SettingsDumpService.KEY_PARTIAL))
+                .isTrue();
+    }
+
     /**
      * Test service used to pass in the mock {@link PackageManager}
      */
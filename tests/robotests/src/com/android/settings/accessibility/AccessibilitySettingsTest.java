@@ -58,6 +58,7 @@ import com.android.settings.testutils.shadow.ShadowApplicationPackageManager;
 import com.android.settings.testutils.shadow.ShadowBluetoothAdapter;
 import com.android.settings.testutils.shadow.ShadowBluetoothUtils;
 import com.android.settings.testutils.shadow.ShadowRestrictedLockUtilsInternal;
+import com.android.settings.testutils.shadow.ShadowThreadUtils;
 import com.android.settings.testutils.shadow.ShadowUserManager;
 import com.android.settingslib.RestrictedPreference;
 import com.android.settingslib.bluetooth.LocalBluetoothManager;
@@ -97,6 +98,7 @@ import java.util.List;
         ShadowColorDisplayManager.class,
         ShadowApplicationPackageManager.class,
         ShadowRestrictedLockUtilsInternal.class,
+        ShadowThreadUtils.class,
 })
 public class AccessibilitySettingsTest {
     private static final String PACKAGE_NAME = "com.android.test";
@@ -441,6 +443,40 @@ public class AccessibilitySettingsTest {
 
     }
 
+    @Test
+    public void onContentChanged_serviceUnchanged_keepsPreference() {
+        mShadowAccessibilityManager.setInstalledAccessibilityServiceList(
+                singletonList(mServiceInfo));
+        setupFragment();
+        final RestrictedPreference preference = mFragment.getPreferenceScreen().findPreference(
+                SERVICE_COMPONENT_NAME.flattenToString());
+
+        mFragment.onContentChanged();
+
+        assertThat(mFragment.getPreferenceScreen().<RestrictedPreference>findPreference(
+                SERVICE_COMPONENT_NAME.flattenToString())).isSameInstanceAs(preference);
+    }
+
+    @Test
+    public void onContentChanged_serviceEnabled_rebuildsPreference() {
+        mShadowAccessibilityManager.setInstalledAccessibilityServiceList(
+                singletonList(mServiceInfo));
+        setupFragment();
+        final RestrictedPreference preference = mFragment.getPreferenceScreen().findPreference(
+                SERVICE_COMPONENT_NAME.flattenToString());
+
+        Settings.Secure.putString(mContext.getContentResolver(),
+                Settings.Secure.ENABLED_ACCESSIBILITY_SERVICES,
+                SERVICE_COMPONENT_NAME.flattenToString());
+        mFragment.onContentChanged();
+
+        final RestrictedPreference updatedPreference =
+                mFragment.getPreferenceScreen().findPreference(
+                        SERVICE_COMPONENT_NAME.flattenToString());
+        assertThat(updatedPreference).isNotNull();
+        assertThat(updatedPreference).isNotSameInstanceAs(preference);
+    }
+
     @Test
     public void testAccessibilityMenuInSystem_IncludedInInteractionControl() {
         mShadowAccessibilityManager.setInstalledAccessibilityServiceList(
@@ -365,7 +365,12 @@ public class AdvancedBluetoothDetailsHeaderControllerTest {
 
     @Test
     public void updateIcon_existInCache_setImageBitmap() {
-        mController.mIconCache.put(ICON_URI, mBitmap);
+        mController.mIconCache = new BluetoothDeviceIconCache(
+                BluetoothDeviceIconCache.MAX_CACHE_SIZE_BYTES);
+        mController.mIconCache.putIcon(ICON_URI,
+                mContext.getResources().getDimensionPixelSize(
+                        R.dimen.advanced_bluetooth_header_icon_size),
+                mBitmap);
 
         mController.updateIcon(mImageView, ICON_URI);
 
@@ -442,13 +447,16 @@ public class AdvancedBluetoothDetailsHeaderControllerTest {
     }
 
     @Test
-    public void onDestroy_recycleBitmap() {
-        mController.mIconCache.put(ICON_URI, mBitmap);
+    public void onDestroy_keepsSharedIconCache() {
+        mController.mIconCache = new BluetoothDeviceIconCache(
+                BluetoothDeviceIconCache.MAX_CACHE_SIZE_BYTES);
+        mController.mIconCache.putIcon(ICON_URI, /* size= */ 1, mBitmap);
 
         mController.onDestroy();
 
-        assertThat(mController.mIconCache).isEmpty();
-        verify(mBitmap).recycle();
+        assertThat(mController.mIconCache.getCachedIcon(ICON_URI, /* size= */ 1))
+                .isEqualTo(mBitmap);
+        verify(mBitmap, never()).recycle();
     }
 
     @Test
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2025 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.bluetooth;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class BluetoothDeviceIconCacheTest {
+    private static final String ICON_URI = "content://test.provider/icon.png";
+    private static final String OTHER_ICON_URI = "content://test.provider/other.png";
+
+    private Context mContext;
+    private BluetoothDeviceIconCache mIconCache;
+
+    @Before
+    public void setUp() {
+        mContext = ApplicationProvider.getApplicationContext();
+        mIconCache = new BluetoothDeviceIconCache(BluetoothDeviceIconCache.MAX_CACHE_SIZE_BYTES);
+    }
+
+    @Test
+    public void getCachedIcon_keyedBySize() {
+        final Bitmap bitmap = Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888);
+
+        mIconCache.putIcon(ICON_URI, 10, bitmap);
+
+        assertThat(mIconCache.getCachedIcon(ICON_URI, 10)).isSameInstanceAs(bitmap);
+        assertThat(mIconCache.getCachedIcon(ICON_URI, 20)).isNull();
+    }
+
+    @Test
+    public void putIcon_exceedsByteBudget_evictsLeastRecentlyUsed() {
+        final Bitmap first = Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888);
+        final Bitmap second = Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888);
+        mIconCache = new BluetoothDeviceIconCache(first.getAllocationByteCount());
+
+        mIconCache.putIcon(ICON_URI, 10, first);
+        mIconCache.putIcon(OTHER_ICON_URI, 10, second);
+
+        assertThat(mIconCache.getCachedIcon(ICON_URI, 10)).isNull();
+        assertThat(mIconCache.getCachedIcon(OTHER_ICON_URI, 10)).isSameInstanceAs(second);
+    }
+
+    @Test
+    public void loadIcon_cached_invokesCallbackSynchronously() {
+        final Bitmap bitmap = Bitmap.createBitmap(10, 10, Bitmap.Config.ARGB_8888);
+        final Bitmap[] loaded = new Bitmap[1];
+        mIconCache.putIcon(ICON_URI, 10, bitmap);
+
+        mIconCache.loadIcon(mContext, ICON_URI, 10, result -> loaded[0] = result);
+
+        assertThat(loaded[0]).isSameInstanceAs(bitmap);
+    }
+
+    @Test
+    public void computeSampleSize_downsamplesToTargetSize() {
+        assertThat(BluetoothDeviceIconCache.computeSampleSize(512, 512, 72)).isEqualTo(4);
+        assertThat(BluetoothDeviceIconCache.computeSampleSize(100, 100, 72)).isEqualTo(1);
+        assertThat(BluetoothDeviceIconCache.computeSampleSize(512, 512, 0)).isEqualTo(1);
+    }
+}
@@ -25,6 +25,7 @@ import static org.mockito.Mockito.when;
 
 import android.bluetooth.BluetoothAdapter;
 import android.bluetooth.BluetoothDevice;
+import android.bluetooth.BluetoothProfile;
 import android.content.Context;
 import android.content.Intent;
 import android.graphics.drawable.Drawable;
@@ -236,6 +237,38 @@ public class BluetoothDeviceUpdaterTest {
         verify(mDevicePreferenceCallback).onDeviceAdded(any(Preference.class));
     }
 
+    @Test
+    public void onProfileConnectionStateChanged_coalescingEnabled_updatesOncePerFrame() {
+        mBluetoothDeviceUpdater.setUpdateCoalescingEnabled(true);
+
+        mBluetoothDeviceUpdater.onProfileConnectionStateChanged(mCachedBluetoothDevice,
+                BluetoothAdapter.STATE_CONNECTED, BluetoothProfile.LE_AUDIO);
+        mBluetoothDeviceUpdater.onAclConnectionStateChanged(mCachedBluetoothDevice,
+                BluetoothAdapter.STATE_CONNECTED);
+        mBluetoothDeviceUpdater.onDeviceBondStateChanged(mCachedBluetoothDevice,
+                BluetoothDevice.BOND_BONDED);
+
+        verify(mDevicePreferenceCallback, never()).onDeviceAdded(any(Preference.class));
+        assertThat(mBluetoothDeviceUpdater.mPendingUpdateDevices)
+                .containsExactly(mCachedBluetoothDevice);
+
+        mBluetoothDeviceUpdater.applyPendingUpdates();
+
+        verify(mDevicePreferenceCallback).onDeviceAdded(any(Preference.class));
+        assertThat(mBluetoothDeviceUpdater.mPendingUpdateDevices).isEmpty();
+    }
+
+    @Test
+    public void onDeviceDeleted_coalescingEnabled_dropsPendingUpdate() {
+        mBluetoothDeviceUpdater.setUpdateCoalescingEnabled(true);
+        mBluetoothDeviceUpdater.onDeviceAdded(mCachedBluetoothDevice);
+
+        mBluetoothDeviceUpdater.onDeviceDeleted(mCachedBluetoothDevice);
+        mBluetoothDeviceUpdater.applyPendingUpdates();
+
+        verify(mDevicePreferenceCallback, never()).onDeviceAdded(any(Preference.class));
+    }
+
     @Test
     public void onBluetoothStateChanged_bluetoothStateIsOn_forceUpdate() {
         mShadowBluetoothAdapter.setEnabled(true);
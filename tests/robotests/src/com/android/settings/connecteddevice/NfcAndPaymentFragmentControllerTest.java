@@ -29,6 +29,7 @@ import android.nfc.NfcManager;
 import android.os.UserManager;
 
 import com.android.settings.R;
+import com.android.settings.core.PreferenceStateSnapshot;
 import com.android.settings.testutils.shadow.ShadowNfcAdapter;
 
 import org.junit.Before;
@@ -101,4 +102,14 @@ public class NfcAndPaymentFragmentControllerTest {
         assertThat(mController.getSummary().toString()).contains(
                 mContext.getString(R.string.switch_off_text));
     }
+
+    @Test
+    public void prefetchState_nfcOn_shouldProvideOnSummary() {
+        mShadowNfcAdapter.setEnabled(true);
+
+        final PreferenceStateSnapshot snapshot = mController.prefetchState();
+
+        assertThat(snapshot.getSummary().toString()).contains(
+                mContext.getString(R.string.switch_on_text));
+    }
 }
@@ -34,6 +34,7 @@ import android.content.Context;
 import androidx.preference.Preference;
 import androidx.preference.PreferenceScreen;
 
+import com.android.settings.security.EncryptionStatusPreferenceController;
 import com.android.settings.slices.SliceData;
 
 import org.junit.Before;
@@ -215,9 +216,103 @@ public class BasePreferenceControllerTest {
         assertThat(category).isEqualTo(SettingsEnums.DISPLAY);
     }
 
+    @Test
+    public void createInstance_controllerDeclaredInXml_returnsController() {
+        final String controllerName = EncryptionStatusPreferenceController.class.getName();
+
+        final BasePreferenceController controller =
+                BasePreferenceController.createInstance(mContext, controllerName, KEY);
+
+        assertThat(GeneratedPreferenceControllerFactory.isRegistered(controllerName)).isTrue();
+        assertThat(controller).isInstanceOf(EncryptionStatusPreferenceController.class);
+        assertThat(controller.getPreferenceKey()).isEqualTo(KEY);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void createInstance_controllerDeclaredInXmlWithoutContextConstructor_shouldCrash() {
+        BasePreferenceController.createInstance(mContext,
+                EncryptionStatusPreferenceController.class.getName());
+    }
+
+    @Test
+    public void createInstance_controllerNotDeclaredInXml_fallsBackToReflection() {
+        final String controllerName = UnavailablePreferenceController.class.getName();
+
+        final BasePreferenceController controller =
+                BasePreferenceController.createInstance(mContext, controllerName, KEY);
+
+        assertThat(GeneratedPreferenceControllerFactory.isRegistered(controllerName)).isFalse();
+        assertThat(controller).isInstanceOf(UnavailablePreferenceController.class);
+    }
+
+    @Test
+    public void isAvailable_cacheEnabledInPass_evaluatesAvailabilityOnce() {
+        mPreferenceController.setAvailabilityCacheEnabled(true);
+
+        mPreferenceController.startAvailabilityPass();
+        mPreferenceController.isAvailable();
+        mPreferenceController.isSupported();
+        mPreferenceController.isAvailable();
+        mPreferenceController.finishAvailabilityPass();
+
+        assertThat(mPreferenceController.mEvaluationCount).isEqualTo(1);
+        assertThat(mPreferenceController.getRedundantAvailabilityEvaluationCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void isAvailable_cacheDisabledInPass_evaluatesAvailabilityEveryTime() {
+        mPreferenceController.startAvailabilityPass();
+        mPreferenceController.isAvailable();
+        mPreferenceController.isAvailable();
+        mPreferenceController.finishAvailabilityPass();
+
+        assertThat(mPreferenceController.mEvaluationCount).isEqualTo(2);
+        assertThat(mPreferenceController.getRedundantAvailabilityEvaluationCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void isAvailable_cacheEnabledOutsidePass_evaluatesAvailabilityEveryTime() {
+        mPreferenceController.setAvailabilityCacheEnabled(true);
+
+        mPreferenceController.isAvailable();
+        mPreferenceController.isAvailable();
+
+        assertThat(mPreferenceController.mEvaluationCount).isEqualTo(2);
+    }
+
+    @Test
+    public void isAvailable_invalidatedInPass_returnsNewAvailability() {
+        mPreferenceController.setAvailabilityCacheEnabled(true);
+        mPreferenceController.startAvailabilityPass();
+        assertThat(mPreferenceController.isAvailable()).isTrue();
+
+        mPreferenceController.setAvailability(CONDITIONALLY_UNAVAILABLE);
+        assertThat(mPreferenceController.isAvailable()).isTrue();
+        mPreferenceController.invalidateAvailabilityStatus();
+        assertThat(mPreferenceController.isAvailable()).isFalse();
+        mPreferenceController.finishAvailabilityPass();
+    }
+
+    @Test
+    public void finishAvailabilityPass_nestedPass_keepsCacheUntilOutermostFinish() {
+        mPreferenceController.setAvailabilityCacheEnabled(true);
+        mPreferenceController.startAvailabilityPass();
+        mPreferenceController.startAvailabilityPass();
+        mPreferenceController.isAvailable();
+        mPreferenceController.finishAvailabilityPass();
+
+        mPreferenceController.isAvailable();
+        assertThat(mPreferenceController.mEvaluationCount).isEqualTo(1);
+
+        mPreferenceController.finishAvailabilityPass();
+        mPreferenceController.isAvailable();
+        assertThat(mPreferenceController.mEvaluationCount).isEqualTo(2);
+    }
+
     private class FakeBasePreferenceController extends BasePreferenceController {
 
         private int mAvailable;
+        private int mEvaluationCount;
 
         private FakeBasePreferenceController(Context context, String preferenceKey) {
             super(context, preferenceKey);
@@ -226,6 +321,7 @@ public class BasePreferenceControllerTest {
 
         @Override
         public int getAvailabilityStatus() {
+            mEvaluationCount++;
             return mAvailable;
         }
 
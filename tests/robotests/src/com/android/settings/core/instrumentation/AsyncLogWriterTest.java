@@ -0,0 +1,164 @@
+/*
+ * Copyright (C) 2025 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.core.instrumentation;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.os.Looper;
+
+import com.android.settingslib.core.instrumentation.LogWriter;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnit;
+import org.mockito.junit.MockitoRule;
+import org.robolectric.RobolectricTestRunner;
+
+import java.time.Duration;
+
+@RunWith(RobolectricTestRunner.class)
+public class AsyncLogWriterTest {
+
+    @Rule
+    public final MockitoRule mMockitoRule = MockitoJUnit.rule();
+
+    @Mock
+    private LogWriter mDelegate;
+
+    private AsyncLogWriter mWriter;
+
+    @Before
+    public void setUp() {
+        mWriter = new AsyncLogWriter(Looper.getMainLooper(), 64, mDelegate);
+    }
+
+    @Test
+    public void clicked_shouldNotWriteSynchronously() {
+        mWriter.clicked(1, "key");
+
+        verify(mDelegate, never()).clicked(1, "key");
+        assertThat(mWriter.getQueueDepth()).isEqualTo(1);
+    }
+
+    @Test
+    public void clicked_afterFlushDelay_shouldWriteInOrder() {
+        mWriter.clicked(1, "key1");
+        mWriter.changed(2, "key2", 3);
+        mWriter.action(4, 5, 6, "key3", 7);
+
+        shadowOf(Looper.getMainLooper()).idleFor(
+                Duration.ofMillis(AsyncLogWriter.FLUSH_DELAY_MS));
+
+        final InOrder inOrder = inOrder(mDelegate);
+        inOrder.verify(mDelegate).clicked(1, "key1");
+        inOrder.verify(mDelegate).changed(2, "key2", 3);
+        inOrder.verify(mDelegate).action(4, 5, 6, "key3", 7);
+        assertThat(mWriter.getQueueDepth()).isEqualTo(0);
+    }
+
+    @Test
+    public void clicked_fullBatch_shouldFlushWithoutDelay() {
+        for (int i = 0; i < AsyncLogWriter.BATCH_SIZE; i++) {
+            mWriter.clicked(i, "key");
+        }
+
+        shadowOf(Looper.getMainLooper()).idle();
+
+        verify(mDelegate, times(AsyncLogWriter.BATCH_SIZE)).clicked(anyInt(), eq("key"));
+    }
+
+    @Test
+    public void clicked_queueFull_shouldDropAndCount() {
+        mWriter = new AsyncLogWriter(Looper.getMainLooper(), 4, mDelegate);
+
+        for (int i = 0; i < 6; i++) {
+            mWriter.clicked(i, "key");
+        }
+        shadowOf(Looper.getMainLooper()).idleFor(
+                Duration.ofMillis(AsyncLogWriter.FLUSH_DELAY_MS));
+
+        assertThat(mWriter.getDroppedEventCount()).isEqualTo(2);
+        verify(mDelegate).clicked(3, "key");
+        verify(mDelegate, never()).clicked(4, "key");
+    }
+
+    @Test
+    public void flush_eventClaimedButNotPublished_shouldFlushAgain() {
+        mWriter.clicked(1, "key1");
+        final long position = mWriter.mQueue.claim();
+        shadowOf(Looper.getMainLooper()).idleFor(
+                Duration.ofMillis(AsyncLogWriter.FLUSH_DELAY_MS));
+        verify(mDelegate).clicked(1, "key1");
+
+        mWriter.mQueue.publish(position, new AsyncLogWriter.Event(
+                AsyncLogWriter.Event.CLICKED, null /* context */, 2, 0 /* action */,
+                0 /* pageId */, "key2", 0 /* value */, null /* taggedData */));
+        shadowOf(Looper.getMainLooper()).idleFor(
+                Duration.ofMillis(AsyncLogWriter.FLUSH_DELAY_MS));
+
+        verify(mDelegate).clicked(2, "key2");
+        assertThat(mWriter.getQueueDepth()).isEqualTo(0);
+    }
+
+    @Test
+    public void ringBuffer_claimedNotPublished_blocksPoll() {
+        final EventRingBuffer<Integer> buffer = new EventRingBuffer<>(4);
+
+        final long position = buffer.claim();
+        assertThat(buffer.offer(1)).isTrue();
+
+        assertThat(buffer.poll()).isNull();
+        assertThat(buffer.size()).isEqualTo(2);
+        buffer.publish(position, 0);
+        assertThat(buffer.poll()).isEqualTo(0);
+        assertThat(buffer.poll()).isEqualTo(1);
+    }
+
+    @Test
+    public void ringBuffer_wrapsAround_keepsOrder() {
+        final EventRingBuffer<Integer> buffer = new EventRingBuffer<>(2);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(buffer.offer(i)).isTrue();
+            assertThat(buffer.poll()).isEqualTo(i);
+        }
+        assertThat(buffer.offer(10)).isTrue();
+        assertThat(buffer.offer(11)).isTrue();
+        assertThat(buffer.offer(12)).isFalse();
+        assertThat(buffer.size()).isEqualTo(2);
+        assertThat(buffer.poll()).isEqualTo(10);
+        assertThat(buffer.poll()).isEqualTo(11);
+        assertThat(buffer.poll()).isNull();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void ringBuffer_capacityNotPowerOfTwo_shouldCrash() {
+        new EventRingBuffer<Integer>(3);
+    }
+}
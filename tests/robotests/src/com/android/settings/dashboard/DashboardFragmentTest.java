@@ -16,6 +16,7 @@
 package com.android.settings.dashboard;
 
 import static com.android.internal.logging.nano.MetricsProto.MetricsEvent.DASHBOARD_CONTAINER;
+import static com.android.settings.SettingsActivity.EXTRA_FRAGMENT_ARG_KEY;
 import static com.android.settingslib.drawer.TileUtils.META_DATA_PREFERENCE_GROUP_KEY;
 import static com.android.settingslib.drawer.TileUtils.META_DATA_PREFERENCE_KEYHINT;
 import static com.android.settingslib.drawer.TileUtils.META_DATA_PREFERENCE_PENDING_INTENT;
@@ -47,6 +48,7 @@ import android.preference.PreferenceManager.OnActivityResultListener;
 import androidx.preference.Preference;
 import androidx.preference.PreferenceCategory;
 import androidx.preference.PreferenceFragmentCompat;
+import androidx.preference.PreferenceGroupAdapter;
 import androidx.preference.PreferenceManager;
 import androidx.preference.PreferenceScreen;
 import androidx.preference.SwitchPreferenceCompat;
@@ -84,6 +86,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Supplier;
 
 @RunWith(RobolectricTestRunner.class)
 public class DashboardFragmentTest {
@@ -157,6 +160,145 @@ public class DashboardFragmentTest {
         assertThat(controller1).isSameInstanceAs(retrievedController);
     }
 
+    @Test
+    public void use_lazyController_shouldCreateController() {
+        final TestFragment fragment = new TestFragment(mAppContext);
+        final TestPreferenceController controller = new TestPreferenceController(mContext);
+        fragment.mLazyControllerFactories.put("category", () -> List.of(controller));
+        fragment.onAttach(mAppContext);
+
+        assertThat(fragment.use(TestPreferenceController.class)).isSameInstanceAs(controller);
+    }
+
+    @Test
+    public void onPreferenceShown_childOfLazyKey_shouldCreateAndDisplayControllers() {
+        final TestFragment fragment = new TestFragment(mAppContext);
+        final AbstractPreferenceController controller = mock(AbstractPreferenceController.class);
+        final Supplier<List<AbstractPreferenceController>> factory = mock(Supplier.class);
+        when(factory.get()).thenReturn(List.of(controller));
+        fragment.mLazyControllerFactories.put("category", factory);
+        fragment.onAttach(mAppContext);
+        final PreferenceCategory category = mock(PreferenceCategory.class);
+        when(category.getKey()).thenReturn("category");
+        final Preference preference = mock(Preference.class);
+        when(preference.getParent()).thenReturn(category);
+        verify(factory, never()).get();
+
+        fragment.onPreferenceShown(preference);
+        fragment.onPreferenceShown(preference);
+
+        verify(factory).get();
+        verify(controller).displayPreference(fragment.mScreen);
+    }
+
+    @Test
+    public void onPreferenceShown_lazyCategoryBelow_shouldCreateOneCategoryAhead() {
+        when(mFakeFeatureFactory.dashboardFeatureProvider
+                .getTilesForCategory(nullable(String.class)))
+                .thenReturn(null);
+        final TestFragment fragment = new TestFragment(mAppContext);
+        final PreferenceScreen screen =
+                new PreferenceManager(mAppContext).createPreferenceScreen(mAppContext);
+        final Preference eagerPreference = addCategoryWithChild(screen, "eager_category");
+        final Preference lazyPreference = addCategoryWithChild(screen, "lazy_category");
+        addCategoryWithChild(screen, "lazy_category2");
+        fragment.mScreen = screen;
+        final Supplier<List<AbstractPreferenceController>> factory = mock(Supplier.class);
+        when(factory.get()).thenReturn(List.of(mock(AbstractPreferenceController.class)));
+        final Supplier<List<AbstractPreferenceController>> factory2 = mock(Supplier.class);
+        when(factory2.get()).thenReturn(List.of(mock(AbstractPreferenceController.class)));
+        fragment.mLazyControllerFactories.put("lazy_category", factory);
+        fragment.mLazyControllerFactories.put("lazy_category2", factory2);
+        fragment.onAttach(mAppContext);
+        fragment.onCreatePreferences(new Bundle(), "rootKey");
+
+        assertThat(screen.findPreference("lazy_category").isVisible()).isFalse();
+        assertThat(screen.findPreference("lazy_category2").isVisible()).isFalse();
+
+        fragment.onPreferenceShown(eagerPreference);
+
+        verify(factory).get();
+        verify(factory2, never()).get();
+        assertThat(screen.findPreference("lazy_category").isVisible()).isTrue();
+        assertThat(screen.findPreference("lazy_category2").isVisible()).isFalse();
+
+        fragment.onPreferenceShown(lazyPreference);
+
+        verify(factory2).get();
+        assertThat(screen.findPreference("lazy_category2").isVisible()).isTrue();
+    }
+
+    @Test
+    public void onCreatePreferences_highlightInLazyCategory_shouldCreateItsControllers() {
+        when(mFakeFeatureFactory.dashboardFeatureProvider
+                .getTilesForCategory(nullable(String.class)))
+                .thenReturn(null);
+        final TestFragment fragment = new TestFragment(mAppContext);
+        final PreferenceScreen screen =
+                new PreferenceManager(mAppContext).createPreferenceScreen(mAppContext);
+        addCategoryWithChild(screen, "eager_category");
+        addCategoryWithChild(screen, "lazy_category");
+        addCategoryWithChild(screen, "lazy_category2");
+        fragment.mScreen = screen;
+        final Supplier<List<AbstractPreferenceController>> factory = mock(Supplier.class);
+        when(factory.get()).thenReturn(List.of(mock(AbstractPreferenceController.class)));
+        final Supplier<List<AbstractPreferenceController>> factory2 = mock(Supplier.class);
+        when(factory2.get()).thenReturn(List.of(mock(AbstractPreferenceController.class)));
+        fragment.mLazyControllerFactories.put("lazy_category", factory);
+        fragment.mLazyControllerFactories.put("lazy_category2", factory2);
+        final Bundle args = new Bundle();
+        args.putString(EXTRA_FRAGMENT_ARG_KEY, "lazy_category2_child");
+        fragment.setArguments(args);
+        fragment.onAttach(mAppContext);
+
+        fragment.onCreatePreferences(new Bundle(), "rootKey");
+
+        verify(factory2).get();
+        verify(factory, never()).get();
+        assertThat(screen.findPreference("lazy_category2").isVisible()).isTrue();
+        assertThat(screen.findPreference("lazy_category").isVisible()).isFalse();
+        assertThat(new PreferenceGroupAdapter(screen)
+                .getPreferenceAdapterPosition("lazy_category2_child")).isAtLeast(0);
+    }
+
+    @Test
+    public void onCreatePreferences_highlightNotInScreen_shouldCreateAllLazyControllers() {
+        when(mFakeFeatureFactory.dashboardFeatureProvider
+                .getTilesForCategory(nullable(String.class)))
+                .thenReturn(null);
+        final TestFragment fragment = new TestFragment(mAppContext);
+        final PreferenceScreen screen =
+                new PreferenceManager(mAppContext).createPreferenceScreen(mAppContext);
+        addCategoryWithChild(screen, "lazy_category");
+        fragment.mScreen = screen;
+        final Supplier<List<AbstractPreferenceController>> factory = mock(Supplier.class);
+        when(factory.get()).thenReturn(List.of(mock(AbstractPreferenceController.class)));
+        fragment.mLazyControllerFactories.put("lazy_category", factory);
+        final Bundle args = new Bundle();
+        args.putString(EXTRA_FRAGMENT_ARG_KEY, "added_by_controller");
+        fragment.setArguments(args);
+        fragment.onAttach(mAppContext);
+
+        fragment.onCreatePreferences(new Bundle(), "rootKey");
+
+        verify(factory).get();
+        assertThat(screen.findPreference("lazy_category").isVisible()).isTrue();
+    }
+
+    @Test
+    public void onPreferenceShown_otherKey_shouldNotCreateControllers() {
+        final TestFragment fragment = new TestFragment(mAppContext);
+        final Supplier<List<AbstractPreferenceController>> factory = mock(Supplier.class);
+        fragment.mLazyControllerFactories.put("category", factory);
+        fragment.onAttach(mAppContext);
+        final Preference preference = mock(Preference.class);
+        when(preference.getKey()).thenReturn("other");
+
+        fragment.onPreferenceShown(preference);
+
+        verify(factory, never()).get();
+    }
+
     @Test
     public void useAll_returnsAllControllersOfType() {
         final TestPreferenceController controller1 = new TestPreferenceController(mContext);
@@ -225,6 +367,23 @@ public class DashboardFragmentTest {
         verify(groupPreference).addPreference(nullable(Preference.class));
     }
 
+    @Test
+    public void displayTilesAsPreference_loadTilesAsync_shouldAddTilesOnceLoaded() {
+        when(mFakeFeatureFactory.dashboardFeatureProvider
+                .getDashboardKeyForTile(any(ActivityTile.class)))
+                .thenReturn("test_key");
+        when(mFakeFeatureFactory.dashboardFeatureProvider
+                .getDashboardKeyForTile(any(ProviderTile.class)))
+                .thenReturn("test_key2");
+        mTestFragment.mLoadTilesAsync = true;
+        mTestFragment = spy(mTestFragment);
+
+        mTestFragment.onCreatePreferences(new Bundle(), "rootKey");
+
+        verify(mTestFragment).onCategoriesChanged(null /* categories */);
+        verify(mTestFragment.mScreen, times(2)).addPreference(nullable(Preference.class));
+    }
+
     @Test
     public void displayTilesAsPreference_shouldNotAddTilesWithoutIntent() {
         mTestFragment.onCreatePreferences(new Bundle(), "rootKey");
@@ -535,14 +694,27 @@ public class DashboardFragmentTest {
         }
     }
 
+    private Preference addCategoryWithChild(PreferenceScreen screen, String key) {
+        final PreferenceCategory category = new PreferenceCategory(mAppContext);
+        category.setKey(key);
+        screen.addPreference(category);
+        final Preference preference = new Preference(mAppContext);
+        preference.setKey(key + "_child");
+        category.addPreference(preference);
+        return preference;
+    }
+
     private static class TestFragment extends DashboardFragment {
 
         private final PreferenceManager mPreferenceManager;
         private final Context mContext;
         private final List<AbstractPreferenceController> mControllers;
         private final ContentResolver mContentResolver;
+        private final Map<String, Supplier<List<AbstractPreferenceController>>>
+                mLazyControllerFactories = new HashMap<>();
 
-        public final PreferenceScreen mScreen;
+        public PreferenceScreen mScreen;
+        public boolean mLoadTilesAsync;
 
         public TestFragment(Context context) {
             mContext = context;
@@ -586,6 +758,12 @@ public class DashboardFragmentTest {
             return mControllers;
         }
 
+        @Override
+        protected Map<String, Supplier<List<AbstractPreferenceController>>>
+                createLazyPreferenceControllers(Context context) {
+            return mLazyControllerFactories;
+        }
+
         @Override
         public PreferenceManager getPreferenceManager() {
             return mPreferenceManager;
@@ -596,6 +774,11 @@ public class DashboardFragmentTest {
             return mContentResolver;
         }
 
+        @Override
+        protected boolean shouldLoadDashboardTilesAsync() {
+            return mLoadTilesAsync;
+        }
+
     }
 
     private static class TestDynamicDataObserver extends DynamicDataObserver {
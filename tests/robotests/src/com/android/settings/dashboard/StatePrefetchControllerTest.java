@@ -0,0 +1,147 @@
+/*
+ * Copyright (C) 2025 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.dashboard;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.content.Context;
+
+import androidx.preference.Preference;
+import androidx.preference.SwitchPreferenceCompat;
+import androidx.test.core.app.ApplicationProvider;
+
+import com.android.settings.core.BasePreferenceController;
+import com.android.settings.core.PreferenceStateSnapshot;
+import com.android.settings.testutils.shadow.ShadowThreadUtils;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(shadows = ShadowThreadUtils.class)
+public class StatePrefetchControllerTest {
+
+    private Context mContext;
+    private StatePrefetchController mStatePrefetchController;
+
+    @Before
+    public void setUp() {
+        mContext = ApplicationProvider.getApplicationContext();
+        mStatePrefetchController = new StatePrefetchController();
+    }
+
+    @Test
+    public void start_appliesPrefetchedStates() {
+        final SwitchPreferenceCompat preference = new SwitchPreferenceCompat(mContext);
+        final FakePrefetchController controller = new FakePrefetchController(mContext,
+                new PreferenceStateSnapshot.Builder()
+                        .setSummary("summary")
+                        .setEnabled(false)
+                        .setChecked(true)
+                        .build());
+
+        mStatePrefetchController.add(controller, preference);
+        mStatePrefetchController.start();
+
+        assertThat(controller.mPrefetchCount).isEqualTo(1);
+        assertThat(controller.mUpdateStateCount).isEqualTo(0);
+        assertThat(preference.getSummary().toString()).isEqualTo("summary");
+        assertThat(preference.isEnabled()).isFalse();
+        assertThat(preference.isChecked()).isTrue();
+    }
+
+    @Test
+    public void start_prefetchFailed_fallsBackToUpdateState() {
+        final Preference preference = new Preference(mContext);
+        final FakePrefetchController controller = new FakePrefetchController(mContext, null);
+
+        mStatePrefetchController.add(controller, preference);
+        mStatePrefetchController.start();
+
+        assertThat(controller.mUpdateStateCount).isEqualTo(1);
+    }
+
+    @Test
+    public void start_snapshotWithoutSummary_keepsSummary() {
+        final Preference preference = new Preference(mContext);
+        preference.setSummary("old");
+        final FakePrefetchController controller = new FakePrefetchController(mContext,
+                new PreferenceStateSnapshot.Builder().setEnabled(true).build());
+
+        mStatePrefetchController.add(controller, preference);
+        mStatePrefetchController.start();
+
+        assertThat(preference.getSummary().toString()).isEqualTo("old");
+    }
+
+    @Test
+    public void cancel_dropsQueuedControllers() {
+        final FakePrefetchController controller = new FakePrefetchController(mContext,
+                new PreferenceStateSnapshot.Builder().build());
+        mStatePrefetchController.add(controller, new Preference(mContext));
+
+        mStatePrefetchController.cancel();
+        mStatePrefetchController.start();
+
+        assertThat(controller.mPrefetchCount).isEqualTo(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void add_notStatePrefetcher_shouldCrash() {
+        mStatePrefetchController.add(new BasePreferenceController(mContext, "key") {
+            @Override
+            public int getAvailabilityStatus() {
+                return AVAILABLE;
+            }
+        }, new Preference(mContext));
+    }
+
+    private static class FakePrefetchController extends BasePreferenceController
+            implements BasePreferenceController.StatePrefetcher {
+
+        private final PreferenceStateSnapshot mSnapshot;
+        private int mPrefetchCount;
+        private int mUpdateStateCount;
+
+        private FakePrefetchController(Context context, PreferenceStateSnapshot snapshot) {
+            super(context, "fake_key");
+            mSnapshot = snapshot;
+        }
+
+        @Override
+        public int getAvailabilityStatus() {
+            return AVAILABLE;
+        }
+
+        @Override
+        public PreferenceStateSnapshot prefetchState() {
+            mPrefetchCount++;
+            if (mSnapshot == null) {
+                throw new IllegalStateException("Service unavailable");
+            }
+            return mSnapshot;
+        }
+
+        @Override
+        public void updateState(Preference preference) {
+            mUpdateStateCount++;
+        }
+    }
+}
@@ -23,6 +23,7 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -38,16 +39,20 @@ import android.provider.Settings;
 
 import androidx.appcompat.app.AlertDialog;
 import androidx.fragment.app.FragmentActivity;
+import androidx.preference.PreferenceScreen;
 
 import com.android.internal.logging.nano.MetricsProto;
 import com.android.settings.R;
 import com.android.settings.Utils;
 import com.android.settings.biometrics.IdentityCheckBiometricErrorDialog;
 import com.android.settings.password.ConfirmDeviceCredentialActivity;
+import com.android.settings.testutils.XmlTestUtils;
 import com.android.settings.testutils.shadow.ShadowAlertDialogCompat;
 import com.android.settings.testutils.shadow.ShadowUserManager;
 import com.android.settings.widget.SettingsMainSwitchBar;
+import com.android.settingslib.core.AbstractPreferenceController;
 import com.android.settingslib.development.AbstractEnableAdbPreferenceController;
+import com.android.settingslib.development.DeveloperOptionsPreferenceController;
 import com.android.settingslib.development.DevelopmentSettingsEnabler;
 
 import org.junit.After;
@@ -68,6 +73,8 @@ import org.robolectric.shadows.androidx.fragment.FragmentController;
 import org.robolectric.util.ReflectionHelpers;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 @RunWith(RobolectricTestRunner.class)
 @Config(shadows = {
@@ -361,6 +368,46 @@ public class DevelopmentSettingsDashboardFragmentTest {
         verify(controller).onDisableLogPersistDialogRejected();
     }
 
+    @Test
+    public void createLazyPreferenceControllers_keysAreCategoriesBelowTheFirstOne() {
+        final List<String> keys = XmlTestUtils.getKeysFromPreferenceXml(mContext,
+                R.xml.development_settings);
+
+        final Map<String, Supplier<List<AbstractPreferenceController>>> factories =
+                mDashboard.createLazyPreferenceControllers(mContext);
+
+        assertThat(factories).isNotEmpty();
+        assertThat(keys).containsAtLeastElementsIn(factories.keySet());
+        // The first category is created up front, it creates the next one when shown.
+        assertThat(factories).doesNotContainKey("debug_misc_category");
+    }
+
+    @Test
+    public void onLazyPreferenceControllersCreated_devOptionsEnabled_shouldEnableControllers() {
+        DevelopmentSettingsEnabler.setDevelopmentSettingsEnabled(mContext, true);
+        doReturn(mContext).when(mDashboard).getContext();
+        doReturn(mock(PreferenceScreen.class)).when(mDashboard).getPreferenceScreen();
+        final DeveloperOptionsPreferenceController controller =
+                mock(DeveloperOptionsPreferenceController.class);
+
+        mDashboard.onLazyPreferenceControllersCreated(List.of(controller));
+
+        verify(controller).onDeveloperOptionsEnabled();
+    }
+
+    @Test
+    public void onLazyPreferenceControllersCreated_devOptionsDisabled_shouldNotEnableControllers() {
+        DevelopmentSettingsEnabler.setDevelopmentSettingsEnabled(mContext, false);
+        doReturn(mContext).when(mDashboard).getContext();
+        doReturn(mock(PreferenceScreen.class)).when(mDashboard).getPreferenceScreen();
+        final DeveloperOptionsPreferenceController controller =
+                mock(DeveloperOptionsPreferenceController.class);
+
+        mDashboard.onLazyPreferenceControllersCreated(List.of(controller));
+
+        verify(controller, never()).onDeveloperOptionsEnabled();
+    }
+
     @Test
     public void shouldSkipForInitialSUW_returnTrue() {
         assertThat(mDashboard.shouldSkipForInitialSUW()).isTrue();
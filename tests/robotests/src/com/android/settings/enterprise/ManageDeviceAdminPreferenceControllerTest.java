@@ -27,6 +27,7 @@ import android.content.res.Resources;
 import androidx.preference.Preference;
 
 import com.android.settings.R;
+import com.android.settings.core.PreferenceStateSnapshot;
 import com.android.settings.testutils.FakeFeatureFactory;
 import com.android.settingslib.utils.StringUtil;
 
@@ -78,6 +79,20 @@ public class ManageDeviceAdminPreferenceControllerTest {
         assertThat(preference.getSummary()).isEqualTo("5 active apps");
     }
 
+    @Test
+    public void prefetchState_returnsSummary() {
+        when(mFeatureFactory.enterprisePrivacyFeatureProvider
+                .getNumberOfActiveDeviceAdminsForCurrentUserAndManagedProfile()).thenReturn(0);
+        when(mContext.getResources()).thenReturn(mResources);
+        when(mResources.getString(R.string.number_of_device_admins_none))
+                .thenReturn("no apps");
+
+        final PreferenceStateSnapshot snapshot = mController.prefetchState();
+
+        assertThat(snapshot.hasSummary()).isTrue();
+        assertThat(snapshot.getSummary()).isEqualTo("no apps");
+    }
+
     @Test
     public void isAvailable_byDefault_isTrue() {
         assertThat(mController.isAvailable()).isTrue();
@@ -19,6 +19,8 @@ package com.android.settings.fuelgauge;
 import static com.google.common.truth.Truth.assertThat;
 import static com.google.common.truth.Truth.assertWithMessage;
 
+import static org.junit.Assert.assertThrows;
+
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
@@ -67,6 +69,7 @@ import java.time.Instant;
 import java.util.Locale;
 import java.util.Map;
 import java.util.TimeZone;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.TimeUnit;
 
 @RunWith(RobolectricTestRunner.class)
@@ -1120,4 +1123,47 @@ public class BatteryInfoTest {
         info = getBatteryInfo(true /* charging */, true /* enhanced */, true /* estimate */);
         assertHistoryAndLinearProjection(info);
     }
+
+    @Test
+    public void parseBatteryHistory_calledTwice_iteratesHistoryOnce() {
+        final BatteryInfo info =
+                getBatteryInfo(false /* charging */, false /* enhanced */, false /* estimate */);
+        mockBatteryStatsHistory();
+        final BatteryInfo.BatteryDataParser parser1 = mock(BatteryInfo.BatteryDataParser.class);
+        final BatteryInfo.BatteryDataParser parser2 = mock(BatteryInfo.BatteryDataParser.class);
+
+        info.parseBatteryHistory(parser1);
+        info.parseBatteryHistory(parser2);
+
+        verify(mBatteryUsageStats).iterateBatteryStatsHistory();
+        for (BatteryInfo.BatteryDataParser parser : new BatteryInfo.BatteryDataParser[] {
+                parser1, parser2}) {
+            verify(parser).onParsingStarted(0L, 2000L);
+            verify(parser).onDataPoint(eq(1000L), any(BatteryStats.HistoryItem.class));
+            verify(parser).onDataPoint(eq(1500L), any(BatteryStats.HistoryItem.class));
+            verify(parser).onDataPoint(eq(2000L), any(BatteryStats.HistoryItem.class));
+            verify(parser).onParsingDone();
+        }
+    }
+
+    @Test
+    public void parseBatteryHistory_interrupted_stopsAndReadsHistoryAgainLater() {
+        final BatteryInfo info =
+                getBatteryInfo(false /* charging */, false /* enhanced */, false /* estimate */);
+        mockBatteryStatsHistory();
+        final BatteryInfo.BatteryDataParser parser1 = mock(BatteryInfo.BatteryDataParser.class);
+        final BatteryInfo.BatteryDataParser parser2 = mock(BatteryInfo.BatteryDataParser.class);
+
+        Thread.currentThread().interrupt();
+        try {
+            assertThrows(CancellationException.class, () -> info.parseBatteryHistory(parser1));
+        } finally {
+            Thread.interrupted();
+        }
+        info.parseBatteryHistory(parser2);
+
+        verify(parser1, never()).onParsingDone();
+        verify(parser2).onParsingDone();
+        verify(mBatteryUsageStats, times(2)).iterateBatteryStatsHistory();
+    }
 }
@@ -0,0 +1,131 @@
+/*
+ * Copyright (C) 2025 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.fuelgauge;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.robolectric.Shadows.shadowOf;
+
+import android.content.Context;
+import android.os.BatteryStatsManager;
+import android.os.BatteryUsageStats;
+import android.os.BatteryUsageStatsQuery;
+import android.os.Looper;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.time.Duration;
+
+@RunWith(RobolectricTestRunner.class)
+public class BatteryUsageStatsBrokerTest {
+
+    @Mock private BatteryStatsManager mBatteryStatsManager;
+
+    private Context mContext;
+
+    @Before
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        mContext = spy(RuntimeEnvironment.application);
+        doReturn(mContext).when(mContext).getApplicationContext();
+        doReturn(mBatteryStatsManager)
+                .when(mContext)
+                .getSystemService(Context.BATTERY_STATS_SERVICE);
+        when(mBatteryStatsManager.getBatteryUsageStats(any(BatteryUsageStatsQuery.class)))
+                .thenAnswer(invocation -> mock(BatteryUsageStats.class));
+    }
+
+    @After
+    public void tearDown() {
+        BatteryUsageStatsBroker.invalidate();
+    }
+
+    @Test
+    public void acquire_twice_shouldShareOneFetch() {
+        try (BatteryUsageStatsBroker.Ref ref1 = BatteryUsageStatsBroker.acquire(mContext, false);
+                BatteryUsageStatsBroker.Ref ref2 =
+                        BatteryUsageStatsBroker.acquire(mContext, false)) {
+            assertThat(ref2.get()).isSameInstanceAs(ref1.get());
+        }
+        verify(mBatteryStatsManager).getBatteryUsageStats(any(BatteryUsageStatsQuery.class));
+    }
+
+    @Test
+    public void acquire_historyAfterNoHistory_shouldFetchWithHistory() {
+        final ArgumentCaptor<BatteryUsageStatsQuery> captor =
+                ArgumentCaptor.forClass(BatteryUsageStatsQuery.class);
+
+        BatteryUsageStatsBroker.acquire(mContext, false).close();
+        BatteryUsageStatsBroker.acquire(mContext, true).close();
+
+        verify(mBatteryStatsManager, times(2)).getBatteryUsageStats(captor.capture());
+        assertThat(captor.getValue().getFlags()
+                & BatteryUsageStatsQuery.FLAG_BATTERY_USAGE_STATS_INCLUDE_HISTORY)
+                .isNotEqualTo(0);
+    }
+
+    @Test
+    public void acquire_noHistoryAfterHistory_shouldReuseSnapshot() {
+        BatteryUsageStatsBroker.acquire(mContext, true).close();
+        BatteryUsageStatsBroker.acquire(mContext, false).close();
+
+        verify(mBatteryStatsManager).getBatteryUsageStats(any(BatteryUsageStatsQuery.class));
+    }
+
+    @Test
+    public void acquire_afterFreshnessWindow_shouldFetchAgain() {
+        BatteryUsageStatsBroker.acquire(mContext, false).close();
+
+        shadowOf(Looper.getMainLooper()).idleFor(
+                Duration.ofMillis(BatteryUsageStatsBroker.FRESHNESS_WINDOW_MS));
+        BatteryUsageStatsBroker.acquire(mContext, false).close();
+
+        verify(mBatteryStatsManager, times(2))
+                .getBatteryUsageStats(any(BatteryUsageStatsQuery.class));
+    }
+
+    @Test
+    public void close_snapshotStillInUse_shouldNotCloseStats() throws Exception {
+        final BatteryUsageStatsBroker.Ref ref1 = BatteryUsageStatsBroker.acquire(mContext, false);
+        final BatteryUsageStatsBroker.Ref ref2 = BatteryUsageStatsBroker.acquire(mContext, false);
+        final BatteryUsageStats batteryUsageStats = ref1.get();
+        BatteryUsageStatsBroker.invalidate();
+
+        ref1.close();
+        ref1.close();
+        verify(batteryUsageStats, never()).close();
+
+        ref2.close();
+        verify(batteryUsageStats).close();
+    }
+}
@@ -20,7 +20,9 @@ import static com.google.common.truth.Truth.assertThat;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.when;
 
 import android.content.Context;
 import android.content.Intent;
@@ -32,6 +34,7 @@ import com.android.settings.fuelgauge.BatteryUtils;
 import com.android.settings.fuelgauge.batterytip.tips.AppLabelPredicate;
 import com.android.settings.fuelgauge.batterytip.tips.AppRestrictionPredicate;
 import com.android.settings.fuelgauge.batterytip.tips.BatteryTip;
+import com.android.settings.fuelgauge.batterytip.tips.HighUsageTip;
 
 import org.junit.After;
 import org.junit.Before;
@@ -44,7 +47,10 @@ import org.robolectric.RobolectricTestRunner;
 import org.robolectric.RuntimeEnvironment;
 import org.robolectric.util.ReflectionHelpers;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @RunWith(RobolectricTestRunner.class)
 public class BatteryTipLoaderTest {
@@ -81,6 +87,7 @@ public class BatteryTipLoaderTest {
 
     @After
     public void tearDown() {
+        BatteryTipLoader.clearCache();
         ReflectionHelpers.setStaticField(AppLabelPredicate.class, "sInstance", null);
         ReflectionHelpers.setStaticField(AppRestrictionPredicate.class, "sInstance", null);
     }
@@ -94,4 +101,106 @@ public class BatteryTipLoaderTest {
             assertThat(batteryTips.get(i).getType()).isEqualTo(TIP_ORDER[i]);
         }
     }
+
+    @Test
+    public void testLoadBackground_sameBatteryUsageStats_reusesHighUsageTip() {
+        final BatteryTip highUsageTip = findTip(mBatteryTipLoader.loadInBackground(),
+                BatteryTip.TipType.HIGH_DEVICE_USAGE);
+
+        final BatteryTip reloadedTip = findTip(mBatteryTipLoader.loadInBackground(),
+                BatteryTip.TipType.HIGH_DEVICE_USAGE);
+
+        assertThat(reloadedTip).isSameInstanceAs(highUsageTip);
+    }
+
+    @Test
+    public void testLoadBackground_newBatteryUsageStats_detectsHighUsageAgain() {
+        final BatteryTip highUsageTip = findTip(mBatteryTipLoader.loadInBackground(),
+                BatteryTip.TipType.HIGH_DEVICE_USAGE);
+        when(mBatteryUsageStats.getStatsEndTimestamp()).thenReturn(1000L);
+
+        final BatteryTip reloadedTip = findTip(mBatteryTipLoader.loadInBackground(),
+                BatteryTip.TipType.HIGH_DEVICE_USAGE);
+
+        assertThat(reloadedTip).isNotSameInstanceAs(highUsageTip);
+    }
+
+    @Test
+    public void testLoadBackground_otherUser_detectsHighUsageAgain() {
+        final BatteryTip highUsageTip = findTip(mBatteryTipLoader.loadInBackground(),
+                BatteryTip.TipType.HIGH_DEVICE_USAGE);
+        doReturn(10).when(mContext).getUserId();
+
+        final BatteryTip reloadedTip = findTip(mBatteryTipLoader.loadInBackground(),
+                BatteryTip.TipType.HIGH_DEVICE_USAGE);
+
+        assertThat(reloadedTip).isNotSameInstanceAs(highUsageTip);
+    }
+
+    @Test
+    public void detectorTask_withinBudget_returnsDetectedTip() {
+        final BatteryTip tip = new HighUsageTip(0 /* lastFullChargeTimeMs */, new ArrayList<>());
+        final BatteryTipLoader.DetectorTask task = new BatteryTipLoader.DetectorTask("test",
+                1000 /* budgetMs */, mock(BatteryTip.class), () -> tip);
+
+        task.start();
+
+        assertThat(task.await()).isSameInstanceAs(tip);
+        assertThat(task.isDetected()).isTrue();
+    }
+
+    @Test
+    public void detectorTask_overBudget_stopsDetectorBeforeReturningFallback() {
+        final BatteryTip fallbackTip = mock(BatteryTip.class);
+        final AtomicBoolean detectorRunning = new AtomicBoolean();
+        final BatteryTipLoader.DetectorTask task = new BatteryTipLoader.DetectorTask("test",
+                10 /* budgetMs */, fallbackTip, () -> {
+                    detectorRunning.set(true);
+                    try {
+                        Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+                    } catch (InterruptedException e) {
+                        // Stop detecting once interrupted.
+                    }
+                    try {
+                        // Keep using the inputs for a moment after the interrupt.
+                        Thread.sleep(50);
+                    } catch (InterruptedException e) {
+                        // Not expected.
+                    }
+                    detectorRunning.set(false);
+                    return mock(BatteryTip.class);
+                });
+
+        task.start();
+
+        assertThat(task.await()).isSameInstanceAs(fallbackTip);
+        assertThat(detectorRunning.get()).isFalse();
+    }
+
+    @Test
+    public void detectorTask_overBudget_isNotDetected() {
+        final BatteryTipLoader.DetectorTask task = new BatteryTipLoader.DetectorTask("test",
+                0 /* budgetMs */, mock(BatteryTip.class), () -> {
+                    try {
+                        Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+                    } catch (InterruptedException e) {
+                        // Stop detecting once interrupted.
+                    }
+                    return mock(BatteryTip.class);
+                });
+
+        task.start();
+        task.await();
+
+        assertThat(task.isDetected()).isFalse();
+    }
+
+    private static BatteryTip findTip(List<BatteryTip> batteryTips, int type) {
+        for (BatteryTip batteryTip : batteryTips) {
+            if (batteryTip.getType() == type) {
+                return batteryTip;
+            }
+        }
+        return null;
+    }
 }
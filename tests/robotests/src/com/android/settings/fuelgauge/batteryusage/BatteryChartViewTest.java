@@ -20,6 +20,8 @@ import static com.google.common.truth.Truth.assertThat;
 import static org.mockito.Mockito.spy;
 
 import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Path;
 import android.os.LocaleList;
 import android.view.View;
 
@@ -34,6 +36,7 @@ import org.mockito.MockitoAnnotations;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.RuntimeEnvironment;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
 
@@ -91,4 +94,30 @@ public final class BatteryChartViewTest {
         mBatteryChartView.onClick(mMockView);
         assertThat(selectedIndex[0]).isEqualTo(BatteryChartViewModel.SELECTED_INDEX_ALL);
     }
+
+    @Test
+    public void draw_selectionChangedAfterFirstFrame_reusesGeometry() {
+        final BatteryChartView batteryChartView = new BatteryChartView(mContext, /* attrs= */ null);
+        final BatteryChartViewModel batteryChartViewModel =
+                new BatteryChartViewModel(
+                        List.of(90, 80, 70, 60),
+                        List.of(0L, 0L, 0L, 0L),
+                        BatteryChartViewModel.AxisLabelPosition.BETWEEN_TRAPEZOIDS,
+                        null);
+        batteryChartView.setViewModel(batteryChartViewModel);
+        batteryChartView.layout(0, 0, 1000, 500);
+        final Canvas canvas = new Canvas();
+        batteryChartView.draw(canvas);
+        final List<Path> trapezoidPaths = new ArrayList<>(batteryChartView.mTrapezoidPaths);
+
+        batteryChartViewModel.setSelectedIndex(1);
+        batteryChartView.draw(canvas);
+
+        assertThat(trapezoidPaths).isNotEmpty();
+        assertThat(batteryChartView.mTrapezoidPaths).hasSize(trapezoidPaths.size());
+        for (int index = 0; index < trapezoidPaths.size(); index++) {
+            assertThat(batteryChartView.mTrapezoidPaths.get(index))
+                    .isSameInstanceAs(trapezoidPaths.get(index));
+        }
+    }
 }
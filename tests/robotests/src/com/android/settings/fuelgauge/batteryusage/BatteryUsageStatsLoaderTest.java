@@ -17,8 +17,11 @@ package com.android.settings.fuelgauge.batteryusage;
 
 import static com.google.common.truth.Truth.assertThat;
 
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import android.content.Context;
@@ -26,6 +29,9 @@ import android.os.BatteryStatsManager;
 import android.os.BatteryUsageStats;
 import android.os.BatteryUsageStatsQuery;
 
+import com.android.settings.fuelgauge.BatteryUsageStatsBroker;
+
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -47,11 +53,17 @@ public class BatteryUsageStatsLoaderTest {
     public void setUp() {
         MockitoAnnotations.initMocks(this);
         mContext = spy(RuntimeEnvironment.application);
+        doReturn(mContext).when(mContext).getApplicationContext();
         doReturn(mBatteryStatsManager)
                 .when(mContext)
                 .getSystemService(Context.BATTERY_STATS_SERVICE);
     }
 
+    @After
+    public void tearDown() {
+        BatteryUsageStatsBroker.invalidate();
+    }
+
     @Test
     public void testLoadInBackground_loadWithoutHistory() {
         BatteryUsageStatsLoader loader =
@@ -81,4 +93,25 @@ public class BatteryUsageStatsLoaderTest {
         assertThat(queryFlags & BatteryUsageStatsQuery.FLAG_BATTERY_USAGE_STATS_INCLUDE_HISTORY)
                 .isNotEqualTo(0);
     }
+
+    @Test
+    public void onDiscardResult_releasesBatteryUsageStats() throws Exception {
+        BatteryUsageStatsLoader loader =
+                new BatteryUsageStatsLoader(mContext, /* includeBatteryHistory */ false);
+        when(mBatteryStatsManager.getBatteryUsageStats(any(BatteryUsageStatsQuery.class)))
+                .thenReturn(mBatteryUsageStats);
+        final BatteryUsageStatsBroker.Ref result = loader.loadInBackground();
+        BatteryUsageStatsBroker.invalidate();
+        verify(mBatteryUsageStats, never()).close();
+
+        loader.onDiscardResult(result);
+
+        verify(mBatteryUsageStats).close();
+    }
+
+    @Test
+    public void onDiscardResult_nullResult_doesNotCrash() {
+        new BatteryUsageStatsLoader(mContext, /* includeBatteryHistory */ false)
+                .onDiscardResult(null);
+    }
 }
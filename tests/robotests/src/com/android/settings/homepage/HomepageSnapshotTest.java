@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2025 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.homepage;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.content.Context;
+import android.content.res.Configuration;
+import android.os.LocaleList;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
+@RunWith(RobolectricTestRunner.class)
+public class HomepageSnapshotTest {
+
+    private Context mContext;
+
+    @Before
+    public void setUp() {
+        mContext = ApplicationProvider.getApplicationContext();
+    }
+
+    @After
+    public void tearDown() {
+        HomepageSnapshot.delete(mContext);
+    }
+
+    @Test
+    public void load_noSnapshot_returnNull() {
+        assertThat(HomepageSnapshot.load(mContext)).isNull();
+    }
+
+    @Test
+    public void load_savedSnapshot_returnEntries() {
+        new HomepageSnapshot(mContext, List.of(
+                new HomepageSnapshot.Entry("key1", "parent", "title1", "summary1", 10,
+                        "com.android.test", 123),
+                new HomepageSnapshot.Entry("key2", null, "title2", null, 20, null, 0)))
+                .save(mContext);
+
+        final HomepageSnapshot snapshot = HomepageSnapshot.load(mContext);
+
+        assertThat(snapshot).isNotNull();
+        assertThat(snapshot.getEntries()).hasSize(2);
+        final HomepageSnapshot.Entry entry1 = snapshot.getEntries().get(0);
+        assertThat(entry1.mKey).isEqualTo("key1");
+        assertThat(entry1.mParentKey).isEqualTo("parent");
+        assertThat(entry1.mTitle).isEqualTo("title1");
+        assertThat(entry1.mSummary).isEqualTo("summary1");
+        assertThat(entry1.mOrder).isEqualTo(10);
+        assertThat(entry1.getIcon().getResPackage()).isEqualTo("com.android.test");
+        final HomepageSnapshot.Entry entry2 = snapshot.getEntries().get(1);
+        assertThat(entry2.mParentKey).isNull();
+        assertThat(entry2.mSummary).isNull();
+        assertThat(entry2.getIcon()).isNull();
+    }
+
+    @Test
+    public void load_localesChanged_returnNull() {
+        new HomepageSnapshot(mContext, List.of(
+                new HomepageSnapshot.Entry("key", null, "title", null, 0, null, 0)))
+                .save(mContext);
+        final Configuration config = new Configuration(
+                mContext.getResources().getConfiguration());
+        config.setLocales(new LocaleList(Locale.JAPAN));
+
+        assertThat(HomepageSnapshot.load(mContext.createConfigurationContext(config))).isNull();
+    }
+
+    @Test
+    public void load_corruptedSnapshot_returnNull() throws IOException {
+        try (FileOutputStream out = new FileOutputStream(
+                new File(mContext.getNoBackupFilesDir(), HomepageSnapshot.FILE_NAME))) {
+            out.write("{not json".getBytes());
+        }
+
+        assertThat(HomepageSnapshot.load(mContext)).isNull();
+    }
+}
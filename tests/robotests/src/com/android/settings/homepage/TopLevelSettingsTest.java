@@ -16,6 +16,8 @@
 
 package com.android.settings.homepage;
 
+import static com.google.common.truth.Truth.assertThat;
+
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.nullable;
 import static org.mockito.Mockito.doReturn;
@@ -37,15 +39,22 @@ import com.android.settings.R;
 import com.android.settings.flags.Flags;
 import com.android.settings.testutils.FakeFeatureFactory;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.robolectric.RobolectricTestRunner;
 import org.robolectric.RuntimeEnvironment;
+import org.robolectric.util.ReflectionHelpers;
+
+import java.util.List;
 
 @RunWith(RobolectricTestRunner.class)
 public class TopLevelSettingsTest {
+    private static final String SNAPSHOT_KEY = "injected_tile_key";
+    private static final String SNAPSHOT_TITLE = "Injected tile";
+
     @Rule
     public final SetFlagsRule mSetFlagsRule = new SetFlagsRule();
     private Context mContext;
@@ -60,9 +69,60 @@ public class TopLevelSettingsTest {
         when(featureFactory.dashboardFeatureProvider
                 .getTilesForCategory(nullable(String.class)))
                 .thenReturn(null);
+        ReflectionHelpers.setStaticField(TopLevelSettings.class, "sDashboardTilesLoaded", false);
         mSettings.onAttach(mContext);
     }
 
+    @After
+    public void tearDown() {
+        ReflectionHelpers.setStaticField(TopLevelSettings.class, "sDashboardTilesLoaded", false);
+    }
+
+    @Test
+    public void shouldLoadDashboardTilesAsync_coldStart_returnTrue() {
+        assertThat(mSettings.shouldLoadDashboardTilesAsync()).isTrue();
+    }
+
+    @Test
+    public void shouldLoadDashboardTilesAsync_tilesLoaded_returnFalse() {
+        mSettings.onCategoriesChanged(null /* categories */);
+        mSettings.onAttach(mContext);
+
+        assertThat(mSettings.shouldLoadDashboardTilesAsync()).isFalse();
+    }
+
+    @Test
+    public void onSnapshotLoaded_beforeTilesLoaded_showsPlaceholders() {
+        final PreferenceScreen screen = setUpPreferenceScreen();
+
+        mSettings.onSnapshotLoaded(createSnapshot());
+
+        final Preference placeholder = screen.findPreference(SNAPSHOT_KEY);
+        assertThat(placeholder).isNotNull();
+        assertThat(placeholder.getTitle().toString()).isEqualTo(SNAPSHOT_TITLE);
+        assertThat(placeholder.isSelectable()).isFalse();
+    }
+
+    @Test
+    public void onSnapshotLoaded_afterTilesLoaded_showsNothing() {
+        final PreferenceScreen screen = setUpPreferenceScreen();
+        mSettings.onCategoriesChanged(null /* categories */);
+
+        mSettings.onSnapshotLoaded(createSnapshot());
+
+        assertThat((Preference) screen.findPreference(SNAPSHOT_KEY)).isNull();
+    }
+
+    @Test
+    public void onCategoriesChanged_removesPlaceholders() {
+        final PreferenceScreen screen = setUpPreferenceScreen();
+        mSettings.onSnapshotLoaded(createSnapshot());
+
+        mSettings.onCategoriesChanged(null /* categories */);
+
+        assertThat((Preference) screen.findPreference(SNAPSHOT_KEY)).isNull();
+    }
+
     @Test
     @DisableFlags(Flags.FLAG_HOMEPAGE_REVAMP)
     public void onCreatePreferences_shouldTintPreferenceIcon() {
@@ -81,4 +141,18 @@ public class TopLevelSettingsTest {
 
         verify(icon).setTint(anyInt());
     }
+
+    private PreferenceScreen setUpPreferenceScreen() {
+        final PreferenceManager preferenceManager = new PreferenceManager(mContext);
+        final PreferenceScreen screen = preferenceManager.createPreferenceScreen(mContext);
+        doReturn(preferenceManager).when(mSettings).getPreferenceManager();
+        doReturn(screen).when(mSettings).getPreferenceScreen();
+        return screen;
+    }
+
+    private HomepageSnapshot createSnapshot() {
+        return new HomepageSnapshot(mContext, List.of(new HomepageSnapshot.Entry(SNAPSHOT_KEY,
+                null /* parentKey */, SNAPSHOT_TITLE, null /* summary */, 0 /* order */,
+                null /* iconPackage */, 0 /* iconResId */)));
+    }
 }
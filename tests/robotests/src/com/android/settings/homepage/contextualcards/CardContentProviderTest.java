@@ -26,6 +26,7 @@ import android.content.ContentResolver;
 import android.content.ContentValues;
 import android.content.Context;
 import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
 import android.net.Uri;
 import android.os.Build;
 
@@ -110,6 +111,80 @@ public class CardContentProviderTest {
         assertThat(queryDismissedTimestamp()).isEqualTo(0L);
     }
 
+    @Test
+    public void writeCards_newCards_shouldInsertRowsAndChange() {
+        final SQLiteDatabase database = createInMemoryDatabase();
+
+        final CardContentProvider.WriteResult result = CardContentProvider.writeCards(database,
+                CardDatabaseHelper.CARD_TABLE, generateTwoRows(), false /* keepDismissal */);
+
+        assertThat(result.mNumInserted).isEqualTo(2);
+        assertThat(result.mChanged).isTrue();
+        assertThat(getRowCount(database)).isEqualTo(2);
+    }
+
+    @Test
+    public void writeCards_sameCards_shouldNotChange() {
+        final SQLiteDatabase database = createInMemoryDatabase();
+        CardContentProvider.writeCards(database, CardDatabaseHelper.CARD_TABLE,
+                generateTwoRows(), false /* keepDismissal */);
+
+        final CardContentProvider.WriteResult result = CardContentProvider.writeCards(database,
+                CardDatabaseHelper.CARD_TABLE, generateTwoRows(), false /* keepDismissal */);
+
+        assertThat(result.mNumInserted).isEqualTo(2);
+        assertThat(result.mChanged).isFalse();
+    }
+
+    @Test
+    public void writeCards_cardChanged_shouldUpdateRowAndChange() {
+        final SQLiteDatabase database = createInMemoryDatabase();
+        CardContentProvider.writeCards(database, CardDatabaseHelper.CARD_TABLE,
+                generateTwoRows(), false /* keepDismissal */);
+        final ContentValues[] cards = generateTwoRows();
+        cards[0].put(CardDatabaseHelper.CardColumns.SCORE, 0.5);
+
+        final CardContentProvider.WriteResult result = CardContentProvider.writeCards(database,
+                CardDatabaseHelper.CARD_TABLE, cards, false /* keepDismissal */);
+
+        assertThat(result.mChanged).isTrue();
+        assertThat(getRowCount(database)).isEqualTo(2);
+        try (Cursor cursor = database.query(CardDatabaseHelper.CARD_TABLE,
+                new String[]{CardDatabaseHelper.CardColumns.SCORE},
+                CardDatabaseHelper.CardColumns.NAME + "=?", new String[]{"auto_rotate"},
+                null /* groupBy */, null /* having */, null /* orderBy */)) {
+            cursor.moveToFirst();
+            assertThat(cursor.getDouble(0)).isEqualTo(0.5);
+        }
+    }
+
+    @Test
+    public void writeCards_cardRemoved_shouldDeleteRowAndChange() {
+        final SQLiteDatabase database = createInMemoryDatabase();
+        CardContentProvider.writeCards(database, CardDatabaseHelper.CARD_TABLE,
+                generateTwoRows(), false /* keepDismissal */);
+
+        final CardContentProvider.WriteResult result = CardContentProvider.writeCards(database,
+                CardDatabaseHelper.CARD_TABLE, new ContentValues[]{generateOneRow()},
+                false /* keepDismissal */);
+
+        assertThat(result.mNumInserted).isEqualTo(1);
+        assertThat(result.mChanged).isTrue();
+        assertThat(getRowCount(database)).isEqualTo(1);
+    }
+
+    @Test
+    public void writeCards_keepDismissalTimestamp_sameCards_shouldNotChange() {
+        final SQLiteDatabase database = createInMemoryDatabase();
+        CardContentProvider.writeCards(database, CardDatabaseHelper.CARD_TABLE,
+                generateTwoRowsWithDismissTimestamp(), true /* keepDismissal */);
+
+        final CardContentProvider.WriteResult result = CardContentProvider.writeCards(database,
+                CardDatabaseHelper.CARD_TABLE, generateTwoRows(), true /* keepDismissal */);
+
+        assertThat(result.mChanged).isFalse();
+    }
+
     @Test
     @Ignore
     public void cardData_query() {
@@ -197,6 +272,20 @@ public class CardContentProviderTest {
         mProvider.getTableFromMatch(invalid_Uri);
     }
 
+    private static SQLiteDatabase createInMemoryDatabase() {
+        final SQLiteDatabase database = SQLiteDatabase.create(null /* factory */);
+        database.execSQL(CardDatabaseHelper.CREATE_CARD_TABLE);
+        return database;
+    }
+
+    private static int getRowCount(SQLiteDatabase database) {
+        try (Cursor cursor = database.query(CardDatabaseHelper.CARD_TABLE, null /* columns */,
+                null /* selection */, null /* selectionArgs */, null /* groupBy */,
+                null /* having */, null /* orderBy */)) {
+            return cursor.getCount();
+        }
+    }
+
     private ContentValues generateOneRow() {
         final ContentValues values = new ContentValues();
         values.put(CardDatabaseHelper.CardColumns.NAME, "auto_rotate");
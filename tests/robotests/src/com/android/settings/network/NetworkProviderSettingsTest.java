@@ -31,6 +31,7 @@ import static com.google.common.truth.Truth.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
@@ -118,6 +119,8 @@ public class NetworkProviderSettingsTest {
     private static final int XML_RES = R.xml.wifi_tether_settings;
     private static final int NUM_NETWORKS = 4;
     private static final String FAKE_URI_STRING = "fakeuri";
+    private static final String WIFI_ENTRY_KEY = "wifi_entry_key";
+    private static final String OTHER_WIFI_ENTRY_KEY = "other_wifi_entry_key";
 
     @Rule
     public final MockitoRule mMockitoRule = MockitoJUnit.rule();
@@ -420,6 +423,21 @@ public class NetworkProviderSettingsTest {
         verify(mNetworkProviderSettings).changeNextButtonState(anyBoolean());
     }
 
+    @Test
+    public void scheduleWifiEntryPreferencesUpdate_burst_mergesIntoOneDeferredUpdate() {
+        final View view = mock(View.class);
+        doReturn(view).when(mNetworkProviderSettings).getView();
+
+        mNetworkProviderSettings.scheduleWifiEntryPreferencesUpdate();
+        mNetworkProviderSettings.scheduleWifiEntryPreferencesUpdate();
+        mNetworkProviderSettings.scheduleWifiEntryPreferencesUpdate();
+
+        verify(mNetworkProviderSettings).updateWifiEntryPreferences();
+        verify(view).postDelayed(
+                eq(mNetworkProviderSettings.mThrottledUpdateWifiEntryPreferencesRunnable),
+                anyLong());
+    }
+
     @Test
     public void onWifiEntriesChanged_activityIsNull_shouldNotCrash() {
         doReturn(null).when(mNetworkProviderSettings).getActivity();
@@ -668,6 +686,43 @@ public class NetworkProviderSettingsTest {
         verify(mNetworkProviderSettings.mWifiEntryPreferenceCategory, never()).setVisible(true);
     }
 
+    @Test
+    public void updateWifiEntryPreferences_sameKeyNewEntry_rebindsSamePreference() {
+        final PreferenceCategory category = setUpWifiEntryPreferenceCategory();
+        final WifiEntry newWifiEntry = mock(WifiEntry.class);
+        when(mWifiEntry.getKey()).thenReturn(WIFI_ENTRY_KEY);
+        when(newWifiEntry.getKey()).thenReturn(WIFI_ENTRY_KEY);
+        when(mMockWifiPickerTracker.getWifiEntries()).thenReturn(List.of(mWifiEntry));
+        mNetworkProviderSettings.updateWifiEntryPreferences();
+        final LongPressWifiEntryPreference pref = category.findPreference(WIFI_ENTRY_KEY);
+
+        when(mMockWifiPickerTracker.getWifiEntries()).thenReturn(List.of(newWifiEntry));
+        mNetworkProviderSettings.updateWifiEntryPreferences();
+
+        assertThat(pref).isNotNull();
+        assertThat((Preference) category.findPreference(WIFI_ENTRY_KEY)).isSameInstanceAs(pref);
+        assertThat(pref.getWifiEntry()).isSameInstanceAs(newWifiEntry);
+        verify(mWifiEntry).setListener(null);
+    }
+
+    @Test
+    public void updateWifiEntryPreferences_keyRemoved_removesOnlyStalePreference() {
+        final PreferenceCategory category = setUpWifiEntryPreferenceCategory();
+        final WifiEntry otherWifiEntry = mock(WifiEntry.class);
+        when(mWifiEntry.getKey()).thenReturn(WIFI_ENTRY_KEY);
+        when(otherWifiEntry.getKey()).thenReturn(OTHER_WIFI_ENTRY_KEY);
+        when(mMockWifiPickerTracker.getWifiEntries())
+                .thenReturn(List.of(mWifiEntry, otherWifiEntry));
+        mNetworkProviderSettings.updateWifiEntryPreferences();
+        final Preference pref = category.findPreference(WIFI_ENTRY_KEY);
+
+        when(mMockWifiPickerTracker.getWifiEntries()).thenReturn(List.of(mWifiEntry));
+        mNetworkProviderSettings.updateWifiEntryPreferences();
+
+        assertThat((Preference) category.findPreference(WIFI_ENTRY_KEY)).isSameInstanceAs(pref);
+        assertThat((Preference) category.findPreference(OTHER_WIFI_ENTRY_KEY)).isNull();
+    }
+
     @Test
     public void setWifiScanMessage_wifiOnScanOn_footerIsInvisible() {
         when(mWifiManager.isScanAlwaysAvailable()).thenReturn(true);
@@ -989,6 +1044,17 @@ public class NetworkProviderSettingsTest {
         assertThat(pref.getSummary()).isEqualTo("Disconnected");
     }
 
+    private PreferenceCategory setUpWifiEntryPreferenceCategory() {
+        final PreferenceScreen screen =
+                new PreferenceManager(mContext).createPreferenceScreen(mContext);
+        final PreferenceCategory category = new PreferenceCategory(mContext);
+        screen.addPreference(category);
+        mNetworkProviderSettings.mWifiEntryPreferenceCategory = category;
+        doReturn(mock(View.class)).when(mNetworkProviderSettings).getView();
+        when(mMockWifiPickerTracker.getWifiState()).thenReturn(WifiManager.WIFI_STATE_ENABLED);
+        return category;
+    }
+
     @Implements(PreferenceFragmentCompat.class)
     public static class ShadowPreferenceFragmentCompat {
 
@@ -0,0 +1,188 @@
+/*
+ * Copyright (C) 2025 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.notification.history;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.robolectric.Shadows.shadowOf;
+
+import android.app.NotificationHistory.HistoricalNotification;
+import android.content.Context;
+import android.os.Looper;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import com.android.settings.notification.NotificationBackend;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+public class HistoryLoaderTest {
+    private static final int PACKAGE_COUNT = 2 * HistoryLoader.PAGE_SIZE + 1;
+
+    private final List<Page> mPages = new ArrayList<>();
+    private HistoryLoader mLoader;
+
+    @Before
+    public void setUp() {
+        final Context context = ApplicationProvider.getApplicationContext();
+        mLoader = new HistoryLoader(context, new NotificationBackend(),
+                context.getPackageManager());
+    }
+
+    @Test
+    public void groupByPackage_groupsByUidAndPackage_mostRecentFirst() {
+        final List<HistoricalNotification> notifications = List.of(
+                newNotification("a", 1, 300),
+                newNotification("b", 1, 200),
+                newNotification("a", 2, 100),
+                newNotification("a", 1, 50));
+
+        final List<NotificationHistoryPackage> packages =
+                HistoryLoader.groupByPackage(notifications.iterator(), null);
+
+        assertThat(packages).hasSize(3);
+        assertPackage(packages.get(0), "a", 1);
+        assertThat(packages.get(0).notifications).hasSize(2);
+        assertPackage(packages.get(1), "b", 1);
+        assertPackage(packages.get(2), "a", 2);
+    }
+
+    @Test
+    public void groupByPackage_firstPageKnown_deliveredBeforeRestIsRead() {
+        final List<HistoricalNotification> notifications = newHistory();
+        final List<List<NotificationHistoryPackage>> firstPages = new ArrayList<>();
+        final int[] readCountAtFirstPage = new int[1];
+        final int[] readCount = new int[1];
+
+        HistoryLoader.groupByPackage(notifications.stream()
+                .peek(hn -> readCount[0]++).iterator(), page -> {
+                    firstPages.add(page);
+                    readCountAtFirstPage[0] = readCount[0];
+                });
+
+        assertThat(firstPages).hasSize(1);
+        assertThat(firstPages.get(0)).hasSize(HistoryLoader.PAGE_SIZE);
+        for (int i = 0; i < HistoryLoader.PAGE_SIZE; i++) {
+            assertPackage(firstPages.get(0).get(i), "pkg" + i, i);
+            assertThat(firstPages.get(0).get(i).notifications).isEmpty();
+        }
+        assertThat(readCountAtFirstPage[0]).isLessThan(notifications.size());
+    }
+
+    @Test
+    public void groupByPackage_fewerPackagesThanPage_noFirstPage() {
+        final List<List<NotificationHistoryPackage>> firstPages = new ArrayList<>();
+
+        HistoryLoader.groupByPackage(List.of(newNotification("a", 1, 100)).iterator(),
+                firstPages::add);
+
+        assertThat(firstPages).isEmpty();
+    }
+
+    @Test
+    public void loadPages_postsPartialFirstPageThenAllPages() {
+        mLoader.loadPages(newHistory().iterator(), this::onPageLoaded);
+        shadowOf(Looper.getMainLooper()).idle();
+
+        assertThat(mPages).hasSize(4);
+        assertPage(mPages.get(0), 0, HistoryLoader.PAGE_SIZE, HistoryLoader.UNKNOWN_COUNT);
+        assertPage(mPages.get(1), 0, HistoryLoader.PAGE_SIZE, PACKAGE_COUNT);
+        assertPage(mPages.get(2), HistoryLoader.PAGE_SIZE, HistoryLoader.PAGE_SIZE,
+                PACKAGE_COUNT);
+        assertPage(mPages.get(3), 2 * HistoryLoader.PAGE_SIZE, 1, PACKAGE_COUNT);
+        // The complete first page has the older notification read after the partial page.
+        assertThat(mPages.get(1).mPackages.get(0).notifications).hasSize(2);
+    }
+
+    @Test
+    public void loadPages_emptyHistory_postsEmptyPage() {
+        mLoader.loadPages(new ArrayList<HistoricalNotification>().iterator(),
+                this::onPageLoaded);
+        shadowOf(Looper.getMainLooper()).idle();
+
+        assertThat(mPages).hasSize(1);
+        assertPage(mPages.get(0), 0, 0, 0);
+    }
+
+    @Test
+    public void loadPages_cancelled_postsNothing() {
+        mLoader.loadPages(newHistory().iterator(), this::onPageLoaded);
+
+        mLoader.cancel();
+        shadowOf(Looper.getMainLooper()).idle();
+
+        assertThat(mPages).isEmpty();
+    }
+
+    private void onPageLoaded(List<NotificationHistoryPackage> packages, int startIndex,
+            int totalCount) {
+        mPages.add(new Page(packages, startIndex, totalCount));
+    }
+
+    /** One notification per package, most recent first, then an older one of the first. */
+    private static List<HistoricalNotification> newHistory() {
+        final List<HistoricalNotification> notifications = new ArrayList<>();
+        for (int i = 0; i < PACKAGE_COUNT; i++) {
+            notifications.add(newNotification("pkg" + i, i, 1000 - i));
+        }
+        notifications.add(newNotification("pkg0", 0, 1));
+        return notifications;
+    }
+
+    private static HistoricalNotification newNotification(String pkg, int uid, long postedTime) {
+        return new HistoricalNotification.Builder()
+                .setPackage(pkg)
+                .setUid(uid)
+                .setUserId(0)
+                .setPostedTimeMs(postedTime)
+                .setChannelId("channel")
+                .setChannelName("channel")
+                .setTitle("title")
+                .setText("text")
+                .build();
+    }
+
+    private static void assertPackage(NotificationHistoryPackage nhp, String pkg, int uid) {
+        assertThat(nhp.pkgName).isEqualTo(pkg);
+        assertThat(nhp.uid).isEqualTo(uid);
+    }
+
+    private static void assertPage(Page page, int startIndex, int size, int totalCount) {
+        assertThat(page.mStartIndex).isEqualTo(startIndex);
+        assertThat(page.mPackages).hasSize(size);
+        assertThat(page.mTotalCount).isEqualTo(totalCount);
+    }
+
+    private static class Page {
+        final List<NotificationHistoryPackage> mPackages;
+        final int mStartIndex;
+        final int mTotalCount;
+
+        Page(List<NotificationHistoryPackage> packages, int startIndex, int totalCount) {
+            mPackages = packages;
+            mStartIndex = startIndex;
+            mTotalCount = totalCount;
+        }
+    }
+}
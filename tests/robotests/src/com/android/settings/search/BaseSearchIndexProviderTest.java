@@ -20,6 +20,8 @@ import static com.google.common.truth.Truth.assertThat;
 
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 import android.content.Context;
 import android.provider.SearchIndexableResource;
@@ -232,4 +234,54 @@ public class BaseSearchIndexProviderTest {
 
         assertThat(mIndexProvider.getDynamicRawDataToIndex(mContext, true)).isNotEmpty();
     }
+
+    @Test
+    public void getDynamicRawDataToIndex_hasDynamicRaw_shouldCreateControllersEachTime() {
+        List<AbstractPreferenceController> controllers = new ArrayList<>();
+        controllers.add(new AvailablePreferenceController(mContext));
+        doReturn(controllers).when(mIndexProvider).createPreferenceControllers(mContext);
+
+        mIndexProvider.getDynamicRawDataToIndex(mContext, true);
+
+        assertThat(mIndexProvider.getDynamicRawDataToIndex(mContext, true)).isNotEmpty();
+        verify(mIndexProvider, times(2)).createPreferenceControllers(mContext);
+    }
+
+    @Test
+    public void getDynamicRawDataToIndex_noDynamicRawInXml_shouldNotCreateXmlControllersAgain() {
+        List<AbstractPreferenceController> controllers = new ArrayList<>();
+        controllers.add(new NotAvailablePreferenceController(mContext));
+        doReturn(controllers).when(mIndexProvider).createPreferenceControllers(mContext);
+
+        mIndexProvider.getDynamicRawDataToIndex(mContext, true);
+
+        assertThat(mIndexProvider.getDynamicRawDataToIndex(mContext, true)).isEmpty();
+        verify(mIndexProvider).getXmlResourcesToIndex(mContext, true);
+    }
+
+    @Test
+    public void getDynamicRawDataToIndex_controllersFromCodeChanged_shouldIndexNewControllers() {
+        List<AbstractPreferenceController> controllers = new ArrayList<>();
+        controllers.add(new NotAvailablePreferenceController(mContext));
+        List<AbstractPreferenceController> newControllers = new ArrayList<>();
+        newControllers.add(new AvailablePreferenceController(mContext));
+        doReturn(controllers).doReturn(newControllers)
+                .when(mIndexProvider).createPreferenceControllers(mContext);
+
+        assertThat(mIndexProvider.getDynamicRawDataToIndex(mContext, true)).isEmpty();
+
+        assertThat(mIndexProvider.getDynamicRawDataToIndex(mContext, true)).isNotEmpty();
+    }
+
+    @Test
+    public void indexesDynamicRawData_overridesUpdateDynamicRawDataToIndex_returnTrue() {
+        assertThat(BaseSearchIndexProvider.indexesDynamicRawData(
+                new AvailablePreferenceController(mContext))).isTrue();
+    }
+
+    @Test
+    public void indexesDynamicRawData_doesNotOverrideUpdateDynamicRawDataToIndex_returnFalse() {
+        assertThat(BaseSearchIndexProvider.indexesDynamicRawData(
+                new NotAvailablePreferenceController(mContext))).isFalse();
+    }
 }
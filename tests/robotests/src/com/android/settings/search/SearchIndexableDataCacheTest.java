@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2025 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.search;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.content.Context;
+import android.provider.Settings;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.RuntimeEnvironment;
+
+import java.util.Collections;
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+public class SearchIndexableDataCacheTest {
+    private static final Object[] XML_RESOURCE_ROW = {1, 2, "class", 0, null, "package", null};
+    private static final Object[] RAW_DATA_ROW = {"title", null, "", 3, "key", 0};
+
+    private Context mContext;
+    private SearchIndexableDataCache mCache;
+
+    @Before
+    public void setUp() {
+        mContext = ApplicationProvider.getApplicationContext();
+        mCache = new SearchIndexableDataCache(mContext);
+    }
+
+    @Test
+    public void read_nothingWritten_returnsNull() {
+        assertThat(mCache.read()).isNull();
+        assertThat(mCache.isUpToDate()).isFalse();
+    }
+
+    @Test
+    public void read_afterWrite_returnsRows() {
+        write();
+
+        final SearchIndexableDataCache.Rows rows = mCache.read();
+
+        assertThat(mCache.isUpToDate()).isTrue();
+        assertThat(rows.mXmlResources).hasSize(1);
+        assertThat(rows.mXmlResources.get(0)).asList()
+                .containsExactlyElementsIn(XML_RESOURCE_ROW).inOrder();
+        assertThat(rows.mRawData).hasSize(1);
+        assertThat(rows.mRawData.get(0)).asList()
+                .containsExactlyElementsIn(RAW_DATA_ROW).inOrder();
+    }
+
+    @Test
+    public void read_otherInstance_returnsRows() {
+        write();
+
+        assertThat(new SearchIndexableDataCache(mContext).read()).isNotNull();
+    }
+
+    @Test
+    public void read_localeChanged_returnsNull() {
+        write();
+
+        RuntimeEnvironment.setQualifiers("fr-rFR");
+
+        assertThat(mCache.read()).isNull();
+        assertThat(mCache.isUpToDate()).isFalse();
+    }
+
+    @Test
+    public void read_afterReboot_returnsNull() {
+        Settings.Global.putInt(mContext.getContentResolver(), Settings.Global.BOOT_COUNT, 1);
+        write();
+
+        Settings.Global.putInt(mContext.getContentResolver(), Settings.Global.BOOT_COUNT, 2);
+
+        assertThat(mCache.read()).isNull();
+        assertThat(mCache.isUpToDate()).isFalse();
+    }
+
+    @Test
+    public void read_afterClear_returnsNull() {
+        write();
+
+        mCache.clear();
+
+        assertThat(mCache.read()).isNull();
+    }
+
+    private void write() {
+        final List<Object[]> xmlResources = Collections.singletonList(XML_RESOURCE_ROW);
+        final List<Object[]> rawData = Collections.singletonList(RAW_DATA_ROW);
+        mCache.write(xmlResources, rawData);
+    }
+}
@@ -131,6 +131,22 @@ public class SettingsSearchIndexablesProviderTest {
         assertThat(cursor.getString(6)).isNull();
     }
 
+    @Test
+    public void testRawColumnFetched_warmedUp_servesCachedRows() {
+        SearchIndexWarmUpJobService.warmUp(mContext);
+        mFakeFeatureFactory.searchFeatureProvider.getSearchIndexableResources()
+                .getProviderValues().clear();
+        Uri rawUri = Uri.parse(BASE_AUTHORITY + SearchIndexablesContract.INDEXABLES_RAW_PATH);
+
+        final Cursor cursor = mProvider.query(rawUri,
+                SearchIndexablesContract.INDEXABLES_RAW_COLUMNS, null, null, null);
+
+        cursor.moveToFirst();
+        assertThat(cursor.getString(1)).isEqualTo(FakeSettingsFragment.TITLE);
+        assertThat(cursor.getInt(8)).isEqualTo(FakeSettingsFragment.ICON);
+        assertThat(cursor.getString(12)).isEqualTo(FakeSettingsFragment.KEY);
+    }
+
     @Test
     @Config(qualifiers = "mcc999")
     public void testNonIndexablesColumnFetched() {
@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2025 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.slices;
+
+import static com.android.settings.slices.SliceBackgroundWorker.MAX_SLICE_UPDATE_THROTTLE_INTERVAL;
+import static com.android.settings.slices.SliceBackgroundWorker.SLICE_UPDATE_THROTTLE_INTERVAL;
+import static com.android.settings.slices.SliceBackgroundWorker.getNextThrottleInterval;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import static org.junit.Assert.assertThrows;
+
+import android.content.Context;
+import android.net.Uri;
+
+import androidx.test.core.app.ApplicationProvider;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+@Config(shadows = ShadowSliceBackgroundWorker.class)
+public class SliceBackgroundWorkerTest {
+    private static final Uri URI = Uri.parse("content://com.android.settings.slices/test");
+
+    private TestWorker mWorker;
+
+    @Before
+    public void setUp() {
+        mWorker = new TestWorker(ApplicationProvider.getApplicationContext(), URI);
+    }
+
+    @Test
+    public void getResults_returnsSameSnapshot() {
+        mWorker.update(Arrays.asList("a", "b"));
+
+        assertThat(mWorker.getResults()).isSameInstanceAs(mWorker.getResults());
+        assertThat(mWorker.getResults()).containsExactly("a", "b").inOrder();
+    }
+
+    @Test
+    public void getResults_isUnmodifiable() {
+        mWorker.update(Arrays.asList("a", "b"));
+
+        assertThrows(UnsupportedOperationException.class, () -> mWorker.getResults().add("c"));
+    }
+
+    @Test
+    public void updateResults_resultsModifiedAfterwards_snapshotUnchanged() {
+        final List<String> results = new ArrayList<>(Arrays.asList("a", "b"));
+        mWorker.update(results);
+
+        results.add("c");
+
+        assertThat(mWorker.getResults()).containsExactly("a", "b").inOrder();
+    }
+
+    @Test
+    public void updateResults_sameResults_keepsSnapshot() {
+        mWorker.update(Arrays.asList("a", "b"));
+        final List<String> snapshot = mWorker.getResults();
+
+        mWorker.update(Arrays.asList("a", "b"));
+
+        assertThat(mWorker.getResults()).isSameInstanceAs(snapshot);
+    }
+
+    @Test
+    public void updateResults_changedResults_updatesSnapshot() {
+        mWorker.update(Arrays.asList("a", "b"));
+
+        mWorker.update(Arrays.asList("b", "a"));
+
+        assertThat(mWorker.getResults()).containsExactly("b", "a").inOrder();
+    }
+
+    @Test
+    public void updateResults_null_clearsSnapshot() {
+        mWorker.update(Arrays.asList("a", "b"));
+
+        mWorker.update(null);
+
+        assertThat(mWorker.getResults()).isNull();
+    }
+
+    @Test
+    public void getNextThrottleInterval_changedWithinInterval_doublesInterval() {
+        assertThat(getNextThrottleInterval(SLICE_UPDATE_THROTTLE_INTERVAL,
+                SLICE_UPDATE_THROTTLE_INTERVAL - 1))
+                .isEqualTo(SLICE_UPDATE_THROTTLE_INTERVAL * 2);
+    }
+
+    @Test
+    public void getNextThrottleInterval_keepsChanging_capsAtMaxInterval() {
+        long throttleInterval = SLICE_UPDATE_THROTTLE_INTERVAL;
+        for (int i = 0; i < 5; i++) {
+            throttleInterval = getNextThrottleInterval(throttleInterval, 0L);
+        }
+
+        assertThat(throttleInterval).isEqualTo(MAX_SLICE_UPDATE_THROTTLE_INTERVAL);
+    }
+
+    @Test
+    public void getNextThrottleInterval_changedWithinTwiceInterval_keepsInterval() {
+        assertThat(getNextThrottleInterval(MAX_SLICE_UPDATE_THROTTLE_INTERVAL,
+                MAX_SLICE_UPDATE_THROTTLE_INTERVAL * 2))
+                .isEqualTo(MAX_SLICE_UPDATE_THROTTLE_INTERVAL);
+    }
+
+    @Test
+    public void getNextThrottleInterval_stableForTwiceInterval_resetsInterval() {
+        assertThat(getNextThrottleInterval(MAX_SLICE_UPDATE_THROTTLE_INTERVAL,
+                MAX_SLICE_UPDATE_THROTTLE_INTERVAL * 2 + 1))
+                .isEqualTo(SLICE_UPDATE_THROTTLE_INTERVAL);
+    }
+
+    private static class TestWorker extends SliceBackgroundWorker<String> {
+
+        TestWorker(Context context, Uri uri) {
+            super(context, uri);
+        }
+
+        void update(List<String> results) {
+            updateResults(results);
+        }
+
+        @Override
+        protected void onSlicePinned() {
+        }
+
+        @Override
+        protected void onSliceUnpinned() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -114,6 +114,16 @@ public class SliceDataConverterTest {
         }
     }
 
+    @Test
+    public void pool_equalStrings_returnsFirstInstance() {
+        final String controller = new String(FAKE_CONTROLLER_NAME);
+
+        assertThat(mSliceDataConverter.pool(controller)).isSameInstanceAs(controller);
+        assertThat(mSliceDataConverter.pool(new String(FAKE_CONTROLLER_NAME)))
+                .isSameInstanceAs(controller);
+        assertThat(mSliceDataConverter.pool(null)).isNull();
+    }
+
     private void assertFakeSlice(SliceData fakeSlice) {
         assertThat(fakeSlice.getKey()).isEqualTo(FAKE_KEY);
         assertThat(fakeSlice.getTitle()).isEqualTo(FAKE_TITLE);
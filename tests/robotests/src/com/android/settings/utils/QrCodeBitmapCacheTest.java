@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2025 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.utils;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.graphics.Bitmap;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+@RunWith(RobolectricTestRunner.class)
+public class QrCodeBitmapCacheTest {
+    private static final String CONTENTS = "WIFI:S:ssid;T:WPA;P:password;;";
+    private static final int SIZE = 100;
+    private static final int MARGIN = 4;
+
+    private final Queue<Runnable> mBackgroundTasks = new ArrayDeque<>();
+    private final Queue<Runnable> mMainTasks = new ArrayDeque<>();
+    private QrCodeBitmapCache mQrCodeCache;
+
+    @Before
+    public void setUp() {
+        mQrCodeCache = new QrCodeBitmapCache(QrCodeBitmapCache.MAX_CACHE_SIZE_BYTES,
+                mBackgroundTasks::add, mMainTasks::add);
+    }
+
+    @Test
+    public void getQrCode_twice_returnsCachedBitmap() {
+        final Bitmap bitmap = mQrCodeCache.getQrCode(CONTENTS, SIZE, MARGIN);
+
+        assertThat(bitmap).isNotNull();
+        assertThat(mQrCodeCache.getQrCode(CONTENTS, SIZE, MARGIN)).isSameInstanceAs(bitmap);
+    }
+
+    @Test
+    public void getQrCode_otherSize_returnsOtherBitmap() {
+        final Bitmap bitmap = mQrCodeCache.getQrCode(CONTENTS, SIZE, MARGIN);
+
+        assertThat(mQrCodeCache.getQrCode(CONTENTS, SIZE * 2, MARGIN)).isNotSameInstanceAs(bitmap);
+    }
+
+    @Test
+    public void loadQrCode_cached_invokesCallbackSynchronously() {
+        final Bitmap bitmap = mQrCodeCache.getQrCode(CONTENTS, SIZE, MARGIN);
+        final Bitmap[] loaded = new Bitmap[1];
+
+        mQrCodeCache.loadQrCode(CONTENTS, SIZE, MARGIN, result -> loaded[0] = result);
+
+        assertThat(loaded[0]).isSameInstanceAs(bitmap);
+    }
+
+    @Test
+    public void getKey_differentMargin_differentKey() {
+        assertThat(QrCodeBitmapCache.getKey(CONTENTS, SIZE, MARGIN))
+                .isNotEqualTo(QrCodeBitmapCache.getKey(CONTENTS, SIZE, MARGIN + 1));
+    }
+
+    @Test
+    public void getKey_doesNotContainContents() {
+        assertThat(QrCodeBitmapCache.getKey(CONTENTS, SIZE, MARGIN)).doesNotContain("password");
+    }
+
+    @Test
+    public void evict_cached_encodesAgain() {
+        final Bitmap bitmap = mQrCodeCache.getQrCode(CONTENTS, SIZE, MARGIN);
+
+        mQrCodeCache.evict(CONTENTS, SIZE, MARGIN);
+
+        assertThat(mQrCodeCache.getQrCode(CONTENTS, SIZE, MARGIN)).isNotSameInstanceAs(bitmap);
+    }
+
+    @Test
+    public void loadQrCode_notCached_encodesInBackgroundAndInvokesCallbackOnMainThread() {
+        final List<Bitmap> loaded = new ArrayList<>();
+
+        mQrCodeCache.loadQrCode(CONTENTS, SIZE, MARGIN, loaded::add);
+
+        assertThat(loaded).isEmpty();
+        assertThat(mBackgroundTasks).hasSize(1);
+
+        runTasks(mBackgroundTasks);
+        assertThat(loaded).isEmpty();
+
+        runTasks(mMainTasks);
+        assertThat(loaded).hasSize(1);
+        assertThat(loaded.get(0)).isNotNull();
+        assertThat(mQrCodeCache.getQrCode(CONTENTS, SIZE, MARGIN))
+                .isSameInstanceAs(loaded.get(0));
+    }
+
+    @Test
+    public void loadQrCode_concurrentRequests_shareOneEncode() {
+        final List<Bitmap> loaded = new ArrayList<>();
+
+        mQrCodeCache.loadQrCode(CONTENTS, SIZE, MARGIN, loaded::add);
+        mQrCodeCache.loadQrCode(CONTENTS, SIZE, MARGIN, loaded::add);
+
+        assertThat(mBackgroundTasks).hasSize(1);
+
+        runTasks(mBackgroundTasks);
+        runTasks(mMainTasks);
+        assertThat(loaded).hasSize(2);
+        assertThat(loaded.get(0)).isNotNull();
+        assertThat(loaded.get(1)).isSameInstanceAs(loaded.get(0));
+    }
+
+    @Test
+    public void loadQrCode_evictedWhileEncoding_invokesCallbackWithoutCaching() {
+        final List<Bitmap> loaded = new ArrayList<>();
+        mQrCodeCache.loadQrCode(CONTENTS, SIZE, MARGIN, loaded::add);
+
+        mQrCodeCache.evict(CONTENTS, SIZE, MARGIN);
+        runTasks(mBackgroundTasks);
+        runTasks(mMainTasks);
+
+        assertThat(loaded).hasSize(1);
+        assertThat(loaded.get(0)).isNotNull();
+        assertThat(mQrCodeCache.getQrCode(CONTENTS, SIZE, MARGIN))
+                .isNotSameInstanceAs(loaded.get(0));
+    }
+
+    private static void runTasks(Queue<Runnable> tasks) {
+        Runnable task;
+        while ((task = tasks.poll()) != null) {
+            task.run();
+        }
+    }
+}
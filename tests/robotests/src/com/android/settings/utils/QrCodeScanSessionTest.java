@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2025 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.utils;
+
+import static com.google.common.truth.Truth.assertThat;
+
+import android.graphics.Rect;
+import android.os.SystemClock;
+import android.util.Size;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class QrCodeScanSessionTest {
+    private static final String QR_CODE = "invalid";
+    private static final String OTHER_QR_CODE = "other";
+
+    private QrCodeScanSession mScanSession;
+
+    @Before
+    public void setUp() {
+        mScanSession = new QrCodeScanSession("test");
+        mScanSession.onScanStarted();
+    }
+
+    @Test
+    public void getFramePosition_returnsSquareOfPreviewHeight() {
+        assertThat(QrCodeScanSession.getFramePosition(new Size(640, 480)))
+                .isEqualTo(new Rect(0, 0, 480, 480));
+    }
+
+    @Test
+    public void isRecentlyRejected_rejectedQrCode_returnsTrue() {
+        mScanSession.onRejected(QR_CODE);
+
+        assertThat(mScanSession.isRecentlyRejected(QR_CODE)).isTrue();
+        assertThat(mScanSession.getSkippedValidationCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void isRecentlyRejected_otherQrCode_returnsFalse() {
+        mScanSession.onRejected(QR_CODE);
+
+        assertThat(mScanSession.isRecentlyRejected(OTHER_QR_CODE)).isFalse();
+    }
+
+    @Test
+    public void isRecentlyRejected_afterTimeout_returnsFalse() {
+        mScanSession.onRejected(QR_CODE);
+
+        SystemClock.sleep(QrCodeScanSession.REJECTED_QR_CODE_TIMEOUT_MS);
+
+        assertThat(mScanSession.isRecentlyRejected(QR_CODE)).isFalse();
+    }
+
+    @Test
+    public void isRecentlyRejected_countsValidationsAndSkippedValidations() {
+        mScanSession.isRecentlyRejected(QR_CODE);
+        mScanSession.onRejected(QR_CODE);
+        mScanSession.isRecentlyRejected(QR_CODE);
+        mScanSession.isRecentlyRejected(OTHER_QR_CODE);
+
+        assertThat(mScanSession.getValidationCount()).isEqualTo(3);
+        assertThat(mScanSession.getSkippedValidationCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void onScanStarted_forgetsRejectedQrCode() {
+        mScanSession.onRejected(QR_CODE);
+
+        mScanSession.onScanStarted();
+
+        assertThat(mScanSession.isRecentlyRejected(QR_CODE)).isFalse();
+    }
+}
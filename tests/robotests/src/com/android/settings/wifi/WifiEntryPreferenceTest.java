@@ -20,6 +20,7 @@ import static com.google.common.truth.Truth.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.spy;
@@ -163,6 +164,29 @@ public class WifiEntryPreferenceTest {
         verify(mPref).setSummary(anyString());
     }
 
+    @Test
+    public void setWifiEntry_differentEntry_detachesListenerFromPreviousEntry() {
+        final WifiEntry newWifiEntry = mock(WifiEntry.class);
+        final WifiEntryPreference pref =
+                new WifiEntryPreference(mContext, mMockWifiEntry, mMockIconInjector);
+
+        pref.setWifiEntry(newWifiEntry);
+
+        verify(mMockWifiEntry).setListener(null);
+        verify(newWifiEntry).setListener(pref);
+        assertThat(pref.getWifiEntry()).isSameInstanceAs(newWifiEntry);
+    }
+
+    @Test
+    public void setWifiEntry_sameEntry_keepsListener() {
+        final WifiEntryPreference pref =
+                new WifiEntryPreference(mContext, mMockWifiEntry, mMockIconInjector);
+
+        pref.setWifiEntry(mMockWifiEntry);
+
+        verify(mMockWifiEntry, never()).setListener(null);
+    }
+
     @Test
     public void titleChanged_refresh_shouldUpdateTitle() {
         final String updatedTitle = "updated title";
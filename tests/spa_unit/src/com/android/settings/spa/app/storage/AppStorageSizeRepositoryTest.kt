@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2025 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.settings.spa.app.storage
+
+import android.content.Context
+import android.content.pm.ApplicationInfo
+import androidx.test.core.app.ApplicationProvider
+import androidx.test.ext.junit.runners.AndroidJUnit4
+import com.android.settingslib.spa.testutils.firstWithTimeoutOrNull
+import com.android.settingslib.spaprivileged.model.app.AppStorageRepository
+import com.google.common.truth.Truth.assertThat
+import kotlinx.coroutines.CoroutineScope
+import kotlinx.coroutines.test.StandardTestDispatcher
+import kotlinx.coroutines.test.advanceUntilIdle
+import kotlinx.coroutines.test.runTest
+import org.junit.Test
+import org.junit.runner.RunWith
+import org.mockito.kotlin.any
+import org.mockito.kotlin.doReturn
+import org.mockito.kotlin.mock
+import org.mockito.kotlin.stub
+import org.mockito.kotlin.times
+import org.mockito.kotlin.verify
+
+@RunWith(AndroidJUnit4::class)
+class AppStorageSizeRepositoryTest {
+    private val context: Context = ApplicationProvider.getApplicationContext()
+
+    private val sharedPreferences =
+        context.getSharedPreferences("app_storage_sizes_test", Context.MODE_PRIVATE)
+
+    private val appStorageRepository = mock<AppStorageRepository> {
+        on { calculateSizeBytes(APP) } doReturn SIZE
+        on { calculateSizeBytes(APP2) } doReturn null
+    }
+
+    private val repository = AppStorageSizeRepository(appStorageRepository, sharedPreferences)
+
+    @Test
+    fun calculateSizeBytes_returnsCalculatedSizes() = runTest {
+        val sizes = repository.calculateSizeBytes(listOf(APP, APP2))
+
+        assertThat(sizes).containsExactly(APP, SIZE)
+    }
+
+    @Test
+    fun calculateSizeBytes_manyApps_queriesEachAppOnce() = runTest {
+        val apps = (0..AppStorageSizeRepository.BATCH_SIZE * 2).map { index ->
+            ApplicationInfo().apply { packageName = "package.name$index" }
+        }
+
+        repository.calculateSizeBytes(apps)
+
+        verify(appStorageRepository, times(apps.size)).calculateSizeBytes(any())
+    }
+
+    @Test
+    fun getCachedSizeBytes_afterCalculation_persisted() = runTest {
+        repository.calculateSizeBytes(listOf(APP))
+
+        val newRepository = AppStorageSizeRepository(
+            appStorageRepository = appStorageRepository,
+            sharedPreferences = sharedPreferences,
+            coroutineScope = CoroutineScope(StandardTestDispatcher(testScheduler)),
+        )
+        advanceUntilIdle()
+
+        assertThat(newRepository.getCachedSizeBytes(APP)).isEqualTo(SIZE)
+    }
+
+    @Test
+    fun getCachedSizeBytes_persistedSizesNotLoadedYet_returnNull() = runTest {
+        repository.calculateSizeBytes(listOf(APP))
+
+        val newRepository = AppStorageSizeRepository(
+            appStorageRepository = appStorageRepository,
+            sharedPreferences = sharedPreferences,
+            coroutineScope = CoroutineScope(StandardTestDispatcher(testScheduler)),
+        )
+
+        assertThat(newRepository.getCachedSizeBytes(APP)).isNull()
+    }
+
+    @Test
+    fun sizeBytesFlow_persistedSizes_emitsSizeOnceLoaded() = runTest {
+        repository.calculateSizeBytes(listOf(APP))
+
+        val newRepository = AppStorageSizeRepository(appStorageRepository, sharedPreferences)
+
+        assertThat(newRepository.sizeBytesFlow(APP).firstWithTimeoutOrNull()).isEqualTo(SIZE)
+    }
+
+    @Test
+    fun getCachedSizeBytes_appUpdated_returnNull() = runTest {
+        repository.calculateSizeBytes(listOf(APP))
+
+        val updatedApp = ApplicationInfo(APP).apply { longVersionCode = 2 }
+
+        assertThat(repository.getCachedSizeBytes(updatedApp)).isNull()
+    }
+
+    @Test
+    fun getCachedSizeBytes_appUninstalled_returnNull() = runTest {
+        repository.calculateSizeBytes(listOf(APP))
+
+        repository.calculateSizeBytes(listOf(APP2))
+
+        assertThat(repository.getCachedSizeBytes(APP)).isNull()
+    }
+
+    @Test
+    fun calculateSizeBytes_singleApp_keepsOtherSizes() = runTest {
+        repository.calculateSizeBytes(listOf(APP))
+        appStorageRepository.stub { on { calculateSizeBytes(APP3) } doReturn SIZE3 }
+
+        val size = repository.calculateSizeBytes(APP3)
+
+        assertThat(size).isEqualTo(SIZE3)
+        assertThat(repository.getCachedSizeBytes(APP3)).isEqualTo(SIZE3)
+        assertThat(repository.getCachedSizeBytes(APP)).isEqualTo(SIZE)
+    }
+
+    @Test
+    fun sizeBytesFlow_afterCalculation_emitsSize() = runTest {
+        repository.calculateSizeBytes(listOf(APP))
+
+        assertThat(repository.sizeBytesFlow(APP).firstWithTimeoutOrNull()).isEqualTo(SIZE)
+    }
+
+    private companion object {
+        const val SIZE = 100L
+        const val SIZE3 = 300L
+        val APP = ApplicationInfo().apply {
+            packageName = "app.package.name"
+            longVersionCode = 1
+        }
+        val APP2 = ApplicationInfo().apply {
+            packageName = "app.package.name2"
+            longVersionCode = 1
+        }
+        val APP3 = ApplicationInfo().apply {
+            packageName = "app.package.name3"
+            longVersionCode = 1
+        }
+    }
+}
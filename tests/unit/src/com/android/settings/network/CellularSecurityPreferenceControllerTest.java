@@ -25,13 +25,16 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.when;
 
 import android.content.Context;
 import android.content.Intent;
+import android.content.pm.PackageManager;
 import android.os.Build;
 import android.safetycenter.SafetyCenterManager;
+import android.telephony.SubscriptionInfo;
 import android.telephony.TelephonyManager;
 
 import androidx.preference.Preference;
@@ -41,6 +44,7 @@ import androidx.test.core.app.ApplicationProvider;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import androidx.test.platform.app.InstrumentationRegistry;
 
+import org.junit.After;
 import org.junit.Assume;
 import org.junit.Before;
 import org.junit.Test;
@@ -48,10 +52,15 @@ import org.junit.runner.RunWith;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 
+import java.util.ArrayList;
+import java.util.List;
+
 @RunWith(AndroidJUnit4.class)
 public final class CellularSecurityPreferenceControllerTest {
     @Mock
     private TelephonyManager mTelephonyManager;
+    @Mock
+    private PackageManager mPackageManager;
     private Preference mPreference;
     private PreferenceScreen mPreferenceScreen;
 
@@ -83,6 +92,11 @@ public final class CellularSecurityPreferenceControllerTest {
         mPreferenceScreen.addPreference(mPreference);
     }
 
+    @After
+    public void tearDown() {
+        SubscriptionUtil.setAvailableSubscriptionsForTesting(null);
+    }
+
     @Test
     public void getAvailabilityStatus_hardwareSupported_shouldReturnTrue() {
         // Hardware support is enabled
@@ -121,4 +135,56 @@ public final class CellularSecurityPreferenceControllerTest {
 
         assertThat(mController.getAvailabilityStatus()).isEqualTo(UNSUPPORTED_ON_DEVICE);
     }
+
+    @Test
+    public void onSubscriptionsChanged_inAvailabilityPass_reevaluatesAvailability() {
+        setUpAvailable();
+        mController.startAvailabilityPass();
+        assertThat(mController.isAvailable()).isTrue();
+
+        SubscriptionUtil.setAvailableSubscriptionsForTesting(new ArrayList<>());
+        assertThat(mController.isAvailable()).isTrue();
+        mController.onSubscriptionsChanged();
+
+        assertThat(mController.isAvailable()).isFalse();
+        mController.finishAvailabilityPass();
+    }
+
+    @Test
+    public void onSubscriptionsChanged_noSubscription_hidesPreference() {
+        setUpAvailable();
+        mController.displayPreference(mPreferenceScreen);
+
+        SubscriptionUtil.setAvailableSubscriptionsForTesting(new ArrayList<>());
+        mController.onSubscriptionsChanged();
+
+        assertThat(mPreference.isVisible()).isFalse();
+    }
+
+    @Test
+    public void onAirplaneModeChanged_inAvailabilityPass_reevaluatesAvailability() {
+        setUpAvailable();
+        mController.startAvailabilityPass();
+        assertThat(mController.isAvailable()).isTrue();
+
+        doThrow(new UnsupportedOperationException("test")).when(mTelephonyManager)
+                .isNullCipherAndIntegrityPreferenceEnabled();
+        doThrow(new UnsupportedOperationException("test")).when(mTelephonyManager)
+                .isNullCipherNotificationsEnabled();
+        mController.onAirplaneModeChanged(true);
+
+        assertThat(mController.isAvailable()).isFalse();
+        mController.finishAvailabilityPass();
+    }
+
+    private void setUpAvailable() {
+        when(mContext.getPackageManager()).thenReturn(mPackageManager);
+        when(mPackageManager.hasSystemFeature(PackageManager.FEATURE_TELEPHONY)).thenReturn(true);
+        SubscriptionUtil.setAvailableSubscriptionsForTesting(
+                List.of(mock(SubscriptionInfo.class)));
+        doReturn(true).when(mTelephonyManager).isNullCipherNotificationsEnabled();
+        doReturn(true).when(mTelephonyManager)
+                .isCellularIdentifierDisclosureNotificationsEnabled();
+        doReturn(true).when(mTelephonyManager).isNullCipherAndIntegrityPreferenceEnabled();
+    }
 }
@@ -72,6 +72,20 @@ public class SliceDataTest {
         assertThat(data.isPublicSlice()).isEqualTo(true);
     }
 
+    @Test
+    public void testBuilder_keepsUriString() {
+        SliceData data = new SliceData.Builder()
+                .setKey(KEY)
+                .setTitle(TITLE)
+                .setFragmentName(FRAGMENT_NAME)
+                .setUri(URI)
+                .setPreferenceControllerClassName(PREF_CONTROLLER)
+                .build();
+
+        assertThat(data.getUriString()).isEqualTo(URI.toString());
+        assertThat(data.getUri()).isEqualTo(URI);
+    }
+
     @Test(expected = SliceData.InvalidSliceDataException.class)
     public void testBuilder_noKey_throwsIllegalStateException() {
         new SliceData.Builder()
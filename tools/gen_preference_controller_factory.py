@@ -0,0 +1,202 @@
+#!/usr/bin/env python3
+#
+# Copyright (C) 2025 The Android Open Source Project
+#
+# Licensed under the Apache License, Version 2.0 (the "License");
+# you may not use this file except in compliance with the License.
+# You may obtain a copy of the License at
+#
+#      http://www.apache.org/licenses/LICENSE-2.0
+#
+# Unless required by applicable law or agreed to in writing, software
+# distributed under the License is distributed on an "AS IS" BASIS,
+# WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+# See the License for the specific language governing permissions and
+# limitations under the License.
+
+"""Generates GeneratedPreferenceControllerFactory.java.
+
+Collects every settings:controller declared in the given preference xml files, finds the public
+Context or (Context, String) constructor of each BasePreferenceController in the Java sources
+next to the xml resources and emits a factory calling those constructors directly. Controllers
+that can't be resolved here (Kotlin sources, nested classes, non public constructors) are left
+out and still go through reflection at runtime.
+"""
+
+import argparse
+import os
+import re
+import sys
+
+CONTROLLER_ATTR = re.compile(r'settings:controller\s*=\s*"([^"]+)"')
+ANNOTATION = r'(?:@[\w.]+\s+)*'
+PARAM_NAME = r'\w+'
+
+PACKAGE = 'com.android.settings.core'
+BASE_CONTROLLER = PACKAGE + '.BasePreferenceController'
+MAX_CLASS_DEPTH = 16
+CLASS_NAME = 'GeneratedPreferenceControllerFactory'
+
+
+def find_controllers(xml_files):
+    controllers = set()
+    for xml_file in xml_files:
+        with open(xml_file, encoding='utf-8') as f:
+            controllers.update(CONTROLLER_ATTR.findall(f.read()))
+    return sorted(controllers)
+
+
+def find_source(src_roots, class_name):
+    relative_path = class_name.replace('.', os.sep) + '.java'
+    for src_root in src_roots:
+        path = os.path.join(src_root, relative_path)
+        if os.path.isfile(path):
+            return path
+    return None
+
+
+def read_source(src_roots, class_name):
+    path = find_source(src_roots, class_name)
+    if path is None:
+        return None
+    with open(path, encoding='utf-8') as f:
+        return f.read()
+
+
+def find_super_class(source, class_name):
+    package, simple_name = class_name.rsplit('.', 1)
+    match = re.search(r'\bclass\s+%s\b[^{]*?\bextends\s+([\w.]+)' % simple_name, source,
+            re.DOTALL)
+    if match is None:
+        return None
+    super_class = match.group(1)
+    if '.' in super_class:
+        return super_class
+    imported = re.search(r'^import\s+([\w.]+\.%s)\s*;' % super_class, source, re.MULTILINE)
+    if imported is not None:
+        return imported.group(1)
+    return package + '.' + super_class
+
+
+def is_base_preference_controller(src_roots, class_name, source):
+    """Walks the superclasses found in the sources up to BasePreferenceController."""
+    for _ in range(MAX_CLASS_DEPTH):
+        super_class = find_super_class(source, class_name)
+        if super_class is None:
+            return False
+        if super_class == BASE_CONTROLLER:
+            return True
+        source = read_source(src_roots, super_class)
+        if source is None:
+            return False
+        class_name = super_class
+    return False
+
+
+def find_constructors(source, simple_name):
+    """Returns (has_context_constructor, has_context_key_constructor)."""
+    if not re.search(r'\bpublic\s+(?:final\s+)?class\s+%s\b' % simple_name, source):
+        return False, False
+    prefix = r'\bpublic\s+%s\s*\(\s*%s(?:android\.content\.)?Context\s+%s' % (
+            simple_name, ANNOTATION, PARAM_NAME)
+    has_context = re.search(prefix + r'\s*\)', source) is not None
+    has_context_key = re.search(
+            prefix + r'\s*,\s*%s(?:java\.lang\.)?String\s+%s\s*\)' % (ANNOTATION, PARAM_NAME),
+            source) is not None
+    return has_context, has_context_key
+
+
+def generate(controllers):
+    context_cases = []
+    context_key_cases = []
+    for class_name, has_context, has_context_key in controllers:
+        if has_context:
+            context_cases.append(
+                    '            case "%s":\n                return new %s(context);\n'
+                    % (class_name, class_name))
+        if has_context_key:
+            context_key_cases.append(
+                    '            case "%s":\n                return new %s(context, key);\n'
+                    % (class_name, class_name))
+    # A switch label needs at least one case before the return, so an empty factory only keeps
+    # the default branch.
+    registered_cases = ''.join(
+            '            case "%s":\n' % class_name for class_name, _, _ in controllers)
+    if registered_cases:
+        registered_cases += '                return true;\n'
+
+    return '''// Generated by tools/gen_preference_controller_factory.py. DO NOT EDIT.
+package %(package)s;
+
+import android.content.Context;
+
+/**
+ * Creates the preference controllers declared in xml with direct constructor calls.
+ */
+final class %(class_name)s {
+
+    private %(class_name)s() {}
+
+    /** Returns whether {@code controllerName} can be created by this factory. */
+    static boolean isRegistered(String controllerName) {
+        switch (controllerName) {
+%(registered_cases)s            default:
+                return false;
+        }
+    }
+
+    /** Returns a controller created with its Context constructor, or null if there is none. */
+    static BasePreferenceController newInstance(Context context, String controllerName) {
+        switch (controllerName) {
+%(context_cases)s            default:
+                return null;
+        }
+    }
+
+    /** Returns a controller created with its (Context, String) constructor, or null. */
+    static BasePreferenceController newInstance(Context context, String controllerName,
+            String key) {
+        switch (controllerName) {
+%(context_key_cases)s            default:
+                return null;
+        }
+    }
+}
+''' % {
+        'package': PACKAGE,
+        'class_name': CLASS_NAME,
+        'registered_cases': registered_cases,
+        'context_cases': ''.join(context_cases),
+        'context_key_cases': ''.join(context_key_cases),
+    }
+
+
+def main():
+    parser = argparse.ArgumentParser(description=__doc__)
+    parser.add_argument('--out', required=True, help='generated java file')
+    parser.add_argument('xml_files', nargs='+', help='preference xml files')
+    args = parser.parse_args()
+
+    # Sources live next to the resource directory, i.e. <root>/res/xml/foo.xml -> <root>/src.
+    src_roots = sorted({
+        os.path.join(os.path.dirname(os.path.dirname(os.path.dirname(xml_file))), 'src')
+        for xml_file in args.xml_files
+    })
+
+    controllers = []
+    for class_name in find_controllers(args.xml_files):
+        source = read_source(src_roots, class_name)
+        if source is None or not is_base_preference_controller(src_roots, class_name, source):
+            continue
+        has_context, has_context_key = find_constructors(
+                source, class_name.rsplit('.', 1)[-1])
+        if has_context or has_context_key:
+            controllers.append((class_name, has_context, has_context_key))
+
+    with open(args.out, 'w', encoding='utf-8') as f:
+        f.write(generate(controllers))
+    return 0
+
+
+if __name__ == '__main__':
+    sys.exit(main())
@@ -0,0 +1,77 @@
+#!/usr/bin/env python3
+#
+# Copyright (C) 2025 The Android Open Source Project
+#
+# Licensed under the Apache License, Version 2.0 (the "License");
+# you may not use this file except in compliance with the License.
+# You may obtain a copy of the License at
+#
+#      http://www.apache.org/licenses/LICENSE-2.0
+#
+# Unless required by applicable law or agreed to in writing, software
+# distributed under the License is distributed on an "AS IS" BASIS,
+# WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+# See the License for the specific language governing permissions and
+# limitations under the License.
+
+"""Tests for gen_preference_controller_factory."""
+
+import re
+import unittest
+
+import gen_preference_controller_factory as gen
+
+CONTROLLER = 'com.android.settings.FooPreferenceController'
+
+
+def get_method(java, name):
+    match = re.search(r'static \w+ %s\(.*?\n    }\n' % name, java, re.DOTALL)
+    return match.group(0)
+
+
+class GenerateTest(unittest.TestCase):
+
+    def test_no_controllers_only_keeps_default_branches(self):
+        java = gen.generate([])
+
+        is_registered = get_method(java, 'isRegistered')
+        self.assertNotIn('case ', is_registered)
+        self.assertNotIn('return true;', is_registered)
+        self.assertIn('default:\n                return false;', is_registered)
+        self.assertNotIn('case ', java)
+
+    def test_controllers_registered_before_return_true(self):
+        java = gen.generate([(CONTROLLER, True, False)])
+
+        self.assertIn(
+                '            case "%s":\n                return true;\n' % CONTROLLER,
+                get_method(java, 'isRegistered'))
+
+    def test_constructors_emitted_only_when_found(self):
+        java = gen.generate([(CONTROLLER, False, True)])
+
+        self.assertNotIn('new %s(context);' % CONTROLLER, java)
+        self.assertIn('return new %s(context, key);' % CONTROLLER, java)
+
+
+class FindConstructorsTest(unittest.TestCase):
+
+    def test_public_context_and_key_constructors(self):
+        source = '''
+public class FooPreferenceController extends BasePreferenceController {
+    public FooPreferenceController(@NonNull Context context) {}
+    public FooPreferenceController(Context context, String key) {}
+}
+'''
+        self.assertEqual(gen.find_constructors(source, 'FooPreferenceController'),
+                         (True, True))
+
+    def test_non_public_class(self):
+        source = 'class FooPreferenceController {\n    public FooPreferenceController(' \
+                'Context context) {}\n}\n'
+        self.assertEqual(gen.find_constructors(source, 'FooPreferenceController'),
+                         (False, False))
+
+
+if __name__ == '__main__':
+    unittest.main()